@@ -0,0 +1,86 @@
+package com.moyajor.springinaction.archive;
+
+import com.moyajor.springinaction.data.jdbc.JdbcOrderArchiveRepository;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.context.annotation.Profile;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.util.Date;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Moves orders older than {@code taco.archive.age-days} out of the live order
+ * tables. Each batch is archived in its own short transaction and the job
+ * sleeps between batches so it never holds locks for long or competes with
+ * order placement for the whole run. Orders the sales rollup has not
+ * counted yet stay live until it has.
+ */
+@Slf4j
+@Component
+@Profile({"jdbc", "jpa"})
+@ConfigurationProperties(prefix = "taco.archive")
+public class OrderArchiver {
+
+    private int ageDays = 90;
+    private int batchSize = 500;
+    private long pauseMillis = 200;
+    private int maxBatchesPerRun = 200;
+
+    private final JdbcOrderArchiveRepository archiveRepo;
+    private final TransactionTemplate transactionTemplate;
+
+    public OrderArchiver(JdbcOrderArchiveRepository archiveRepo, TransactionTemplate transactionTemplate) {
+        this.archiveRepo = archiveRepo;
+        this.transactionTemplate = transactionTemplate;
+    }
+
+    public void setAgeDays(int ageDays) {
+        this.ageDays = ageDays;
+    }
+
+    public void setBatchSize(int batchSize) {
+        this.batchSize = batchSize;
+    }
+
+    public void setPauseMillis(long pauseMillis) {
+        this.pauseMillis = pauseMillis;
+    }
+
+    public void setMaxBatchesPerRun(int maxBatchesPerRun) {
+        this.maxBatchesPerRun = maxBatchesPerRun;
+    }
+
+    @Scheduled(cron = "${taco.archive.cron:0 30 3 * * *}")
+    public void archiveColdOrders() {
+        Date cutoff = new Date(System.currentTimeMillis() - TimeUnit.DAYS.toMillis(ageDays));
+        long start = System.currentTimeMillis();
+        int archived = 0;
+        for (int batch = 0; batch < maxBatchesPerRun; batch++) {
+            Integer moved = transactionTemplate.execute(status -> {
+                List<Long> orderIds = archiveRepo.findIdsPlacedBefore(cutoff, batchSize);
+                return archiveRepo.archive(orderIds);
+            });
+            archived += moved;
+            if (moved < batchSize || !pause()) {
+                break;
+            }
+        }
+        if (archived > 0) {
+            log.info("Archived {} orders placed before {} in {} ms", archived, cutoff, System.currentTimeMillis() - start);
+        }
+    }
+
+    private boolean pause() {
+        try {
+            Thread.sleep(pauseMillis);
+            return true;
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            return false;
+        }
+    }
+}
@@ -0,0 +1,58 @@
+package com.moyajor.springinaction.archive;
+
+import java.io.ByteArrayOutputStream;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Packs the taco ids of an archived order into a single column: each id is
+ * written as the zigzag encoded difference from the previous one, as an
+ * unsigned varint. Tacos designed for one order are created together, so
+ * most deltas fit in a single byte.
+ */
+public final class TacoIdCodec {
+
+    private TacoIdCodec() {
+    }
+
+    public static byte[] encode(List<Long> tacoIds) {
+        ByteArrayOutputStream out = new ByteArrayOutputStream(tacoIds.size() * 2);
+        long previous = 0;
+        for (Long id : tacoIds) {
+            long delta = id - previous;
+            writeVarint(out, (delta << 1) ^ (delta >> 63));
+            previous = id;
+        }
+        return out.toByteArray();
+    }
+
+    public static List<Long> decode(byte[] encoded) {
+        List<Long> tacoIds = new ArrayList<>();
+        long previous = 0;
+        int pos = 0;
+        while (pos < encoded.length) {
+            long value = 0;
+            int shift = 0;
+            byte b;
+            do {
+                if (pos == encoded.length) {
+                    throw new IllegalArgumentException("Truncated taco id list");
+                }
+                b = encoded[pos++];
+                value |= (long) (b & 0x7f) << shift;
+                shift += 7;
+            } while ((b & 0x80) != 0);
+            previous += (value >>> 1) ^ -(value & 1);
+            tacoIds.add(previous);
+        }
+        return tacoIds;
+    }
+
+    private static void writeVarint(ByteArrayOutputStream out, long value) {
+        while ((value & ~0x7fL) != 0) {
+            out.write((int) ((value & 0x7f) | 0x80));
+            value >>>= 7;
+        }
+        out.write((int) value);
+    }
+}
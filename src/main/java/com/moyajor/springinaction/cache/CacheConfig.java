@@ -0,0 +1,20 @@
+package com.moyajor.springinaction.cache;
+
+import org.springframework.cache.annotation.EnableCaching;
+import org.springframework.context.annotation.Configuration;
+
+@Configuration
+@EnableCaching
+public class CacheConfig {
+
+    public static final String INGREDIENTS = "ingredients";
+    /**
+     * A lookup that misses throws instead of caching the miss, so new users
+     * need no invalidation. The application bumps the region's Cache_Version
+     * when it deletes or changes users; roles granted or revoked with SQL take
+     * effect once {@link CacheInvalidationPoller} expires the region, every
+     * {@code taco.cache.users-ttl}, which also bounds it to recently active users.
+     */
+    public static final String USERS = "users";
+    public static final String RECENT_TACOS = "recentTacos";
+}
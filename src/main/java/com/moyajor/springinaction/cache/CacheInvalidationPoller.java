@@ -0,0 +1,64 @@
+package com.moyajor.springinaction.cache;
+
+import com.moyajor.springinaction.data.jdbc.JdbcCacheVersionRepository;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.cache.Cache;
+import org.springframework.cache.CacheManager;
+import org.springframework.context.annotation.Profile;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import javax.annotation.PostConstruct;
+import java.util.HashMap;
+import java.util.Map;
+
+/**
+ * Keeps local caches in step with the other nodes: writers bump the version
+ * of a region in Cache_Version, and every node reads that table on a short
+ * interval and clears the regions whose version moved. The users region is
+ * also cleared outright every {@code taco.cache.users-ttl}, see
+ * {@link CacheConfig#USERS}.
+ */
+@Slf4j
+@Component
+@Profile({"jdbc", "jpa"})
+public class CacheInvalidationPoller {
+
+    private final JdbcCacheVersionRepository versionRepo;
+    private final CacheManager cacheManager;
+    private Map<String, Long> seenVersions = new HashMap<>();
+
+    public CacheInvalidationPoller(JdbcCacheVersionRepository versionRepo, CacheManager cacheManager) {
+        this.versionRepo = versionRepo;
+        this.cacheManager = cacheManager;
+    }
+
+    @PostConstruct
+    public void recordBaseline() {
+        seenVersions = versionRepo.findAll();
+    }
+
+    @Scheduled(fixedDelayString = "${taco.cache.poll-interval:1000}")
+    public synchronized void poll() {
+        Map<String, Long> versions = versionRepo.findAll();
+        for (Map.Entry<String, Long> version : versions.entrySet()) {
+            if (!version.getValue().equals(seenVersions.get(version.getKey()))) {
+                evict(version.getKey());
+            }
+        }
+        seenVersions = versions;
+    }
+
+    @Scheduled(fixedDelayString = "${taco.cache.users-ttl:60000}")
+    public void expireUsers() {
+        evict(CacheConfig.USERS);
+    }
+
+    private void evict(String region) {
+        Cache cache = cacheManager.getCache(region);
+        if (cache != null) {
+            cache.clear();
+            log.debug("Cleared cache region {} after a remote write", region);
+        }
+    }
+}
@@ -0,0 +1,155 @@
+package com.moyajor.springinaction.cache;
+
+import com.moyajor.springinaction.data.OrderRepository;
+import com.moyajor.springinaction.data.OrderSavedEvent;
+import com.moyajor.springinaction.model.db.Order;
+import com.moyajor.springinaction.model.db.User;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.context.annotation.Profile;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.event.TransactionalEventListener;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Read-through cache of the first order history page per user, bounded by
+ * the estimated size of the cached entries rather than their number and
+ * evicting the least recently viewed user first. Saved orders are written
+ * through to the owner's cached page; a page loaded while an order for the
+ * same user was being saved is discarded instead of cached, so a cached page
+ * never misses an order.
+ */
+@Component
+@Profile({"jdbc", "jpa"})
+@ConfigurationProperties(prefix = "taco.cache.history")
+public class OrderHistoryCache {
+
+    private static final int PAGE_OVERHEAD = 64;
+
+    private long maxBytes = 16 * 1024 * 1024;
+
+    private final Map<Long, Page> pages = new LinkedHashMap<>(256, 0.75f, true);
+    private final Map<Long, Long> loading = new HashMap<>();
+    private final OrderRepository orderRepo;
+    private final Counter hits;
+    private final Counter misses;
+    private long bytes;
+    private long loadGeneration;
+
+    public OrderHistoryCache(OrderRepository orderRepo, MeterRegistry meterRegistry) {
+        this.orderRepo = orderRepo;
+        this.hits = meterRegistry.counter("taco.cache.history.requests", "result", "hit");
+        this.misses = meterRegistry.counter("taco.cache.history.requests", "result", "miss");
+        meterRegistry.gauge("taco.cache.history.bytes", this, OrderHistoryCache::estimatedBytes);
+        meterRegistry.gauge("taco.cache.history.users", this, OrderHistoryCache::size);
+        meterRegistry.gauge("taco.cache.history.hit.ratio", this, OrderHistoryCache::hitRatio);
+    }
+
+    public void setMaxBytes(long maxBytes) {
+        this.maxBytes = maxBytes;
+    }
+
+    public List<OrderHistoryEntry> firstPage(User user, int pageSize) {
+        long generation;
+        synchronized (this) {
+            Page page = pages.get(user.getId());
+            if (page != null && page.pageSize == pageSize) {
+                hits.increment();
+                return page.entries;
+            }
+            generation = ++loadGeneration;
+            loading.put(user.getId(), generation);
+        }
+        misses.increment();
+        List<OrderHistoryEntry> entries = new ArrayList<>();
+        for (Order order : orderRepo.findByUserOrderByPlacedAtDesc(user, PageRequest.of(0, pageSize))) {
+            entries.add(OrderHistoryEntry.of(order));
+        }
+        List<OrderHistoryEntry> loaded = Collections.unmodifiableList(entries);
+        synchronized (this) {
+            if (Long.valueOf(generation).equals(loading.get(user.getId()))) {
+                loading.remove(user.getId());
+                put(user.getId(), new Page(loaded, pageSize));
+            }
+        }
+        return loaded;
+    }
+
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onOrderSaved(OrderSavedEvent event) {
+        Order order = event.getOrder();
+        if (order.getUser() == null || order.getUser().getId() == null) {
+            return;
+        }
+        Long userId = order.getUser().getId();
+        OrderHistoryEntry entry = OrderHistoryEntry.of(order);
+        synchronized (this) {
+            loading.remove(userId);
+            Page page = pages.remove(userId);
+            if (page == null) {
+                return;
+            }
+            bytes -= page.bytes;
+            List<OrderHistoryEntry> entries = new ArrayList<>(page.pageSize);
+            entries.add(entry);
+            for (OrderHistoryEntry cached : page.entries) {
+                if (entries.size() == page.pageSize) {
+                    break;
+                }
+                entries.add(cached);
+            }
+            put(userId, new Page(Collections.unmodifiableList(entries), page.pageSize));
+        }
+    }
+
+    public synchronized long estimatedBytes() {
+        return bytes;
+    }
+
+    public synchronized int size() {
+        return pages.size();
+    }
+
+    public double hitRatio() {
+        double requests = hits.count() + misses.count();
+        return requests == 0 ? 0 : hits.count() / requests;
+    }
+
+    private void put(Long userId, Page page) {
+        Page previous = pages.put(userId, page);
+        if (previous != null) {
+            bytes -= previous.bytes;
+        }
+        bytes += page.bytes;
+        Iterator<Page> eldest = pages.values().iterator();
+        while (bytes > maxBytes && eldest.hasNext()) {
+            bytes -= eldest.next().bytes;
+            eldest.remove();
+        }
+    }
+
+    private static final class Page {
+        private final List<OrderHistoryEntry> entries;
+        private final int pageSize;
+        private final long bytes;
+
+        Page(List<OrderHistoryEntry> entries, int pageSize) {
+            this.entries = entries;
+            this.pageSize = pageSize;
+            long size = PAGE_OVERHEAD;
+            for (OrderHistoryEntry entry : entries) {
+                size += entry.estimatedBytes();
+            }
+            this.bytes = size;
+        }
+    }
+}
@@ -0,0 +1,53 @@
+package com.moyajor.springinaction.cache;
+
+import com.moyajor.springinaction.model.db.Order;
+import com.moyajor.springinaction.model.db.Taco;
+import lombok.Value;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+
+/**
+ * Immutable line of a user's order history, holding only what the history
+ * page shows.
+ */
+@Value
+public class OrderHistoryEntry {
+
+    private static final int OBJECT_OVERHEAD = 16;
+    private static final int REFERENCE = 8;
+    private static final int STRING_OVERHEAD = 40;
+
+    long id;
+    long placedAt;
+    String deliveryName;
+    List<String> tacoNames;
+
+    public static OrderHistoryEntry of(Order order) {
+        List<String> names = new ArrayList<>(order.getTacos().size());
+        for (Taco taco : order.getTacos()) {
+            names.add(taco.getName());
+        }
+        return new OrderHistoryEntry(order.getId(), order.getPlacedAt().getTime(), order.getName(),
+                Collections.unmodifiableList(names));
+    }
+
+    /**
+     * Approximate heap footprint, counting the entry, its strings and the
+     * name list on a 64-bit JVM.
+     */
+    public int estimatedBytes() {
+        int bytes = OBJECT_OVERHEAD + 2 * Long.BYTES + 2 * REFERENCE
+                + stringBytes(deliveryName)
+                + 2 * OBJECT_OVERHEAD + tacoNames.size() * REFERENCE;
+        for (String name : tacoNames) {
+            bytes += stringBytes(name);
+        }
+        return bytes;
+    }
+
+    private static int stringBytes(String value) {
+        return value == null ? 0 : STRING_OVERHEAD + 2 * value.length();
+    }
+}
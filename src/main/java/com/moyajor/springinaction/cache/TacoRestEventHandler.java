@@ -0,0 +1,37 @@
+package com.moyajor.springinaction.cache;
+
+import com.moyajor.springinaction.data.jdbc.JdbcCacheVersionRepository;
+import com.moyajor.springinaction.model.db.Taco;
+import org.springframework.cache.annotation.CacheEvict;
+import org.springframework.context.annotation.Profile;
+import org.springframework.data.rest.core.annotation.HandleAfterCreate;
+import org.springframework.data.rest.core.annotation.HandleAfterDelete;
+import org.springframework.data.rest.core.annotation.HandleAfterSave;
+import org.springframework.data.rest.core.annotation.RepositoryEventHandler;
+import org.springframework.stereotype.Component;
+
+/**
+ * Tacos written through the Spring Data REST endpoints bypass
+ * JdbcTacoRepository, so their recent-tacos invalidation happens here. Must
+ * be listed in {@code taco.startup.eager-beans}: Spring Data REST only finds
+ * handlers that exist when it starts.
+ */
+@Component
+@Profile({"jdbc", "jpa"})
+@RepositoryEventHandler(Taco.class)
+public class TacoRestEventHandler {
+
+    private final JdbcCacheVersionRepository cacheVersions;
+
+    public TacoRestEventHandler(JdbcCacheVersionRepository cacheVersions) {
+        this.cacheVersions = cacheVersions;
+    }
+
+    @HandleAfterCreate
+    @HandleAfterSave
+    @HandleAfterDelete
+    @CacheEvict(cacheNames = CacheConfig.RECENT_TACOS, allEntries = true)
+    public void tacoWritten(Taco taco) {
+        cacheVersions.bump(CacheConfig.RECENT_TACOS);
+    }
+}
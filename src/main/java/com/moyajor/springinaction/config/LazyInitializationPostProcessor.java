@@ -0,0 +1,58 @@
+package com.moyajor.springinaction.config;
+
+import org.springframework.beans.factory.config.BeanDefinition;
+import org.springframework.beans.factory.config.BeanFactoryPostProcessor;
+import org.springframework.beans.factory.config.ConfigurableListableBeanFactory;
+import org.springframework.context.EnvironmentAware;
+import org.springframework.core.annotation.AnnotatedElementUtils;
+import org.springframework.core.env.Environment;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.util.ClassUtils;
+import org.springframework.util.ReflectionUtils;
+
+import java.lang.reflect.Method;
+import java.util.Arrays;
+import java.util.HashSet;
+import java.util.Set;
+
+/**
+ * Marks the application's own components as lazy so they are created on
+ * first use instead of during boot. Beans listed in
+ * {@code taco.startup.eager-beans} keep being initialized at startup, as do
+ * beans with {@code @Scheduled} methods, which are only scheduled once created.
+ */
+public class LazyInitializationPostProcessor implements BeanFactoryPostProcessor, EnvironmentAware {
+
+    private static final String BASE_PACKAGE = "com.moyajor.springinaction.";
+
+    private Set<String> eagerBeans = new HashSet<>();
+
+    @Override
+    public void setEnvironment(Environment environment) {
+        String[] names = environment.getProperty("taco.startup.eager-beans", String[].class, new String[0]);
+        this.eagerBeans = new HashSet<>(Arrays.asList(names));
+    }
+
+    @Override
+    public void postProcessBeanFactory(ConfigurableListableBeanFactory beanFactory) {
+        for (String name : beanFactory.getBeanDefinitionNames()) {
+            BeanDefinition definition = beanFactory.getBeanDefinition(name);
+            String className = definition.getBeanClassName();
+            if (definition.getRole() != BeanDefinition.ROLE_APPLICATION || definition.isAbstract()
+                    || className == null || !className.startsWith(BASE_PACKAGE) || eagerBeans.contains(name)
+                    || hasScheduledMethods(ClassUtils.resolveClassName(className, beanFactory.getBeanClassLoader()))) {
+                continue;
+            }
+            definition.setLazyInit(true);
+        }
+    }
+
+    private boolean hasScheduledMethods(Class<?> beanClass) {
+        for (Method method : ReflectionUtils.getUniqueDeclaredMethods(beanClass)) {
+            if (AnnotatedElementUtils.hasAnnotation(method, Scheduled.class)) {
+                return true;
+            }
+        }
+        return false;
+    }
+}
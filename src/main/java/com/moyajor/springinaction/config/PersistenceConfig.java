@@ -0,0 +1,38 @@
+package com.moyajor.springinaction.config;
+
+import org.springframework.context.annotation.ComponentScan;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.context.annotation.FilterType;
+import org.springframework.context.annotation.Profile;
+import org.springframework.data.cassandra.repository.config.EnableReactiveCassandraRepositories;
+import org.springframework.data.jpa.repository.config.EnableJpaRepositories;
+import org.springframework.data.mongodb.repository.config.EnableReactiveMongoRepositories;
+
+/**
+ * Only the repositories of the backend selected through the active profile
+ * (jdbc, jpa, mongo or cassandra) are created; the matching auto-configuration
+ * exclusions live in the application-{profile}.properties files.
+ */
+@Configuration
+public class PersistenceConfig {
+
+    @Configuration
+    @Profile({"jdbc", "jpa"})
+    @EnableJpaRepositories(basePackages = "com.moyajor.springinaction.data",
+            excludeFilters = @ComponentScan.Filter(type = FilterType.REGEX,
+                    pattern = "com\\.moyajor\\.springinaction\\.data\\.(mongodb|cassandra)\\..*"))
+    static class RelationalRepositories {
+    }
+
+    @Configuration
+    @Profile("mongo")
+    @EnableReactiveMongoRepositories(basePackages = "com.moyajor.springinaction.data.mongodb")
+    static class MongoRepositories {
+    }
+
+    @Configuration
+    @Profile("cassandra")
+    @EnableReactiveCassandraRepositories(basePackages = "com.moyajor.springinaction.data.cassandra")
+    static class CassandraRepositories {
+    }
+}
@@ -8,6 +8,7 @@ import com.moyajor.springinaction.model.db.Order;
 import com.moyajor.springinaction.model.db.Taco;
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.context.annotation.Profile;
 import org.springframework.stereotype.Controller;
 import org.springframework.ui.Model;
 import org.springframework.validation.Errors;
@@ -19,6 +20,7 @@ import java.util.List;
 
 @Slf4j
 @Controller
+@Profile({"jdbc", "jpa"})
 @RequestMapping("/design")
 @SessionAttributes("order")
 public class DesignTacoController {
@@ -1,26 +1,35 @@
 package com.moyajor.springinaction.controller;
 
+import com.moyajor.springinaction.cache.OrderHistoryCache;
 import com.moyajor.springinaction.data.OrderRepository;
+import com.moyajor.springinaction.kitchen.KitchenDispatcher;
 import com.moyajor.springinaction.model.db.Order;
 import com.moyajor.springinaction.model.db.User;
+import com.moyajor.springinaction.orders.IdempotentOrderService;
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.boot.context.properties.ConfigurationProperties;
-import org.springframework.data.domain.PageRequest;
-import org.springframework.data.domain.Pageable;
+import org.springframework.context.annotation.Profile;
+import org.springframework.http.HttpStatus;
 import org.springframework.security.core.annotation.AuthenticationPrincipal;
 import org.springframework.stereotype.Controller;
 import org.springframework.ui.Model;
 import org.springframework.validation.Errors;
 import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.PathVariable;
 import org.springframework.web.bind.annotation.PostMapping;
+import org.springframework.web.bind.annotation.RequestHeader;
 import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RequestParam;
 import org.springframework.web.bind.annotation.SessionAttributes;
 import org.springframework.web.bind.support.SessionStatus;
+import org.springframework.web.server.ResponseStatusException;
 
 import javax.validation.Valid;
+import java.util.UUID;
 
 @Controller
+@Profile({"jdbc", "jpa"})
 @Slf4j
 @RequestMapping("/orders")
 @SessionAttributes("order")
@@ -36,29 +45,74 @@ public class OrderController {
     @Autowired
     private OrderRepository orderRepo;
 
+    @Autowired
+    private OrderHistoryCache orderHistory;
+
+    @Autowired
+    private IdempotentOrderService idempotentOrders;
+
+    @Autowired
+    private KitchenDispatcher kitchen;
+
     @GetMapping
     public String ordersForUser(
             @AuthenticationPrincipal User user, Model model) {
-        Pageable pageable = PageRequest.of(0, pageSize);
-        model.addAttribute("orders",
-                orderRepo.findByUserOrderByPlacedAtDesc(user, pageable));
+        model.addAttribute("orders", orderHistory.firstPage(user, pageSize));
         return "orderList";
     }
 
     @GetMapping("/current")
-    public String orderForm() {
+    public String orderForm(Model model) {
+        model.addAttribute("idempotencyKey", UUID.randomUUID().toString());
         return "orderForm";
     }
 
     @PostMapping
-    public String processOrder(@Valid Order order, Errors errors, SessionStatus sessionStatus) {
+    public String processOrder(@Valid Order order, Errors errors, SessionStatus sessionStatus,
+                               @RequestHeader(name = "Idempotency-Key", required = false) String headerKey,
+                               @RequestParam(name = "idempotencyKey", required = false) String formKey,
+                               @AuthenticationPrincipal User user, Model model) {
+        String idempotencyKey = headerKey != null ? headerKey : formKey;
         if (errors.hasErrors()) {
+            model.addAttribute("idempotencyKey", idempotencyKey);
             return "orderForm";
         }
 
-        orderRepo.save(order);
+        kitchen.checkCapacity();
+        order.setUser(user);
+        if (idempotencyKey == null) {
+            orderRepo.save(order);
+        } else {
+            if (idempotencyKey.length() > IdempotentOrderService.MAX_KEY_LENGTH) {
+                throw new ResponseStatusException(HttpStatus.BAD_REQUEST, "Idempotency key is too long");
+            }
+            idempotentOrders.submit(user.getId(), idempotencyKey, () -> orderRepo.save(order).getId());
+        }
         sessionStatus.setComplete();
         return "redirect:/";
     }
+
+    @PostMapping("/{id}/reorder")
+    public String reorder(@PathVariable("id") long orderId, @AuthenticationPrincipal User user,
+                          @RequestHeader(name = "Idempotency-Key", required = false) String idempotencyKey) {
+        kitchen.checkCapacity();
+        if (idempotencyKey == null) {
+            placeCopy(orderId, user);
+        } else {
+            if (idempotencyKey.length() > IdempotentOrderService.MAX_KEY_LENGTH) {
+                throw new ResponseStatusException(HttpStatus.BAD_REQUEST, "Idempotency key is too long");
+            }
+            idempotentOrders.submit(user.getId(), idempotencyKey, () -> placeCopy(orderId, user));
+        }
+        return "redirect:/orders";
+    }
+
+    private Long placeCopy(long orderId, User user) {
+        Order copy = orderRepo.reorder(orderId, user);
+        if (copy == null) {
+            throw new ResponseStatusException(HttpStatus.NOT_FOUND, "No order " + orderId);
+        }
+        return copy.getId();
+    }
 }
 
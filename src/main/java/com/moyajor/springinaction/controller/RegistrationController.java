@@ -1,24 +1,28 @@
 package com.moyajor.springinaction.controller;
 
 
-import com.moyajor.springinaction.data.UserRepository;
 import com.moyajor.springinaction.model.db.RegistrationForm;
-import org.springframework.security.crypto.password.PasswordEncoder;
+import com.moyajor.springinaction.security.RegistrationService;
+import com.moyajor.springinaction.security.RegistrationService.ProvisioningResult;
+import org.springframework.context.annotation.Profile;
 import org.springframework.stereotype.Controller;
 import org.springframework.web.bind.annotation.GetMapping;
 import org.springframework.web.bind.annotation.PostMapping;
+import org.springframework.web.bind.annotation.RequestBody;
 import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.ResponseBody;
+
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
 
 @Controller
+@Profile({"jdbc", "jpa"})
 @RequestMapping("/registration")
 public class RegistrationController {
 
-    private UserRepository userRepo;
-    private PasswordEncoder passwordEncoder;
-    public RegistrationController(
-            UserRepository userRepo, PasswordEncoder passwordEncoder) {
-        this.userRepo = userRepo;
-        this.passwordEncoder = passwordEncoder;
+    private RegistrationService registration;
+    public RegistrationController(RegistrationService registration) {
+        this.registration = registration;
     }
     @GetMapping
     public String registerForm() {
@@ -26,8 +30,13 @@ public class RegistrationController {
     }
 
     @PostMapping
-    public String processRegistration(RegistrationForm form) {
-        userRepo.save(form.toUser(passwordEncoder));
-        return "redirect:/login";
+    public CompletableFuture<String> processRegistration(RegistrationForm form) {
+        return registration.register(form).thenApply(user -> "redirect:/login");
+    }
+
+    @PostMapping(path = "/bulk", consumes = "application/json", produces = "application/json")
+    @ResponseBody
+    public CompletableFuture<ProvisioningResult> provisionUsers(@RequestBody List<RegistrationForm> forms) {
+        return registration.provision(forms);
     }
 }
@@ -0,0 +1,70 @@
+package com.moyajor.springinaction.data;
+
+import org.springframework.context.annotation.Profile;
+import org.springframework.jdbc.support.incrementer.DataFieldMaxValueIncrementer;
+import org.springframework.jdbc.support.incrementer.H2SequenceMaxValueIncrementer;
+import org.springframework.stereotype.Component;
+
+import javax.sql.DataSource;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+
+/**
+ * Hands out ids from blocks reserved on a database sequence (hi/lo). The
+ * sequences in schema.sql step by {@link #BLOCK_SIZE}, so one round trip
+ * reserves the next {@code BLOCK_SIZE} ids and rows can be inserted with their
+ * ids already known, which is what lets JDBC batch them. Both the JDBC
+ * repositories and the JPA entities (through {@link com.moyajor.springinaction.data.jpa.BlockIdGenerator},
+ * which receives it as a Hibernate setting) draw from the same instance; ids
+ * left in a block at shutdown are skipped.
+ */
+@Component
+@Profile({"jdbc", "jpa"})
+public class IdBlockAllocator {
+
+    public static final int BLOCK_SIZE = 50;
+    public static final String TACO_SEQUENCE = "Taco_Seq";
+    public static final String ORDER_SEQUENCE = "Taco_Order_Seq";
+
+    private final DataSource dataSource;
+    private final ConcurrentMap<String, Block> blocks = new ConcurrentHashMap<>();
+
+    public IdBlockAllocator(DataSource dataSource) {
+        this.dataSource = dataSource;
+    }
+
+    public long nextId(String sequence) {
+        return block(sequence).take();
+    }
+
+    public long[] nextIds(String sequence, int count) {
+        Block block = block(sequence);
+        long[] ids = new long[count];
+        for (int i = 0; i < count; i++) {
+            ids[i] = block.take();
+        }
+        return ids;
+    }
+
+    private Block block(String sequence) {
+        return blocks.computeIfAbsent(sequence, name -> new Block(new H2SequenceMaxValueIncrementer(dataSource, name)));
+    }
+
+    private static final class Block {
+        private final DataFieldMaxValueIncrementer incrementer;
+        private long next;
+        private long limit;
+
+        Block(DataFieldMaxValueIncrementer incrementer) {
+            this.incrementer = incrementer;
+        }
+
+        synchronized long take() {
+            if (next == limit) {
+                next = incrementer.nextLongValue();
+                limit = next + BLOCK_SIZE;
+            }
+            return next++;
+        }
+    }
+}
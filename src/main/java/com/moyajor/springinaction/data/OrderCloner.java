@@ -0,0 +1,49 @@
+package com.moyajor.springinaction.data;
+
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.SQLException;
+import java.sql.Timestamp;
+
+/**
+ * Copies a live order and its taco links with two set-based statements, so a
+ * reorder costs the same however many tacos the original held. Shared by the
+ * JDBC repository and the JPA repository fragment; callers provide the
+ * transaction.
+ */
+public final class OrderCloner {
+
+    private static final String CLONE_ORDER =
+            "insert into Taco_Order (id, deliveryName, deliveryStreet, deliveryCity, deliveryState, deliveryZip, " +
+                    "ccNumber, ccExpiration, ccCVV, placedAt, userId) " +
+                    "select ?, deliveryName, deliveryStreet, deliveryCity, deliveryState, deliveryZip, " +
+                    "ccNumber, ccExpiration, ccCVV, ?, userId from Taco_Order where id = ? and userId = ?";
+    private static final String CLONE_TACOS =
+            "insert into Taco_Order_Tacos (tacoOrder, taco) select ?, taco from Taco_Order_Tacos where tacoOrder = ?";
+
+    private OrderCloner() {
+    }
+
+    /**
+     * @param newOrderId id for the copy, taken from {@link IdBlockAllocator#ORDER_SEQUENCE}
+     * @return {@code false} when the user has no live order with the given id
+     */
+    public static boolean cloneOrder(Connection connection, long newOrderId, long orderId, long userId,
+                                     Timestamp placedAt) throws SQLException {
+        try (PreparedStatement insert = connection.prepareStatement(CLONE_ORDER)) {
+            insert.setLong(1, newOrderId);
+            insert.setTimestamp(2, placedAt);
+            insert.setLong(3, orderId);
+            insert.setLong(4, userId);
+            if (insert.executeUpdate() == 0) {
+                return false;
+            }
+        }
+        try (PreparedStatement insert = connection.prepareStatement(CLONE_TACOS)) {
+            insert.setLong(1, newOrderId);
+            insert.setLong(2, orderId);
+            insert.executeUpdate();
+        }
+        return true;
+    }
+}
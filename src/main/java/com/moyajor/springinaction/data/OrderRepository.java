@@ -10,4 +10,11 @@ public interface OrderRepository {
     Order save(Order order);
 
     List<Order> findByUserOrderByPlacedAtDesc(User user, Pageable pageable);
+
+    /**
+     * Places a copy of one of the user's earlier orders.
+     *
+     * @return the new order, or {@code null} when the user has no such order
+     */
+    Order reorder(long orderId, User user);
 }
@@ -0,0 +1,21 @@
+package com.moyajor.springinaction.data;
+
+import com.moyajor.springinaction.model.db.Order;
+import lombok.Getter;
+import org.springframework.context.ApplicationEvent;
+
+/**
+ * Published by the order repository once an order and its tacos are stored.
+ */
+public class OrderSavedEvent extends ApplicationEvent {
+
+    private static final long serialVersionUID = 1L;
+
+    @Getter
+    private final Order order;
+
+    public OrderSavedEvent(Object source, Order order) {
+        super(source);
+        this.order = order;
+    }
+}
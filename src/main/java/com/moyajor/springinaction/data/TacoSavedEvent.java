@@ -0,0 +1,26 @@
+package com.moyajor.springinaction.data;
+
+import com.moyajor.springinaction.model.db.Taco;
+import lombok.Getter;
+import org.springframework.context.ApplicationEvent;
+
+import java.util.List;
+
+/**
+ * Published by the taco repositories once tacos are stored: explicitly by
+ * {@link com.moyajor.springinaction.data.jdbc.JdbcTacoRepository}, and as a
+ * domain event of {@link Taco} by the Spring Data repositories, Spring Data
+ * REST included.
+ */
+public class TacoSavedEvent extends ApplicationEvent {
+
+    private static final long serialVersionUID = 1L;
+
+    @Getter
+    private final List<Taco> tacos;
+
+    public TacoSavedEvent(Object source, List<Taco> tacos) {
+        super(source);
+        this.tacos = tacos;
+    }
+}
@@ -1,9 +1,23 @@
 package com.moyajor.springinaction.data;
 
 import com.moyajor.springinaction.model.db.User;
+import org.springframework.data.jpa.repository.Query;
 import org.springframework.data.repository.CrudRepository;
+import org.springframework.data.repository.query.Param;
+import org.springframework.data.rest.core.annotation.RepositoryRestResource;
 import org.springframework.security.core.userdetails.UsernameNotFoundException;
 
+import java.util.Collection;
+import java.util.List;
+import java.util.Set;
+
+// holds password hashes and roles, never served by Spring Data REST
+@RepositoryRestResource(exported = false)
 public interface UserRepository extends CrudRepository<User, Long> {
     User findByUsername(String username) throws UsernameNotFoundException;
+
+    @Query("select u.username from User u where u.username in :usernames")
+    Set<String> findExistingUsernames(@Param("usernames") Collection<String> usernames);
+
+    List<User> findByRolesContaining(String role);
 }
@@ -0,0 +1,102 @@
+package com.moyajor.springinaction.data.cassandra;
+
+import com.datastax.driver.core.ConsistencyLevel;
+import com.datastax.driver.core.PreparedStatement;
+import com.moyajor.springinaction.model.cassandra.Order;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import lombok.extern.slf4j.Slf4j;
+import org.reactivestreams.Publisher;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.context.annotation.Profile;
+import org.springframework.data.cassandra.ReactiveSession;
+import org.springframework.data.cassandra.core.convert.CassandraConverter;
+import org.springframework.data.cassandra.core.cql.CqlIdentifier;
+import org.springframework.stereotype.Component;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.Collectors;
+
+/**
+ * Write path for tacoorders that skips the per-call statement building of the
+ * reactive template. Inserts are prepared once per column set and cached;
+ * since every order is its own partition each write is a single idempotent
+ * insert, and the bound partition key lets the driver's token-aware policy
+ * send it straight to a replica. {@link #saveAll} keeps at most
+ * {@code taco.cassandra.orders.max-in-flight} writes outstanding.
+ */
+@Slf4j
+@Component
+@Profile({"cassandra", "migrate-cassandra"})
+@ConfigurationProperties(prefix = "taco.cassandra.orders")
+public class CassandraOrderWriter {
+
+    private int maxInFlight = 64;
+    private ConsistencyLevel consistency = ConsistencyLevel.LOCAL_QUORUM;
+
+    private final Map<List<CqlIdentifier>, Mono<PreparedStatement>> statements = new ConcurrentHashMap<>();
+    private final ReactiveSession session;
+    private final CassandraConverter converter;
+    private final CqlIdentifier table;
+    private final Timer writeTimer;
+
+    public CassandraOrderWriter(ReactiveSession session, CassandraConverter converter, MeterRegistry meterRegistry) {
+        this.session = session;
+        this.converter = converter;
+        this.table = converter.getMappingContext().getRequiredPersistentEntity(Order.class).getTableName();
+        this.writeTimer = Timer.builder("taco.cassandra.order.write")
+                .publishPercentileHistogram()
+                .register(meterRegistry);
+    }
+
+    public void setMaxInFlight(int maxInFlight) {
+        this.maxInFlight = maxInFlight;
+    }
+
+    public void setConsistency(ConsistencyLevel consistency) {
+        this.consistency = consistency;
+    }
+
+    public Flux<Order> saveAll(Publisher<Order> orders) {
+        return Flux.from(orders).flatMap(this::save, maxInFlight);
+    }
+
+    public Mono<Order> save(Order order) {
+        Map<CqlIdentifier, Object> values = new LinkedHashMap<>();
+        converter.write(order, values);
+        // unset columns are left out instead of being written as tombstones
+        values.values().removeIf(Objects::isNull);
+        List<CqlIdentifier> columns = new ArrayList<>(values.keySet());
+        Object[] bindValues = values.values().toArray();
+        return statements.computeIfAbsent(columns, this::prepare)
+                .flatMap(prepared -> {
+                    long start = System.nanoTime();
+                    return session.execute(prepared.bind(bindValues))
+                            .doOnSuccess(rs -> writeTimer.record(System.nanoTime() - start, TimeUnit.NANOSECONDS));
+                })
+                .thenReturn(order);
+    }
+
+    private Mono<PreparedStatement> prepare(List<CqlIdentifier> columns) {
+        String cql = "INSERT INTO " + table.toCql()
+                + columns.stream().map(CqlIdentifier::toCql).collect(Collectors.joining(", ", " (", ")"))
+                + columns.stream().map(column -> "?").collect(Collectors.joining(", ", " VALUES (", ")"));
+        log.debug("Preparing {}", cql);
+        return session.prepare(cql)
+                .map(prepared -> {
+                    prepared.setConsistencyLevel(consistency);
+                    prepared.setIdempotent(true);
+                    return prepared;
+                })
+                .doOnError(e -> statements.remove(columns))
+                .cache();
+    }
+}
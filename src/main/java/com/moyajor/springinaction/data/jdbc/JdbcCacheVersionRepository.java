@@ -0,0 +1,40 @@
+package com.moyajor.springinaction.data.jdbc;
+
+import org.springframework.context.annotation.Profile;
+import org.springframework.dao.DuplicateKeyException;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Repository;
+
+import java.util.HashMap;
+import java.util.Map;
+
+@Repository
+@Profile({"jdbc", "jpa"})
+public class JdbcCacheVersionRepository {
+
+    private final JdbcTemplate jdbc;
+
+    public JdbcCacheVersionRepository(JdbcTemplate jdbc) {
+        this.jdbc = jdbc;
+    }
+
+    public void bump(String region) {
+        if (jdbc.update("update Cache_Version set version = version + 1 where region = ?", region) > 0) {
+            return;
+        }
+        try {
+            jdbc.update("insert into Cache_Version (region, version) values (?, 1)", region);
+        } catch (DuplicateKeyException e) {
+            jdbc.update("update Cache_Version set version = version + 1 where region = ?", region);
+        }
+    }
+
+    public Map<String, Long> findAll() {
+        Map<String, Long> versions = new HashMap<>();
+        jdbc.query("select region, version from Cache_Version",
+                rs -> {
+                    versions.put(rs.getString("region"), rs.getLong("version"));
+                });
+        return versions;
+    }
+}
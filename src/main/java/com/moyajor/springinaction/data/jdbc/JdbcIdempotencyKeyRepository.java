@@ -0,0 +1,56 @@
+package com.moyajor.springinaction.data.jdbc;
+
+import org.springframework.context.annotation.Profile;
+import org.springframework.dao.ConcurrencyFailureException;
+import org.springframework.dao.DuplicateKeyException;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Repository;
+
+import java.sql.Timestamp;
+import java.util.Date;
+import java.util.List;
+
+/**
+ * Idempotency keys are scoped to the user who sent them, so two users
+ * choosing the same key never see each other's order.
+ */
+@Repository
+@Profile({"jdbc", "jpa"})
+public class JdbcIdempotencyKeyRepository {
+
+    private final JdbcTemplate jdbc;
+
+    public JdbcIdempotencyKeyRepository(JdbcTemplate jdbc) {
+        this.jdbc = jdbc;
+    }
+
+    /**
+     * @return false when the key is taken, or is being claimed by another
+     * transaction that has not finished yet
+     */
+    public boolean claim(long userId, String key) {
+        try {
+            jdbc.update("insert into Order_Idempotency_Key (userId, idempotencyKey, createdAt) values (?, ?, ?)",
+                    userId, key, new Timestamp(System.currentTimeMillis()));
+            return true;
+        } catch (DuplicateKeyException | ConcurrencyFailureException e) {
+            return false;
+        }
+    }
+
+    public void complete(long userId, String key, long orderId) {
+        jdbc.update("update Order_Idempotency_Key set tacoOrder = ? where userId = ? and idempotencyKey = ?",
+                orderId, userId, key);
+    }
+
+    public Long findOrderId(long userId, String key) {
+        List<Long> ids = jdbc.queryForList(
+                "select tacoOrder from Order_Idempotency_Key where userId = ? and idempotencyKey = ?",
+                Long.class, userId, key);
+        return ids.isEmpty() ? null : ids.get(0);
+    }
+
+    public int deleteOlderThan(Date cutoff) {
+        return jdbc.update("delete from Order_Idempotency_Key where createdAt < ?", new Timestamp(cutoff.getTime()));
+    }
+}
@@ -1,8 +1,12 @@
 package com.moyajor.springinaction.data.jdbc;
 
+import com.moyajor.springinaction.cache.CacheConfig;
 import com.moyajor.springinaction.data.IngredientRepository;
 import com.moyajor.springinaction.model.db.Ingredient;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.cache.annotation.CacheEvict;
+import org.springframework.cache.annotation.Cacheable;
+import org.springframework.context.annotation.Profile;
 import org.springframework.jdbc.core.JdbcTemplate;
 import org.springframework.stereotype.Repository;
 
@@ -10,12 +14,17 @@ import java.sql.ResultSet;
 import java.sql.SQLException;
 
 @Repository
+@Profile({"jdbc", "jpa"})
 public class JdbcIngredientRepository  implements IngredientRepository {
 
     @Autowired
     private JdbcTemplate jdbc;
 
+    @Autowired
+    private JdbcCacheVersionRepository cacheVersions;
+
     @Override
+    @Cacheable(cacheNames = CacheConfig.INGREDIENTS, key = "'all'")
     public Iterable<Ingredient> findAll() {
         return jdbc.query("select id, name, type from Ingredient",
                 this::mapRowToIngredient);
@@ -23,6 +32,7 @@ public class JdbcIngredientRepository  implements IngredientRepository {
     }
 
     @Override
+    @Cacheable(cacheNames = CacheConfig.INGREDIENTS)
     public Ingredient findOne(String id) {
         return jdbc.queryForObject(
                 "select id, name, type from Ingredient where id=?",
@@ -30,12 +40,14 @@ public class JdbcIngredientRepository  implements IngredientRepository {
     }
 
     @Override
+    @CacheEvict(cacheNames = CacheConfig.INGREDIENTS, allEntries = true)
     public Ingredient save(Ingredient ingredient) {
         jdbc.update(
                 "insert into Ingredient (id, name, type) values (?, ?, ?)",
                 ingredient.getId(),
                 ingredient.getName(),
                 ingredient.getType().toString());
+        cacheVersions.bump(CacheConfig.INGREDIENTS);
         return ingredient;
     }
 
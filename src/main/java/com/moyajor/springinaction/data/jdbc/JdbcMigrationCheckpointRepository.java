@@ -0,0 +1,65 @@
+package com.moyajor.springinaction.data.jdbc;
+
+import com.moyajor.springinaction.migration.MigrationRange;
+import org.springframework.context.annotation.Profile;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Repository;
+
+import javax.annotation.PostConstruct;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Migration checkpoints, kept in the source database next to the rows they
+ * describe. The migrate profile does not run schema.sql against the source,
+ * so the table is created here when missing.
+ */
+@Repository
+@Profile("migrate")
+public class JdbcMigrationCheckpointRepository {
+
+    private final JdbcTemplate jdbc;
+
+    public JdbcMigrationCheckpointRepository(JdbcTemplate jdbc) {
+        this.jdbc = jdbc;
+    }
+
+    @PostConstruct
+    public void createTable() {
+        jdbc.execute("create table if not exists Migration_Checkpoint (" +
+                "migration varchar(64) not null, " +
+                "rangeStart bigint not null, " +
+                "rangeEnd bigint not null, " +
+                "lastId bigint not null, " +
+                "migratedRows bigint not null, " +
+                "done boolean not null, " +
+                "primary key (migration, rangeStart))");
+    }
+
+    public List<MigrationRange> findAll(String migration) {
+        return jdbc.query("select rangeStart, rangeEnd, lastId, migratedRows, done from Migration_Checkpoint " +
+                        "where migration = ? order by rangeStart",
+                (rs, rowNum) -> new MigrationRange(rs.getLong("rangeStart"), rs.getLong("rangeEnd"),
+                        rs.getLong("lastId"), rs.getLong("migratedRows"), rs.getBoolean("done")),
+                migration);
+    }
+
+    public void plan(String migration, List<MigrationRange> ranges) {
+        List<Object[]> rows = new ArrayList<>(ranges.size());
+        for (MigrationRange range : ranges) {
+            rows.add(new Object[]{migration, range.getStart(), range.getEnd(), range.getLastId()});
+        }
+        jdbc.batchUpdate("insert into Migration_Checkpoint (migration, rangeStart, rangeEnd, lastId, migratedRows, done) " +
+                "values (?, ?, ?, ?, 0, false)", rows);
+    }
+
+    public void advance(String migration, long rangeStart, long lastId, long rows) {
+        jdbc.update("update Migration_Checkpoint set lastId = ?, migratedRows = migratedRows + ? where migration = ? and rangeStart = ?",
+                lastId, rows, migration, rangeStart);
+    }
+
+    public void complete(String migration, long rangeStart) {
+        jdbc.update("update Migration_Checkpoint set done = true where migration = ? and rangeStart = ?",
+                migration, rangeStart);
+    }
+}
@@ -0,0 +1,138 @@
+package com.moyajor.springinaction.data.jdbc;
+
+import com.moyajor.springinaction.archive.TacoIdCodec;
+import com.moyajor.springinaction.model.db.Ingredient;
+import com.moyajor.springinaction.model.db.Order;
+import com.moyajor.springinaction.model.db.Taco;
+import com.moyajor.springinaction.model.db.User;
+import org.springframework.context.annotation.Profile;
+import org.springframework.jdbc.core.namedparam.MapSqlParameterSource;
+import org.springframework.jdbc.core.namedparam.NamedParameterJdbcTemplate;
+import org.springframework.stereotype.Repository;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.TreeSet;
+
+/**
+ * Reads orders for migration in id order, one batch at a time, from the live
+ * and the archived order tables alike; both draw their ids from the same
+ * sequence. A batch costs four queries however many orders it holds: the
+ * orders, the taco links of live orders, the tacos with their ingredients,
+ * and the customers. Archived orders carry their taco ids in the row.
+ */
+@Repository
+@Profile("migrate")
+public class JdbcMigrationSource {
+
+    private final NamedParameterJdbcTemplate jdbc;
+
+    public JdbcMigrationSource(NamedParameterJdbcTemplate jdbc) {
+        this.jdbc = jdbc;
+    }
+
+    public long minOrderId() {
+        return jdbc.getJdbcOperations().queryForObject("select coalesce(min(id), 0) from (" +
+                "select min(id) as id from Taco_Order union all select min(id) from Taco_Order_Archive)", Long.class);
+    }
+
+    public long maxOrderId() {
+        return jdbc.getJdbcOperations().queryForObject("select coalesce(max(id), 0) from (" +
+                "select max(id) as id from Taco_Order union all select max(id) from Taco_Order_Archive)", Long.class);
+    }
+
+    /**
+     * Up to {@code limit} orders with {@code afterId < id < endId}, lowest id first.
+     */
+    public List<Order> readOrders(long afterId, long endId, int limit) {
+        Map<Long, Order> orders = new LinkedHashMap<>();
+        Map<Long, Long> userIds = new HashMap<>();
+        Map<Long, List<Long>> tacoIds = new HashMap<>();
+        List<Long> liveIds = new ArrayList<>();
+        jdbc.query("select id, userId, deliveryName, deliveryStreet, deliveryCity, deliveryState, deliveryZip, placedAt, " +
+                        "cast(null as varbinary(1024)) as tacos from Taco_Order where id > :afterId and id < :endId " +
+                        "union all " +
+                        "select id, userId, deliveryName, deliveryStreet, deliveryCity, deliveryState, deliveryZip, placedAt, " +
+                        "tacos from Taco_Order_Archive where id > :afterId and id < :endId " +
+                        "order by id limit :limit",
+                new MapSqlParameterSource("afterId", afterId).addValue("endId", endId).addValue("limit", limit),
+                rs -> {
+                    Order order = new Order();
+                    order.setId(rs.getLong("id"));
+                    order.setName(rs.getString("deliveryName"));
+                    order.setStreet(rs.getString("deliveryStreet"));
+                    order.setCity(rs.getString("deliveryCity"));
+                    order.setState(rs.getString("deliveryState"));
+                    order.setZip(rs.getString("deliveryZip"));
+                    order.setPlacedAt(rs.getTimestamp("placedAt"));
+                    long userId = rs.getLong("userId");
+                    if (!rs.wasNull()) {
+                        userIds.put(order.getId(), userId);
+                    }
+                    byte[] archivedTacos = rs.getBytes("tacos");
+                    if (archivedTacos != null) {
+                        tacoIds.put(order.getId(), TacoIdCodec.decode(archivedTacos));
+                    } else {
+                        liveIds.add(order.getId());
+                    }
+                    orders.put(order.getId(), order);
+                });
+        if (orders.isEmpty()) {
+            return new ArrayList<>();
+        }
+        if (!liveIds.isEmpty()) {
+            jdbc.query("select tacoOrder, taco from Taco_Order_Tacos where tacoOrder in (:ids)",
+                    new MapSqlParameterSource("ids", liveIds),
+                    rs -> {
+                        tacoIds.computeIfAbsent(rs.getLong("tacoOrder"), id -> new ArrayList<>()).add(rs.getLong("taco"));
+                    });
+        }
+        Set<Long> distinctTacoIds = new TreeSet<>();
+        tacoIds.values().forEach(distinctTacoIds::addAll);
+        Map<Long, Taco> tacos = new HashMap<>();
+        if (!distinctTacoIds.isEmpty()) {
+            jdbc.query("select t.id, t.name, t.createdAt, i.id as ingredientId, i.name as ingredientName, i.type " +
+                            "from Taco t join Taco_Ingredients ti on ti.taco = t.id join Ingredient i on i.id = ti.ingredient " +
+                            "where t.id in (:ids)",
+                    new MapSqlParameterSource("ids", distinctTacoIds),
+                    rs -> {
+                        Taco taco = tacos.computeIfAbsent(rs.getLong("id"), id -> new Taco());
+                        if (taco.getId() == null) {
+                            taco.setId(rs.getLong("id"));
+                            taco.setName(rs.getString("name"));
+                            taco.setCreatedAt(rs.getTimestamp("createdAt"));
+                            taco.setIngredients(new ArrayList<>());
+                        }
+                        taco.getIngredients().add(new Ingredient(rs.getString("ingredientId"),
+                                rs.getString("ingredientName"), Ingredient.Type.valueOf(rs.getString("type"))));
+                    });
+        }
+        tacoIds.forEach((orderId, ids) -> {
+            for (Long tacoId : ids) {
+                Taco taco = tacos.get(tacoId);
+                if (taco != null) {
+                    orders.get(orderId).addDesign(taco);
+                }
+            }
+        });
+        if (!userIds.isEmpty()) {
+            Map<Long, User> users = new HashMap<>();
+            Set<Long> distinctUserIds = new TreeSet<>(userIds.values());
+            jdbc.query("select id, username, fullname, street, city, state, zip, phoneNumber from User where id in (:ids)",
+                    new MapSqlParameterSource("ids", distinctUserIds),
+                    rs -> {
+                        User user = new User(rs.getString("username"), null, rs.getString("fullname"),
+                                rs.getString("street"), rs.getString("city"), rs.getString("state"), rs.getString("zip"),
+                                rs.getString("phoneNumber"));
+                        user.setId(rs.getLong("id"));
+                        users.put(user.getId(), user);
+                    });
+            userIds.forEach((orderId, userId) -> orders.get(orderId).setUser(users.get(userId)));
+        }
+        return new ArrayList<>(orders.values());
+    }
+}
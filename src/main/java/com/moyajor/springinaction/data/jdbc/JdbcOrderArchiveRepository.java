@@ -0,0 +1,123 @@
+package com.moyajor.springinaction.data.jdbc;
+
+import com.moyajor.springinaction.archive.TacoIdCodec;
+import com.moyajor.springinaction.model.db.Order;
+import com.moyajor.springinaction.model.db.Taco;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.context.annotation.Profile;
+import org.springframework.jdbc.core.namedparam.MapSqlParameterSource;
+import org.springframework.jdbc.core.namedparam.NamedParameterJdbcTemplate;
+import org.springframework.stereotype.Repository;
+
+import java.sql.Timestamp;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.Date;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * Cold order history. Archived orders keep their delivery details but drop
+ * the card fields, and their tacos are packed into one column with
+ * {@link TacoIdCodec} instead of one join row per taco.
+ */
+@Repository
+@Profile({"jdbc", "jpa"})
+public class JdbcOrderArchiveRepository {
+
+    @Autowired
+    private NamedParameterJdbcTemplate jdbc;
+
+    public List<Long> findIdsPlacedBefore(Date cutoff, int limit) {
+        return jdbc.queryForList(
+                "select id from Taco_Order where placedAt < :cutoff and rolledUp = true order by placedAt limit :limit",
+                new MapSqlParameterSource("cutoff", new Timestamp(cutoff.getTime())).addValue("limit", limit),
+                Long.class);
+    }
+
+    /**
+     * Copies the given orders into the archive and removes them from the live
+     * tables. Callers run this inside a transaction.
+     */
+    public int archive(List<Long> orderIds) {
+        if (orderIds.isEmpty()) {
+            return 0;
+        }
+        Map<Long, List<Long>> tacoIds = new HashMap<>();
+        jdbc.query("select tacoOrder, taco from Taco_Order_Tacos where tacoOrder in (:ids)",
+                new MapSqlParameterSource("ids", orderIds),
+                rs -> {
+                    tacoIds.computeIfAbsent(rs.getLong("tacoOrder"), id -> new ArrayList<>()).add(rs.getLong("taco"));
+                });
+
+        MapSqlParameterSource[] batch = new MapSqlParameterSource[orderIds.size()];
+        for (int i = 0; i < batch.length; i++) {
+            Long orderId = orderIds.get(i);
+            batch[i] = new MapSqlParameterSource("id", orderId)
+                    .addValue("tacos", TacoIdCodec.encode(tacoIds.getOrDefault(orderId, Collections.emptyList())));
+        }
+        jdbc.batchUpdate(
+                "insert into Taco_Order_Archive (id, userId, deliveryName, deliveryStreet, deliveryCity, " +
+                        "deliveryState, deliveryZip, placedAt, tacos) " +
+                        "select id, userId, deliveryName, deliveryStreet, deliveryCity, deliveryState, deliveryZip, " +
+                        "placedAt, :tacos from Taco_Order where id = :id",
+                batch);
+
+        MapSqlParameterSource ids = new MapSqlParameterSource("ids", orderIds);
+        jdbc.update("delete from Taco_Order_Tacos where tacoOrder in (:ids)", ids);
+        return jdbc.update("delete from Taco_Order where id in (:ids)", ids);
+    }
+
+    public List<Order> findByUser(long userId, long offset, int limit) {
+        List<Order> orders = new ArrayList<>();
+        List<List<Long>> packed = new ArrayList<>();
+        jdbc.query("select id, deliveryName, deliveryStreet, deliveryCity, deliveryState, deliveryZip, placedAt, tacos " +
+                        "from Taco_Order_Archive where userId = :userId order by placedAt desc limit :limit offset :offset",
+                new MapSqlParameterSource("userId", userId).addValue("limit", limit).addValue("offset", offset),
+                rs -> {
+                    Order order = new Order();
+                    order.setId(rs.getLong("id"));
+                    order.setName(rs.getString("deliveryName"));
+                    order.setStreet(rs.getString("deliveryStreet"));
+                    order.setCity(rs.getString("deliveryCity"));
+                    order.setState(rs.getString("deliveryState"));
+                    order.setZip(rs.getString("deliveryZip"));
+                    order.setPlacedAt(rs.getTimestamp("placedAt"));
+                    orders.add(order);
+                    packed.add(TacoIdCodec.decode(rs.getBytes("tacos")));
+                });
+        Set<Long> allTacoIds = new HashSet<>();
+        packed.forEach(allTacoIds::addAll);
+        Map<Long, Taco> tacos = findTacos(allTacoIds);
+        for (int i = 0; i < orders.size(); i++) {
+            for (Long tacoId : packed.get(i)) {
+                Taco taco = tacos.get(tacoId);
+                if (taco != null) {
+                    orders.get(i).addDesign(taco);
+                }
+            }
+        }
+        return orders;
+    }
+
+    private Map<Long, Taco> findTacos(Collection<Long> tacoIds) {
+        Map<Long, Taco> tacos = new HashMap<>();
+        if (tacoIds.isEmpty()) {
+            return tacos;
+        }
+        jdbc.query("select id, name, createdAt from Taco where id in (:ids)",
+                new MapSqlParameterSource("ids", tacoIds),
+                rs -> {
+                    Taco taco = new Taco();
+                    taco.setId(rs.getLong("id"));
+                    taco.setName(rs.getString("name"));
+                    taco.setCreatedAt(rs.getTimestamp("createdAt"));
+                    tacos.put(taco.getId(), taco);
+                });
+        return tacos;
+    }
+}
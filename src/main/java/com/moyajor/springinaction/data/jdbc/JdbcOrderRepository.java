@@ -1,60 +1,200 @@
 package com.moyajor.springinaction.data.jdbc;
 
-import com.fasterxml.jackson.databind.ObjectMapper;
+import com.moyajor.springinaction.data.IdBlockAllocator;
+import com.moyajor.springinaction.data.OrderCloner;
 import com.moyajor.springinaction.data.OrderRepository;
+import com.moyajor.springinaction.data.OrderSavedEvent;
+import com.moyajor.springinaction.model.db.Ingredient;
 import com.moyajor.springinaction.model.db.Order;
 import com.moyajor.springinaction.model.db.Taco;
+import com.moyajor.springinaction.model.db.User;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.context.annotation.Profile;
+import org.springframework.data.domain.Pageable;
+import org.springframework.jdbc.core.ConnectionCallback;
 import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.core.namedparam.MapSqlParameterSource;
+import org.springframework.jdbc.core.namedparam.NamedParameterJdbcTemplate;
 import org.springframework.jdbc.core.simple.SimpleJdbcInsert;
 import org.springframework.stereotype.Repository;
+import org.springframework.transaction.annotation.Transactional;
 
+import java.sql.Timestamp;
+import java.util.ArrayList;
 import java.util.Date;
 import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
 
 @Repository
+@Profile({"jdbc", "jpa"})
 public class JdbcOrderRepository implements OrderRepository {
 
-
+    private JdbcTemplate jdbc;
     private SimpleJdbcInsert orderInserter;
-    private SimpleJdbcInsert orderTacoInserter;
-    private ObjectMapper objectMapper;
+    private ApplicationEventPublisher eventPublisher;
+    private JdbcOrderArchiveRepository archive;
+    private IdBlockAllocator idAllocator;
 
     @Autowired
-    public JdbcOrderRepository(JdbcTemplate jdbc) {
-        this.orderInserter = new SimpleJdbcInsert(jdbc).withTableName("Taco_Order").usingGeneratedKeyColumns("id");
-        this.orderTacoInserter = new SimpleJdbcInsert(jdbc).withTableName("Taco_Order_Tacos");
-        this.objectMapper = new ObjectMapper();
+    public JdbcOrderRepository(JdbcTemplate jdbc, ApplicationEventPublisher eventPublisher,
+                               JdbcOrderArchiveRepository archive, IdBlockAllocator idAllocator) {
+        this.jdbc = jdbc;
+        this.orderInserter = new SimpleJdbcInsert(jdbc).withTableName("Taco_Order");
+        this.eventPublisher = eventPublisher;
+        this.archive = archive;
+        this.idAllocator = idAllocator;
     }
 
     @Override
     public Order save(Order order) {
         order.setPlacedAt(new Date());
-        long orderId = saveOrderDetails(order);
-        order.setId(orderId);
-        List<Taco> tacos = order.getTacos();
+        order.setId(idAllocator.nextId(IdBlockAllocator.ORDER_SEQUENCE));
+        saveOrderDetails(order);
+        saveTacosToOrder(order.getTacos(), order.getId());
+        eventPublisher.publishEvent(new OrderSavedEvent(this, order));
+        return order;
+    }
+    private void saveOrderDetails(Order order) {
+        Map<String, Object> values = new HashMap<>();
+        values.put("id", order.getId());
+        values.put("deliveryName", order.getName());
+        values.put("deliveryStreet", order.getStreet());
+        values.put("deliveryCity", order.getCity());
+        values.put("deliveryState", order.getState());
+        values.put("deliveryZip", order.getZip());
+        values.put("ccNumber", order.getCcNumber());
+        values.put("ccExpiration", order.getCcExpiration());
+        values.put("ccCVV", order.getCcCVV());
+        values.put("placedAt", order.getPlacedAt());
+        values.put("userId", order.getUser() != null ? order.getUser().getId() : null);
+        orderInserter.execute(values);
+    }
+    private void saveTacosToOrder(List<Taco> tacos, long orderId) {
+        List<Object[]> rows = new ArrayList<>(tacos.size());
         for (Taco taco : tacos) {
-            saveTacoToOrder(taco, orderId);
+            rows.add(new Object[]{orderId, taco.getId()});
+        }
+        jdbc.batchUpdate("insert into Taco_Order_Tacos (tacoOrder, taco) values (?, ?)", rows);
+    }
+
+    /**
+     * Copies the order row and its taco links server side, then reads the new
+     * order back with one query for the tacos and their ingredients so that
+     * event listeners see a complete order. Archived orders no longer carry
+     * card details and cannot be reordered.
+     */
+    @Override
+    @Transactional
+    public Order reorder(long orderId, User user) {
+        Date placedAt = new Date();
+        long newOrderId = idAllocator.nextId(IdBlockAllocator.ORDER_SEQUENCE);
+        Boolean copied = jdbc.execute((ConnectionCallback<Boolean>) connection ->
+                OrderCloner.cloneOrder(connection, newOrderId, orderId, user.getId(), new Timestamp(placedAt.getTime())));
+        if (!Boolean.TRUE.equals(copied)) {
+            return null;
         }
+        Order order = jdbc.queryForObject(
+                "select id, deliveryName, deliveryStreet, deliveryCity, deliveryState, deliveryZip, " +
+                        "ccNumber, ccExpiration, ccCVV from Taco_Order where id = ?",
+                (rs, rowNum) -> {
+                    Order copy = new Order();
+                    copy.setId(rs.getLong("id"));
+                    copy.setName(rs.getString("deliveryName"));
+                    copy.setStreet(rs.getString("deliveryStreet"));
+                    copy.setCity(rs.getString("deliveryCity"));
+                    copy.setState(rs.getString("deliveryState"));
+                    copy.setZip(rs.getString("deliveryZip"));
+                    copy.setCcNumber(rs.getString("ccNumber"));
+                    copy.setCcExpiration(rs.getString("ccExpiration"));
+                    copy.setCcCVV(rs.getString("ccCVV"));
+                    return copy;
+                },
+                newOrderId);
+        order.setPlacedAt(placedAt);
+        order.setUser(user);
+        Map<Long, Taco> tacos = new HashMap<>();
+        jdbc.query("select t.id, t.name, t.createdAt, i.id as ingredientId, i.name as ingredientName, i.type " +
+                        "from Taco t join Taco_Ingredients ti on ti.taco = t.id join Ingredient i on i.id = ti.ingredient " +
+                        "where t.id in (select taco from Taco_Order_Tacos where tacoOrder = ?)",
+                rs -> {
+                    Taco taco = tacos.computeIfAbsent(rs.getLong("id"), id -> new Taco());
+                    if (taco.getId() == null) {
+                        taco.setId(rs.getLong("id"));
+                        taco.setName(rs.getString("name"));
+                        taco.setCreatedAt(rs.getTimestamp("createdAt"));
+                        taco.setIngredients(new ArrayList<>());
+                    }
+                    taco.getIngredients().add(new Ingredient(rs.getString("ingredientId"),
+                            rs.getString("ingredientName"), Ingredient.Type.valueOf(rs.getString("type"))));
+                },
+                newOrderId);
+        // the same design can appear more than once in an order
+        for (Long tacoId : jdbc.queryForList("select taco from Taco_Order_Tacos where tacoOrder = ?", Long.class, newOrderId)) {
+            order.addDesign(tacos.get(tacoId));
+        }
+        eventPublisher.publishEvent(new OrderSavedEvent(this, order));
         return order;
     }
-    private long saveOrderDetails(Order order) {
-        @SuppressWarnings("unchecked")
-        Map<String, Object> values =
-                objectMapper.convertValue(order, Map.class);
-        values.put("placedAt", order.getPlacedAt());
-        long orderId =
-                orderInserter
-                        .executeAndReturnKey(values)
-                        .longValue();
-        return orderId;
+
+    /**
+     * Newest orders come from the live tables; once a page runs past them the
+     * remainder is read from the archive, with the offset shifted by the number
+     * of live orders the user has.
+     */
+    @Override
+    public List<Order> findByUserOrderByPlacedAtDesc(User user, Pageable pageable) {
+        long offset = pageable.getOffset();
+        int size = pageable.getPageSize();
+        List<Order> orders = jdbc.query(
+                "select id, deliveryName, deliveryStreet, deliveryCity, deliveryState, deliveryZip, placedAt " +
+                        "from Taco_Order where userId = ? order by placedAt desc limit ? offset ?",
+                (rs, rowNum) -> {
+                    Order order = new Order();
+                    order.setId(rs.getLong("id"));
+                    order.setName(rs.getString("deliveryName"));
+                    order.setStreet(rs.getString("deliveryStreet"));
+                    order.setCity(rs.getString("deliveryCity"));
+                    order.setState(rs.getString("deliveryState"));
+                    order.setZip(rs.getString("deliveryZip"));
+                    order.setPlacedAt(rs.getTimestamp("placedAt"));
+                    order.setUser(user);
+                    return order;
+                },
+                user.getId(), size, offset);
+        loadTacos(orders);
+
+        if (orders.size() < size) {
+            long liveCount = orders.isEmpty() && offset > 0
+                    ? jdbc.queryForObject("select count(*) from Taco_Order where userId = ?", Long.class, user.getId())
+                    : offset + orders.size();
+            List<Order> archived = archive.findByUser(user.getId(),
+                    Math.max(0, offset - liveCount), size - orders.size());
+            archived.forEach(order -> order.setUser(user));
+            orders.addAll(archived);
+        }
+        return orders;
     }
-    private void saveTacoToOrder(Taco taco, long orderId) {
-        Map<String, Object> values = new HashMap<>();
-        values.put("tacoOrder", orderId);
-        values.put("taco", taco.getId());
-        orderTacoInserter.execute(values);
+
+    private void loadTacos(List<Order> orders) {
+        if (orders.isEmpty()) {
+            return;
+        }
+        Map<Long, Order> byId = new HashMap<>();
+        for (Order order : orders) {
+            byId.put(order.getId(), order);
+        }
+        new NamedParameterJdbcTemplate(jdbc).query(
+                "select ot.tacoOrder, t.id, t.name, t.createdAt from Taco_Order_Tacos ot " +
+                        "join Taco t on t.id = ot.taco where ot.tacoOrder in (:ids)",
+                new MapSqlParameterSource("ids", new ArrayList<>(byId.keySet())),
+                rs -> {
+                    Taco taco = new Taco();
+                    taco.setId(rs.getLong("id"));
+                    taco.setName(rs.getString("name"));
+                    taco.setCreatedAt(rs.getTimestamp("createdAt"));
+                    byId.get(rs.getLong("tacoOrder")).addDesign(taco);
+                });
     }
 }
@@ -0,0 +1,141 @@
+package com.moyajor.springinaction.data.jdbc;
+
+import com.moyajor.springinaction.rollup.Granularity;
+import com.moyajor.springinaction.rollup.IngredientUsage;
+import com.moyajor.springinaction.rollup.SalesBuckets;
+import com.moyajor.springinaction.rollup.SalesPeriod;
+import org.springframework.context.annotation.Profile;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.core.namedparam.MapSqlParameterSource;
+import org.springframework.jdbc.core.namedparam.NamedParameterJdbcTemplate;
+import org.springframework.stereotype.Repository;
+
+import java.util.ArrayList;
+import java.util.Date;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Hourly rollup tables. Each live order carries a {@code rolledUp} flag that
+ * is set in the same transaction that adds its counts, so an order is
+ * counted exactly once however it was saved, whatever crashes in between and
+ * however many nodes roll up at the same time.
+ */
+@Repository
+@Profile({"jdbc", "jpa"})
+public class JdbcSalesRollupRepository {
+
+    private static final long HOUR_MILLIS = TimeUnit.HOURS.toMillis(1);
+
+    private final JdbcTemplate jdbc;
+    private final NamedParameterJdbcTemplate namedJdbc;
+
+    public JdbcSalesRollupRepository(JdbcTemplate jdbc) {
+        this.jdbc = jdbc;
+        this.namedJdbc = new NamedParameterJdbcTemplate(jdbc);
+    }
+
+    /**
+     * Claims up to {@code limit} orders that have not been rolled up, adds
+     * their counts and flags them. Callers run this inside a transaction: an
+     * order another node claimed first is left to that node, and a failure
+     * rolls back counts and flags together.
+     *
+     * @return the counts added
+     */
+    public SalesBuckets rollUpPending(int limit) {
+        List<Long> candidates = jdbc.queryForList(
+                "select id from Taco_Order where rolledUp = false order by id limit ?", Long.class, limit);
+        SalesBuckets buckets = new SalesBuckets();
+        if (candidates.isEmpty()) {
+            return buckets;
+        }
+        List<Object[]> args = new ArrayList<>(candidates.size());
+        for (Long id : candidates) {
+            args.add(new Object[]{id});
+        }
+        int[] updated = jdbc.batchUpdate("update Taco_Order set rolledUp = true where id = ? and rolledUp = false", args);
+        List<Long> claimed = new ArrayList<>(candidates.size());
+        for (int i = 0; i < updated.length; i++) {
+            if (updated[i] == 1) {
+                claimed.add(candidates.get(i));
+            }
+        }
+        if (claimed.isEmpty()) {
+            return buckets;
+        }
+        MapSqlParameterSource ids = new MapSqlParameterSource("ids", claimed);
+        namedJdbc.query("select o.placedAt, count(ot.taco) as tacos from Taco_Order o " +
+                        "left join Taco_Order_Tacos ot on ot.tacoOrder = o.id where o.id in (:ids) " +
+                        "group by o.id, o.placedAt",
+                ids,
+                rs -> {
+                    buckets.addOrder(rs.getTimestamp("placedAt"), rs.getLong("tacos"));
+                });
+        namedJdbc.query("select o.placedAt, ti.ingredient from Taco_Order o " +
+                        "join Taco_Order_Tacos ot on ot.tacoOrder = o.id join Taco_Ingredients ti on ti.taco = ot.taco " +
+                        "where o.id in (:ids)",
+                ids,
+                rs -> {
+                    buckets.addIngredient(rs.getTimestamp("placedAt"), rs.getString("ingredient"), 1);
+                });
+        add(buckets);
+        return buckets;
+    }
+
+    private void add(SalesBuckets buckets) {
+        if (buckets.isEmpty()) {
+            return;
+        }
+        List<Object[]> hours = new ArrayList<>();
+        List<Object[]> ingredients = new ArrayList<>();
+        for (Map.Entry<Long, SalesBuckets.Hour> entry : buckets.getHours().entrySet()) {
+            SalesBuckets.Hour hour = entry.getValue();
+            hours.add(new Object[]{hour.getOrders(), hour.getTacos(), entry.getKey()});
+            hour.getIngredients().forEach((ingredient, uses) ->
+                    ingredients.add(new Object[]{uses, entry.getKey(), ingredient}));
+        }
+        increment("update Sales_Rollup set orders = orders + ?, tacos = tacos + ? where epochHour = ?",
+                "insert into Sales_Rollup (orders, tacos, epochHour) values (?, ?, ?)", hours);
+        increment("update Ingredient_Rollup set uses = uses + ? where epochHour = ? and ingredient = ?",
+                "insert into Ingredient_Rollup (uses, epochHour, ingredient) values (?, ?, ?)", ingredients);
+    }
+
+    public List<SalesPeriod> sales(Granularity granularity, long fromHour, long toHour) {
+        int hours = granularity.getHours();
+        return jdbc.query("select epochHour / " + hours + " as period, sum(orders) as orders, sum(tacos) as tacos " +
+                        "from Sales_Rollup where epochHour >= ? and epochHour < ? " +
+                        "group by epochHour / " + hours + " order by period",
+                (rs, rowNum) -> new SalesPeriod(periodStart(rs.getLong("period"), hours),
+                        rs.getLong("orders"), rs.getLong("tacos")),
+                fromHour, toHour);
+    }
+
+    public List<IngredientUsage> ingredientUsage(Granularity granularity, long fromHour, long toHour) {
+        int hours = granularity.getHours();
+        return jdbc.query("select epochHour / " + hours + " as period, ingredient, sum(uses) as uses " +
+                        "from Ingredient_Rollup where epochHour >= ? and epochHour < ? " +
+                        "group by epochHour / " + hours + ", ingredient order by period, uses desc",
+                (rs, rowNum) -> new IngredientUsage(periodStart(rs.getLong("period"), hours),
+                        rs.getString("ingredient"), rs.getLong("uses")),
+                fromHour, toHour);
+    }
+
+    private void increment(String update, String insert, List<Object[]> rows) {
+        int[] updated = jdbc.batchUpdate(update, rows);
+        List<Object[]> missing = new ArrayList<>();
+        for (int i = 0; i < updated.length; i++) {
+            if (updated[i] == 0) {
+                missing.add(rows.get(i));
+            }
+        }
+        if (!missing.isEmpty()) {
+            jdbc.batchUpdate(insert, missing);
+        }
+    }
+
+    private static Date periodStart(long period, int hours) {
+        return new Date(period * hours * HOUR_MILLIS);
+    }
+}
@@ -1,51 +1,78 @@
 package com.moyajor.springinaction.data.jdbc;
 
+import com.moyajor.springinaction.cache.CacheConfig;
+import com.moyajor.springinaction.data.IdBlockAllocator;
 import com.moyajor.springinaction.data.TacoRepository;
+import com.moyajor.springinaction.data.TacoSavedEvent;
 import com.moyajor.springinaction.model.db.Ingredient;
 import com.moyajor.springinaction.model.db.Taco;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.cache.annotation.CacheEvict;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.context.annotation.Profile;
 import org.springframework.jdbc.core.JdbcTemplate;
-import org.springframework.jdbc.core.PreparedStatementCreator;
-import org.springframework.jdbc.core.PreparedStatementCreatorFactory;
-import org.springframework.jdbc.support.GeneratedKeyHolder;
-import org.springframework.jdbc.support.KeyHolder;
 import org.springframework.stereotype.Repository;
+import org.springframework.transaction.annotation.Transactional;
 
-import java.util.Date;
 import java.sql.Timestamp;
-import java.sql.Types;
-import java.util.Arrays;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Date;
+import java.util.List;
 
 @Repository
+@Profile({"jdbc", "jpa"})
 public class JdbcTacoRepository implements TacoRepository {
 
     @Autowired
     private JdbcTemplate jdbc;
 
-    public JdbcTacoRepository(JdbcTemplate jdbc) {
+    private IdBlockAllocator idAllocator;
+
+    private JdbcCacheVersionRepository cacheVersions;
+
+    private ApplicationEventPublisher eventPublisher;
+
+    public JdbcTacoRepository(JdbcTemplate jdbc, IdBlockAllocator idAllocator, JdbcCacheVersionRepository cacheVersions,
+                              ApplicationEventPublisher eventPublisher) {
         this.jdbc = jdbc;
+        this.idAllocator = idAllocator;
+        this.cacheVersions = cacheVersions;
+        this.eventPublisher = eventPublisher;
     }
     @Override
+    @CacheEvict(cacheNames = CacheConfig.RECENT_TACOS, allEntries = true)
     public Taco save(Taco taco) {
-        long tacoId = saveTacoInfo(taco);
-        taco.setId(tacoId);
-        for (Ingredient ingredient : taco.getIngredients()) {
-            saveIngredientToTaco(ingredient, tacoId);
-        }
+        saveAll(Collections.singletonList(taco));
         return taco;
     }
-    private long saveTacoInfo(Taco taco) {
-        taco.setCreatedAt(new Date());
-        PreparedStatementCreator psc =
-            new PreparedStatementCreatorFactory("insert into Taco (name, createdAt) values (?, ?)", Types.VARCHAR, Types.TIMESTAMP)
-                        .newPreparedStatementCreator(
-                        Arrays.asList(taco.getName(), new Timestamp(taco.getCreatedAt().getTime())));
-        KeyHolder keyHolder = new GeneratedKeyHolder();
-        jdbc.update(psc, keyHolder);
-        return keyHolder.getKey().longValue();
-    }
 
-    private void saveIngredientToTaco(Ingredient ingredient, long tacoId) {
-        jdbc.update("insert into Taco_Ingredients (taco, ingredient) values (?, ?)", tacoId, ingredient.getId());
+    /**
+     * Ids come from the block allocator before anything is written, so the
+     * tacos and their ingredient links each go out as one JDBC batch.
+     */
+    @Override
+    @Transactional
+    @CacheEvict(cacheNames = CacheConfig.RECENT_TACOS, allEntries = true)
+    public <S extends Taco> List<S> saveAll(Iterable<S> tacos) {
+        List<S> saved = new ArrayList<>();
+        List<Object[]> tacoRows = new ArrayList<>();
+        List<Object[]> ingredientRows = new ArrayList<>();
+        Date createdAt = new Date();
+        for (S taco : tacos) {
+            taco.setId(idAllocator.nextId(IdBlockAllocator.TACO_SEQUENCE));
+            taco.setCreatedAt(createdAt);
+            tacoRows.add(new Object[]{taco.getId(), taco.getName(), new Timestamp(createdAt.getTime()),
+                    taco.getUser() != null ? taco.getUser().getId() : null});
+            for (Ingredient ingredient : taco.getIngredients()) {
+                ingredientRows.add(new Object[]{taco.getId(), ingredient.getId()});
+            }
+            saved.add(taco);
+        }
+        jdbc.batchUpdate("insert into Taco (id, name, createdAt, userId) values (?, ?, ?, ?)", tacoRows);
+        jdbc.batchUpdate("insert into Taco_Ingredients (taco, ingredient) values (?, ?)", ingredientRows);
+        cacheVersions.bump(CacheConfig.RECENT_TACOS);
+        eventPublisher.publishEvent(new TacoSavedEvent(this, new ArrayList<>(saved)));
+        return saved;
     }
 }
@@ -0,0 +1,44 @@
+package com.moyajor.springinaction.data.jpa;
+
+import com.moyajor.springinaction.data.IdBlockAllocator;
+import org.hibernate.engine.config.spi.ConfigurationService;
+import org.hibernate.engine.spi.SharedSessionContractImplementor;
+import org.hibernate.id.Configurable;
+import org.hibernate.id.IdentifierGenerator;
+import org.hibernate.internal.util.config.ConfigurationHelper;
+import org.hibernate.service.ServiceRegistry;
+import org.hibernate.type.Type;
+
+import java.io.Serializable;
+import java.util.Properties;
+
+/**
+ * Lets entities take their ids from the shared {@link IdBlockAllocator}, so
+ * Hibernate knows the id before the insert and can batch it. The sequence is
+ * passed as the {@code sequence} parameter of the {@code @GenericGenerator};
+ * the allocator of the application context arrives as the
+ * {@link #ALLOCATOR_SETTING} Hibernate setting, see {@link BlockIdGeneratorSetting}.
+ */
+public class BlockIdGenerator implements IdentifierGenerator, Configurable {
+
+    public static final String SEQUENCE_PARAMETER = "sequence";
+    public static final String ALLOCATOR_SETTING = "taco.id-block-allocator";
+
+    private String sequence;
+    private IdBlockAllocator allocator;
+
+    @Override
+    public void configure(Type type, Properties params, ServiceRegistry serviceRegistry) {
+        this.sequence = ConfigurationHelper.getString(SEQUENCE_PARAMETER, params);
+        Object setting = serviceRegistry.getService(ConfigurationService.class).getSettings().get(ALLOCATOR_SETTING);
+        if (!(setting instanceof IdBlockAllocator)) {
+            throw new IllegalStateException("Hibernate setting " + ALLOCATOR_SETTING + " holds no IdBlockAllocator");
+        }
+        this.allocator = (IdBlockAllocator) setting;
+    }
+
+    @Override
+    public Serializable generate(SharedSessionContractImplementor session, Object object) {
+        return allocator.nextId(sequence);
+    }
+}
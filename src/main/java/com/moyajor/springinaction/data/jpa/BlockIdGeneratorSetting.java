@@ -0,0 +1,33 @@
+package com.moyajor.springinaction.data.jpa;
+
+import com.moyajor.springinaction.data.IdBlockAllocator;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.beans.factory.config.BeanPostProcessor;
+import org.springframework.context.annotation.Profile;
+import org.springframework.orm.jpa.LocalContainerEntityManagerFactoryBean;
+import org.springframework.stereotype.Component;
+
+/**
+ * Hands the context's {@link IdBlockAllocator} to the {@link BlockIdGenerator}s,
+ * which Hibernate instantiates itself, as the
+ * {@link BlockIdGenerator#ALLOCATOR_SETTING} property of the entity manager factory.
+ */
+@Component
+@Profile({"jdbc", "jpa"})
+public class BlockIdGeneratorSetting implements BeanPostProcessor {
+
+    private final ObjectProvider<IdBlockAllocator> allocator;
+
+    public BlockIdGeneratorSetting(ObjectProvider<IdBlockAllocator> allocator) {
+        this.allocator = allocator;
+    }
+
+    @Override
+    public Object postProcessBeforeInitialization(Object bean, String beanName) {
+        if (bean instanceof LocalContainerEntityManagerFactoryBean) {
+            ((LocalContainerEntityManagerFactoryBean) bean).getJpaPropertyMap()
+                    .put(BlockIdGenerator.ALLOCATOR_SETTING, allocator.getObject());
+        }
+        return bean;
+    }
+}
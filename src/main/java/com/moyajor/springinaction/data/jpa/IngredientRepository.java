@@ -2,11 +2,11 @@ package com.moyajor.springinaction.data.jpa;
 
 import com.moyajor.springinaction.model.db.Ingredient;
 import org.springframework.context.annotation.Primary;
-import org.springframework.data.repository.CrudRepository;
+import org.springframework.data.repository.PagingAndSortingRepository;
 import org.springframework.stereotype.Repository;
 
 @Primary
 @Repository
-public interface IngredientRepository extends CrudRepository<Ingredient, String> {
+public interface IngredientRepository extends PagingAndSortingRepository<Ingredient, String> {
 
 }
@@ -0,0 +1,12 @@
+package com.moyajor.springinaction.data.jpa;
+
+public interface OrderReorderOperations {
+
+    /**
+     * Copies one of the user's live orders with set-based inserts.
+     *
+     * @return the id of the new order, or {@code null} when the user has no
+     * such order
+     */
+    Long reorder(long orderId, long userId);
+}
@@ -0,0 +1,54 @@
+package com.moyajor.springinaction.data.jpa;
+
+import com.moyajor.springinaction.data.IdBlockAllocator;
+import com.moyajor.springinaction.data.OrderCloner;
+import com.moyajor.springinaction.data.OrderSavedEvent;
+import com.moyajor.springinaction.model.db.Order;
+import com.moyajor.springinaction.model.db.Taco;
+import org.hibernate.Hibernate;
+import org.hibernate.Session;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.transaction.annotation.Transactional;
+
+import javax.persistence.EntityManager;
+import javax.persistence.PersistenceContext;
+import java.sql.Timestamp;
+
+class OrderReorderOperationsImpl implements OrderReorderOperations {
+
+    @PersistenceContext
+    private EntityManager entityManager;
+
+    @Autowired
+    private IdBlockAllocator idAllocator;
+
+    @Autowired
+    private ApplicationEventPublisher eventPublisher;
+
+    /**
+     * Publishes {@link OrderSavedEvent} for the copy like the JDBC repository
+     * does, with its tacos and their ingredients loaded because the listeners
+     * run after the session has closed.
+     */
+    @Override
+    @Transactional
+    public Long reorder(long orderId, long userId) {
+        // flush first so the copy sees any order changes made earlier in this transaction
+        entityManager.flush();
+        Timestamp placedAt = new Timestamp(System.currentTimeMillis());
+        long newOrderId = idAllocator.nextId(IdBlockAllocator.ORDER_SEQUENCE);
+        boolean copied = entityManager.unwrap(Session.class)
+                .doReturningWork(connection -> OrderCloner.cloneOrder(connection, newOrderId, orderId, userId, placedAt));
+        if (!copied) {
+            return null;
+        }
+        Order copy = entityManager.find(Order.class, newOrderId);
+        Hibernate.initialize(copy.getUser());
+        for (Taco taco : copy.getTacos()) {
+            Hibernate.initialize(taco.getIngredients());
+        }
+        eventPublisher.publishEvent(new OrderSavedEvent(this, copy));
+        return newOrderId;
+    }
+}
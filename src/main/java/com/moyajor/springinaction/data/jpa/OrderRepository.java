@@ -1,12 +1,15 @@
 package com.moyajor.springinaction.data.jpa;
 
 import com.moyajor.springinaction.model.db.Order;
+import com.moyajor.springinaction.model.db.OrderSummary;
 import org.springframework.context.annotation.Primary;
-import org.springframework.data.repository.CrudRepository;
+import org.springframework.data.repository.PagingAndSortingRepository;
+import org.springframework.data.rest.core.annotation.RepositoryRestResource;
 import org.springframework.stereotype.Repository;
 
 @Primary
 @Repository
+@RepositoryRestResource(excerptProjection = OrderSummary.class)
 public interface OrderRepository
-        extends CrudRepository<Order, Long> {
+        extends PagingAndSortingRepository<Order, Long>, OrderReorderOperations {
 }
@@ -1,11 +1,46 @@
 package com.moyajor.springinaction.data.jpa;
 
+import com.moyajor.springinaction.cache.CacheConfig;
 import com.moyajor.springinaction.model.db.Taco;
+import com.moyajor.springinaction.model.db.TacoSummary;
+import org.springframework.cache.annotation.Cacheable;
 import org.springframework.context.annotation.Primary;
-import org.springframework.data.repository.CrudRepository;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Sort;
+import org.springframework.data.jpa.repository.EntityGraph;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.PagingAndSortingRepository;
+import org.springframework.data.rest.core.annotation.RepositoryRestResource;
+import org.springframework.data.rest.core.annotation.RestResource;
 import org.springframework.stereotype.Repository;
 
+import java.util.Collection;
+import java.util.List;
+
 @Repository
 @Primary
-public interface TacoRepository extends CrudRepository<Taco, Long> {
+@RepositoryRestResource(excerptProjection = TacoSummary.class)
+public interface TacoRepository extends PagingAndSortingRepository<Taco, Long> {
+
+    @RestResource(exported = false)
+    @Query("select t.id from Taco t order by t.createdAt desc")
+    List<Long> findRecentIds(Pageable pageable);
+
+    /**
+     * Tacos with their ingredients in one query. Fetching a collection
+     * cannot be combined with a limit, so page the ids first.
+     */
+    @RestResource(exported = false)
+    @EntityGraph(attributePaths = "ingredients")
+    List<Taco> findDistinctByIdIn(Collection<Long> ids, Sort sort);
+
+    /**
+     * The newest tacos with their ingredients, cached until a taco is
+     * written on any node.
+     */
+    @Cacheable(cacheNames = CacheConfig.RECENT_TACOS)
+    default List<Taco> findRecent(int count) {
+        return findDistinctByIdIn(findRecentIds(PageRequest.of(0, count)), Sort.by("createdAt").descending());
+    }
 }
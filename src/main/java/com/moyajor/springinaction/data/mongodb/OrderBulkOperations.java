@@ -0,0 +1,15 @@
+package com.moyajor.springinaction.data.mongodb;
+
+import com.moyajor.springinaction.model.mongodb.Order;
+import reactor.core.publisher.Flux;
+
+import java.util.List;
+
+public interface OrderBulkOperations {
+
+    /**
+     * Inserts the orders with a single unordered insertMany, so the server may
+     * apply them in any order and one failing document does not stop the rest.
+     */
+    Flux<Order> insertAllUnordered(List<Order> orders);
+}
@@ -0,0 +1,40 @@
+package com.moyajor.springinaction.data.mongodb;
+
+import com.mongodb.client.model.InsertManyOptions;
+import com.moyajor.springinaction.model.mongodb.Order;
+import org.bson.Document;
+import org.bson.types.ObjectId;
+import org.springframework.data.mongodb.core.ReactiveMongoOperations;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+
+import java.util.ArrayList;
+import java.util.List;
+
+class OrderBulkOperationsImpl implements OrderBulkOperations {
+
+    private final ReactiveMongoOperations mongo;
+
+    OrderBulkOperationsImpl(ReactiveMongoOperations mongo) {
+        this.mongo = mongo;
+    }
+
+    @Override
+    public Flux<Order> insertAllUnordered(List<Order> orders) {
+        if (orders.isEmpty()) {
+            return Flux.empty();
+        }
+        List<Document> documents = new ArrayList<>(orders.size());
+        for (Order order : orders) {
+            if (order.getId() == null) {
+                order.setId(new ObjectId().toHexString());
+            }
+            Document document = new Document();
+            mongo.getConverter().write(order, document);
+            documents.add(document);
+        }
+        return Mono.from(mongo.getCollection(mongo.getCollectionName(Order.class))
+                        .insertMany(documents, new InsertManyOptions().ordered(false)))
+                .thenMany(Flux.fromIterable(orders));
+    }
+}
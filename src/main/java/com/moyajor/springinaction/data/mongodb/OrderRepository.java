@@ -1,6 +1,24 @@
 package com.moyajor.springinaction.data.mongodb;
 
 import com.moyajor.springinaction.model.mongodb.Order;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.mongodb.repository.Query;
 import org.springframework.data.mongodb.repository.ReactiveMongoRepository;
+import reactor.core.publisher.Flux;
 
-public interface OrderRepository extends ReactiveMongoRepository<Order, String> { }
+public interface OrderRepository extends ReactiveMongoRepository<Order, String>, OrderBulkOperations {
+
+    /**
+     * Orders of one customer with only placedAt and the taco names populated;
+     * pass a pageable sorted by placedAt descending to walk the
+     * customer_placedAt index.
+     */
+    @Query(value = "{ 'customer.username': ?0 }", fields = "{ 'placedAt': 1, 'tacos.name': 1 }")
+    Flux<Order> findSummariesByCustomer(String username, Pageable pageable);
+
+    /**
+     * The same page as {@link #findSummariesByCustomer} with whole documents.
+     */
+    @Query("{ 'customer.username': ?0 }")
+    Flux<Order> findByCustomer(String username, Pageable pageable);
+}
@@ -0,0 +1,151 @@
+package com.moyajor.springinaction.datagen;
+
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.boot.CommandLineRunner;
+import org.springframework.boot.SpringApplication;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.context.ConfigurableApplicationContext;
+import org.springframework.context.annotation.Profile;
+import org.springframework.stereotype.Component;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.LongFunction;
+
+/**
+ * Fills the active store with synthetic users and orders for scale tests.
+ * Run it next to a persistence profile and a persistent store, e.g.
+ * {@code --spring.profiles.active=jdbc,datagen --spring.datasource.url=jdbc:h2:file:./tacos
+ * --taco.datagen.orders=2000000}; it logs rows per second for each phase and
+ * exits when done. It refuses to load an in-process store (in-memory H2,
+ * embedded Mongo) that exiting would throw away, unless
+ * {@code taco.datagen.exit-when-done=false}. Order times count back from
+ * {@code taco.datagen.now} (epoch millis, default the start time, which is
+ * logged) so a run can be repeated exactly.
+ */
+@Slf4j
+@Component
+@Profile("datagen")
+@ConfigurationProperties(prefix = "taco.datagen")
+public class DataGenerator implements CommandLineRunner {
+
+    private long seed = 42;
+    private long users = 100_000;
+    private long orders = 1_000_000;
+    private int days = 365;
+    private double userSkew = 3.0;
+    private int batchSize = 1_000;
+    private int threads = Runtime.getRuntime().availableProcessors();
+    private boolean exitWhenDone = true;
+    private Long now;
+
+    private final ObjectProvider<DataSink> sinks;
+    private final ConfigurableApplicationContext context;
+
+    public DataGenerator(ObjectProvider<DataSink> sinks, ConfigurableApplicationContext context) {
+        this.sinks = sinks;
+        this.context = context;
+    }
+
+    public void setSeed(long seed) {
+        this.seed = seed;
+    }
+
+    public void setUsers(long users) {
+        this.users = users;
+    }
+
+    public void setOrders(long orders) {
+        this.orders = orders;
+    }
+
+    public void setDays(int days) {
+        this.days = days;
+    }
+
+    public void setUserSkew(double userSkew) {
+        this.userSkew = userSkew;
+    }
+
+    public void setBatchSize(int batchSize) {
+        this.batchSize = batchSize;
+    }
+
+    public void setThreads(int threads) {
+        this.threads = threads;
+    }
+
+    public void setExitWhenDone(boolean exitWhenDone) {
+        this.exitWhenDone = exitWhenDone;
+    }
+
+    public void setNow(Long now) {
+        this.now = now;
+    }
+
+    @Override
+    public void run(String... args) throws Exception {
+        DataSink sink = sinks.getIfAvailable();
+        if (sink == null) {
+            throw new IllegalStateException("The datagen profile needs the jdbc, jpa or mongo profile");
+        }
+        if (exitWhenDone && sink.isInProcess()) {
+            throw new IllegalStateException("The active store lives in this process and would be lost on exit; "
+                    + "point spring.datasource.url at a file or server database, "
+                    + "or set taco.datagen.exit-when-done=false to keep the application up");
+        }
+        long dataNow = now != null ? now : System.currentTimeMillis();
+        SyntheticData data = new SyntheticData(seed, users, days, userSkew, dataNow);
+        log.info("Generating {} users and {} orders with seed {} and now {} on {} threads into {}",
+                users, orders, seed, dataNow, threads, sink.getClass().getSimpleName());
+        sink.prepare(users, orders);
+
+        ExecutorService pool = Executors.newFixedThreadPool(threads);
+        try {
+            runPhase(pool, "users", users, first -> {
+                List<SyntheticData.GeneratedUser> batch = new ArrayList<>(batchSize);
+                for (long index = first; index < Math.min(users, first + batchSize); index++) {
+                    batch.add(data.user(index));
+                }
+                sink.writeUsers(batch);
+                return batch.size();
+            });
+            runPhase(pool, "orders", orders, first -> {
+                int count = (int) Math.min(batchSize, orders - first);
+                return sink.writeOrders(data.orders(first / batchSize, first, count));
+            });
+        } finally {
+            pool.shutdown();
+        }
+        sink.finish();
+
+        if (exitWhenDone) {
+            System.exit(SpringApplication.exit(context));
+        }
+    }
+
+    private void runPhase(ExecutorService pool, String phase, long total, LongFunction<Number> batch)
+            throws InterruptedException, ExecutionException {
+        long start = System.nanoTime();
+        AtomicLong rows = new AtomicLong();
+        List<Future<?>> batches = new ArrayList<>();
+        for (long first = 0; first < total; first += batchSize) {
+            long batchStart = first;
+            batches.add(pool.submit(() -> rows.addAndGet(batch.apply(batchStart).longValue())));
+        }
+        for (Future<?> future : batches) {
+            future.get();
+        }
+        double seconds = (System.nanoTime() - start) / (double) TimeUnit.SECONDS.toNanos(1);
+        log.info("Loaded {} {} as {} rows in {} s: {} {}/s, {} rows/s", total, phase, rows.get(),
+                String.format("%.1f", seconds), String.format("%.0f", total / seconds), phase,
+                String.format("%.0f", rows.get() / seconds));
+    }
+}
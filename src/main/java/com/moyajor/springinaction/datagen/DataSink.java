@@ -0,0 +1,34 @@
+package com.moyajor.springinaction.datagen;
+
+import com.moyajor.springinaction.datagen.SyntheticData.GeneratedOrder;
+import com.moyajor.springinaction.datagen.SyntheticData.GeneratedUser;
+
+import java.util.List;
+
+/**
+ * Store the data generator writes to. {@link #writeUsers} and
+ * {@link #writeOrders} are called concurrently from the generator threads,
+ * each call with one batch; all users are written before the first order.
+ */
+public interface DataSink {
+
+    void prepare(long users, long orders);
+
+    void writeUsers(List<GeneratedUser> users);
+
+    /**
+     * @return the number of rows or documents written for the batch
+     */
+    long writeOrders(List<GeneratedOrder> orders);
+
+    void finish();
+
+    /**
+     * Whether the store lives inside this JVM, such as in-memory H2 or
+     * embedded Mongo, so that everything written is gone once the generator
+     * exits.
+     */
+    default boolean isInProcess() {
+        return false;
+    }
+}
@@ -0,0 +1,121 @@
+package com.moyajor.springinaction.datagen;
+
+import com.moyajor.springinaction.data.IdBlockAllocator;
+import com.moyajor.springinaction.data.UserRepository;
+import com.moyajor.springinaction.datagen.SyntheticData.GeneratedOrder;
+import com.moyajor.springinaction.datagen.SyntheticData.GeneratedTaco;
+import com.moyajor.springinaction.datagen.SyntheticData.GeneratedUser;
+import com.moyajor.springinaction.model.db.Ingredient;
+import com.moyajor.springinaction.model.db.User;
+import org.springframework.context.annotation.Profile;
+import org.springframework.jdbc.core.ConnectionCallback;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.security.crypto.password.PasswordEncoder;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.sql.Timestamp;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Writes generated data to the relational schema. Users go through the JPA
+ * repository, relying on Hibernate's JDBC batching; tacos and orders are
+ * batch inserted with ids derived from their order index so they do not
+ * depend on which thread wrote them. The id sequences are moved past the
+ * generated ids when loading finishes.
+ */
+@Component
+@Profile({"jdbc", "jpa"})
+public class JdbcDataSink implements DataSink {
+
+    private static final String CARD_NUMBER = "4111111111111111";
+
+    private final JdbcTemplate jdbc;
+    private final UserRepository userRepo;
+    private final TransactionTemplate transactionTemplate;
+    private final PasswordEncoder passwordEncoder;
+    private long[] userIds;
+    private long firstTacoId;
+    private long firstOrderId;
+    private String passwordHash;
+
+    public JdbcDataSink(JdbcTemplate jdbc, UserRepository userRepo, TransactionTemplate transactionTemplate,
+                        PasswordEncoder passwordEncoder) {
+        this.jdbc = jdbc;
+        this.userRepo = userRepo;
+        this.transactionTemplate = transactionTemplate;
+        this.passwordEncoder = passwordEncoder;
+    }
+
+    @Override
+    public boolean isInProcess() {
+        String url = jdbc.execute((ConnectionCallback<String>) connection -> connection.getMetaData().getURL());
+        return url.startsWith("jdbc:h2:mem:") || url.startsWith("jdbc:hsqldb:mem:") || url.startsWith("jdbc:derby:memory:");
+    }
+
+    @Override
+    public void prepare(long users, long orders) {
+        userIds = new long[Math.toIntExact(users)];
+        firstTacoId = jdbc.queryForObject("select coalesce(max(id), 0) + 1 from Taco", Long.class);
+        firstOrderId = jdbc.queryForObject("select coalesce(max(id), 0) + 1 from Taco_Order", Long.class);
+        // every generated user signs in with "password"; hashing once keeps BCrypt out of the load
+        passwordHash = passwordEncoder.encode("password");
+    }
+
+    @Override
+    public void writeUsers(List<GeneratedUser> users) {
+        List<User> entities = new ArrayList<>(users.size());
+        for (GeneratedUser user : users) {
+            entities.add(new User(user.getUsername(), passwordHash, user.getFullname(), user.getStreet(),
+                    user.getCity(), user.getState(), user.getZip(), user.getPhoneNumber()));
+        }
+        transactionTemplate.execute(status -> userRepo.saveAll(entities));
+        for (int i = 0; i < users.size(); i++) {
+            userIds[(int) users.get(i).getIndex()] = entities.get(i).getId();
+        }
+    }
+
+    @Override
+    public long writeOrders(List<GeneratedOrder> orders) {
+        List<Object[]> tacoRows = new ArrayList<>();
+        List<Object[]> ingredientRows = new ArrayList<>();
+        List<Object[]> orderRows = new ArrayList<>(orders.size());
+        List<Object[]> orderTacoRows = new ArrayList<>();
+        for (GeneratedOrder order : orders) {
+            long orderId = firstOrderId + order.getIndex();
+            GeneratedUser customer = order.getCustomer();
+            for (int t = 0; t < order.getTacos().size(); t++) {
+                GeneratedTaco taco = order.getTacos().get(t);
+                long tacoId = firstTacoId + order.getIndex() * SyntheticData.MAX_TACOS_PER_ORDER + t;
+                tacoRows.add(new Object[]{tacoId, taco.getName(), new Timestamp(taco.getCreatedAt().getTime())});
+                for (Ingredient ingredient : taco.getIngredients()) {
+                    ingredientRows.add(new Object[]{tacoId, ingredient.getId()});
+                }
+                orderTacoRows.add(new Object[]{orderId, tacoId});
+            }
+            orderRows.add(new Object[]{orderId, userIds[(int) customer.getIndex()],
+                    new Timestamp(order.getPlacedAt().getTime()), customer.getFullname(), customer.getStreet(),
+                    customer.getCity(), customer.getState(), customer.getZip()});
+        }
+        transactionTemplate.execute(status -> {
+            jdbc.batchUpdate("insert into Taco (id, name, createdAt) values (?, ?, ?)", tacoRows);
+            jdbc.batchUpdate("insert into Taco_Ingredients (taco, ingredient) values (?, ?)", ingredientRows);
+            jdbc.batchUpdate("insert into Taco_Order (id, userId, placedAt, deliveryName, deliveryStreet, " +
+                            "deliveryCity, deliveryState, deliveryZip, ccNumber, ccExpiration, ccCVV) " +
+                            "values (?, ?, ?, ?, ?, ?, ?, ?, '" + CARD_NUMBER + "', '12/29', '123')",
+                    orderRows);
+            jdbc.batchUpdate("insert into Taco_Order_Tacos (tacoOrder, taco) values (?, ?)", orderTacoRows);
+            return null;
+        });
+        return tacoRows.size() + ingredientRows.size() + orderRows.size() + orderTacoRows.size();
+    }
+
+    @Override
+    public void finish() {
+        long nextTaco = jdbc.queryForObject("select coalesce(max(id), 0) + 1 from Taco", Long.class);
+        long nextOrder = jdbc.queryForObject("select coalesce(max(id), 0) + 1 from Taco_Order", Long.class);
+        jdbc.execute("alter sequence " + IdBlockAllocator.TACO_SEQUENCE + " restart with " + nextTaco);
+        jdbc.execute("alter sequence " + IdBlockAllocator.ORDER_SEQUENCE + " restart with " + nextOrder);
+    }
+}
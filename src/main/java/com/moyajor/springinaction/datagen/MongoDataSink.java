@@ -0,0 +1,102 @@
+package com.moyajor.springinaction.datagen;
+
+import com.moyajor.springinaction.data.mongodb.OrderRepository;
+import com.moyajor.springinaction.data.mongodb.TacoRepository;
+import com.moyajor.springinaction.data.mongodb.UserRepository;
+import com.moyajor.springinaction.datagen.SyntheticData.GeneratedOrder;
+import com.moyajor.springinaction.datagen.SyntheticData.GeneratedTaco;
+import com.moyajor.springinaction.datagen.SyntheticData.GeneratedUser;
+import com.moyajor.springinaction.model.mongodb.Ingredient;
+import com.moyajor.springinaction.model.mongodb.Order;
+import com.moyajor.springinaction.model.mongodb.Taco;
+import com.moyajor.springinaction.model.mongodb.User;
+import de.flapdoodle.embed.mongo.MongodExecutable;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.context.annotation.Profile;
+import org.springframework.security.crypto.password.PasswordEncoder;
+import org.springframework.stereotype.Component;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.stream.Collectors;
+
+/**
+ * Writes generated data as Mongo documents: users and tacos to their own
+ * collections, and orders, which embed both, through the unordered bulk
+ * insert of the order repository.
+ */
+@Component
+@Profile("mongo")
+public class MongoDataSink implements DataSink {
+
+    private final UserRepository userRepo;
+    private final TacoRepository tacoRepo;
+    private final OrderRepository orderRepo;
+    private final PasswordEncoder passwordEncoder;
+    private final ObjectProvider<MongodExecutable> embeddedMongo;
+    private String passwordHash;
+
+    public MongoDataSink(UserRepository userRepo, TacoRepository tacoRepo, OrderRepository orderRepo,
+                         PasswordEncoder passwordEncoder, ObjectProvider<MongodExecutable> embeddedMongo) {
+        this.userRepo = userRepo;
+        this.tacoRepo = tacoRepo;
+        this.orderRepo = orderRepo;
+        this.passwordEncoder = passwordEncoder;
+        this.embeddedMongo = embeddedMongo;
+    }
+
+    @Override
+    public boolean isInProcess() {
+        return embeddedMongo.getIfAvailable() != null;
+    }
+
+    @Override
+    public void prepare(long users, long orders) {
+        passwordHash = passwordEncoder.encode("password");
+    }
+
+    @Override
+    public void writeUsers(List<GeneratedUser> users) {
+        userRepo.insert(users.stream().map(this::toUser).collect(Collectors.toList())).blockLast();
+    }
+
+    @Override
+    public long writeOrders(List<GeneratedOrder> orders) {
+        List<Order> documents = new ArrayList<>(orders.size());
+        List<Taco> tacos = new ArrayList<>();
+        for (GeneratedOrder generated : orders) {
+            Order order = new Order();
+            order.setPlacedAt(generated.getPlacedAt());
+            order.setUser(toUser(generated.getCustomer()));
+            for (GeneratedTaco generatedTaco : generated.getTacos()) {
+                Taco taco = toTaco(generatedTaco);
+                tacos.add(taco);
+                order.addDesign(taco);
+            }
+            documents.add(order);
+        }
+        tacoRepo.insert(tacos).blockLast();
+        orderRepo.insertAllUnordered(documents).blockLast();
+        return tacos.size() + documents.size();
+    }
+
+    @Override
+    public void finish() {
+    }
+
+    private User toUser(GeneratedUser user) {
+        return new User(user.getUsername(), passwordHash, user.getFullname(), user.getStreet(), user.getCity(),
+                user.getState(), user.getZip(), user.getPhoneNumber());
+    }
+
+    private Taco toTaco(GeneratedTaco generated) {
+        Taco taco = new Taco();
+        taco.setName(generated.getName());
+        taco.setCreatedAt(generated.getCreatedAt());
+        taco.setIngredients(generated.getIngredients().stream()
+                .map(ingredient -> new Ingredient(ingredient.getId(), ingredient.getName(),
+                        Ingredient.Type.valueOf(ingredient.getType().name())))
+                .collect(Collectors.toList()));
+        return taco;
+    }
+}
@@ -0,0 +1,167 @@
+package com.moyajor.springinaction.datagen;
+
+import com.moyajor.springinaction.model.db.Ingredient;
+import lombok.Value;
+
+import java.util.ArrayList;
+import java.util.Date;
+import java.util.List;
+import java.util.SplittableRandom;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Deterministic synthetic users and orders. Every user is derived from the
+ * seed and its index, and every chunk of orders from the seed and the chunk
+ * number, so the same settings produce the same data whatever the thread
+ * count. Order volume is skewed: a few users place most orders, recent days
+ * are busier, and most orders hold one or two tacos.
+ */
+public class SyntheticData {
+
+    public static final int MAX_TACOS_PER_ORDER = 5;
+
+    private static final long USER_SALT = 0x5DEECE66DL;
+    private static final long GOLDEN_GAMMA = 0x9E3779B97F4A7C15L;
+
+    private static final Ingredient[] WRAPS = {
+            new Ingredient("FLTO", "Flour Tortilla", Ingredient.Type.WRAP),
+            new Ingredient("COTO", "Corn Tortilla", Ingredient.Type.WRAP)};
+    private static final Ingredient[] PROTEINS = {
+            new Ingredient("GRBF", "Ground Beef", Ingredient.Type.PROTEIN),
+            new Ingredient("CARN", "Carnitas", Ingredient.Type.PROTEIN)};
+    private static final Ingredient[] VEGGIES = {
+            new Ingredient("TMTO", "Diced Tomatoes", Ingredient.Type.VEGGIES),
+            new Ingredient("LETC", "Lettuce", Ingredient.Type.VEGGIES)};
+    private static final Ingredient[] CHEESES = {
+            new Ingredient("CHED", "Cheddar", Ingredient.Type.CHEESE),
+            new Ingredient("JACK", "Monterrey Jack", Ingredient.Type.CHEESE)};
+    private static final Ingredient[] SAUCES = {
+            new Ingredient("SLSA", "Salsa", Ingredient.Type.SAUCE),
+            new Ingredient("SRCR", "Sour Cream", Ingredient.Type.SAUCE)};
+
+    private static final String[] NAME_STYLES = {"Classic", "Supreme", "Loco", "Verde", "Diablo", "Fiesta", "Street",
+            "Deluxe", "Norteno", "Baja", "Smoky", "Crunchy"};
+    private static final String[] FIRST_NAMES = {"Ana", "Luis", "Maria", "John", "Wei", "Fatima", "Carlos", "Emma",
+            "Noah", "Sofia", "Ivan", "Aisha", "Diego", "Yuki", "Omar", "Lena"};
+    private static final String[] LAST_NAMES = {"Garcia", "Smith", "Chen", "Kowalski", "Okafor", "Rossi", "Silva",
+            "Nguyen", "Mueller", "Haddad", "Johnson", "Tanaka"};
+    private static final String[][] CITIES = {{"Denver", "CO", "80202"}, {"Austin", "TX", "73301"},
+            {"Chicago", "IL", "60601"}, {"Phoenix", "AZ", "85001"}, {"Seattle", "WA", "98101"},
+            {"Boston", "MA", "02108"}, {"Miami", "FL", "33101"}, {"Portland", "OR", "97201"}};
+    private static final double[] TACO_COUNT_WEIGHTS = {0.40, 0.30, 0.15, 0.10, 0.05};
+
+    private final long seed;
+    private final long users;
+    private final int days;
+    private final double userSkew;
+    private final long now;
+
+    public SyntheticData(long seed, long users, int days, double userSkew, long now) {
+        this.seed = seed;
+        this.users = users;
+        this.days = days;
+        this.userSkew = userSkew;
+        this.now = now;
+    }
+
+    public GeneratedUser user(long index) {
+        SplittableRandom random = new SplittableRandom(mix(seed ^ USER_SALT, index));
+        String[] city = pick(random, CITIES);
+        return new GeneratedUser(index, "user" + index,
+                pick(random, FIRST_NAMES) + " " + pick(random, LAST_NAMES),
+                (100 + random.nextInt(9900)) + " Main St", city[0], city[1], city[2],
+                String.format("555-%04d", random.nextInt(10_000)));
+    }
+
+    /**
+     * Orders {@code firstOrder} to {@code firstOrder + count - 1}, all drawn
+     * from the random stream of chunk {@code chunk}.
+     */
+    public List<GeneratedOrder> orders(long chunk, long firstOrder, int count) {
+        SplittableRandom random = new SplittableRandom(mix(seed, chunk));
+        List<GeneratedOrder> orders = new ArrayList<>(count);
+        long span = TimeUnit.DAYS.toMillis(days);
+        for (long index = firstOrder; index < firstOrder + count; index++) {
+            // squaring biases placedAt towards the present
+            double age = random.nextDouble();
+            Date placedAt = new Date(now - (long) (span * age * age));
+            long userIndex = Math.min(users - 1, (long) (users * Math.pow(random.nextDouble(), userSkew)));
+            int tacoCount = weighted(random, TACO_COUNT_WEIGHTS) + 1;
+            List<GeneratedTaco> tacos = new ArrayList<>(tacoCount);
+            for (int t = 0; t < tacoCount; t++) {
+                tacos.add(taco(random, placedAt));
+            }
+            orders.add(new GeneratedOrder(index, user(userIndex), placedAt, tacos));
+        }
+        return orders;
+    }
+
+    private GeneratedTaco taco(SplittableRandom random, Date placedAt) {
+        List<Ingredient> ingredients = new ArrayList<>(6);
+        ingredients.add(random.nextDouble() < 0.65 ? WRAPS[0] : WRAPS[1]);
+        Ingredient protein = random.nextDouble() < 0.55 ? PROTEINS[0] : PROTEINS[1];
+        ingredients.add(protein);
+        for (Ingredient veggie : VEGGIES) {
+            if (random.nextDouble() < 0.6) {
+                ingredients.add(veggie);
+            }
+        }
+        if (random.nextDouble() < 0.8) {
+            ingredients.add(pick(random, CHEESES));
+        }
+        if (random.nextDouble() < 0.7) {
+            ingredients.add(pick(random, SAUCES));
+        }
+        String name = protein.getName() + " " + pick(random, NAME_STYLES);
+        return new GeneratedTaco(name, new Date(placedAt.getTime() - 60_000 - random.nextInt(600_000)), ingredients);
+    }
+
+    private static int weighted(SplittableRandom random, double[] weights) {
+        double r = random.nextDouble();
+        for (int i = 0; i < weights.length - 1; i++) {
+            r -= weights[i];
+            if (r < 0) {
+                return i;
+            }
+        }
+        return weights.length - 1;
+    }
+
+    private static <T> T pick(SplittableRandom random, T[] values) {
+        return values[random.nextInt(values.length)];
+    }
+
+    private static long mix(long seed, long index) {
+        long z = seed + index * GOLDEN_GAMMA;
+        z = (z ^ (z >>> 30)) * 0xBF58476D1CE4E5B9L;
+        z = (z ^ (z >>> 27)) * 0x94D049BB133111EBL;
+        return z ^ (z >>> 31);
+    }
+
+    @Value
+    public static class GeneratedUser {
+        long index;
+        String username;
+        String fullname;
+        String street;
+        String city;
+        String state;
+        String zip;
+        String phoneNumber;
+    }
+
+    @Value
+    public static class GeneratedOrder {
+        long index;
+        GeneratedUser customer;
+        Date placedAt;
+        List<GeneratedTaco> tacos;
+    }
+
+    @Value
+    public static class GeneratedTaco {
+        String name;
+        Date createdAt;
+        List<Ingredient> ingredients;
+    }
+}
@@ -0,0 +1,39 @@
+package com.moyajor.springinaction.journal;
+
+import io.micrometer.core.instrument.MeterRegistry;
+import lombok.Data;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.boot.context.properties.EnableConfigurationProperties;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.context.annotation.Profile;
+
+import java.io.IOException;
+import java.nio.file.Paths;
+
+@Configuration
+@Profile({"jdbc", "jpa"})
+@ConditionalOnProperty(prefix = "taco.journal", name = "enabled", havingValue = "true", matchIfMissing = true)
+@EnableConfigurationProperties(JournalConfig.JournalProperties.class)
+public class JournalConfig {
+
+    @Bean(destroyMethod = "close")
+    public OrderJournal orderJournal(JournalProperties properties) throws IOException {
+        return new OrderJournal(Paths.get(properties.getDirectory()),
+                properties.getSegmentSize(), properties.getFsyncBatchSize());
+    }
+
+    @Bean
+    public OrderJournalListener orderJournalListener(OrderJournal orderJournal, MeterRegistry meterRegistry) {
+        return new OrderJournalListener(orderJournal, meterRegistry);
+    }
+
+    @Data
+    @ConfigurationProperties(prefix = "taco.journal")
+    public static class JournalProperties {
+        private String directory = "journal/orders";
+        private int segmentSize = 64 * 1024 * 1024;
+        private int fsyncBatchSize = 64;
+    }
+}
@@ -0,0 +1,114 @@
+package com.moyajor.springinaction.journal;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+
+/**
+ * Tails an {@link OrderJournal} for one named consumer. Records are handed
+ * out as read-only slices of the mapped segment, without copying, and the
+ * consumer's offset is persisted next to the segments after every poll.
+ */
+public class JournalReader implements Closeable {
+
+    @FunctionalInterface
+    public interface RecordHandler {
+        void onRecord(long offset, ByteBuffer payload);
+    }
+
+    private final Path directory;
+    private final int segmentSize;
+    private final Path offsetFile;
+
+    private long offset;
+    private long mappedBase = -1;
+    private MappedByteBuffer segment;
+
+    public JournalReader(Path directory, int segmentSize, String consumer) throws IOException {
+        this.directory = directory;
+        this.segmentSize = segmentSize;
+        this.offsetFile = directory.resolve(consumer + ".offset");
+        this.offset = readOffset();
+    }
+
+    public int poll(RecordHandler handler, int maxRecords) throws IOException {
+        int read = 0;
+        while (read < maxRecords) {
+            long base = offset - offset % segmentSize;
+            if (!map(base)) {
+                break;
+            }
+            int position = (int) (offset - base);
+            if (position + OrderJournal.HEADER_SIZE > segmentSize) {
+                offset = base + segmentSize;
+                continue;
+            }
+            int length = segment.getInt(position);
+            if (length == OrderJournal.END_OF_SEGMENT) {
+                offset = base + segmentSize;
+                continue;
+            }
+            if (length <= 0 || position + OrderJournal.HEADER_SIZE + length > segmentSize
+                    || !OrderJournal.matches(segment, position, length)) {
+                break;
+            }
+            ByteBuffer payload = segment.duplicate();
+            payload.limit(position + OrderJournal.HEADER_SIZE + length).position(position + OrderJournal.HEADER_SIZE);
+            handler.onRecord(offset, payload.slice().asReadOnlyBuffer());
+            offset += OrderJournal.HEADER_SIZE + length;
+            read++;
+        }
+        if (read > 0) {
+            writeOffset();
+        }
+        return read;
+    }
+
+    public long offset() {
+        return offset;
+    }
+
+    @Override
+    public void close() {
+        segment = null;
+        mappedBase = -1;
+    }
+
+    private boolean map(long base) throws IOException {
+        if (base == mappedBase) {
+            return true;
+        }
+        Path path = OrderJournal.segmentPath(directory, base);
+        if (!Files.exists(path)) {
+            return false;
+        }
+        try (FileChannel channel = FileChannel.open(path, StandardOpenOption.READ)) {
+            segment = channel.map(FileChannel.MapMode.READ_ONLY, 0, Math.min(segmentSize, channel.size()));
+        }
+        if (segment.capacity() < segmentSize) {
+            segment = null;
+            return false;
+        }
+        mappedBase = base;
+        return true;
+    }
+
+    private long readOffset() throws IOException {
+        if (!Files.exists(offsetFile)) {
+            return 0;
+        }
+        return ByteBuffer.wrap(Files.readAllBytes(offsetFile)).getLong();
+    }
+
+    private void writeOffset() throws IOException {
+        Path temp = offsetFile.resolveSibling(offsetFile.getFileName() + ".tmp");
+        Files.write(temp, ByteBuffer.allocate(Long.BYTES).putLong(0, offset).array());
+        Files.move(temp, offsetFile, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+    }
+}
@@ -0,0 +1,12 @@
+package com.moyajor.springinaction.journal;
+
+import lombok.Value;
+
+import java.util.List;
+
+@Value
+public class OrderEvent {
+    long orderId;
+    long placedAt;
+    List<Long> tacoIds;
+}
@@ -0,0 +1,50 @@
+package com.moyajor.springinaction.journal;
+
+import com.moyajor.springinaction.model.db.Order;
+import com.moyajor.springinaction.model.db.Taco;
+
+import java.nio.ByteBuffer;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Compact binary form of a placed order:
+ * {@code [version][orderId][placedAt][tacoCount][tacoId...]}.
+ */
+public final class OrderEventCodec {
+
+    private static final byte VERSION = 1;
+
+    private OrderEventCodec() {
+    }
+
+    public static ByteBuffer encode(Order order) {
+        List<Taco> tacos = order.getTacos();
+        ByteBuffer buffer = ByteBuffer.allocate(1 + 2 * Long.BYTES + Integer.BYTES + tacos.size() * Long.BYTES);
+        buffer.put(VERSION);
+        buffer.putLong(order.getId());
+        buffer.putLong(order.getPlacedAt() == null ? 0 : order.getPlacedAt().getTime());
+        buffer.putInt(tacos.size());
+        for (Taco taco : tacos) {
+            buffer.putLong(taco.getId());
+        }
+        buffer.flip();
+        return buffer;
+    }
+
+    public static OrderEvent decode(ByteBuffer payload) {
+        ByteBuffer buffer = payload.duplicate();
+        byte version = buffer.get();
+        if (version != VERSION) {
+            throw new IllegalArgumentException("Unsupported order event version " + version);
+        }
+        long orderId = buffer.getLong();
+        long placedAt = buffer.getLong();
+        int tacoCount = buffer.getInt();
+        List<Long> tacoIds = new ArrayList<>(tacoCount);
+        for (int i = 0; i < tacoCount; i++) {
+            tacoIds.add(buffer.getLong());
+        }
+        return new OrderEvent(orderId, placedAt, tacoIds);
+    }
+}
@@ -0,0 +1,146 @@
+package com.moyajor.springinaction.journal;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.DirectoryStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.zip.CRC32;
+
+/**
+ * Append-only journal made of fixed size, memory-mapped segment files. Each
+ * record is {@code [length][crc32][payload]}; the length is written last so a
+ * reader never sees a record before its payload. Offsets are global: a
+ * segment file is named after the offset of its first byte.
+ */
+public class OrderJournal implements Closeable {
+
+    static final int HEADER_SIZE = 2 * Integer.BYTES;
+    static final int END_OF_SEGMENT = -1;
+    static final String SEGMENT_SUFFIX = ".journal";
+
+    private final Path directory;
+    private final int segmentSize;
+    private final int fsyncBatchSize;
+
+    private FileChannel channel;
+    private MappedByteBuffer segment;
+    private long segmentBase;
+    private int unflushed;
+    private volatile long committedOffset;
+
+    public OrderJournal(Path directory, int segmentSize, int fsyncBatchSize) throws IOException {
+        this.directory = directory;
+        this.segmentSize = segmentSize;
+        this.fsyncBatchSize = fsyncBatchSize;
+        Files.createDirectories(directory);
+        openSegment(lastSegmentBase(directory));
+        recover();
+    }
+
+    public synchronized long append(ByteBuffer payload) throws IOException {
+        int length = payload.remaining();
+        if (length == 0 || HEADER_SIZE + length > segmentSize) {
+            throw new IllegalArgumentException("Record of " + length + " bytes does not fit a journal segment");
+        }
+        if (segment.remaining() < HEADER_SIZE + length) {
+            roll();
+        }
+        int start = segment.position();
+        CRC32 crc = new CRC32();
+        crc.update(payload.duplicate());
+        segment.putInt(start + Integer.BYTES, (int) crc.getValue());
+        segment.position(start + HEADER_SIZE);
+        segment.put(payload);
+        segment.putInt(start, length);
+        committedOffset = segmentBase + segment.position();
+        if (++unflushed >= fsyncBatchSize) {
+            flush();
+        }
+        return segmentBase + start;
+    }
+
+    public synchronized void flush() {
+        if (unflushed > 0) {
+            segment.force();
+            unflushed = 0;
+        }
+    }
+
+    public JournalReader newReader(String consumer) throws IOException {
+        return new JournalReader(directory, segmentSize, consumer);
+    }
+
+    public long committedOffset() {
+        return committedOffset;
+    }
+
+    @Override
+    public synchronized void close() throws IOException {
+        flush();
+        channel.close();
+    }
+
+    static Path segmentPath(Path directory, long base) {
+        return directory.resolve(String.format("%020d%s", base, SEGMENT_SUFFIX));
+    }
+
+    static boolean matches(ByteBuffer segment, int position, int length) {
+        ByteBuffer payload = segment.duplicate();
+        payload.limit(position + HEADER_SIZE + length).position(position + HEADER_SIZE);
+        CRC32 crc = new CRC32();
+        crc.update(payload);
+        return (int) crc.getValue() == segment.getInt(position + Integer.BYTES);
+    }
+
+    private void roll() throws IOException {
+        if (segment.remaining() >= Integer.BYTES) {
+            segment.putInt(segment.position(), END_OF_SEGMENT);
+        }
+        segment.force();
+        unflushed = 0;
+        channel.close();
+        openSegment(segmentBase + segmentSize);
+    }
+
+    private void openSegment(long base) throws IOException {
+        channel = FileChannel.open(segmentPath(directory, base),
+                StandardOpenOption.CREATE, StandardOpenOption.READ, StandardOpenOption.WRITE);
+        segment = channel.map(FileChannel.MapMode.READ_WRITE, 0, segmentSize);
+        segmentBase = base;
+    }
+
+    private void recover() throws IOException {
+        int position = 0;
+        while (position + HEADER_SIZE <= segmentSize) {
+            int length = segment.getInt(position);
+            if (length == END_OF_SEGMENT) {
+                segment.position(position);
+                roll();
+                return;
+            }
+            if (length <= 0 || position + HEADER_SIZE + length > segmentSize
+                    || !matches(segment, position, length)) {
+                break;
+            }
+            position += HEADER_SIZE + length;
+        }
+        segment.position(position);
+        committedOffset = segmentBase + position;
+    }
+
+    private static long lastSegmentBase(Path directory) throws IOException {
+        long last = 0;
+        try (DirectoryStream<Path> segments = Files.newDirectoryStream(directory, "*" + SEGMENT_SUFFIX)) {
+            for (Path segment : segments) {
+                String name = segment.getFileName().toString();
+                last = Math.max(last, Long.parseLong(name.substring(0, name.length() - SEGMENT_SUFFIX.length())));
+            }
+        }
+        return last;
+    }
+}
@@ -0,0 +1,45 @@
+package com.moyajor.springinaction.journal;
+
+import com.moyajor.springinaction.data.OrderSavedEvent;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.transaction.event.TransactionalEventListener;
+
+import java.io.IOException;
+
+/**
+ * Appends every stored order to the journal once its transaction (if any)
+ * has committed, and forces outstanding records to disk on a timer so a
+ * partially filled fsync batch is not held back. The order is already stored
+ * by then, so a failed append is logged and counted in
+ * {@code taco.journal.append.failures} rather than failing the request.
+ */
+@Slf4j
+public class OrderJournalListener {
+
+    private final OrderJournal journal;
+    private final Counter failures;
+
+    public OrderJournalListener(OrderJournal journal, MeterRegistry meterRegistry) {
+        this.journal = journal;
+        this.failures = meterRegistry.counter("taco.journal.append.failures");
+    }
+
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onOrderSaved(OrderSavedEvent event) {
+        try {
+            long offset = journal.append(OrderEventCodec.encode(event.getOrder()));
+            log.debug("Journaled order {} at offset {}", event.getOrder().getId(), offset);
+        } catch (IOException | RuntimeException e) {
+            failures.increment();
+            log.error("Could not journal order {}", event.getOrder().getId(), e);
+        }
+    }
+
+    @Scheduled(fixedDelayString = "${taco.journal.fsync-interval:200}")
+    public void flush() {
+        journal.flush();
+    }
+}
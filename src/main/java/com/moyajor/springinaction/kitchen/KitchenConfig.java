@@ -0,0 +1,20 @@
+package com.moyajor.springinaction.kitchen;
+
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+@Slf4j
+@Configuration
+public class KitchenConfig {
+
+    /**
+     * Default station work. Another application handler replaces it by being
+     * declared {@code @Primary}.
+     */
+    @Bean
+    public TicketHandler loggingTicketHandler() {
+        return ticket -> log.info("Station {} preparing {} for order {}",
+                ticket.getStation(), ticket.getTacos(), ticket.getOrderId());
+    }
+}
@@ -0,0 +1,177 @@
+package com.moyajor.springinaction.kitchen;
+
+import com.moyajor.springinaction.data.OrderSavedEvent;
+import com.moyajor.springinaction.model.db.Ingredient;
+import com.moyajor.springinaction.model.db.Order;
+import com.moyajor.springinaction.model.db.Taco;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Tag;
+import io.micrometer.core.instrument.Timer;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.context.annotation.Profile;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.event.TransactionalEventListener;
+
+import javax.annotation.PostConstruct;
+import javax.annotation.PreDestroy;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.EnumMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Splits every placed order into one ticket per station, queues the tickets
+ * by deadline and runs a worker pool per station. Order intake checks
+ * {@link #checkCapacity()} so that orders are refused while the queues are
+ * over the backpressure threshold.
+ */
+@Slf4j
+@Component
+@Profile({"jdbc", "jpa"})
+@ConfigurationProperties(prefix = "taco.kitchen")
+public class KitchenDispatcher {
+
+    private Map<Station, Integer> workers = new EnumMap<>(Station.class);
+    private int backpressureThreshold = 500;
+    private long prepMillisPerTaco = 60_000;
+
+    private final Map<Station, StationQueue> queues = new EnumMap<>(Station.class);
+    private final Map<Station, Timer> waitTimers = new EnumMap<>(Station.class);
+    private final Map<Station, Timer> serviceTimers = new EnumMap<>(Station.class);
+    private final AtomicInteger queued = new AtomicInteger();
+    private final AtomicLong sequence = new AtomicLong();
+    private final TicketHandler ticketHandler;
+    private final MeterRegistry meterRegistry;
+    private ExecutorService pool;
+    private volatile boolean running;
+
+    public KitchenDispatcher(TicketHandler ticketHandler, MeterRegistry meterRegistry) {
+        this.ticketHandler = ticketHandler;
+        this.meterRegistry = meterRegistry;
+        for (Station station : Station.values()) {
+            workers.put(station, 2);
+        }
+    }
+
+    public Map<Station, Integer> getWorkers() {
+        return workers;
+    }
+
+    public void setBackpressureThreshold(int backpressureThreshold) {
+        this.backpressureThreshold = backpressureThreshold;
+    }
+
+    public void setPrepMillisPerTaco(long prepMillisPerTaco) {
+        this.prepMillisPerTaco = prepMillisPerTaco;
+    }
+
+    @PostConstruct
+    public void start() {
+        int threads = 0;
+        for (Station station : Station.values()) {
+            StationQueue queue = new StationQueue();
+            queues.put(station, queue);
+            String tag = station.name().toLowerCase();
+            waitTimers.put(station, Timer.builder("taco.kitchen.queue.wait").tag("station", tag)
+                    .publishPercentileHistogram().register(meterRegistry));
+            serviceTimers.put(station, Timer.builder("taco.kitchen.service.time").tag("station", tag)
+                    .publishPercentileHistogram().register(meterRegistry));
+            meterRegistry.gauge("taco.kitchen.queue.size", Collections.singletonList(Tag.of("station", tag)),
+                    queue, StationQueue::size);
+            threads += workers.getOrDefault(station, 1);
+        }
+        running = true;
+        pool = Executors.newFixedThreadPool(threads);
+        for (Station station : Station.values()) {
+            for (int i = 0; i < workers.getOrDefault(station, 1); i++) {
+                pool.execute(() -> work(station));
+            }
+        }
+    }
+
+    @PreDestroy
+    public void stop() throws InterruptedException {
+        running = false;
+        pool.shutdown();
+        pool.awaitTermination(5, TimeUnit.SECONDS);
+    }
+
+    public void checkCapacity() {
+        int current = queued.get();
+        if (current >= backpressureThreshold) {
+            throw new KitchenOverloadedException(current);
+        }
+    }
+
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onOrderSaved(OrderSavedEvent event) {
+        dispatch(event.getOrder());
+    }
+
+    public void dispatch(Order order) {
+        Map<Station, List<String>> work = new EnumMap<>(Station.class);
+        for (Taco taco : order.getTacos()) {
+            for (Station station : stationsFor(taco)) {
+                work.computeIfAbsent(station, s -> new ArrayList<>()).add(taco.getName());
+            }
+        }
+        long placedAt = order.getPlacedAt() == null ? System.currentTimeMillis() : order.getPlacedAt().getTime();
+        long deadline = placedAt + order.getTacos().size() * prepMillisPerTaco;
+        for (Map.Entry<Station, List<String>> ticket : work.entrySet()) {
+            queued.incrementAndGet();
+            queues.get(ticket.getKey()).offer(new KitchenTicket(order.getId(), ticket.getKey(), ticket.getValue(),
+                    deadline, sequence.incrementAndGet()));
+        }
+    }
+
+    private List<Station> stationsFor(Taco taco) {
+        List<Station> stations = new ArrayList<>();
+        if (taco.getIngredients() != null) {
+            for (Ingredient ingredient : taco.getIngredients()) {
+                if (ingredient.getType() != null) {
+                    Station station = Station.forIngredient(ingredient.getType());
+                    if (!stations.contains(station)) {
+                        stations.add(station);
+                    }
+                }
+            }
+        }
+        if (stations.isEmpty()) {
+            stations.add(Station.COLD_PREP);
+        }
+        return stations;
+    }
+
+    private void work(Station station) {
+        StationQueue queue = queues.get(station);
+        while (running) {
+            KitchenTicket ticket;
+            try {
+                ticket = queue.poll(500, TimeUnit.MILLISECONDS);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                return;
+            }
+            if (ticket == null) {
+                continue;
+            }
+            queued.decrementAndGet();
+            long started = System.nanoTime();
+            waitTimers.get(station).record(started - ticket.getEnqueuedAtNanos(), TimeUnit.NANOSECONDS);
+            try {
+                ticketHandler.prepare(ticket);
+            } catch (RuntimeException e) {
+                log.error("Station {} failed to prepare order {}", station, ticket.getOrderId(), e);
+            } finally {
+                serviceTimers.get(station).record(System.nanoTime() - started, TimeUnit.NANOSECONDS);
+            }
+        }
+    }
+}
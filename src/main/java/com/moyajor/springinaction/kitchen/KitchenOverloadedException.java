@@ -0,0 +1,14 @@
+package com.moyajor.springinaction.kitchen;
+
+import org.springframework.http.HttpStatus;
+import org.springframework.web.bind.annotation.ResponseStatus;
+
+@ResponseStatus(value = HttpStatus.SERVICE_UNAVAILABLE, reason = "The kitchen is at capacity, please retry shortly")
+public class KitchenOverloadedException extends RuntimeException {
+
+    private static final long serialVersionUID = 1L;
+
+    public KitchenOverloadedException(int queued) {
+        super("Kitchen queues hold " + queued + " tickets");
+    }
+}
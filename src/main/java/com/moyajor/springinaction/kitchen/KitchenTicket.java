@@ -0,0 +1,35 @@
+package com.moyajor.springinaction.kitchen;
+
+import lombok.Getter;
+
+import java.util.List;
+
+/**
+ * The part of an order one station has to prepare. Tickets are ordered by
+ * deadline, so small orders overtake large ones without starving them, and
+ * by arrival for equal deadlines.
+ */
+@Getter
+public class KitchenTicket implements Comparable<KitchenTicket> {
+    private final long orderId;
+    private final Station station;
+    private final List<String> tacos;
+    private final long deadline;
+    private final long sequence;
+    private final long enqueuedAtNanos;
+
+    public KitchenTicket(long orderId, Station station, List<String> tacos, long deadline, long sequence) {
+        this.orderId = orderId;
+        this.station = station;
+        this.tacos = tacos;
+        this.deadline = deadline;
+        this.sequence = sequence;
+        this.enqueuedAtNanos = System.nanoTime();
+    }
+
+    @Override
+    public int compareTo(KitchenTicket other) {
+        int byDeadline = Long.compare(deadline, other.deadline);
+        return byDeadline != 0 ? byDeadline : Long.compare(sequence, other.sequence);
+    }
+}
@@ -0,0 +1,18 @@
+package com.moyajor.springinaction.kitchen;
+
+import com.moyajor.springinaction.model.db.Ingredient;
+
+public enum Station {
+    TORTILLA, GRILL, COLD_PREP;
+
+    public static Station forIngredient(Ingredient.Type type) {
+        switch (type) {
+            case WRAP:
+                return TORTILLA;
+            case PROTEIN:
+                return GRILL;
+            default:
+                return COLD_PREP;
+        }
+    }
+}
@@ -0,0 +1,31 @@
+package com.moyajor.springinaction.kitchen;
+
+import java.util.concurrent.ConcurrentSkipListSet;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Lock-free priority queue for one station: tickets sit in a skip list and
+ * a semaphore counts them so idle workers can block until work arrives.
+ */
+class StationQueue {
+
+    private final ConcurrentSkipListSet<KitchenTicket> tickets = new ConcurrentSkipListSet<>();
+    private final Semaphore available = new Semaphore(0);
+
+    void offer(KitchenTicket ticket) {
+        tickets.add(ticket);
+        available.release();
+    }
+
+    KitchenTicket poll(long timeout, TimeUnit unit) throws InterruptedException {
+        if (!available.tryAcquire(timeout, unit)) {
+            return null;
+        }
+        return tickets.pollFirst();
+    }
+
+    int size() {
+        return available.availablePermits();
+    }
+}
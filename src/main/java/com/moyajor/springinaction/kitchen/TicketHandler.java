@@ -0,0 +1,9 @@
+package com.moyajor.springinaction.kitchen;
+
+/**
+ * Does the station work for one ticket; called from the station's workers.
+ */
+@FunctionalInterface
+public interface TicketHandler {
+    void prepare(KitchenTicket ticket);
+}
@@ -0,0 +1,71 @@
+package com.moyajor.springinaction.migration;
+
+import com.datastax.driver.core.utils.UUIDs;
+import com.moyajor.springinaction.data.cassandra.CassandraOrderWriter;
+import com.moyajor.springinaction.model.cassandra.Ingredient;
+import com.moyajor.springinaction.model.cassandra.IngredientUDT;
+import com.moyajor.springinaction.model.cassandra.TacoUDT;
+import com.moyajor.springinaction.model.cassandra.UserUDT;
+import com.moyajor.springinaction.model.db.Order;
+import com.moyajor.springinaction.model.db.Taco;
+import com.moyajor.springinaction.model.db.User;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.context.annotation.Profile;
+import org.springframework.stereotype.Component;
+import reactor.core.publisher.Flux;
+
+import java.util.List;
+import java.util.UUID;
+import java.util.stream.Collectors;
+
+/**
+ * Writes batches through {@link CassandraOrderWriter}, which bounds the
+ * writes in flight. Inserts are upserts in Cassandra; the order id is a
+ * time-based UUID built from the placement time and the source id, so it
+ * sorts like a native one and stays the same when a batch is written again.
+ */
+@Component
+@Profile("migrate")
+@ConditionalOnProperty(prefix = "taco.migration", name = "target", havingValue = "cassandra")
+public class CassandraMigrationTarget implements MigrationTarget {
+
+    private static final long VARIANT = 0x8000000000000000L;
+
+    private final CassandraOrderWriter orderWriter;
+
+    public CassandraMigrationTarget(CassandraOrderWriter orderWriter) {
+        this.orderWriter = orderWriter;
+    }
+
+    @Override
+    public String getName() {
+        return "cassandra";
+    }
+
+    @Override
+    public void write(List<Order> orders) {
+        orderWriter.saveAll(Flux.fromIterable(orders).map(this::toRow)).blockLast();
+    }
+
+    static UUID orderId(Order source) {
+        long msb = UUIDs.startOf(source.getPlacedAt().getTime()).getMostSignificantBits();
+        return new UUID(msb, VARIANT | (source.getId() & ~0xC000000000000000L));
+    }
+
+    private com.moyajor.springinaction.model.cassandra.Order toRow(Order source) {
+        com.moyajor.springinaction.model.cassandra.Order order = new com.moyajor.springinaction.model.cassandra.Order();
+        order.setId(orderId(source));
+        order.setPlacedAt(source.getPlacedAt());
+        User customer = source.getUser();
+        order.setUser(customer != null
+                ? new UserUDT(customer.getUsername(), customer.getFullname(), customer.getPhoneNumber())
+                : new UserUDT(null, source.getName(), null));
+        for (Taco design : source.getTacos()) {
+            order.addDesign(new TacoUDT(design.getName(), design.getIngredients().stream()
+                    .map(ingredient -> new IngredientUDT(ingredient.getName(),
+                            Ingredient.Type.valueOf(ingredient.getType().name())))
+                    .collect(Collectors.toList())));
+        }
+        return order;
+    }
+}
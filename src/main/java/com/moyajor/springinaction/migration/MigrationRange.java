@@ -0,0 +1,17 @@
+package com.moyajor.springinaction.migration;
+
+import lombok.Value;
+
+/**
+ * Checkpoint of one key range, {@code start} inclusive and {@code end}
+ * exclusive. {@code lastId} is the highest order id already written to the
+ * target; a resumed run continues after it.
+ */
+@Value
+public class MigrationRange {
+    long start;
+    long end;
+    long lastId;
+    long rows;
+    boolean done;
+}
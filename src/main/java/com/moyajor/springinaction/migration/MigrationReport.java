@@ -0,0 +1,10 @@
+package com.moyajor.springinaction.migration;
+
+import lombok.Value;
+
+@Value
+public class MigrationReport {
+    long orders;
+    int ranges;
+    long durationMillis;
+}
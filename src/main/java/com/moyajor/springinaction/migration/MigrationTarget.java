@@ -0,0 +1,18 @@
+package com.moyajor.springinaction.migration;
+
+import com.moyajor.springinaction.model.db.Order;
+
+import java.util.List;
+
+/**
+ * Store orders are migrated to. Batches are written from several worker
+ * threads, and a batch that was written just before a crash is written again
+ * on resume, so writes must be idempotent: the target id of an order has to
+ * be derived from its source id.
+ */
+public interface MigrationTarget {
+
+    String getName();
+
+    void write(List<Order> orders);
+}
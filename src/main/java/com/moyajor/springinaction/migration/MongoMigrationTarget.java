@@ -0,0 +1,82 @@
+package com.moyajor.springinaction.migration;
+
+import com.mongodb.client.model.BulkWriteOptions;
+import com.mongodb.client.model.Filters;
+import com.mongodb.client.model.ReplaceOneModel;
+import com.mongodb.client.model.UpdateOptions;
+import com.moyajor.springinaction.model.db.Order;
+import com.moyajor.springinaction.model.db.User;
+import com.moyajor.springinaction.model.mongodb.Ingredient;
+import com.moyajor.springinaction.model.mongodb.Taco;
+import org.bson.Document;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.context.annotation.Profile;
+import org.springframework.data.mongodb.core.ReactiveMongoOperations;
+import org.springframework.stereotype.Component;
+import reactor.core.publisher.Mono;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.stream.Collectors;
+
+/**
+ * Writes each batch as one unordered bulk of upserts into the orders
+ * collection, with tacos and the customer embedded in the order document.
+ * Document ids are the source ids, so a repeated batch replaces what it
+ * wrote before. Password hashes are not copied into order documents.
+ */
+@Component
+@Profile("migrate")
+@ConditionalOnProperty(prefix = "taco.migration", name = "target", havingValue = "mongo", matchIfMissing = true)
+public class MongoMigrationTarget implements MigrationTarget {
+
+    private final ReactiveMongoOperations mongo;
+
+    public MongoMigrationTarget(ReactiveMongoOperations mongo) {
+        this.mongo = mongo;
+    }
+
+    @Override
+    public String getName() {
+        return "mongo";
+    }
+
+    @Override
+    public void write(List<Order> orders) {
+        List<ReplaceOneModel<Document>> upserts = new ArrayList<>(orders.size());
+        for (Order order : orders) {
+            Document document = new Document();
+            mongo.getConverter().write(toDocument(order), document);
+            upserts.add(new ReplaceOneModel<>(Filters.eq("_id", document.get("_id")), document,
+                    new UpdateOptions().upsert(true)));
+        }
+        Mono.from(mongo.getCollection(mongo.getCollectionName(com.moyajor.springinaction.model.mongodb.Order.class))
+                .bulkWrite(upserts, new BulkWriteOptions().ordered(false)))
+                .block();
+    }
+
+    private com.moyajor.springinaction.model.mongodb.Order toDocument(Order source) {
+        com.moyajor.springinaction.model.mongodb.Order order = new com.moyajor.springinaction.model.mongodb.Order();
+        order.setId(String.valueOf(source.getId()));
+        order.setPlacedAt(source.getPlacedAt());
+        User customer = source.getUser();
+        order.setUser(customer != null
+                ? new com.moyajor.springinaction.model.mongodb.User(customer.getUsername(), null, customer.getFullname(),
+                        customer.getStreet(), customer.getCity(), customer.getState(), customer.getZip(),
+                        customer.getPhoneNumber())
+                : new com.moyajor.springinaction.model.mongodb.User(null, null, source.getName(), source.getStreet(),
+                        source.getCity(), source.getState(), source.getZip(), null));
+        for (com.moyajor.springinaction.model.db.Taco design : source.getTacos()) {
+            Taco taco = new Taco();
+            taco.setId(String.valueOf(design.getId()));
+            taco.setName(design.getName());
+            taco.setCreatedAt(design.getCreatedAt());
+            taco.setIngredients(design.getIngredients().stream()
+                    .map(ingredient -> new Ingredient(ingredient.getId(), ingredient.getName(),
+                            Ingredient.Type.valueOf(ingredient.getType().name())))
+                    .collect(Collectors.toList()));
+            order.addDesign(taco);
+        }
+        return order;
+    }
+}
@@ -0,0 +1,201 @@
+package com.moyajor.springinaction.migration;
+
+import com.moyajor.springinaction.data.jdbc.JdbcMigrationCheckpointRepository;
+import com.moyajor.springinaction.data.jdbc.JdbcMigrationSource;
+import com.moyajor.springinaction.model.db.Order;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.boot.CommandLineRunner;
+import org.springframework.boot.SpringApplication;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.context.ConfigurableApplicationContext;
+import org.springframework.context.annotation.Profile;
+import org.springframework.stereotype.Component;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Copies live and archived orders from the relational store to the target selected by
+ * {@code taco.migration.target}, e.g.
+ * {@code --spring.profiles.active=migrate --spring.datasource.url=jdbc:h2:~/tacos}.
+ * <p>
+ * Source ids are cut into ranges of {@code range-size} ids that
+ * {@code threads} workers copy in batches of {@code batch-size} orders. After
+ * every batch the range's checkpoint records the last id written, so a
+ * restarted run continues where the previous one stopped. Orders placed
+ * while the migration runs are picked up by planning new ranges above the
+ * source head until a pass finds none. Throughput and how far the migrated
+ * ids trail the source head are logged every {@code report-seconds}.
+ * <p>
+ * Ranges that are done are never read again. Application nodes take order
+ * ids in blocks (see {@link com.moyajor.springinaction.data.IdBlockAllocator}),
+ * so a node still running can insert an order below a finished range, and
+ * the archiver can move an order between the reads of one batch. Stop order
+ * placement and archiving before the final pass; a final pass against a
+ * quiet source copies everything.
+ */
+@Slf4j
+@Component
+@Profile("migrate")
+@ConfigurationProperties(prefix = "taco.migration")
+public class OrderMigrator implements CommandLineRunner {
+
+    private String name = "orders";
+    private long rangeSize = 10_000;
+    private int batchSize = 500;
+    private int threads = 4;
+    private long reportSeconds = 10;
+    private boolean exitWhenDone = true;
+
+    private final JdbcMigrationSource source;
+    private final JdbcMigrationCheckpointRepository checkpoints;
+    private final ObjectProvider<MigrationTarget> targets;
+    private final ConfigurableApplicationContext context;
+
+    public OrderMigrator(JdbcMigrationSource source, JdbcMigrationCheckpointRepository checkpoints,
+                         ObjectProvider<MigrationTarget> targets, ConfigurableApplicationContext context) {
+        this.source = source;
+        this.checkpoints = checkpoints;
+        this.targets = targets;
+        this.context = context;
+    }
+
+    public void setName(String name) {
+        this.name = name;
+    }
+
+    public void setRangeSize(long rangeSize) {
+        this.rangeSize = rangeSize;
+    }
+
+    public void setBatchSize(int batchSize) {
+        this.batchSize = batchSize;
+    }
+
+    public void setThreads(int threads) {
+        this.threads = threads;
+    }
+
+    public void setReportSeconds(long reportSeconds) {
+        this.reportSeconds = reportSeconds;
+    }
+
+    public void setExitWhenDone(boolean exitWhenDone) {
+        this.exitWhenDone = exitWhenDone;
+    }
+
+    @Override
+    public void run(String... args) throws Exception {
+        migrate();
+        if (exitWhenDone) {
+            System.exit(SpringApplication.exit(context));
+        }
+    }
+
+    public MigrationReport migrate() throws InterruptedException, ExecutionException {
+        MigrationTarget target = targets.getIfAvailable();
+        if (target == null) {
+            throw new IllegalStateException("No migration target for taco.migration.target");
+        }
+        String migration = name + "-" + target.getName();
+        Progress progress = new Progress();
+        ExecutorService workers = Executors.newFixedThreadPool(threads);
+        ScheduledExecutorService reporter = Executors.newSingleThreadScheduledExecutor();
+        long start = System.nanoTime();
+        int ranges = 0;
+        try {
+            reporter.scheduleAtFixedRate(() -> log.info("{}: {}", migration, progress.describe(start)),
+                    reportSeconds, reportSeconds, TimeUnit.SECONDS);
+            List<MigrationRange> pending;
+            while (!(pending = plan(migration, progress)).isEmpty()) {
+                List<Future<?>> copies = new ArrayList<>(pending.size());
+                for (MigrationRange range : pending) {
+                    copies.add(workers.submit(() -> copy(migration, range, target, progress)));
+                }
+                for (Future<?> copy : copies) {
+                    copy.get();
+                }
+                ranges += pending.size();
+            }
+        } finally {
+            reporter.shutdownNow();
+            workers.shutdown();
+        }
+        MigrationReport report = new MigrationReport(progress.orders.get(), ranges,
+                TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - start));
+        log.info("{} finished: {}", migration, progress.describe(start));
+        return report;
+    }
+
+    /**
+     * Unfinished ranges of earlier runs plus new ranges up to the current
+     * source head.
+     */
+    private List<MigrationRange> plan(String migration, Progress progress) {
+        List<MigrationRange> pending = new ArrayList<>();
+        List<MigrationRange> existing = checkpoints.findAll(migration);
+        long plannedEnd = existing.isEmpty() ? source.minOrderId() : existing.get(existing.size() - 1).getEnd();
+        for (MigrationRange range : existing) {
+            if (!range.isDone()) {
+                pending.add(range);
+            }
+        }
+        long head = source.maxOrderId();
+        List<MigrationRange> added = new ArrayList<>();
+        if (head > 0) {
+            for (long start = plannedEnd; start <= head; start += rangeSize) {
+                added.add(new MigrationRange(start, Math.min(start + rangeSize, head + 1), start - 1, 0, false));
+            }
+        }
+        checkpoints.plan(migration, added);
+        pending.addAll(added);
+        progress.head = head;
+        for (MigrationRange range : pending) {
+            progress.frontiers.put(range.getStart(), range.getLastId());
+        }
+        return pending;
+    }
+
+    private void copy(String migration, MigrationRange range, MigrationTarget target, Progress progress) {
+        long lastId = range.getLastId();
+        List<Order> batch;
+        do {
+            batch = source.readOrders(lastId, range.getEnd(), batchSize);
+            if (batch.isEmpty()) {
+                break;
+            }
+            target.write(batch);
+            lastId = batch.get(batch.size() - 1).getId();
+            checkpoints.advance(migration, range.getStart(), lastId, batch.size());
+            progress.orders.addAndGet(batch.size());
+            progress.frontiers.put(range.getStart(), lastId);
+        } while (batch.size() == batchSize);
+        checkpoints.complete(migration, range.getStart());
+        progress.frontiers.remove(range.getStart());
+    }
+
+    private static class Progress {
+        private final AtomicLong orders = new AtomicLong();
+        // last id written per unfinished range; the lowest one is how far the target is complete
+        private final ConcurrentMap<Long, Long> frontiers = new ConcurrentHashMap<>();
+        private volatile long head;
+
+        String describe(long start) {
+            double seconds = (System.nanoTime() - start) / (double) TimeUnit.SECONDS.toNanos(1);
+            long complete = frontiers.isEmpty() ? head : Collections.min(frontiers.values());
+            return String.format("%d orders in %.1f s (%.0f orders/s), %d ranges open, %d ids behind source head %d",
+                    orders.get(), seconds, orders.get() / seconds, frontiers.size(), Math.max(0, head - complete), head);
+        }
+    }
+}
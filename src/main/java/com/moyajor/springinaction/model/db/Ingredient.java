@@ -1,6 +1,8 @@
 package com.moyajor.springinaction.model.db;
 
 import javax.persistence.Entity;
+import javax.persistence.EnumType;
+import javax.persistence.Enumerated;
 import javax.persistence.Id;
 import lombok.AccessLevel;
 import lombok.Data;
@@ -15,6 +17,7 @@ public class Ingredient {
     @Id
     private final String id;
     private final String name;
+    @Enumerated(EnumType.STRING)
     private final Type type;
     public static enum Type {
         WRAP, PROTEIN, VEGGIES, CHEESE, SAUCE
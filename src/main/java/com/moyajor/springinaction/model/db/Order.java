@@ -1,6 +1,11 @@
 package com.moyajor.springinaction.model.db;
 
+import com.fasterxml.jackson.annotation.JsonProperty;
+import com.moyajor.springinaction.data.IdBlockAllocator;
+import com.moyajor.springinaction.data.jpa.BlockIdGenerator;
 import lombok.Data;
+import org.hibernate.annotations.GenericGenerator;
+import org.hibernate.annotations.Parameter;
 import org.hibernate.validator.constraints.CreditCardNumber;
 
 import javax.persistence.*;
@@ -22,28 +27,46 @@ public class Order implements Serializable {
 
     @NotNull
     @Id
+    @GeneratedValue(generator = "order-ids")
+    @GenericGenerator(name = "order-ids", strategy = "com.moyajor.springinaction.data.jpa.BlockIdGenerator",
+            parameters = @Parameter(name = BlockIdGenerator.SEQUENCE_PARAMETER, value = IdBlockAllocator.ORDER_SEQUENCE))
     private Long id;
     @NotBlank(message="Name is required")
+    @Column(name="deliveryName")
     private String name;
     @NotBlank(message="Street is required")
+    @Column(name="deliveryStreet")
     private String street;
     @NotBlank(message="City is required")
+    @Column(name="deliveryCity")
     private String city;
     @NotBlank(message="State is required")
+    @Column(name="deliveryState")
     private String state;
     @NotBlank(message="Zip code is required")
+    @Column(name="deliveryZip")
     private String zip;
+    // card details are accepted from clients but never written back out
     @CreditCardNumber(message="Not a valid credit card number")
+    @JsonProperty(access = JsonProperty.Access.WRITE_ONLY)
     private String ccNumber;
     @Pattern(regexp="^(0[1-9]|1[0-2])([\\/])([1-9][0-9])$",
             message="Must be formatted MM/YY")
+    @JsonProperty(access = JsonProperty.Access.WRITE_ONLY)
     private String ccExpiration;
     @Digits(integer=3, fraction=0, message="Invalid CVV")
+    @JsonProperty(access = JsonProperty.Access.WRITE_ONLY)
     private String ccCVV;
 
     private Date placedAt;
 
+    @ManyToOne(fetch = FetchType.LAZY)
+    @JoinColumn(name="userId")
+    private User user;
+
     @ManyToMany(targetEntity=Taco.class)
+    @JoinTable(name="Taco_Order_Tacos", joinColumns=@JoinColumn(name="tacoOrder"),
+            inverseJoinColumns=@JoinColumn(name="taco"))
     private List<Taco> tacos = new ArrayList<>();
     public void addDesign(Taco design) {
         this.tacos.add(design);
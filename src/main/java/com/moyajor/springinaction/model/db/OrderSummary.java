@@ -0,0 +1,23 @@
+package com.moyajor.springinaction.model.db;
+
+import org.springframework.data.rest.core.config.Projection;
+
+import java.util.Date;
+
+/**
+ * Excerpt of an order in collection resources: who and when, without the
+ * payment details, the tacos or the customer account.
+ */
+@Projection(name = "summary", types = Order.class)
+public interface OrderSummary {
+
+    Long getId();
+
+    String getName();
+
+    String getCity();
+
+    String getState();
+
+    Date getPlacedAt();
+}
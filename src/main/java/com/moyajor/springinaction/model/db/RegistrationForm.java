@@ -15,6 +15,10 @@ public class RegistrationForm {
     private String phone;
 
     public User toUser(PasswordEncoder passwordEncoder) {
-        return new User(username, passwordEncoder.encode(password), fullname, street, city, state, zip, phone);
+        return toUser(passwordEncoder.encode(password));
+    }
+
+    public User toUser(String passwordHash) {
+        return new User(username, passwordHash, fullname, street, city, state, zip, phone);
     }
 }
@@ -1,10 +1,18 @@
 package com.moyajor.springinaction.model.db;
 
+import com.moyajor.springinaction.data.IdBlockAllocator;
+import com.moyajor.springinaction.data.TacoSavedEvent;
+import com.moyajor.springinaction.data.jpa.BlockIdGenerator;
 import lombok.Data;
+import org.hibernate.annotations.GenericGenerator;
+import org.hibernate.annotations.Parameter;
+import org.springframework.data.domain.DomainEvents;
 
 import javax.persistence.*;
 import javax.validation.constraints.NotNull;
 import javax.validation.constraints.Size;
+import java.util.Collection;
+import java.util.Collections;
 import java.util.Date;
 import java.util.List;
 
@@ -13,7 +21,9 @@ import java.util.List;
 public class Taco {
 
     @Id
-    @GeneratedValue(strategy= GenerationType.AUTO)
+    @GeneratedValue(generator = "taco-ids")
+    @GenericGenerator(name = "taco-ids", strategy = "com.moyajor.springinaction.data.jpa.BlockIdGenerator",
+            parameters = @Parameter(name = BlockIdGenerator.SEQUENCE_PARAMETER, value = IdBlockAllocator.TACO_SEQUENCE))
     private Long id;
 
     @NotNull
@@ -23,15 +33,23 @@ public class Taco {
     private Date createdAt;
 
     @ManyToMany(targetEntity=Ingredient.class)
+    @JoinTable(name="Taco_Ingredients", joinColumns=@JoinColumn(name="taco"),
+            inverseJoinColumns=@JoinColumn(name="ingredient"))
     @Size(min=1, message="You must choose at least 1 ingredient")
     private List<Ingredient> ingredients;
 
-    @ManyToOne
+    @ManyToOne(fetch = FetchType.LAZY)
+    @JoinColumn(name="userId")
     private User user;
 
     @PrePersist
     void createdAt() {
         this.createdAt = new Date();
     }
+
+    @DomainEvents
+    Collection<TacoSavedEvent> savedEvents() {
+        return Collections.singletonList(new TacoSavedEvent(this, Collections.singletonList(this)));
+    }
 }
 
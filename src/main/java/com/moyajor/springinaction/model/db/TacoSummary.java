@@ -0,0 +1,20 @@
+package com.moyajor.springinaction.model.db;
+
+import org.springframework.data.rest.core.config.Projection;
+
+import java.util.Date;
+
+/**
+ * Excerpt of a taco in collection resources. Ingredients and the designer
+ * stay behind their association links, so listing a page reads the taco
+ * rows only.
+ */
+@Projection(name = "summary", types = Taco.class)
+public interface TacoSummary {
+
+    Long getId();
+
+    String getName();
+
+    Date getCreatedAt();
+}
@@ -8,21 +8,30 @@ import org.springframework.security.core.GrantedAuthority;
 import org.springframework.security.core.authority.SimpleGrantedAuthority;
 import org.springframework.security.core.userdetails.UserDetails;
 
+import javax.persistence.Column;
 import javax.persistence.Entity;
 import javax.persistence.GeneratedValue;
 import javax.persistence.GenerationType;
 import javax.persistence.Id;
-import java.util.Arrays;
+import javax.persistence.SequenceGenerator;
+import java.util.ArrayList;
 import java.util.Collection;
+import java.util.List;
 
 @Entity
 @Data
-@NoArgsConstructor(access = AccessLevel.PRIVATE, force = true)
+@NoArgsConstructor(access = AccessLevel.PROTECTED, force = true)
 @RequiredArgsConstructor
 public class User implements UserDetails {
     private static final long serialVersionUID = 1L;
+    public static final String CUSTOMER = "USER";
+    public static final String PROVISIONING = "PROVISIONING";
+    public static final String OPERATIONS = "OPERATIONS";
+    /** Scratch customers of the startup warmup, see TrafficWarmup. */
+    public static final String WARMUP = "WARMUP";
     @Id
-    @GeneratedValue(strategy= GenerationType.AUTO)
+    @GeneratedValue(strategy= GenerationType.SEQUENCE, generator="user-ids")
+    @SequenceGenerator(name="user-ids", sequenceName="User_Seq", allocationSize=50)
     private Long id;
     private final String username;
     private final String password;
@@ -32,9 +41,16 @@ public class User implements UserDetails {
     private final String state;
     private final String zip;
     private final String phoneNumber;
+    /** Comma separated role names without the ROLE_ prefix; granted in the database. */
+    @Column(name="roles")
+    private String roles = CUSTOMER;
     @Override
     public Collection<? extends GrantedAuthority> getAuthorities() {
-        return Arrays.asList(new SimpleGrantedAuthority("ROLE_USER"));
+        List<GrantedAuthority> authorities = new ArrayList<>();
+        for (String role : roles.split(",")) {
+            authorities.add(new SimpleGrantedAuthority("ROLE_" + role.trim()));
+        }
+        return authorities;
     }
     @Override
     public boolean isAccountNonExpired() {
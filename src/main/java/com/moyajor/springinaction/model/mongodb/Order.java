@@ -2,6 +2,7 @@ package com.moyajor.springinaction.model.mongodb;
 
 import lombok.Data;
 import org.springframework.data.annotation.Id;
+import org.springframework.data.mongodb.core.index.CompoundIndex;
 import org.springframework.data.mongodb.core.mapping.Document;
 import org.springframework.data.mongodb.core.mapping.Field;
 
@@ -12,6 +13,7 @@ import java.util.List;
 
 @Data
 @Document
+@CompoundIndex(name = "customer_placedAt", def = "{'customer.username': 1, 'placedAt': -1}")
 public class Order implements Serializable {
     private static final long serialVersionUID = 1L;
     @Id
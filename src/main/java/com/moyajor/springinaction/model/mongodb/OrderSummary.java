@@ -0,0 +1,24 @@
+package com.moyajor.springinaction.model.mongodb;
+
+import lombok.Value;
+
+import java.util.Date;
+import java.util.List;
+import java.util.stream.Collectors;
+
+/**
+ * What an order listing needs: built from an {@link Order} loaded with only
+ * placedAt and the taco names, never the embedded customer or ingredients.
+ */
+@Value
+public class OrderSummary {
+    String id;
+    Date placedAt;
+    List<String> tacoNames;
+    int tacoCount;
+
+    public static OrderSummary of(Order order) {
+        List<String> names = order.getTacos().stream().map(Taco::getName).collect(Collectors.toList());
+        return new OrderSummary(order.getId(), order.getPlacedAt(), names, names.size());
+    }
+}
@@ -1,13 +1,21 @@
 package com.moyajor.springinaction.model.mongodb;
 
+import com.fasterxml.jackson.annotation.JsonIgnore;
+import com.fasterxml.jackson.annotation.JsonProperty;
 import lombok.AccessLevel;
 import lombok.Data;
 import lombok.NoArgsConstructor;
 import lombok.RequiredArgsConstructor;
 import org.springframework.data.annotation.Id;
 import org.springframework.data.mongodb.core.mapping.Document;
+import org.springframework.security.core.GrantedAuthority;
+import org.springframework.security.core.authority.SimpleGrantedAuthority;
 import org.springframework.security.core.userdetails.UserDetails;
 
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
+
 @Data
 @NoArgsConstructor(access= AccessLevel.PRIVATE, force=true)
 @RequiredArgsConstructor
@@ -17,6 +25,8 @@ public class User implements UserDetails {
     @Id
     private String id;
     private final String username;
+    // embedded in order documents that are sent back to clients
+    @JsonProperty(access = JsonProperty.Access.WRITE_ONLY)
     private final String password;
     private final String fullname;
     private final String street;
@@ -24,6 +34,32 @@ public class User implements UserDetails {
     private final String state;
     private final String zip;
     private final String phoneNumber;
-    // UserDetails method omitted for brevity's sake
+    /** Comma separated role names without the ROLE_ prefix; granted in the database, never from requests. */
+    @JsonIgnore
+    private String roles = "USER";
+    @Override
+    public Collection<? extends GrantedAuthority> getAuthorities() {
+        List<GrantedAuthority> authorities = new ArrayList<>();
+        for (String role : roles.split(",")) {
+            authorities.add(new SimpleGrantedAuthority("ROLE_" + role.trim()));
+        }
+        return authorities;
+    }
+    @Override
+    public boolean isAccountNonExpired() {
+        return true;
+    }
+    @Override
+    public boolean isAccountNonLocked() {
+        return true;
+    }
+    @Override
+    public boolean isCredentialsNonExpired() {
+        return true;
+    }
+    @Override
+    public boolean isEnabled() {
+        return true;
+    }
 }
 
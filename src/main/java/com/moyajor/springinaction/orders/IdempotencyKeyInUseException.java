@@ -0,0 +1,14 @@
+package com.moyajor.springinaction.orders;
+
+import org.springframework.http.HttpStatus;
+import org.springframework.web.bind.annotation.ResponseStatus;
+
+@ResponseStatus(value = HttpStatus.CONFLICT, reason = "An order with this idempotency key is still being placed, please retry shortly")
+public class IdempotencyKeyInUseException extends RuntimeException {
+
+    private static final long serialVersionUID = 1L;
+
+    public IdempotencyKeyInUseException(String key) {
+        super("Idempotency key " + key + " is claimed by an attempt that has not finished");
+    }
+}
@@ -0,0 +1,181 @@
+package com.moyajor.springinaction.orders;
+
+import com.moyajor.springinaction.data.jdbc.JdbcIdempotencyKeyRepository;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.context.annotation.Profile;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.util.Date;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Supplier;
+
+/**
+ * Runs an order placement at most once per user and client supplied
+ * idempotency key. Recent keys are kept in a bounded, expiring in-memory map
+ * so concurrent retries on this node wait for the first attempt; the unique
+ * key table catches duplicates arriving on other nodes. A retry that finds
+ * the key claimed by an attempt still running elsewhere waits up to
+ * {@code claim-wait-millis} for its order, then fails with
+ * {@link IdempotencyKeyInUseException}.
+ */
+@Slf4j
+@Service
+@Profile({"jdbc", "jpa"})
+@ConfigurationProperties(prefix = "taco.orders.idempotency")
+public class IdempotentOrderService {
+
+    public static final int MAX_KEY_LENGTH = 64;
+
+    private int maxKeys = 10_000;
+    private long ttlMinutes = 24 * 60;
+    private long claimWaitMillis = 5_000;
+    private long claimRetryMillis = 50;
+
+    private final Map<String, Attempt> recentKeys = new LinkedHashMap<>();
+    private final JdbcIdempotencyKeyRepository keyRepo;
+    private final TransactionTemplate transactionTemplate;
+
+    public IdempotentOrderService(JdbcIdempotencyKeyRepository keyRepo, TransactionTemplate transactionTemplate) {
+        this.keyRepo = keyRepo;
+        this.transactionTemplate = transactionTemplate;
+    }
+
+    public void setMaxKeys(int maxKeys) {
+        this.maxKeys = maxKeys;
+    }
+
+    public void setTtlMinutes(long ttlMinutes) {
+        this.ttlMinutes = ttlMinutes;
+    }
+
+    public void setClaimWaitMillis(long claimWaitMillis) {
+        this.claimWaitMillis = claimWaitMillis;
+    }
+
+    public void setClaimRetryMillis(long claimRetryMillis) {
+        this.claimRetryMillis = claimRetryMillis;
+    }
+
+    public Long submit(long userId, String key, Supplier<Long> placement) {
+        String recentKey = userId + ":" + key;
+        Attempt mine = new Attempt(System.currentTimeMillis());
+        Attempt existing = register(recentKey, mine);
+        if (existing != null) {
+            log.debug("Replaying order for idempotency key {} of user {}", key, userId);
+            return await(existing.result);
+        }
+        try {
+            Long orderId = claimAndPlace(userId, key, placement);
+            mine.result.complete(orderId);
+            return orderId;
+        } catch (RuntimeException e) {
+            synchronized (recentKeys) {
+                recentKeys.remove(recentKey, mine);
+            }
+            mine.result.completeExceptionally(e);
+            throw e;
+        }
+    }
+
+    /**
+     * Places the order if this call claims the key, otherwise returns the
+     * order of the attempt that did. An attempt that is still running on
+     * another node is waited for; one that rolled back frees the key, which
+     * the next round claims.
+     */
+    private Long claimAndPlace(long userId, String key, Supplier<Long> placement) {
+        long deadline = System.currentTimeMillis() + claimWaitMillis;
+        while (true) {
+            Long placed = transactionTemplate.execute(status -> {
+                if (!keyRepo.claim(userId, key)) {
+                    return null;
+                }
+                Long orderId = placement.get();
+                keyRepo.complete(userId, key, orderId);
+                return orderId;
+            });
+            if (placed != null) {
+                return placed;
+            }
+            Long committed = keyRepo.findOrderId(userId, key);
+            if (committed != null) {
+                return committed;
+            }
+            if (System.currentTimeMillis() >= deadline) {
+                throw new IdempotencyKeyInUseException(key);
+            }
+            try {
+                Thread.sleep(claimRetryMillis);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                throw new IdempotencyKeyInUseException(key);
+            }
+        }
+    }
+
+    @Scheduled(fixedDelayString = "${taco.orders.idempotency.purge-interval:600000}")
+    public void purgeExpiredKeys() {
+        long cutoff = System.currentTimeMillis() - TimeUnit.MINUTES.toMillis(ttlMinutes);
+        synchronized (recentKeys) {
+            evictExpired(cutoff);
+        }
+        int purged = keyRepo.deleteOlderThan(new Date(cutoff));
+        if (purged > 0) {
+            log.info("Purged {} expired idempotency keys", purged);
+        }
+    }
+
+    private Attempt register(String key, Attempt attempt) {
+        long cutoff = attempt.createdAt - TimeUnit.MINUTES.toMillis(ttlMinutes);
+        synchronized (recentKeys) {
+            Attempt existing = recentKeys.get(key);
+            if (existing != null && existing.createdAt >= cutoff) {
+                return existing;
+            }
+            recentKeys.remove(key);
+            recentKeys.put(key, attempt);
+            evictExpired(cutoff);
+            Iterator<Attempt> eldest = recentKeys.values().iterator();
+            while (recentKeys.size() > maxKeys && eldest.hasNext()) {
+                eldest.next();
+                eldest.remove();
+            }
+            return null;
+        }
+    }
+
+    private void evictExpired(long cutoff) {
+        Iterator<Attempt> eldest = recentKeys.values().iterator();
+        while (eldest.hasNext() && eldest.next().createdAt < cutoff) {
+            eldest.remove();
+        }
+    }
+
+    private Long await(CompletableFuture<Long> result) {
+        try {
+            return result.join();
+        } catch (CompletionException e) {
+            if (e.getCause() instanceof RuntimeException) {
+                throw (RuntimeException) e.getCause();
+            }
+            throw e;
+        }
+    }
+
+    private static final class Attempt {
+        private final long createdAt;
+        private final CompletableFuture<Long> result = new CompletableFuture<>();
+
+        Attempt(long createdAt) {
+            this.createdAt = createdAt;
+        }
+    }
+}
@@ -0,0 +1,14 @@
+package com.moyajor.springinaction.rollup;
+
+import lombok.Getter;
+
+public enum Granularity {
+    HOUR(1), DAY(24);
+
+    @Getter
+    private final int hours;
+
+    Granularity(int hours) {
+        this.hours = hours;
+    }
+}
@@ -0,0 +1,12 @@
+package com.moyajor.springinaction.rollup;
+
+import lombok.Value;
+
+import java.util.Date;
+
+@Value
+public class IngredientUsage {
+    Date start;
+    String ingredient;
+    long uses;
+}
@@ -0,0 +1,52 @@
+package com.moyajor.springinaction.rollup;
+
+import lombok.Getter;
+
+import java.util.Date;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Order, taco and ingredient counts per UTC hour, accumulated in memory
+ * until they are added to the rollup tables.
+ */
+public class SalesBuckets {
+
+    private static final long HOUR_MILLIS = TimeUnit.HOURS.toMillis(1);
+
+    @Getter
+    private final Map<Long, Hour> hours = new HashMap<>();
+    @Getter
+    private long orders;
+
+    public static long epochHour(Date date) {
+        return Math.floorDiv(date.getTime(), HOUR_MILLIS);
+    }
+
+    public void addOrder(Date placedAt, long tacos) {
+        Hour hour = hour(epochHour(placedAt));
+        hour.orders++;
+        hour.tacos += tacos;
+        orders++;
+    }
+
+    public void addIngredient(Date placedAt, String ingredient, long uses) {
+        hour(epochHour(placedAt)).ingredients.merge(ingredient, uses, Long::sum);
+    }
+
+    public boolean isEmpty() {
+        return hours.isEmpty();
+    }
+
+    private Hour hour(long epochHour) {
+        return hours.computeIfAbsent(epochHour, key -> new Hour());
+    }
+
+    @Getter
+    public static class Hour {
+        private long orders;
+        private long tacos;
+        private final Map<String, Long> ingredients = new HashMap<>();
+    }
+}
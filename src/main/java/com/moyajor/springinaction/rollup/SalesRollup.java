@@ -0,0 +1,66 @@
+package com.moyajor.springinaction.rollup;
+
+import com.moyajor.springinaction.data.jdbc.JdbcSalesRollupRepository;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.context.annotation.Profile;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.util.List;
+
+/**
+ * Keeps hourly order, taco and ingredient counts without grouping over the
+ * order tables. Every {@code taco.rollup.flush-interval} the orders not yet
+ * rolled up are counted into the rollup tables, {@code batch-size} orders per
+ * transaction, and flagged in the same transaction. Orders are picked up from
+ * the table rather than from save events, so orders saved through any path,
+ * by any node or while this node was down are all counted once.
+ */
+@Slf4j
+@Component
+@Profile({"jdbc", "jpa"})
+@ConfigurationProperties(prefix = "taco.rollup")
+public class SalesRollup {
+
+    private int batchSize = 1000;
+
+    private final JdbcSalesRollupRepository rollupRepo;
+    private final TransactionTemplate transactionTemplate;
+
+    public SalesRollup(JdbcSalesRollupRepository rollupRepo, TransactionTemplate transactionTemplate) {
+        this.rollupRepo = rollupRepo;
+        this.transactionTemplate = transactionTemplate;
+    }
+
+    public void setBatchSize(int batchSize) {
+        this.batchSize = batchSize;
+    }
+
+    @Scheduled(fixedDelayString = "${taco.rollup.flush-interval:10000}")
+    public void rollUp() {
+        long start = System.currentTimeMillis();
+        long orders = 0;
+        try {
+            SalesBuckets batch;
+            do {
+                batch = transactionTemplate.execute(status -> rollupRepo.rollUpPending(batchSize));
+                orders += batch.getOrders();
+            } while (batch.getOrders() == batchSize);
+        } catch (RuntimeException e) {
+            log.warn("Could not roll up orders, retrying with the next run", e);
+        }
+        if (orders > 0) {
+            log.debug("Rolled up {} orders in {} ms", orders, System.currentTimeMillis() - start);
+        }
+    }
+
+    public List<SalesPeriod> sales(Granularity granularity, long fromHour, long toHour) {
+        return rollupRepo.sales(granularity, fromHour, toHour);
+    }
+
+    public List<IngredientUsage> ingredientUsage(Granularity granularity, long fromHour, long toHour) {
+        return rollupRepo.ingredientUsage(granularity, fromHour, toHour);
+    }
+}
@@ -0,0 +1,147 @@
+package com.moyajor.springinaction.search;
+
+import lombok.Value;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Locale;
+import java.util.Set;
+import java.util.concurrent.locks.ReadWriteLock;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+
+/**
+ * Case-insensitive prefix index over taco names. Every trie node keeps the
+ * most recent matches of its subtree, so a lookup only walks the prefix.
+ * Each taco id is indexed once; adding it again is a no-op.
+ */
+public class TacoNameIndex {
+
+    private static final char[] NO_KEYS = new char[0];
+    private static final Node[] NO_CHILDREN = new Node[0];
+    private static final Match[] NO_MATCHES = new Match[0];
+
+    private final int maxResults;
+    private final Node root = new Node();
+    private final ReadWriteLock lock = new ReentrantReadWriteLock();
+    private final Set<Long> ids = new HashSet<>();
+
+    public TacoNameIndex(int maxResults) {
+        if (maxResults < 1) {
+            throw new IllegalArgumentException("maxResults must be positive");
+        }
+        this.maxResults = maxResults;
+    }
+
+    public void add(long id, String name, long createdAt) {
+        if (name == null) {
+            return;
+        }
+        Match match = new Match(id, name, createdAt);
+        String key = normalize(name);
+        lock.writeLock().lock();
+        try {
+            if (!ids.add(id)) {
+                return;
+            }
+            Node node = root;
+            node.offer(match, maxResults);
+            for (int i = 0; i < key.length(); i++) {
+                node = node.childFor(key.charAt(i));
+                node.offer(match, maxResults);
+            }
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    public List<Match> search(String prefix, int limit) {
+        String key = normalize(prefix == null ? "" : prefix);
+        lock.readLock().lock();
+        try {
+            Node node = root;
+            for (int i = 0; i < key.length() && node != null; i++) {
+                node = node.child(key.charAt(i));
+            }
+            if (node == null) {
+                return Collections.emptyList();
+            }
+            int count = Math.min(Math.max(limit, 0), node.top.length);
+            return Collections.unmodifiableList(new ArrayList<>(Arrays.asList(node.top).subList(0, count)));
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    public int size() {
+        lock.readLock().lock();
+        try {
+            return ids.size();
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    private static String normalize(String value) {
+        return value.trim().toLowerCase(Locale.ROOT);
+    }
+
+    @Value
+    public static class Match {
+        long id;
+        String name;
+        long createdAt;
+    }
+
+    private static final class Node {
+        private char[] keys = NO_KEYS;
+        private Node[] children = NO_CHILDREN;
+        private Match[] top = NO_MATCHES;
+
+        Node child(char c) {
+            int i = Arrays.binarySearch(keys, c);
+            return i >= 0 ? children[i] : null;
+        }
+
+        Node childFor(char c) {
+            int i = Arrays.binarySearch(keys, c);
+            if (i >= 0) {
+                return children[i];
+            }
+            int at = -i - 1;
+            Node child = new Node();
+            char[] newKeys = new char[keys.length + 1];
+            Node[] newChildren = new Node[children.length + 1];
+            System.arraycopy(keys, 0, newKeys, 0, at);
+            System.arraycopy(children, 0, newChildren, 0, at);
+            newKeys[at] = c;
+            newChildren[at] = child;
+            System.arraycopy(keys, at, newKeys, at + 1, keys.length - at);
+            System.arraycopy(children, at, newChildren, at + 1, children.length - at);
+            keys = newKeys;
+            children = newChildren;
+            return child;
+        }
+
+        void offer(Match match, int capacity) {
+            int at = 0;
+            while (at < top.length && top[at].getCreatedAt() >= match.getCreatedAt()) {
+                if (top[at].getId() == match.getId()) {
+                    return;
+                }
+                at++;
+            }
+            if (at >= capacity) {
+                return;
+            }
+            int length = Math.min(top.length + 1, capacity);
+            Match[] newTop = new Match[length];
+            System.arraycopy(top, 0, newTop, 0, at);
+            newTop[at] = match;
+            System.arraycopy(top, at, newTop, at + 1, length - at - 1);
+            top = newTop;
+        }
+    }
+}
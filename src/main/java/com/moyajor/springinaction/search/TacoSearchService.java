@@ -0,0 +1,63 @@
+package com.moyajor.springinaction.search;
+
+import com.moyajor.springinaction.data.TacoSavedEvent;
+import com.moyajor.springinaction.model.db.Taco;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.context.annotation.Profile;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.event.TransactionalEventListener;
+
+import javax.annotation.PostConstruct;
+import java.util.List;
+
+/**
+ * Keeps the taco name index in step with the stored tacos: it is loaded from
+ * the Taco table at startup and fed by {@link TacoSavedEvent} once the saving
+ * transaction commits, whichever path stored the taco. Rolled back tacos are
+ * never indexed.
+ */
+@Slf4j
+@Service
+@Profile({"jdbc", "jpa"})
+@ConfigurationProperties(prefix = "taco.search")
+public class TacoSearchService {
+
+    private int maxResults = 10;
+
+    private TacoNameIndex index;
+
+    @Autowired
+    private JdbcTemplate jdbc;
+
+    public void setMaxResults(int maxResults) {
+        this.maxResults = maxResults;
+    }
+
+    @PostConstruct
+    public void buildIndex() {
+        long start = System.currentTimeMillis();
+        TacoNameIndex loaded = new TacoNameIndex(maxResults);
+        jdbc.query("select id, name, createdAt from Taco",
+                rs -> {
+                    loaded.add(rs.getLong("id"), rs.getString("name"), rs.getTimestamp("createdAt").getTime());
+                });
+        this.index = loaded;
+        log.info("Indexed {} taco names in {} ms", loaded.size(), System.currentTimeMillis() - start);
+    }
+
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onTacoSaved(TacoSavedEvent event) {
+        for (Taco taco : event.getTacos()) {
+            if (taco.getId() != null && taco.getCreatedAt() != null) {
+                index.add(taco.getId(), taco.getName(), taco.getCreatedAt().getTime());
+            }
+        }
+    }
+
+    public List<TacoNameIndex.Match> search(String prefix, int limit) {
+        return index.search(prefix, Math.min(limit, maxResults));
+    }
+}
@@ -1,20 +1,25 @@
 package com.moyajor.springinaction.security;
 
+import com.moyajor.springinaction.cache.CacheConfig;
 import com.moyajor.springinaction.data.UserRepository;
 import com.moyajor.springinaction.model.db.User;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.cache.annotation.Cacheable;
+import org.springframework.context.annotation.Profile;
 import org.springframework.security.core.userdetails.UserDetails;
 import org.springframework.security.core.userdetails.UserDetailsService;
 import org.springframework.security.core.userdetails.UsernameNotFoundException;
 import org.springframework.stereotype.Service;
 
 @Service
+@Profile({"jdbc", "jpa"})
 public class JDBCUserDetailsService implements UserDetailsService {
 
     @Autowired
     private UserRepository userRepository;
 
     @Override
+    @Cacheable(cacheNames = CacheConfig.USERS)
     public UserDetails loadUserByUsername(String username) throws UsernameNotFoundException {
         User user = userRepository.findByUsername(username);
         if (user != null) {
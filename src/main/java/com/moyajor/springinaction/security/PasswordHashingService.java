@@ -0,0 +1,111 @@
+package com.moyajor.springinaction.security;
+
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Tags;
+import io.micrometer.core.instrument.Timer;
+import io.micrometer.core.instrument.binder.jvm.ExecutorServiceMetrics;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.http.HttpStatus;
+import org.springframework.security.crypto.password.PasswordEncoder;
+import org.springframework.stereotype.Service;
+import org.springframework.web.server.ResponseStatusException;
+
+import javax.annotation.PostConstruct;
+import javax.annotation.PreDestroy;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Runs password hashing on its own pool, sized to the CPU count, so that a
+ * burst of sign-ups queues here instead of holding request threads. When the
+ * queue is full callers get a 503 rather than waiting indefinitely.
+ */
+@Slf4j
+@Service
+@ConfigurationProperties(prefix = "taco.security.hashing")
+public class PasswordHashingService {
+
+    private int threads = Runtime.getRuntime().availableProcessors();
+    private int queueCapacity = 1_000;
+    private int bulkParallelism = Math.max(1, Runtime.getRuntime().availableProcessors() / 2);
+
+    private final PasswordEncoder passwordEncoder;
+    private final MeterRegistry meterRegistry;
+    private ThreadPoolExecutor executor;
+    private Timer hashTimer;
+
+    public PasswordHashingService(PasswordEncoder passwordEncoder, MeterRegistry meterRegistry) {
+        this.passwordEncoder = passwordEncoder;
+        this.meterRegistry = meterRegistry;
+    }
+
+    public void setThreads(int threads) {
+        this.threads = threads;
+    }
+
+    public void setQueueCapacity(int queueCapacity) {
+        this.queueCapacity = queueCapacity;
+    }
+
+    public void setBulkParallelism(int bulkParallelism) {
+        this.bulkParallelism = bulkParallelism;
+    }
+
+    @PostConstruct
+    public void start() {
+        AtomicInteger count = new AtomicInteger();
+        executor = new ThreadPoolExecutor(threads, threads, 0, TimeUnit.MILLISECONDS,
+                new ArrayBlockingQueue<>(queueCapacity), runnable -> {
+            Thread thread = new Thread(runnable, "password-hashing-" + count.incrementAndGet());
+            thread.setDaemon(true);
+            return thread;
+        });
+        new ExecutorServiceMetrics(executor, "taco.password.hashing", Tags.empty()).bindTo(meterRegistry);
+        hashTimer = Timer.builder("taco.password.hash").register(meterRegistry);
+    }
+
+    @PreDestroy
+    public void stop() {
+        executor.shutdown();
+    }
+
+    public CompletableFuture<String> encode(String rawPassword) {
+        try {
+            return CompletableFuture.supplyAsync(() -> hashTimer.record(() -> passwordEncoder.encode(rawPassword)), executor);
+        } catch (RejectedExecutionException e) {
+            log.warn("Password hashing queue is full ({} waiting)", executor.getQueue().size());
+            CompletableFuture<String> rejected = new CompletableFuture<>();
+            rejected.completeExceptionally(
+                    new ResponseStatusException(HttpStatus.SERVICE_UNAVAILABLE, "Too many registrations, please retry shortly"));
+            return rejected;
+        }
+    }
+
+    /**
+     * Hashes a batch on at most {@code bulk-parallelism} threads at a time, so
+     * a large import leaves the rest of the pool to interactive sign-ups.
+     * Results are returned in input order.
+     */
+    public CompletableFuture<List<String>> encodeAll(List<String> rawPasswords) {
+        String[] hashes = new String[rawPasswords.size()];
+        int lanes = Math.max(1, Math.min(bulkParallelism, hashes.length));
+        CompletableFuture<?>[] chains = new CompletableFuture<?>[lanes];
+        for (int lane = 0; lane < lanes; lane++) {
+            CompletableFuture<Void> chain = CompletableFuture.completedFuture(null);
+            for (int i = lane; i < hashes.length; i += lanes) {
+                int index = i;
+                chain = chain.thenCompose(previous -> encode(rawPasswords.get(index)))
+                        .thenAccept(hash -> hashes[index] = hash);
+            }
+            chains[lane] = chain;
+        }
+        return CompletableFuture.allOf(chains).thenApply(done -> Arrays.asList(hashes));
+    }
+}
@@ -0,0 +1,51 @@
+package com.moyajor.springinaction.security;
+
+import com.moyajor.springinaction.data.mongodb.UserRepository;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.context.annotation.Profile;
+import org.springframework.http.HttpMethod;
+import org.springframework.security.config.annotation.web.reactive.EnableWebFluxSecurity;
+import org.springframework.security.config.web.server.ServerHttpSecurity;
+import org.springframework.security.core.userdetails.ReactiveUserDetailsService;
+import org.springframework.security.core.userdetails.UserDetails;
+import org.springframework.security.crypto.bcrypt.BCryptPasswordEncoder;
+import org.springframework.security.crypto.password.PasswordEncoder;
+import org.springframework.security.web.server.SecurityWebFilterChain;
+
+@Configuration
+@Profile("mongo")
+@EnableWebFluxSecurity
+public class ReactiveSecurityConfig {
+
+    @Value("${taco.security.bcrypt-strength:10}")
+    private int bcryptStrength;
+
+    @Bean
+    public PasswordEncoder encoder() {
+        return new BCryptPasswordEncoder(bcryptStrength);
+    }
+
+    @Bean
+    public ReactiveUserDetailsService userDetailsService(UserRepository userRepo) {
+        return username -> userRepo.findByUsername(username).cast(UserDetails.class);
+    }
+
+    @Bean
+    public SecurityWebFilterChain securityWebFilterChain(ServerHttpSecurity http) {
+        return http
+                .authorizeExchange()
+                .pathMatchers(HttpMethod.POST, "/orders/import").hasRole("PROVISIONING")
+                .pathMatchers(HttpMethod.POST, "/design", "/orders").hasRole("USER")
+                .pathMatchers(HttpMethod.GET, "/orders").hasRole("USER")
+                .pathMatchers("/actuator/requestcost", "/actuator/requestcost/**", "/api/rollups/**")
+                .hasRole("OPERATIONS")
+                .anyExchange().permitAll()
+                .and()
+                .httpBasic()
+                .and()
+                .csrf().disable()
+                .build();
+    }
+}
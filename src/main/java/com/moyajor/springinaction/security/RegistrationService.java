@@ -0,0 +1,137 @@
+package com.moyajor.springinaction.security;
+
+import com.moyajor.springinaction.data.UserRepository;
+import com.moyajor.springinaction.model.db.RegistrationForm;
+import com.moyajor.springinaction.model.db.User;
+import lombok.Value;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.context.annotation.Profile;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.http.HttpStatus;
+import org.springframework.stereotype.Service;
+import org.springframework.util.StringUtils;
+import org.springframework.web.server.ResponseStatusException;
+
+import javax.annotation.PostConstruct;
+import javax.annotation.PreDestroy;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Supplier;
+import java.util.stream.Collectors;
+
+/**
+ * Hashes on the {@link PasswordHashingService} pool and stores users on a
+ * small pool of its own, so blocking inserts never hold a hashing thread.
+ * The unique index on User.username decides races between registrations of
+ * the same name; the loser gets a 409. Forms without a password are refused
+ * with a 400 before anything is hashed.
+ */
+@Service
+@Profile({"jdbc", "jpa"})
+@ConfigurationProperties(prefix = "taco.registration")
+public class RegistrationService {
+
+    private int maxBulkSize = 1_000;
+    private int saveThreads = 4;
+
+    private final UserRepository userRepo;
+    private final PasswordHashingService hashing;
+    private ExecutorService saveExecutor;
+
+    public RegistrationService(UserRepository userRepo, PasswordHashingService hashing) {
+        this.userRepo = userRepo;
+        this.hashing = hashing;
+    }
+
+    public void setMaxBulkSize(int maxBulkSize) {
+        this.maxBulkSize = maxBulkSize;
+    }
+
+    public void setSaveThreads(int saveThreads) {
+        this.saveThreads = saveThreads;
+    }
+
+    @PostConstruct
+    public void start() {
+        AtomicInteger count = new AtomicInteger();
+        saveExecutor = Executors.newFixedThreadPool(saveThreads, runnable -> {
+            Thread thread = new Thread(runnable, "registration-save-" + count.incrementAndGet());
+            thread.setDaemon(true);
+            return thread;
+        });
+    }
+
+    @PreDestroy
+    public void stop() {
+        saveExecutor.shutdown();
+    }
+
+    public CompletableFuture<User> register(RegistrationForm form) {
+        requirePassword(form);
+        return hashing.encode(form.getPassword())
+                .thenApplyAsync(hash -> saveUnique(() -> userRepo.save(form.toUser(hash))), saveExecutor);
+    }
+
+    /**
+     * Creates the accounts whose usernames are not taken yet. Existing names
+     * are found with one query for the whole batch, and the new users are
+     * saved together so that Hibernate can send batched inserts.
+     */
+    public CompletableFuture<ProvisioningResult> provision(List<RegistrationForm> forms) {
+        if (forms.size() > maxBulkSize) {
+            throw new ResponseStatusException(HttpStatus.BAD_REQUEST,
+                    "At most " + maxBulkSize + " users can be provisioned per request");
+        }
+        forms.forEach(this::requirePassword);
+        Map<String, RegistrationForm> byUsername = new LinkedHashMap<>();
+        List<String> skipped = new ArrayList<>();
+        for (RegistrationForm form : forms) {
+            if (byUsername.putIfAbsent(form.getUsername(), form) != null) {
+                skipped.add(form.getUsername());
+            }
+        }
+        if (!byUsername.isEmpty()) {
+            Set<String> existing = userRepo.findExistingUsernames(byUsername.keySet());
+            skipped.addAll(existing);
+            byUsername.keySet().removeAll(existing);
+        }
+
+        List<RegistrationForm> toCreate = new ArrayList<>(byUsername.values());
+        List<String> passwords = toCreate.stream().map(RegistrationForm::getPassword).collect(Collectors.toList());
+        return hashing.encodeAll(passwords).thenApplyAsync(hashes -> {
+            List<User> users = new ArrayList<>(toCreate.size());
+            for (int i = 0; i < toCreate.size(); i++) {
+                users.add(toCreate.get(i).toUser(hashes.get(i)));
+            }
+            saveUnique(() -> userRepo.saveAll(users));
+            return new ProvisioningResult(new ArrayList<>(byUsername.keySet()), skipped);
+        }, saveExecutor);
+    }
+
+    private void requirePassword(RegistrationForm form) {
+        if (!StringUtils.hasText(form.getPassword())) {
+            throw new ResponseStatusException(HttpStatus.BAD_REQUEST, "A password is required for " + form.getUsername());
+        }
+    }
+
+    private <T> T saveUnique(Supplier<T> save) {
+        try {
+            return save.get();
+        } catch (DataIntegrityViolationException e) {
+            throw new ResponseStatusException(HttpStatus.CONFLICT, "Username is already taken", e);
+        }
+    }
+
+    @Value
+    public static class ProvisioningResult {
+        List<String> created;
+        List<String> skipped;
+    }
+}
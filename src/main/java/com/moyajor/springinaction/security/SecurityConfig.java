@@ -1,9 +1,12 @@
 package com.moyajor.springinaction.security;
 
 
+import com.moyajor.springinaction.model.db.User;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
+import org.springframework.context.annotation.Profile;
 import org.springframework.security.config.annotation.authentication.builders.AuthenticationManagerBuilder;
 import org.springframework.security.config.annotation.web.builders.HttpSecurity;
 import org.springframework.security.config.annotation.web.configuration.EnableWebSecurity;
@@ -14,28 +17,44 @@ import org.springframework.security.crypto.password.PasswordEncoder;
 
 
 @Configuration
+@Profile("!mongo")
 @EnableWebSecurity
 public class SecurityConfig extends WebSecurityConfigurerAdapter {
 
-    @Autowired
+    @Autowired(required = false)
     private UserDetailsService userDetailsService;
 
+    @Value("${taco.security.bcrypt-strength:10}")
+    private int bcryptStrength;
+
     @Bean
     public PasswordEncoder encoder() {
-        return new BCryptPasswordEncoder(4);
+        return new BCryptPasswordEncoder(bcryptStrength);
     }
 
     @Override
     public void configure(AuthenticationManagerBuilder auth) throws Exception{
+        if (userDetailsService == null) {
+            super.configure(auth);
+            return;
+        }
         auth.userDetailsService(userDetailsService).passwordEncoder(encoder());
     }
 
     @Override
     protected void configure(HttpSecurity security) throws Exception{
-        security.authorizeRequests().antMatchers("/design", "/orders")
-            .hasRole("ROLE_USER").antMatchers("/", "/**").permitAll()
+        security.authorizeRequests().antMatchers("/design", "/orders", "/orders/**")
+            .hasRole(User.CUSTOMER).antMatchers("/registration/bulk").hasRole(User.PROVISIONING)
+            .antMatchers("/api/rollups/**").hasRole(User.OPERATIONS)
+            .antMatchers("/actuator/requestcost", "/actuator/requestcost/**").hasRole(User.OPERATIONS)
+            .antMatchers("/", "/**").permitAll()
+            .and()
+            .formLogin().loginPage("/login").defaultSuccessUrl("/design")
+            // provisioning scripts post JSON with basic auth and hold no CSRF token
+            .and()
+            .httpBasic()
             .and()
-            .formLogin().loginPage("/login").defaultSuccessUrl("/design");
+            .csrf().ignoringAntMatchers("/registration/bulk");
     }
 }
 
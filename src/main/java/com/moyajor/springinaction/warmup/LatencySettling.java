@@ -0,0 +1,29 @@
+package com.moyajor.springinaction.warmup;
+
+/**
+ * Tells when replayed traffic has settled: the total latency of a round has
+ * stayed within {@code tolerance} of the round before it for
+ * {@code stableRounds} rounds in a row.
+ */
+class LatencySettling {
+
+    private final double tolerance;
+    private final int stableRounds;
+    private long previous = -1;
+    private int streak;
+
+    LatencySettling(double tolerance, int stableRounds) {
+        this.tolerance = tolerance;
+        this.stableRounds = stableRounds;
+    }
+
+    boolean record(long roundNanos) {
+        if (previous > 0 && Math.abs(roundNanos - previous) <= previous * tolerance) {
+            streak++;
+        } else {
+            streak = 0;
+        }
+        previous = roundNanos;
+        return streak >= stableRounds;
+    }
+}
@@ -0,0 +1,276 @@
+package com.moyajor.springinaction.warmup;
+
+import com.moyajor.springinaction.cache.CacheConfig;
+import com.moyajor.springinaction.data.OrderRepository;
+import com.moyajor.springinaction.data.UserRepository;
+import com.moyajor.springinaction.data.jdbc.JdbcCacheVersionRepository;
+import com.moyajor.springinaction.data.jdbc.JdbcTacoRepository;
+import com.moyajor.springinaction.datagen.SyntheticData;
+import com.moyajor.springinaction.datagen.SyntheticData.GeneratedOrder;
+import com.moyajor.springinaction.datagen.SyntheticData.GeneratedTaco;
+import com.moyajor.springinaction.datagen.SyntheticData.GeneratedUser;
+import com.moyajor.springinaction.model.db.Order;
+import com.moyajor.springinaction.model.db.Taco;
+import com.moyajor.springinaction.model.db.User;
+import com.moyajor.springinaction.warmup.WarmupReport.PathLatency;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.boot.ApplicationArguments;
+import org.springframework.boot.ApplicationRunner;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnWebApplication;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.context.annotation.Profile;
+import org.springframework.core.env.Environment;
+import org.springframework.http.ResponseEntity;
+import org.springframework.security.crypto.password.PasswordEncoder;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionTemplate;
+import org.springframework.util.LinkedMultiValueMap;
+import org.springframework.util.MultiValueMap;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Supplier;
+
+/**
+ * Warms the JIT before the instance reports ready. Synthetic orders are first
+ * written through the JDBC repositories inside transactions that are rolled
+ * back, so nothing is kept and no order events fire. A scratch customer is
+ * then committed, signs in over loopback and the configured GET paths and
+ * form posts are replayed in that session, through the full filter chain,
+ * views and serializers, until the latency of a round settles or
+ * {@code max-millis} runs out. The reads go against the tacos and orders
+ * already stored; no scratch tacos are written, so other nodes and the
+ * shared recent tacos and search caches never see warmup data. Form posts
+ * carry values that fail validation, so they bind, validate and render the
+ * form again without storing anything. Until then
+ * {@link WarmupHealthIndicator} reports OUT_OF_SERVICE.
+ * <p>
+ * The scratch customer carries the {@link User#WARMUP} role and is deleted
+ * afterwards. Customers left behind by a crashed run are deleted on the next
+ * startup, once they are older than {@code max-millis}, so the warmup of
+ * another node is never cut short.
+ */
+@Slf4j
+@Component
+@Profile({"jdbc", "jpa"})
+@ConditionalOnWebApplication(type = ConditionalOnWebApplication.Type.SERVLET)
+@ConditionalOnProperty(prefix = "taco.warmup", name = "enabled", havingValue = "true", matchIfMissing = true)
+@ConfigurationProperties(prefix = "taco.warmup")
+public class TrafficWarmup implements ApplicationRunner {
+
+    private static final String SCRATCH_PREFIX = "warmup-";
+
+    private List<String> paths = new ArrayList<>(Arrays.asList(
+            "/", "/login", "/design", "/orders", "/orders/current", "/api/tacos/recent",
+            "/api/tacos/search?prefix=car"));
+    private List<String> formPaths = new ArrayList<>(Arrays.asList("/design", "/orders"));
+    private int writeIterations = 200;
+    private int requestsPerRound = 10;
+    private int stableRounds = 3;
+    private double tolerance = 0.1;
+    private long maxMillis = 60_000;
+    private long seed = 42;
+
+    private final Environment environment;
+    private final JdbcTacoRepository tacoRepo;
+    private final OrderRepository orderRepo;
+    private final UserRepository userRepo;
+    private final PasswordEncoder passwordEncoder;
+    private final JdbcCacheVersionRepository cacheVersions;
+    private final TransactionTemplate transactionTemplate;
+    private volatile WarmupReport report;
+
+    public TrafficWarmup(Environment environment, JdbcTacoRepository tacoRepo, OrderRepository orderRepo,
+                         UserRepository userRepo, PasswordEncoder passwordEncoder, JdbcCacheVersionRepository cacheVersions,
+                         TransactionTemplate transactionTemplate) {
+        this.environment = environment;
+        this.tacoRepo = tacoRepo;
+        this.orderRepo = orderRepo;
+        this.userRepo = userRepo;
+        this.passwordEncoder = passwordEncoder;
+        this.cacheVersions = cacheVersions;
+        this.transactionTemplate = transactionTemplate;
+    }
+
+    public void setPaths(List<String> paths) {
+        this.paths = paths;
+    }
+
+    public void setFormPaths(List<String> formPaths) {
+        this.formPaths = formPaths;
+    }
+
+    public void setWriteIterations(int writeIterations) {
+        this.writeIterations = writeIterations;
+    }
+
+    public void setRequestsPerRound(int requestsPerRound) {
+        this.requestsPerRound = requestsPerRound;
+    }
+
+    public void setStableRounds(int stableRounds) {
+        this.stableRounds = stableRounds;
+    }
+
+    public void setTolerance(double tolerance) {
+        this.tolerance = tolerance;
+    }
+
+    public void setMaxMillis(long maxMillis) {
+        this.maxMillis = maxMillis;
+    }
+
+    public void setSeed(long seed) {
+        this.seed = seed;
+    }
+
+    /**
+     * @return the outcome of the warmup, or {@code null} while it is running
+     */
+    public WarmupReport getReport() {
+        return report;
+    }
+
+    @Override
+    public void run(ApplicationArguments args) {
+        long start = System.nanoTime();
+        SyntheticData data = new SyntheticData(seed, 1, 30, 1.0, System.currentTimeMillis());
+        int rounds = 0;
+        boolean settled = false;
+        Map<String, PathLatency> latencies = new LinkedHashMap<>();
+        try {
+            deleteLeftoverUsers();
+            warmWrites(data);
+            Integer port = environment.getProperty("local.server.port", Integer.class);
+            if (port != null) {
+                User customer = null;
+                try {
+                    String password = UUID.randomUUID().toString();
+                    customer = new User(SCRATCH_PREFIX + System.currentTimeMillis() + "-" + UUID.randomUUID(),
+                            passwordEncoder.encode(password), "Warmup", "1 Main St", "Denver", "CO", "80202", "555-0100");
+                    customer.setRoles(User.CUSTOMER + "," + User.WARMUP);
+                    customer = userRepo.save(customer);
+                    WarmupSession session = new WarmupSession(port);
+                    session.signIn(customer.getUsername(), password);
+                    Map<String, Supplier<ResponseEntity<byte[]>>> requests = requests(session);
+                    LatencySettling settling = new LatencySettling(tolerance, stableRounds);
+                    long deadline = start + TimeUnit.MILLISECONDS.toNanos(maxMillis);
+                    Map<String, Long> first = new LinkedHashMap<>();
+                    while (!settled && System.nanoTime() < deadline) {
+                        long roundNanos = 0;
+                        for (Map.Entry<String, Supplier<ResponseEntity<byte[]>>> request : requests.entrySet()) {
+                            long[] samples = new long[requestsPerRound];
+                            int status = 0;
+                            for (int i = 0; i < samples.length; i++) {
+                                long sampleStart = System.nanoTime();
+                                status = request.getValue().get().getStatusCodeValue();
+                                samples[i] = System.nanoTime() - sampleStart;
+                            }
+                            first.putIfAbsent(request.getKey(), samples[0]);
+                            Arrays.sort(samples);
+                            long median = samples[samples.length / 2];
+                            latencies.put(request.getKey(),
+                                    new PathLatency(first.get(request.getKey()) / 1000, median / 1000, status));
+                            roundNanos += median;
+                        }
+                        rounds++;
+                        settled = settling.record(roundNanos);
+                    }
+                    session.signOut();
+                } finally {
+                    if (customer != null && customer.getId() != null) {
+                        deleteScratchUsers(Collections.singletonList(customer));
+                    }
+                }
+            }
+        } catch (RuntimeException e) {
+            log.warn("Warmup stopped early, reporting ready anyway", e);
+        }
+        report = new WarmupReport(TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - start), writeIterations,
+                rounds, settled, Collections.unmodifiableMap(latencies));
+        log.info("Warmup finished in {} ms: {} rolled back orders, {} read rounds, settled={}",
+                report.getDurationMillis(), writeIterations, rounds, settled);
+        latencies.forEach((request, latency) -> log.info("  {} -> {}: first request {} us, warm median {} us",
+                request, latency.getStatus(), latency.getColdMicros(), latency.getWarmMicros()));
+    }
+
+    private Map<String, Supplier<ResponseEntity<byte[]>>> requests(WarmupSession session) {
+        Map<String, Supplier<ResponseEntity<byte[]>>> requests = new LinkedHashMap<>();
+        for (String path : paths) {
+            requests.put("GET " + path, () -> session.get(path));
+        }
+        MultiValueMap<String, String> invalidForm = new LinkedMultiValueMap<>();
+        invalidForm.add("name", "");
+        invalidForm.add("ingredients", "FLTO");
+        invalidForm.add("ccNumber", "0");
+        invalidForm.add("ccExpiration", "13/99");
+        invalidForm.add("ccCVV", "x");
+        for (String path : formPaths) {
+            requests.put("POST " + path, () -> session.post(path, invalidForm));
+        }
+        return requests;
+    }
+
+    private void warmWrites(SyntheticData data) {
+        for (GeneratedOrder generated : data.orders(0, 0, writeIterations)) {
+            transactionTemplate.execute(status -> {
+                status.setRollbackOnly();
+                Order order = new Order();
+                GeneratedUser customer = generated.getCustomer();
+                order.setName(customer.getFullname());
+                order.setStreet(customer.getStreet());
+                order.setCity(customer.getCity());
+                order.setState(customer.getState());
+                order.setZip(customer.getZip());
+                order.setCcNumber("4111111111111111");
+                order.setCcExpiration("12/29");
+                order.setCcCVV("123");
+                for (Taco taco : tacoRepo.saveAll(tacos(generated))) {
+                    order.addDesign(taco);
+                }
+                return orderRepo.save(order);
+            });
+        }
+    }
+
+    // a scratch username is warmup-<creation millis>-<uuid>
+    private void deleteLeftoverUsers() {
+        long cutoff = System.currentTimeMillis() - maxMillis;
+        List<User> leftovers = new ArrayList<>();
+        for (User user : userRepo.findByRolesContaining(User.WARMUP)) {
+            String username = user.getUsername();
+            int end = username.indexOf('-', SCRATCH_PREFIX.length());
+            if (username.startsWith(SCRATCH_PREFIX) && end > 0
+                    && Long.parseLong(username.substring(SCRATCH_PREFIX.length(), end)) < cutoff) {
+                leftovers.add(user);
+            }
+        }
+        if (!leftovers.isEmpty()) {
+            log.info("Deleting {} scratch customers left behind by earlier warmups", leftovers.size());
+            deleteScratchUsers(leftovers);
+        }
+    }
+
+    private void deleteScratchUsers(List<User> customers) {
+        userRepo.deleteAll(customers);
+        cacheVersions.bump(CacheConfig.USERS);
+    }
+
+    private List<Taco> tacos(GeneratedOrder generated) {
+        List<Taco> tacos = new ArrayList<>(generated.getTacos().size());
+        for (GeneratedTaco generatedTaco : generated.getTacos()) {
+            Taco taco = new Taco();
+            taco.setName(generatedTaco.getName());
+            taco.setIngredients(generatedTaco.getIngredients());
+            tacos.add(taco);
+        }
+        return tacos;
+    }
+}
@@ -0,0 +1,39 @@
+package com.moyajor.springinaction.warmup;
+
+import org.springframework.boot.actuate.health.Health;
+import org.springframework.boot.actuate.health.HealthIndicator;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnWebApplication;
+import org.springframework.context.annotation.Profile;
+import org.springframework.stereotype.Component;
+
+/**
+ * Keeps {@code /actuator/health} OUT_OF_SERVICE until {@link TrafficWarmup}
+ * has finished, so load balancers hold traffic back from a cold instance.
+ */
+@Component
+@Profile({"jdbc", "jpa"})
+@ConditionalOnWebApplication(type = ConditionalOnWebApplication.Type.SERVLET)
+@ConditionalOnProperty(prefix = "taco.warmup", name = "enabled", havingValue = "true", matchIfMissing = true)
+public class WarmupHealthIndicator implements HealthIndicator {
+
+    private final TrafficWarmup warmup;
+
+    public WarmupHealthIndicator(TrafficWarmup warmup) {
+        this.warmup = warmup;
+    }
+
+    @Override
+    public Health health() {
+        WarmupReport report = warmup.getReport();
+        if (report == null) {
+            return Health.outOfService().withDetail("warmup", "in progress").build();
+        }
+        return Health.up()
+                .withDetail("durationMillis", report.getDurationMillis())
+                .withDetail("readRounds", report.getReadRounds())
+                .withDetail("settled", report.isSettled())
+                .withDetail("paths", report.getPaths())
+                .build();
+    }
+}
@@ -0,0 +1,25 @@
+package com.moyajor.springinaction.warmup;
+
+import lombok.Value;
+
+import java.util.Map;
+
+@Value
+public class WarmupReport {
+    long durationMillis;
+    int writeIterations;
+    int readRounds;
+    boolean settled;
+    Map<String, PathLatency> paths;
+
+    /**
+     * Latency of the very first request, the median of the last replay round
+     * and the status the last request answered with.
+     */
+    @Value
+    public static class PathLatency {
+        long coldMicros;
+        long warmMicros;
+        int status;
+    }
+}
@@ -0,0 +1,113 @@
+package com.moyajor.springinaction.warmup;
+
+import org.springframework.http.HttpEntity;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpMethod;
+import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
+import org.springframework.http.client.ClientHttpResponse;
+import org.springframework.util.LinkedMultiValueMap;
+import org.springframework.util.MultiValueMap;
+import org.springframework.web.client.DefaultResponseErrorHandler;
+import org.springframework.web.client.RestTemplate;
+
+import java.net.URI;
+import java.nio.charset.StandardCharsets;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+/**
+ * A browser-like loopback client: keeps the cookies the application sets,
+ * signs in through the login form and sends the CSRF token of the session
+ * along with every form post.
+ */
+class WarmupSession {
+
+    private static final Pattern CSRF_INPUT = Pattern.compile("name=\"_csrf\"\\s+value=\"([^\"]+)\"");
+
+    private final String baseUri;
+    private final RestTemplate rest = new RestTemplate();
+    private final Map<String, String> cookies = new ConcurrentHashMap<>();
+    private String csrfToken;
+
+    WarmupSession(int port) {
+        this.baseUri = "http://localhost:" + port;
+        // redirects and 4xx answers still exercise the stack being warmed
+        rest.setErrorHandler(new DefaultResponseErrorHandler() {
+            @Override
+            public boolean hasError(ClientHttpResponse response) {
+                return false;
+            }
+        });
+        rest.getInterceptors().add((request, body, execution) -> {
+            if (!cookies.isEmpty()) {
+                StringBuilder header = new StringBuilder();
+                cookies.forEach((name, value) -> header.append(header.length() == 0 ? "" : "; ")
+                        .append(name).append('=').append(value));
+                request.getHeaders().set(HttpHeaders.COOKIE, header.toString());
+            }
+            ClientHttpResponse response = execution.execute(request, body);
+            List<String> setCookies = response.getHeaders().get(HttpHeaders.SET_COOKIE);
+            if (setCookies != null) {
+                for (String setCookie : setCookies) {
+                    String pair = setCookie.split(";", 2)[0];
+                    int equals = pair.indexOf('=');
+                    if (equals > 0) {
+                        cookies.put(pair.substring(0, equals).trim(), pair.substring(equals + 1).trim());
+                    }
+                }
+            }
+            return response;
+        });
+    }
+
+    /**
+     * Signs in through the login form and picks up the CSRF token issued for
+     * the authenticated session.
+     *
+     * @throws IllegalStateException if the application turns the credentials down
+     */
+    void signIn(String username, String password) {
+        refreshCsrfToken();
+        MultiValueMap<String, String> form = new LinkedMultiValueMap<>();
+        form.add("username", username);
+        form.add("password", password);
+        ResponseEntity<byte[]> response = post("/login", form);
+        URI location = response.getHeaders().getLocation();
+        if (location == null || location.toString().contains("error")) {
+            throw new IllegalStateException("Warmup user " + username + " could not sign in: "
+                    + response.getStatusCodeValue() + " " + location);
+        }
+        refreshCsrfToken();
+    }
+
+    void signOut() {
+        post("/logout", new LinkedMultiValueMap<>());
+        cookies.clear();
+    }
+
+    ResponseEntity<byte[]> get(String path) {
+        return rest.exchange(URI.create(baseUri + path), HttpMethod.GET, null, byte[].class);
+    }
+
+    ResponseEntity<byte[]> post(String path, MultiValueMap<String, String> form) {
+        MultiValueMap<String, String> body = new LinkedMultiValueMap<>(form);
+        if (csrfToken != null) {
+            body.set("_csrf", csrfToken);
+        }
+        HttpHeaders headers = new HttpHeaders();
+        headers.setContentType(MediaType.APPLICATION_FORM_URLENCODED);
+        return rest.exchange(URI.create(baseUri + path), HttpMethod.POST, new HttpEntity<>(body, headers),
+                byte[].class);
+    }
+
+    // the login page renders its form with th:action, so it always carries the session's token
+    private void refreshCsrfToken() {
+        byte[] page = get("/login").getBody();
+        Matcher matcher = CSRF_INPUT.matcher(page == null ? "" : new String(page, StandardCharsets.UTF_8));
+        csrfToken = matcher.find() ? matcher.group(1) : null;
+    }
+}
@@ -0,0 +1,162 @@
+package com.moyajor.springinaction.web.admission;
+
+import io.micrometer.core.instrument.MeterRegistry;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnWebApplication;
+import org.springframework.boot.autoconfigure.security.SecurityProperties;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.core.annotation.Order;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.util.AntPathMatcher;
+import org.springframework.util.PathMatcher;
+import org.springframework.web.filter.OncePerRequestFilter;
+import org.springframework.web.util.UrlPathHelper;
+
+import javax.servlet.FilterChain;
+import javax.servlet.ServletException;
+import javax.servlet.http.HttpServletRequest;
+import javax.servlet.http.HttpServletResponse;
+import java.io.IOException;
+import java.security.Principal;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Sheds write traffic before it reaches the database: every user (or client
+ * IP when anonymous) gets its own token bucket, and all admitted writes share
+ * a global concurrency limit. Runs after Spring Security so the principal is
+ * known. Write paths are ant patterns; shed requests are counted per
+ * pattern, so path variables don't multiply the meters.
+ */
+@Slf4j
+@Component
+@ConditionalOnWebApplication(type = ConditionalOnWebApplication.Type.SERVLET)
+@Order(SecurityProperties.DEFAULT_FILTER_ORDER + 1)
+@ConfigurationProperties(prefix = "taco.admission")
+public class AdmissionControlFilter extends OncePerRequestFilter {
+
+    private double permitsPerSecond = 5;
+    private int burst = 10;
+    private int maxConcurrentWrites = 32;
+    private long concurrencyWaitMillis = 50;
+    private long idleKeyMillis = TimeUnit.MINUTES.toMillis(10);
+    private List<String> writePaths = new ArrayList<>();
+
+    private final PathMatcher pathMatcher = new AntPathMatcher();
+    private final UrlPathHelper urlPathHelper = new UrlPathHelper();
+    private final ConcurrentMap<String, TokenBucket> buckets = new ConcurrentHashMap<>();
+    private final MeterRegistry meterRegistry;
+    private Semaphore writePermits;
+
+    public AdmissionControlFilter(MeterRegistry meterRegistry) {
+        this.meterRegistry = meterRegistry;
+        this.writePaths.add("/design");
+        this.writePaths.add("/orders");
+        this.writePaths.add("/orders/*/reorder");
+        this.writePaths.add("/api/orders/*/reorder");
+        this.writePaths.add("/registration/bulk");
+        this.writePermits = new Semaphore(maxConcurrentWrites);
+        meterRegistry.gauge("taco.admission.buckets", buckets, ConcurrentMap::size);
+        meterRegistry.gauge("taco.admission.writes.available", this, filter -> filter.writePermits.availablePermits());
+    }
+
+    public void setPermitsPerSecond(double permitsPerSecond) {
+        this.permitsPerSecond = permitsPerSecond;
+    }
+
+    public void setBurst(int burst) {
+        this.burst = burst;
+    }
+
+    public void setMaxConcurrentWrites(int maxConcurrentWrites) {
+        this.maxConcurrentWrites = maxConcurrentWrites;
+        this.writePermits = new Semaphore(maxConcurrentWrites);
+    }
+
+    public void setConcurrencyWaitMillis(long concurrencyWaitMillis) {
+        this.concurrencyWaitMillis = concurrencyWaitMillis;
+    }
+
+    public void setIdleKeyMillis(long idleKeyMillis) {
+        this.idleKeyMillis = idleKeyMillis;
+    }
+
+    public List<String> getWritePaths() {
+        return writePaths;
+    }
+
+    @Override
+    protected boolean shouldNotFilter(HttpServletRequest request) {
+        return !"POST".equals(request.getMethod()) || writePath(request) == null;
+    }
+
+    @Override
+    protected void doFilterInternal(HttpServletRequest request, HttpServletResponse response, FilterChain chain)
+            throws ServletException, IOException {
+        String endpoint = writePath(request);
+        long now = System.nanoTime();
+        TokenBucket bucket = buckets.computeIfAbsent(clientKey(request),
+                key -> new TokenBucket(permitsPerSecond, burst, now));
+        long waitNanos = bucket.tryAcquire(now);
+        if (waitNanos > 0) {
+            shed(response, HttpStatus.TOO_MANY_REQUESTS, TimeUnit.NANOSECONDS.toSeconds(waitNanos) + 1, "rate_limited", endpoint);
+            return;
+        }
+        Semaphore permits = writePermits;
+        boolean acquired;
+        try {
+            acquired = permits.tryAcquire(concurrencyWaitMillis, TimeUnit.MILLISECONDS);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            acquired = false;
+        }
+        if (!acquired) {
+            shed(response, HttpStatus.SERVICE_UNAVAILABLE, 1, "overloaded", endpoint);
+            return;
+        }
+        try {
+            chain.doFilter(request, response);
+        } finally {
+            permits.release();
+        }
+    }
+
+    @Scheduled(fixedDelayString = "${taco.admission.eviction-interval:60000}")
+    public void evictIdleBuckets() {
+        long idleSince = System.nanoTime() - TimeUnit.MILLISECONDS.toNanos(idleKeyMillis);
+        buckets.values().removeIf(bucket -> bucket.isIdle(idleSince));
+    }
+
+    private String writePath(HttpServletRequest request) {
+        String path = urlPathHelper.getPathWithinApplication(request);
+        for (String pattern : writePaths) {
+            if (pathMatcher.match(pattern, path)) {
+                return pattern;
+            }
+        }
+        return null;
+    }
+
+    private String clientKey(HttpServletRequest request) {
+        Principal principal = request.getUserPrincipal();
+        if (principal != null) {
+            return "user:" + principal.getName();
+        }
+        return "ip:" + request.getRemoteAddr();
+    }
+
+    private void shed(HttpServletResponse response, HttpStatus status, long retryAfterSeconds,
+                      String reason, String endpoint) {
+        meterRegistry.counter("taco.admission.shed", "reason", reason, "endpoint", endpoint).increment();
+        log.debug("Shedding {} request with {}", endpoint, status);
+        response.setStatus(status.value());
+        response.setHeader(HttpHeaders.RETRY_AFTER, String.valueOf(retryAfterSeconds));
+    }
+}
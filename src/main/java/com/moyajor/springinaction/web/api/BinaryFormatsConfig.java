@@ -0,0 +1,126 @@
+package com.moyajor.springinaction.web.api;
+
+import com.fasterxml.jackson.core.JsonFactory;
+import com.fasterxml.jackson.databind.JavaType;
+import com.fasterxml.jackson.databind.JsonMappingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.deser.DefaultDeserializationContext;
+import com.fasterxml.jackson.dataformat.cbor.CBORFactory;
+import com.fasterxml.jackson.dataformat.smile.SmileFactory;
+import com.moyajor.springinaction.web.api.resource.IngredientResource;
+import com.moyajor.springinaction.web.api.resource.TacoResource;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnWebApplication;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.context.support.MessageSourceAccessor;
+import org.springframework.data.rest.webmvc.config.RepositoryRestConfigurerAdapter;
+import org.springframework.hateoas.MediaTypes;
+import org.springframework.hateoas.RelProvider;
+import org.springframework.hateoas.Resources;
+import org.springframework.hateoas.hal.CurieProvider;
+import org.springframework.hateoas.hal.Jackson2HalModule;
+import org.springframework.http.converter.HttpMessageConverter;
+import org.springframework.http.converter.json.AbstractJackson2HttpMessageConverter;
+import org.springframework.http.converter.cbor.MappingJackson2CborHttpMessageConverter;
+import org.springframework.http.converter.json.Jackson2ObjectMapperBuilder;
+import org.springframework.http.converter.smile.MappingJackson2SmileHttpMessageConverter;
+import org.springframework.web.servlet.config.annotation.WebMvcConfigurer;
+
+import javax.annotation.PostConstruct;
+import java.util.List;
+
+/**
+ * Lets API clients negotiate Smile ({@code application/x-jackson-smile}) or
+ * CBOR ({@code application/cbor}) alongside HAL JSON, both for our own
+ * controllers and for the Spring Data REST endpoints. The Spring Data REST
+ * endpoints encode with the HAL mapper Spring Data REST configured for
+ * itself, so associations of entity resources are rendered as links there
+ * as well.
+ */
+@Slf4j
+@Configuration
+@ConditionalOnWebApplication(type = ConditionalOnWebApplication.Type.SERVLET)
+public class BinaryFormatsConfig extends RepositoryRestConfigurerAdapter implements WebMvcConfigurer {
+
+    private final ObjectMapper smileMapper;
+    private final ObjectMapper cborMapper;
+
+    /**
+     * Curies and link titles are resolved the way Spring Data REST does for
+     * HAL JSON, so the binary encodings carry the same links.
+     */
+    public BinaryFormatsConfig(RelProvider relProvider, ObjectProvider<CurieProvider> curieProvider,
+                               @Qualifier("resourceDescriptionMessageSourceAccessor")
+                                       ObjectProvider<MessageSourceAccessor> messageAccessor) {
+        this.smileMapper = halObjectMapper(Jackson2ObjectMapperBuilder.smile(), relProvider,
+                curieProvider.getIfAvailable(), messageAccessor.getIfAvailable());
+        this.cborMapper = halObjectMapper(Jackson2ObjectMapperBuilder.cbor(), relProvider,
+                curieProvider.getIfAvailable(), messageAccessor.getIfAvailable());
+    }
+
+    public static ObjectMapper halObjectMapper(Jackson2ObjectMapperBuilder builder, RelProvider relProvider,
+                                               CurieProvider curieProvider, MessageSourceAccessor messageAccessor) {
+        return builder
+                .modules(new Jackson2HalModule())
+                .handlerInstantiator(new Jackson2HalModule.HalHandlerInstantiator(relProvider, curieProvider, messageAccessor))
+                .build();
+    }
+
+    /**
+     * A mapper writing and reading the given data format with the
+     * serializers, deserializers, modules and settings of {@code mapper}.
+     */
+    public static ObjectMapper withFactory(ObjectMapper mapper, JsonFactory factory) {
+        ObjectMapper copy = new ObjectMapper(factory, null,
+                (DefaultDeserializationContext) mapper.getDeserializationContext());
+        copy.setSerializerFactory(mapper.getSerializerFactory());
+        copy.setConfig(mapper.getSerializationConfig());
+        copy.setConfig(mapper.getDeserializationConfig());
+        return copy;
+    }
+
+    @PostConstruct
+    public void precomputeSerializers() {
+        for (ObjectMapper mapper : new ObjectMapper[]{smileMapper, cborMapper}) {
+            JavaType[] resourceTypes = {
+                    mapper.constructType(TacoResource.class),
+                    mapper.constructType(IngredientResource.class),
+                    mapper.getTypeFactory().constructParametricType(Resources.class, TacoResource.class)};
+            for (JavaType type : resourceTypes) {
+                try {
+                    mapper.getSerializerProviderInstance().findTypedValueSerializer(type, true, null);
+                } catch (JsonMappingException e) {
+                    log.warn("No binary serializer available for {}", type, e);
+                }
+            }
+        }
+    }
+
+    @Override
+    public void extendMessageConverters(List<HttpMessageConverter<?>> converters) {
+        converters.add(new MappingJackson2SmileHttpMessageConverter(smileMapper));
+        converters.add(new MappingJackson2CborHttpMessageConverter(cborMapper));
+    }
+
+    @Override
+    public void configureHttpMessageConverters(List<HttpMessageConverter<?>> messageConverters) {
+        ObjectMapper restMapper = null;
+        for (HttpMessageConverter<?> converter : messageConverters) {
+            if (converter instanceof AbstractJackson2HttpMessageConverter
+                    && converter.getSupportedMediaTypes().contains(MediaTypes.HAL_JSON)) {
+                restMapper = ((AbstractJackson2HttpMessageConverter) converter).getObjectMapper();
+                break;
+            }
+        }
+        if (restMapper == null) {
+            log.warn("No Spring Data REST HAL converter found, entity resources are encoded without association links");
+            messageConverters.add(new MappingJackson2SmileHttpMessageConverter(smileMapper));
+            messageConverters.add(new MappingJackson2CborHttpMessageConverter(cborMapper));
+            return;
+        }
+        messageConverters.add(new MappingJackson2SmileHttpMessageConverter(withFactory(restMapper, new SmileFactory())));
+        messageConverters.add(new MappingJackson2CborHttpMessageConverter(withFactory(restMapper, new CBORFactory())));
+    }
+}
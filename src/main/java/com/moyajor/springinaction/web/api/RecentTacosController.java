@@ -1,13 +1,15 @@
 package com.moyajor.springinaction.web.api;
-import static org.springframework.hateoas.mvc.ControllerLinkBuilder.*;
 import java.util.List;
 
 import com.moyajor.springinaction.data.jpa.TacoRepository;
+import com.moyajor.springinaction.model.db.Ingredient;
 import com.moyajor.springinaction.model.db.Taco;
+import com.moyajor.springinaction.web.api.resource.LinkTemplateCache;
 import com.moyajor.springinaction.web.api.resource.TacoResource;
 import com.moyajor.springinaction.web.api.resource.TacoResourceAssembler;
-import org.springframework.data.domain.PageRequest;
-import org.springframework.data.domain.Sort;
+import org.springframework.context.annotation.Profile;
+import org.springframework.data.rest.core.config.RepositoryRestConfiguration;
+import org.springframework.data.rest.core.mapping.ResourceMappings;
 import org.springframework.data.rest.webmvc.RepositoryRestController;
 import org.springframework.hateoas.Resources;
 import org.springframework.http.HttpStatus;
@@ -15,25 +17,31 @@ import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.GetMapping;
 
 @RepositoryRestController
+@Profile({"jdbc", "jpa"})
 public class RecentTacosController {
-    private TacoRepository tacoRepo;
-    public RecentTacosController(TacoRepository tacoRepo) {
+    private static final String RECENT_PATH = "/tacos/recent";
+
+    private final TacoRepository tacoRepo;
+    private final TacoResourceAssembler assembler;
+    private final String recentsPath;
+
+    public RecentTacosController(TacoRepository tacoRepo, RepositoryRestConfiguration restConfig,
+                                 ResourceMappings mappings) {
         this.tacoRepo = tacoRepo;
+        String basePath = restConfig.getBasePath().toString();
+        this.assembler = new TacoResourceAssembler(basePath + mappings.getMetadataFor(Ingredient.class).getPath());
+        this.recentsPath = basePath + RECENT_PATH;
     }
-    @GetMapping(path="/tacos/recent", produces="application/hal+json")
+
+    @GetMapping(path=RECENT_PATH,
+            produces={"application/hal+json", "application/x-jackson-smile", "application/cbor"})
     public ResponseEntity<Resources<TacoResource>> recentTacos() {
 
-        PageRequest page = PageRequest.of(
-                0, 12, Sort.by("createdAt").descending());
-        List<Taco> tacos = tacoRepo.findAll(page).getContent();
-        List<TacoResource> tacoResources =
-                new TacoResourceAssembler().toResources(tacos);
+        List<Taco> tacos = tacoRepo.findRecent(12);
+        List<TacoResource> tacoResources = assembler.toResources(tacos);
         Resources<TacoResource> recentResources =
                 new Resources<TacoResource>(tacoResources);
-        recentResources.add(
-                linkTo(methodOn(RecentTacosController.class).recentTacos())
-                        .withRel("recents"));
+        recentResources.add(LinkTemplateCache.link(LinkTemplateCache.currentBaseUri(), recentsPath, "recents"));
         return new ResponseEntity<>(recentResources, HttpStatus.OK);
     }
 }
-
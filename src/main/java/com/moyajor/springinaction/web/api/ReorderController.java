@@ -0,0 +1,50 @@
+package com.moyajor.springinaction.web.api;
+
+import com.moyajor.springinaction.data.OrderRepository;
+import com.moyajor.springinaction.kitchen.KitchenDispatcher;
+import com.moyajor.springinaction.model.db.Order;
+import com.moyajor.springinaction.model.db.User;
+import org.springframework.context.annotation.Profile;
+import org.springframework.data.rest.webmvc.RepositoryRestController;
+import org.springframework.http.ResponseEntity;
+import org.springframework.security.core.annotation.AuthenticationPrincipal;
+import org.springframework.web.bind.annotation.PathVariable;
+import org.springframework.web.bind.annotation.PostMapping;
+import org.springframework.web.servlet.support.ServletUriComponentsBuilder;
+
+import java.net.URI;
+
+/**
+ * Goes through the same repository as the order form, so a reorder reaches
+ * the journal, the sales rollup and the order history cache through
+ * {@link com.moyajor.springinaction.data.OrderSavedEvent}.
+ */
+@RepositoryRestController
+@Profile({"jdbc", "jpa"})
+public class ReorderController {
+
+    private final OrderRepository orderRepo;
+
+    private final KitchenDispatcher kitchen;
+
+    public ReorderController(OrderRepository orderRepo, KitchenDispatcher kitchen) {
+        this.orderRepo = orderRepo;
+        this.kitchen = kitchen;
+    }
+
+    @PostMapping("/orders/{id}/reorder")
+    public ResponseEntity<Void> reorder(@PathVariable("id") long orderId, @AuthenticationPrincipal User user) {
+        if (user == null) {
+            return ResponseEntity.status(401).build();
+        }
+        kitchen.checkCapacity();
+        Order copy = orderRepo.reorder(orderId, user);
+        if (copy == null) {
+            return ResponseEntity.notFound().build();
+        }
+        // .../orders/{id}/reorder resolves "../{newId}" to .../orders/{newId}
+        URI location = ServletUriComponentsBuilder.fromCurrentRequestUri().build().toUri()
+                .resolve("../" + copy.getId());
+        return ResponseEntity.created(location).build();
+    }
+}
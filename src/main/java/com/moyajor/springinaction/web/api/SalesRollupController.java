@@ -0,0 +1,47 @@
+package com.moyajor.springinaction.web.api;
+
+import com.moyajor.springinaction.rollup.Granularity;
+import com.moyajor.springinaction.rollup.IngredientUsage;
+import com.moyajor.springinaction.rollup.SalesPeriod;
+import com.moyajor.springinaction.rollup.SalesRollup;
+import org.springframework.context.annotation.Profile;
+import org.springframework.data.rest.webmvc.RepositoryRestController;
+import org.springframework.format.annotation.DateTimeFormat;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.RequestParam;
+
+import java.time.LocalDate;
+import java.util.List;
+
+/**
+ * Sales figures for operations, read from the rollup tables only. Days are
+ * UTC days and {@code to} is inclusive.
+ */
+@RepositoryRestController
+@Profile({"jdbc", "jpa"})
+public class SalesRollupController {
+    private SalesRollup rollup;
+    public SalesRollupController(SalesRollup rollup) {
+        this.rollup = rollup;
+    }
+    @GetMapping(path="/rollups/sales", produces="application/json")
+    public ResponseEntity<List<SalesPeriod>> sales(
+            @RequestParam(name="granularity", defaultValue="DAY") Granularity granularity,
+            @RequestParam("from") @DateTimeFormat(iso=DateTimeFormat.ISO.DATE) LocalDate from,
+            @RequestParam("to") @DateTimeFormat(iso=DateTimeFormat.ISO.DATE) LocalDate to) {
+        return new ResponseEntity<>(rollup.sales(granularity, firstHour(from), firstHour(to.plusDays(1))), HttpStatus.OK);
+    }
+    @GetMapping(path="/rollups/ingredients", produces="application/json")
+    public ResponseEntity<List<IngredientUsage>> ingredientUsage(
+            @RequestParam(name="granularity", defaultValue="DAY") Granularity granularity,
+            @RequestParam("from") @DateTimeFormat(iso=DateTimeFormat.ISO.DATE) LocalDate from,
+            @RequestParam("to") @DateTimeFormat(iso=DateTimeFormat.ISO.DATE) LocalDate to) {
+        return new ResponseEntity<>(rollup.ingredientUsage(granularity, firstHour(from), firstHour(to.plusDays(1))),
+                HttpStatus.OK);
+    }
+    private static long firstHour(LocalDate day) {
+        return day.toEpochDay() * 24;
+    }
+}
@@ -0,0 +1,27 @@
+package com.moyajor.springinaction.web.api;
+
+import com.moyajor.springinaction.search.TacoNameIndex;
+import com.moyajor.springinaction.search.TacoSearchService;
+import org.springframework.context.annotation.Profile;
+import org.springframework.data.rest.webmvc.RepositoryRestController;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.RequestParam;
+
+import java.util.List;
+
+@RepositoryRestController
+@Profile({"jdbc", "jpa"})
+public class TacoSearchController {
+    private TacoSearchService tacoSearch;
+    public TacoSearchController(TacoSearchService tacoSearch) {
+        this.tacoSearch = tacoSearch;
+    }
+    @GetMapping(path="/tacos/search", params="prefix", produces="application/json")
+    public ResponseEntity<List<TacoNameIndex.Match>> searchByPrefix(
+            @RequestParam("prefix") String prefix,
+            @RequestParam(name="limit", defaultValue="10") int limit) {
+        return new ResponseEntity<>(tacoSearch.search(prefix, limit), HttpStatus.OK);
+    }
+}
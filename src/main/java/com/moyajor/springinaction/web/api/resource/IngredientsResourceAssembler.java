@@ -1,19 +1,37 @@
 package com.moyajor.springinaction.web.api.resource;
 import com.moyajor.springinaction.model.db.Ingredient;
-import org.springframework.hateoas.mvc.ResourceAssemblerSupport;
+import org.springframework.hateoas.ResourceAssembler;
 
-class IngredientsResourceAssembler extends ResourceAssemblerSupport<Ingredient, IngredientResource> {
+import java.util.ArrayList;
+import java.util.List;
 
-    public IngredientResourceAssembler() {
-        super(IngredientController2.class, IngredientResource.class);
+class IngredientsResourceAssembler implements ResourceAssembler<Ingredient, IngredientResource> {
+
+    private final String ingredientsPath;
+
+    IngredientsResourceAssembler(String ingredientsPath) {
+        this.ingredientsPath = ingredientsPath;
     }
 
     @Override
     public IngredientResource toResource(Ingredient ingredient) {
-        return createResourceWithId(ingredient.getId(), ingredient);
+        return toResource(ingredient, LinkTemplateCache.currentBaseUri());
     }
-    @Override
-    protected IngredientResource instantiateResource(Ingredient ingredient) {
-        return new IngredientResource(ingredient);
+
+    public List<IngredientResource> toResources(Iterable<Ingredient> ingredients, String baseUri) {
+        List<IngredientResource> resources = new ArrayList<>();
+        if (ingredients == null) {
+            return resources;
+        }
+        for (Ingredient ingredient : ingredients) {
+            resources.add(toResource(ingredient, baseUri));
+        }
+        return resources;
+    }
+
+    private IngredientResource toResource(Ingredient ingredient, String baseUri) {
+        IngredientResource resource = new IngredientResource(ingredient);
+        resource.add(LinkTemplateCache.selfLink(baseUri, ingredientsPath, ingredient.getId()));
+        return resource;
     }
 }
@@ -0,0 +1,47 @@
+package com.moyajor.springinaction.web.api.resource;
+
+import org.springframework.core.annotation.AnnotatedElementUtils;
+import org.springframework.hateoas.Link;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.servlet.support.ServletUriComponentsBuilder;
+
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+
+/**
+ * Resolves controller mappings once and expands resource links by plain
+ * string concatenation instead of going through {@code linkTo}/{@code methodOn}
+ * for every resource. Only the base URI is taken from the current request.
+ */
+public final class LinkTemplateCache {
+
+    private static final ConcurrentMap<Class<?>, String> paths = new ConcurrentHashMap<>();
+
+    private LinkTemplateCache() {
+    }
+
+    public static String pathFor(Class<?> controller) {
+        return paths.computeIfAbsent(controller, key -> resolveMapping(controller));
+    }
+
+    public static String currentBaseUri() {
+        return ServletUriComponentsBuilder.fromCurrentServletMapping().build().toUriString();
+    }
+
+    public static Link link(String baseUri, String path, String rel) {
+        return new Link(baseUri + path, rel);
+    }
+
+    public static Link selfLink(String baseUri, String path, Object id) {
+        return new Link(baseUri + path + "/" + id);
+    }
+
+    private static String resolveMapping(Class<?> controller) {
+        RequestMapping mapping = AnnotatedElementUtils.findMergedAnnotation(controller, RequestMapping.class);
+        if (mapping == null || mapping.path().length == 0) {
+            return "";
+        }
+        String path = mapping.path()[0];
+        return path.startsWith("/") ? path : "/" + path;
+    }
+}
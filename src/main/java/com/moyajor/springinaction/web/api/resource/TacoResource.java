@@ -8,7 +8,6 @@ import java.util.Date;
 import java.util.List;
 
 public class TacoResource extends ResourceSupport {
-    private static final IngredientsResourceAssembler ingredientAssembler = new IngredientsResourceAssembler();
     @Getter
     private final String name;
     @Getter
@@ -16,10 +15,10 @@ public class TacoResource extends ResourceSupport {
     @Getter
     private final List<IngredientResource> ingredients;
 
-    public TacoResource(Taco taco) {
+    public TacoResource(Taco taco, List<IngredientResource> ingredients) {
         this.name = taco.getName();
         this.createdAt = taco.getCreatedAt();
-        this.ingredients = ingredientAssembler.toResources(taco.getIngredients());
+        this.ingredients = ingredients;
     }
 
 }
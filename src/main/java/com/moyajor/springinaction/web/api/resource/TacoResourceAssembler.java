@@ -1,21 +1,43 @@
 package com.moyajor.springinaction.web.api.resource;
 
 
+import com.moyajor.springinaction.controller.DesignTacoController;
 import com.moyajor.springinaction.model.db.Taco;
 import org.springframework.hateoas.mvc.ResourceAssemblerSupport;
 
+import java.util.ArrayList;
+import java.util.List;
+
 public class TacoResourceAssembler extends ResourceAssemblerSupport<Taco, TacoResource> {
+    private final IngredientsResourceAssembler ingredientAssembler;
 
-    public TacoResourceAssembler() {
+    /**
+     * @param ingredientsPath path of the ingredient resources below the base
+     *                        URI, e.g. {@code /api/ingredients}
+     */
+    public TacoResourceAssembler(String ingredientsPath) {
         super(DesignTacoController.class, TacoResource.class);
+        this.ingredientAssembler = new IngredientsResourceAssembler(ingredientsPath);
     }
 
     @Override
-    protected TacoResource instantiateResource(Taco taco) {
-        return new TacoResource(taco);
+    public TacoResource toResource(Taco taco) {
+        return toResource(taco, LinkTemplateCache.currentBaseUri());
     }
+
     @Override
-    public TacoResource toResource(Taco taco) {
-        return createResourceWithId(taco.getId(), taco);
+    public List<TacoResource> toResources(Iterable<? extends Taco> tacos) {
+        String baseUri = LinkTemplateCache.currentBaseUri();
+        List<TacoResource> resources = new ArrayList<>();
+        for (Taco taco : tacos) {
+            resources.add(toResource(taco, baseUri));
+        }
+        return resources;
+    }
+
+    private TacoResource toResource(Taco taco, String baseUri) {
+        TacoResource resource = new TacoResource(taco, ingredientAssembler.toResources(taco.getIngredients(), baseUri));
+        resource.add(LinkTemplateCache.selfLink(baseUri, LinkTemplateCache.pathFor(DesignTacoController.class), taco.getId()));
+        return resource;
     }
-}
\ No newline at end of file
+}
@@ -0,0 +1,25 @@
+package com.moyajor.springinaction.web.diagnostics;
+
+import org.springframework.boot.actuate.endpoint.annotation.Endpoint;
+import org.springframework.boot.actuate.endpoint.annotation.ReadOperation;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnWebApplication;
+import org.springframework.stereotype.Component;
+
+import java.util.Map;
+
+@Component
+@ConditionalOnWebApplication(type = ConditionalOnWebApplication.Type.SERVLET)
+@Endpoint(id = "requestcost")
+public class RequestCostEndpoint {
+
+    private final RequestCostFilter requestCosts;
+
+    public RequestCostEndpoint(RequestCostFilter requestCosts) {
+        this.requestCosts = requestCosts;
+    }
+
+    @ReadOperation
+    public Map<String, RequestCostFilter.CostSnapshot> costsByHandler() {
+        return requestCosts.snapshot();
+    }
+}
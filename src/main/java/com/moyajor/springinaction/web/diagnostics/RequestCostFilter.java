@@ -0,0 +1,183 @@
+package com.moyajor.springinaction.web.diagnostics;
+
+import io.micrometer.core.instrument.DistributionSummary;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.distribution.HistogramSnapshot;
+import io.micrometer.core.instrument.distribution.ValueAtPercentile;
+import lombok.Value;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnWebApplication;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.core.Ordered;
+import org.springframework.core.annotation.Order;
+import org.springframework.stereotype.Component;
+import org.springframework.web.filter.OncePerRequestFilter;
+import org.springframework.web.method.HandlerMethod;
+import org.springframework.web.servlet.HandlerMapping;
+
+import javax.servlet.FilterChain;
+import javax.servlet.ServletException;
+import javax.servlet.http.HttpServletRequest;
+import javax.servlet.http.HttpServletResponse;
+import java.io.IOException;
+import java.lang.management.ManagementFactory;
+import java.lang.management.ThreadMXBean;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Measures what each sampled request costs the thread that served it: bytes
+ * allocated and CPU time, read from the {@link ThreadMXBean} before and after
+ * the chain. Figures are aggregated per handler method into the
+ * {@code taco.request.allocated} and {@code taco.request.cpu} summaries and
+ * exposed on the {@code requestcost} actuator endpoint. Work that continues
+ * on another thread after an async start is not counted.
+ */
+@Slf4j
+@Component
+@ConditionalOnWebApplication(type = ConditionalOnWebApplication.Type.SERVLET)
+@Order(Ordered.HIGHEST_PRECEDENCE)
+@ConfigurationProperties(prefix = "taco.diagnostics")
+public class RequestCostFilter extends OncePerRequestFilter {
+
+    private int sampleEvery = 1;
+    private long slowRequestMillis = 0;
+
+    private final ThreadMXBean threads = ManagementFactory.getThreadMXBean();
+    private final com.sun.management.ThreadMXBean allocations;
+    private final ConcurrentMap<String, HandlerCost> costs = new ConcurrentHashMap<>();
+    private final AtomicLong requests = new AtomicLong();
+    private final MeterRegistry meterRegistry;
+
+    public RequestCostFilter(MeterRegistry meterRegistry) {
+        this.meterRegistry = meterRegistry;
+        if (threads instanceof com.sun.management.ThreadMXBean
+                && ((com.sun.management.ThreadMXBean) threads).isThreadAllocatedMemorySupported()) {
+            allocations = (com.sun.management.ThreadMXBean) threads;
+            allocations.setThreadAllocatedMemoryEnabled(true);
+        } else {
+            allocations = null;
+            log.info("Per-thread allocation accounting is not supported by this JVM");
+        }
+        if (threads.isCurrentThreadCpuTimeSupported()) {
+            threads.setThreadCpuTimeEnabled(true);
+        }
+    }
+
+    public void setSampleEvery(int sampleEvery) {
+        this.sampleEvery = Math.max(1, sampleEvery);
+    }
+
+    public void setSlowRequestMillis(long slowRequestMillis) {
+        this.slowRequestMillis = slowRequestMillis;
+    }
+
+    @Override
+    protected void doFilterInternal(HttpServletRequest request, HttpServletResponse response, FilterChain chain)
+            throws ServletException, IOException {
+        if (requests.incrementAndGet() % sampleEvery != 0) {
+            chain.doFilter(request, response);
+            return;
+        }
+        long threadId = Thread.currentThread().getId();
+        long startBytes = allocatedBytes(threadId);
+        long startCpu = cpuNanos();
+        long startWall = System.nanoTime();
+        try {
+            chain.doFilter(request, response);
+        } finally {
+            if (!request.isAsyncStarted()) {
+                record(request, response, allocatedBytes(threadId) - startBytes, cpuNanos() - startCpu,
+                        System.nanoTime() - startWall);
+            }
+        }
+    }
+
+    public Map<String, CostSnapshot> snapshot() {
+        Map<String, CostSnapshot> snapshot = new TreeMap<>();
+        costs.forEach((handler, cost) -> snapshot.put(handler, cost.snapshot()));
+        return snapshot;
+    }
+
+    private void record(HttpServletRequest request, HttpServletResponse response,
+                        long allocated, long cpuNanos, long wallNanos) {
+        String handler = handlerName(request);
+        HandlerCost cost = costs.computeIfAbsent(handler, HandlerCost::new);
+        cost.allocated.record(allocated);
+        cost.cpu.record(TimeUnit.NANOSECONDS.toMicros(cpuNanos));
+        long wallMillis = TimeUnit.NANOSECONDS.toMillis(wallNanos);
+        if (slowRequestMillis > 0 && wallMillis >= slowRequestMillis) {
+            log.warn("Slow request {} {} -> {} ({}): {} ms wall, {} ms cpu, {} KB allocated",
+                    request.getMethod(), request.getRequestURI(), handler, response.getStatus(),
+                    wallMillis, TimeUnit.NANOSECONDS.toMillis(cpuNanos), allocated / 1024);
+        }
+    }
+
+    private String handlerName(HttpServletRequest request) {
+        Object handler = request.getAttribute(HandlerMapping.BEST_MATCHING_HANDLER_ATTRIBUTE);
+        if (handler instanceof HandlerMethod) {
+            HandlerMethod method = (HandlerMethod) handler;
+            return method.getBeanType().getSimpleName() + "#" + method.getMethod().getName();
+        }
+        Object pattern = request.getAttribute(HandlerMapping.BEST_MATCHING_PATTERN_ATTRIBUTE);
+        return pattern != null ? pattern.toString() : "unmapped";
+    }
+
+    private long allocatedBytes(long threadId) {
+        return allocations != null ? allocations.getThreadAllocatedBytes(threadId) : 0;
+    }
+
+    private long cpuNanos() {
+        return threads.isThreadCpuTimeEnabled() ? threads.getCurrentThreadCpuTime() : 0;
+    }
+
+    private final class HandlerCost {
+        private final DistributionSummary allocated;
+        private final DistributionSummary cpu;
+
+        HandlerCost(String handler) {
+            allocated = DistributionSummary.builder("taco.request.allocated")
+                    .baseUnit("bytes")
+                    .tag("handler", handler)
+                    .publishPercentiles(0.5, 0.95, 0.99)
+                    .register(meterRegistry);
+            cpu = DistributionSummary.builder("taco.request.cpu")
+                    .baseUnit("microseconds")
+                    .tag("handler", handler)
+                    .publishPercentiles(0.5, 0.95, 0.99)
+                    .register(meterRegistry);
+        }
+
+        CostSnapshot snapshot() {
+            HistogramSnapshot bytes = allocated.takeSnapshot(false);
+            HistogramSnapshot micros = cpu.takeSnapshot(false);
+            return new CostSnapshot(bytes.count(),
+                    (long) bytes.mean(), percentile(bytes, 0.95), (long) bytes.max(),
+                    (long) micros.mean(), percentile(micros, 0.95), (long) micros.max());
+        }
+
+        private long percentile(HistogramSnapshot snapshot, double percentile) {
+            for (ValueAtPercentile value : snapshot.percentileValues()) {
+                if (value.percentile() == percentile) {
+                    return (long) value.value();
+                }
+            }
+            return 0;
+        }
+    }
+
+    @Value
+    public static class CostSnapshot {
+        long requests;
+        long meanAllocatedBytes;
+        long p95AllocatedBytes;
+        long maxAllocatedBytes;
+        long meanCpuMicros;
+        long p95CpuMicros;
+        long maxCpuMicros;
+    }
+}
@@ -0,0 +1,54 @@
+package com.moyajor.springinaction.web.reactive;
+
+import com.moyajor.springinaction.data.mongodb.IngredientRepository;
+import com.moyajor.springinaction.data.mongodb.TacoRepository;
+import com.moyajor.springinaction.model.mongodb.Ingredient;
+import com.moyajor.springinaction.model.mongodb.Taco;
+import org.springframework.context.annotation.Profile;
+import org.springframework.http.MediaType;
+import org.springframework.stereotype.Component;
+import org.springframework.web.reactive.function.server.ServerRequest;
+import org.springframework.web.reactive.function.server.ServerResponse;
+import reactor.core.publisher.Mono;
+
+import java.net.URI;
+
+@Component
+@Profile("mongo")
+public class DesignTacoHandler {
+
+    private static final int RECENT_TACOS = 12;
+
+    private final TacoRepository tacoRepo;
+    private final IngredientRepository ingredientRepo;
+
+    public DesignTacoHandler(TacoRepository tacoRepo, IngredientRepository ingredientRepo) {
+        this.tacoRepo = tacoRepo;
+        this.ingredientRepo = ingredientRepo;
+    }
+
+    public Mono<ServerResponse> recentTacos(ServerRequest request) {
+        return ServerResponse.ok()
+                .contentType(MediaType.APPLICATION_JSON)
+                .body(tacoRepo.findByOrderByCreatedAtDesc().take(RECENT_TACOS), Taco.class);
+    }
+
+    public Mono<ServerResponse> ingredients(ServerRequest request) {
+        return ServerResponse.ok()
+                .contentType(MediaType.APPLICATION_JSON)
+                .body(ingredientRepo.findAll(), Ingredient.class);
+    }
+
+    public Mono<ServerResponse> saveTaco(ServerRequest request) {
+        return request.bodyToMono(Taco.class)
+                .map(taco -> {
+                    // always a new taco, whatever id the client sent
+                    taco.setId(null);
+                    return taco;
+                })
+                .flatMap(tacoRepo::save)
+                .flatMap(saved -> ServerResponse.created(URI.create("/design/" + saved.getId()))
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .syncBody(saved));
+    }
+}
@@ -0,0 +1,117 @@
+package com.moyajor.springinaction.web.reactive;
+
+import com.moyajor.springinaction.data.mongodb.OrderRepository;
+import com.moyajor.springinaction.data.mongodb.TacoRepository;
+import com.moyajor.springinaction.model.mongodb.Order;
+import com.moyajor.springinaction.model.mongodb.OrderSummary;
+import com.moyajor.springinaction.model.mongodb.Taco;
+import com.moyajor.springinaction.model.mongodb.User;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.context.annotation.Profile;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.Sort;
+import org.springframework.http.MediaType;
+import org.springframework.security.core.Authentication;
+import org.springframework.stereotype.Component;
+import org.springframework.web.reactive.function.server.ServerRequest;
+import org.springframework.web.reactive.function.server.ServerResponse;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+
+import java.net.URI;
+
+@Component
+@Profile("mongo")
+@ConfigurationProperties(prefix = "taco.orders")
+public class OrderHandler {
+
+    private int tacoWriteConcurrency = 4;
+    private int pageSize = 20;
+
+    private final TacoRepository tacoRepo;
+    private final OrderRepository orderRepo;
+
+    public OrderHandler(TacoRepository tacoRepo, OrderRepository orderRepo) {
+        this.tacoRepo = tacoRepo;
+        this.orderRepo = orderRepo;
+    }
+
+    public void setTacoWriteConcurrency(int tacoWriteConcurrency) {
+        this.tacoWriteConcurrency = tacoWriteConcurrency;
+    }
+
+    public void setPageSize(int pageSize) {
+        this.pageSize = pageSize;
+    }
+
+    public Mono<ServerResponse> ordersForUser(ServerRequest request) {
+        int page = request.queryParam("page").map(Integer::parseInt).orElse(0);
+        PageRequest pageable = PageRequest.of(page, pageSize, Sort.by(Sort.Direction.DESC, "placedAt"));
+        Flux<OrderSummary> summaries = customer(request)
+                .flatMapMany(user -> orderRepo.findSummariesByCustomer(user.getUsername(), pageable))
+                .map(OrderSummary::of);
+        return ServerResponse.ok()
+                .contentType(MediaType.APPLICATION_JSON)
+                .body(summaries, OrderSummary.class);
+    }
+
+    public Mono<ServerResponse> placeOrder(ServerRequest request) {
+        Mono<User> customer = customer(request);
+        return request.bodyToMono(Order.class)
+                .map(this::asNewOrder)
+                .flatMap(order -> customer.map(user -> withCustomer(order, user)).defaultIfEmpty(order))
+                .flatMap(this::saveOrder)
+                .flatMap(saved -> ServerResponse.created(URI.create("/orders/" + saved.getId()))
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .syncBody(saved));
+    }
+
+    /**
+     * Imports a batch of orders whose tacos already exist, e.g. from another
+     * store, with one unordered insert. The orders keep the customer, ids and
+     * times they are sent with, so only provisioning accounts may call this.
+     */
+    public Mono<ServerResponse> importOrders(ServerRequest request) {
+        Flux<Order> saved = request.bodyToFlux(Order.class)
+                .collectList()
+                .flatMapMany(orderRepo::insertAllUnordered);
+        return ServerResponse.ok()
+                .contentType(MediaType.APPLICATION_JSON)
+                .body(saved, Order.class);
+    }
+
+    Mono<Order> saveOrder(Order order) {
+        return Flux.fromIterable(order.getTacos())
+                .flatMapSequential(tacoRepo::save, tacoWriteConcurrency)
+                .collectList()
+                .flatMap(tacos -> {
+                    order.setTacos(tacos);
+                    return orderRepo.save(order);
+                });
+    }
+
+    private Mono<User> customer(ServerRequest request) {
+        return request.principal()
+                .cast(Authentication.class)
+                .map(Authentication::getPrincipal)
+                .ofType(User.class);
+    }
+
+    /**
+     * Ids and the customer come from the server, never from the request body,
+     * so a client cannot overwrite someone else's order or tacos.
+     */
+    private Order asNewOrder(Order order) {
+        order.setId(null);
+        order.setUser(null);
+        for (Taco taco : order.getTacos()) {
+            taco.setId(null);
+        }
+        return order;
+    }
+
+    private Order withCustomer(Order order, User user) {
+        order.setUser(user);
+        return order;
+    }
+}
@@ -0,0 +1,28 @@
+package com.moyajor.springinaction.web.reactive;
+
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.context.annotation.Profile;
+import org.springframework.web.reactive.function.server.RouterFunction;
+import org.springframework.web.reactive.function.server.ServerResponse;
+
+import static org.springframework.http.MediaType.APPLICATION_JSON;
+import static org.springframework.web.reactive.function.server.RequestPredicates.GET;
+import static org.springframework.web.reactive.function.server.RequestPredicates.POST;
+import static org.springframework.web.reactive.function.server.RequestPredicates.contentType;
+import static org.springframework.web.reactive.function.server.RouterFunctions.route;
+
+@Configuration
+@Profile("mongo")
+public class ReactiveRoutesConfig {
+
+    @Bean
+    public RouterFunction<ServerResponse> tacoRoutes(DesignTacoHandler design, OrderHandler orders) {
+        return route(GET("/design/recent"), design::recentTacos)
+                .andRoute(GET("/ingredients"), design::ingredients)
+                .andRoute(POST("/design").and(contentType(APPLICATION_JSON)), design::saveTaco)
+                .andRoute(GET("/orders"), orders::ordersForUser)
+                .andRoute(POST("/orders").and(contentType(APPLICATION_JSON)), orders::placeOrder)
+                .andRoute(POST("/orders/import").and(contentType(APPLICATION_JSON)), orders::importOrders);
+    }
+}
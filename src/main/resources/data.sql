@@ -1,3 +1,7 @@
+delete from Order_Idempotency_Key;
+delete from Ingredient_Rollup;
+delete from Sales_Rollup;
+delete from Taco_Order_Archive;
 delete from Taco_Order_Tacos;
 delete from Taco_Ingredients;
 delete from Taco;
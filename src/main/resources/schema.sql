@@ -1,12 +1,28 @@
 create table if not exists Ingredient (
-  id varchar(4) not null,
+  id varchar(4) not null primary key,
   name varchar(25) not null,
   type varchar(10) not null
 );
+-- User_Seq and the unique User_Username index back RegistrationService:
+-- the index decides registration races, the loser gets a 409
+create table if not exists User (
+  id bigint not null primary key,
+  username varchar(50) not null,
+  password varchar(100) not null,
+  fullname varchar(50),
+  street varchar(50),
+  city varchar(50),
+  state varchar(2),
+  zip varchar(10),
+  phoneNumber varchar(20),
+  roles varchar(100) default 'USER' not null
+);
 create table if not exists Taco (
-  id identity,
+  id bigint not null primary key,
   name varchar(50) not null,
-  createdAt timestamp not null
+  createdAt timestamp not null,
+  -- Taco.user, read through the Data REST taco resources
+  userId bigint
 );
 create table if not exists Taco_Ingredients (
   taco bigint not null,
@@ -17,7 +33,7 @@ alter table Taco_Ingredients
 alter table Taco_Ingredients
     add foreign key (ingredient) references Ingredient(id);
 create table if not exists Taco_Order (
-  id identity,
+  id bigint not null primary key,
     deliveryName varchar(50) not null,
     deliveryStreet varchar(50) not null,
     deliveryCity varchar(50) not null,
@@ -26,7 +42,9 @@ create table if not exists Taco_Order (
     ccNumber varchar(16) not null,
     ccExpiration varchar(5) not null,
     ccCVV varchar(3) not null,
-    placedAt timestamp not null
+    placedAt timestamp not null,
+    userId bigint,
+    rolledUp boolean default false not null
 );
 create table if not exists Taco_Order_Tacos (
   tacoOrder bigint not null,
@@ -35,4 +53,50 @@ create table if not exists Taco_Order_Tacos (
 alter table Taco_Order_Tacos
     add foreign key (tacoOrder) references Taco_Order(id);
 alter table Taco_Order_Tacos
-    add foreign key (taco) references Taco(id);
\ No newline at end of file
+    add foreign key (taco) references Taco(id);
+create table if not exists Taco_Order_Archive (
+  id bigint not null primary key,
+  userId bigint,
+  deliveryName varchar(50) not null,
+  deliveryStreet varchar(50) not null,
+  deliveryCity varchar(50) not null,
+  deliveryState varchar(2) not null,
+  deliveryZip varchar(10) not null,
+  placedAt timestamp not null,
+  tacos varbinary not null
+);
+create table if not exists Order_Idempotency_Key (
+  userId bigint not null,
+  idempotencyKey varchar(64) not null,
+  tacoOrder bigint,
+  createdAt timestamp not null,
+  primary key (userId, idempotencyKey)
+);
+create table if not exists Cache_Version (
+  region varchar(32) not null primary key,
+  version bigint not null
+);
+create table if not exists Sales_Rollup (
+  epochHour bigint not null primary key,
+  orders bigint not null,
+  tacos bigint not null
+);
+create table if not exists Ingredient_Rollup (
+  epochHour bigint not null,
+  ingredient varchar(4) not null,
+  uses bigint not null,
+  primary key (epochHour, ingredient)
+);
+-- ids are reserved 50 at a time, see IdBlockAllocator.BLOCK_SIZE
+create sequence if not exists Taco_Seq start with 1 increment by 50;
+create sequence if not exists Taco_Order_Seq start with 1 increment by 50;
+create sequence if not exists User_Seq start with 1 increment by 50;
+create unique index if not exists User_Username on User(username);
+create index if not exists Taco_CreatedAt on Taco(createdAt);
+create index if not exists Taco_Ingredients_Taco on Taco_Ingredients(taco, ingredient);
+create index if not exists Taco_Order_PlacedAt on Taco_Order(placedAt);
+create index if not exists Taco_Order_RolledUp on Taco_Order(rolledUp, id);
+create index if not exists Taco_Order_Tacos_Order on Taco_Order_Tacos(tacoOrder, taco);
+create index if not exists Taco_Order_User on Taco_Order(userId, placedAt);
+create index if not exists Taco_Order_Archive_User on Taco_Order_Archive(userId, placedAt);
+create index if not exists Order_Idempotency_Key_CreatedAt on Order_Idempotency_Key(createdAt);
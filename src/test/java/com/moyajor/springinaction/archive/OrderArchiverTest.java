@@ -0,0 +1,193 @@
+package com.moyajor.springinaction.archive;
+
+import com.moyajor.springinaction.data.IdBlockAllocator;
+import com.moyajor.springinaction.data.jdbc.JdbcOrderArchiveRepository;
+import com.moyajor.springinaction.data.jdbc.JdbcOrderRepository;
+import com.moyajor.springinaction.model.db.Order;
+import com.moyajor.springinaction.model.db.Taco;
+import com.moyajor.springinaction.model.db.User;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+import org.springframework.context.annotation.AnnotationConfigApplicationContext;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.core.namedparam.NamedParameterJdbcTemplate;
+import org.springframework.jdbc.datasource.DataSourceTransactionManager;
+import org.springframework.jdbc.datasource.embedded.EmbeddedDatabase;
+import org.springframework.jdbc.datasource.embedded.EmbeddedDatabaseBuilder;
+import org.springframework.jdbc.datasource.embedded.EmbeddedDatabaseType;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import javax.sql.DataSource;
+import java.sql.Timestamp;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+/**
+ * Archives the cold orders of one user on H2 and pages through the user's
+ * history, newest first, across the boundary between live and archived rows.
+ */
+public class OrderArchiverTest {
+
+    private static final int[] AGES_IN_DAYS = {5, 10, 120, 150, 200};
+
+    private EmbeddedDatabase database;
+    private AnnotationConfigApplicationContext context;
+    private JdbcTemplate jdbc;
+    private User user;
+    private final List<Long> orderIds = new ArrayList<>();
+
+    @Before
+    public void placeOrders() {
+        database = new EmbeddedDatabaseBuilder()
+                .setType(EmbeddedDatabaseType.H2)
+                .generateUniqueName(true)
+                .addScript("classpath:schema.sql")
+                .addScript("classpath:data.sql")
+                .build();
+        context = new AnnotationConfigApplicationContext();
+        context.getEnvironment().setActiveProfiles("jdbc");
+        context.registerBean(DataSource.class, () -> database);
+        context.register(ArchiveConfig.class, IdBlockAllocator.class, JdbcOrderArchiveRepository.class,
+                JdbcOrderRepository.class, OrderArchiver.class);
+        context.refresh();
+        jdbc = context.getBean(JdbcTemplate.class);
+
+        jdbc.update("insert into User (id, username, password) values (1, 'archived', 'secret')");
+        user = new User("archived", "secret", "Archived Customer", "1 Main St", "Denver", "CO", "80202", "555-0100");
+        user.setId(1L);
+        JdbcOrderRepository orderRepo = context.getBean(JdbcOrderRepository.class);
+        for (int i = 0; i < AGES_IN_DAYS.length; i++) {
+            long tacoId = 1000 + i;
+            jdbc.update("insert into Taco (id, name, createdAt) values (?, ?, current_timestamp)", tacoId, "Taco " + i);
+            jdbc.update("insert into Taco_Ingredients (taco, ingredient) values (?, 'FLTO')", tacoId);
+            Order order = order(tacoId);
+            orderRepo.save(order);
+            jdbc.update("update Taco_Order set placedAt = ?, rolledUp = true where id = ?",
+                    new Timestamp(System.currentTimeMillis() - TimeUnit.DAYS.toMillis(AGES_IN_DAYS[i])), order.getId());
+            orderIds.add(order.getId());
+        }
+    }
+
+    @After
+    public void shutdown() {
+        context.close();
+        database.shutdown();
+    }
+
+    @Test
+    public void shouldMoveColdOrdersInBatches() {
+        OrderArchiver archiver = context.getBean(OrderArchiver.class);
+        archiver.setBatchSize(2);
+        archiver.setPauseMillis(0);
+        archiver.archiveColdOrders();
+
+        assertEquals(Arrays.asList(orderIds.get(0), orderIds.get(1)),
+                jdbc.queryForList("select id from Taco_Order order by placedAt desc", Long.class));
+        assertEquals(Arrays.asList(orderIds.get(2), orderIds.get(3), orderIds.get(4)),
+                jdbc.queryForList("select id from Taco_Order_Archive order by placedAt desc", Long.class));
+        assertEquals(Integer.valueOf(2), jdbc.queryForObject("select count(*) from Taco_Order_Tacos", Integer.class));
+
+        List<Order> archived = context.getBean(JdbcOrderArchiveRepository.class).findByUser(1L, 0, 10);
+        assertEquals(3, archived.size());
+        assertEquals(Long.valueOf(1002), archived.get(0).getTacos().get(0).getId());
+        assertEquals("Archived Customer", archived.get(0).getName());
+    }
+
+    @Test
+    public void shouldPageFromLiveIntoArchivedOrders() {
+        context.getBean(OrderArchiver.class).setPauseMillis(0);
+        context.getBean(OrderArchiver.class).archiveColdOrders();
+        JdbcOrderRepository orderRepo = context.getBean(JdbcOrderRepository.class);
+
+        List<Order> first = orderRepo.findByUserOrderByPlacedAtDesc(user, PageRequest.of(0, 3));
+        List<Order> second = orderRepo.findByUserOrderByPlacedAtDesc(user, PageRequest.of(1, 3));
+
+        assertEquals(orderIds.subList(0, 3), ids(first));
+        assertEquals(orderIds.subList(3, 5), ids(second));
+        for (Order order : first) {
+            assertEquals(1, order.getTacos().size());
+        }
+        assertEquals(Long.valueOf(1004), second.get(1).getTacos().get(0).getId());
+    }
+
+    @Test
+    public void shouldArchiveOrdersWithManyScatteredTacos() {
+        Order order = order(1000);
+        order.getTacos().clear();
+        List<Object[]> tacos = new ArrayList<>();
+        for (int i = 0; i < 600; i++) {
+            long tacoId = 1_000_000L + i * 1_000_003L;
+            tacos.add(new Object[]{tacoId, "Scattered Taco " + i});
+            Taco taco = new Taco();
+            taco.setId(tacoId);
+            order.addDesign(taco);
+        }
+        jdbc.batchUpdate("insert into Taco (id, name, createdAt) values (?, ?, current_timestamp)", tacos);
+        context.getBean(JdbcOrderRepository.class).save(order);
+        jdbc.update("update Taco_Order set placedAt = ?, rolledUp = true where id = ?",
+                new Timestamp(System.currentTimeMillis() - TimeUnit.DAYS.toMillis(365)), order.getId());
+
+        OrderArchiver archiver = context.getBean(OrderArchiver.class);
+        archiver.setPauseMillis(0);
+        archiver.archiveColdOrders();
+
+        List<Order> archived = context.getBean(JdbcOrderArchiveRepository.class).findByUser(1L, 0, 10);
+        Order oldest = archived.get(archived.size() - 1);
+        assertEquals(order.getId(), oldest.getId());
+        assertEquals(600, oldest.getTacos().size());
+        assertTrue(oldest.getTacos().stream().anyMatch(taco -> taco.getId() == 1_000_000L + 599 * 1_000_003L));
+    }
+
+    private Order order(long tacoId) {
+        Order order = new Order();
+        order.setName("Archived Customer");
+        order.setStreet("1 Main St");
+        order.setCity("Denver");
+        order.setState("CO");
+        order.setZip("80202");
+        order.setCcNumber("4111111111111111");
+        order.setCcExpiration("12/29");
+        order.setCcCVV("123");
+        order.setUser(user);
+        Taco taco = new Taco();
+        taco.setId(tacoId);
+        order.addDesign(taco);
+        return order;
+    }
+
+    private List<Long> ids(List<Order> orders) {
+        List<Long> ids = new ArrayList<>();
+        for (Order order : orders) {
+            ids.add(order.getId());
+        }
+        return ids;
+    }
+
+    @Configuration
+    static class ArchiveConfig {
+
+        @Bean
+        public JdbcTemplate jdbcTemplate(DataSource dataSource) {
+            return new JdbcTemplate(dataSource);
+        }
+
+        @Bean
+        public NamedParameterJdbcTemplate namedParameterJdbcTemplate(DataSource dataSource) {
+            return new NamedParameterJdbcTemplate(dataSource);
+        }
+
+        @Bean
+        public TransactionTemplate transactionTemplate(DataSource dataSource) {
+            return new TransactionTemplate(new DataSourceTransactionManager(dataSource));
+        }
+    }
+}
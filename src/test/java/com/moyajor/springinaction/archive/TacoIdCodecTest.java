@@ -0,0 +1,40 @@
+package com.moyajor.springinaction.archive;
+
+import org.junit.Test;
+
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+public class TacoIdCodecTest {
+
+    @Test
+    public void shouldRoundTripIdsInOrder() {
+        List<Long> ids = Arrays.asList(1041L, 1042L, 1039L, 5L, 9_000_000_000L, Long.MAX_VALUE, 0L);
+
+        assertEquals(ids, TacoIdCodec.decode(TacoIdCodec.encode(ids)));
+    }
+
+    @Test
+    public void shouldPackConsecutiveIdsIntoOneBytePerTaco() {
+        List<Long> ids = Arrays.asList(1_000_000L, 1_000_001L, 1_000_002L, 1_000_003L);
+
+        byte[] encoded = TacoIdCodec.encode(ids);
+
+        assertEquals(3 + 3, encoded.length);
+    }
+
+    @Test
+    public void shouldEncodeEmptyOrder() {
+        assertEquals(0, TacoIdCodec.encode(Collections.emptyList()).length);
+        assertTrue(TacoIdCodec.decode(new byte[0]).isEmpty());
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void shouldRejectTruncatedInput() {
+        TacoIdCodec.decode(new byte[]{(byte) 0x80});
+    }
+}
@@ -0,0 +1,127 @@
+package com.moyajor.springinaction.benchmark;
+
+import com.moyajor.springinaction.data.IdBlockAllocator;
+import com.moyajor.springinaction.data.jdbc.JdbcCacheVersionRepository;
+import com.moyajor.springinaction.data.jdbc.JdbcTacoRepository;
+import com.moyajor.springinaction.model.db.Ingredient;
+import com.moyajor.springinaction.model.db.Taco;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.core.PreparedStatementCreatorFactory;
+import org.springframework.jdbc.datasource.DataSourceTransactionManager;
+import org.springframework.jdbc.datasource.embedded.EmbeddedDatabase;
+import org.springframework.jdbc.datasource.embedded.EmbeddedDatabaseBuilder;
+import org.springframework.jdbc.datasource.embedded.EmbeddedDatabaseType;
+import org.springframework.jdbc.support.GeneratedKeyHolder;
+import org.springframework.jdbc.support.KeyHolder;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.sql.Timestamp;
+import java.sql.Types;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+/**
+ * Inserts the same tacos twice into an embedded H2: once the old way, an
+ * identity column read back through a key holder row by row, and once with
+ * ids from the block allocator so tacos and ingredient links go out as JDBC
+ * batches. Timing assertions only hold on a quiet machine, so this runs
+ * with {@code mvn test -Pbenchmarks} and not in the unit suite.
+ */
+public class IdAllocationBenchmarkTest {
+
+    private static final int TACOS = 20_000;
+    private static final int BATCH_SIZE = 500;
+
+    private EmbeddedDatabase database;
+    private JdbcTemplate jdbc;
+    private TransactionTemplate transactionTemplate;
+
+    @Before
+    public void setUp() {
+        database = new EmbeddedDatabaseBuilder()
+                .setType(EmbeddedDatabaseType.H2)
+                .generateUniqueName(true)
+                .addScript("classpath:schema.sql")
+                .addScript("classpath:data.sql")
+                .build();
+        jdbc = new JdbcTemplate(database);
+        jdbc.execute("create table Taco_Identity (id identity, name varchar(50) not null, createdAt timestamp not null)");
+        jdbc.execute("create table Taco_Identity_Ingredients (taco bigint not null, ingredient varchar(4) not null)");
+        transactionTemplate = new TransactionTemplate(new DataSourceTransactionManager(database));
+    }
+
+    @After
+    public void tearDown() {
+        database.shutdown();
+    }
+
+    @Test
+    public void compareIdentityInsertsWithBlockAllocatedBatches() {
+        JdbcTacoRepository tacoRepo = new JdbcTacoRepository(jdbc, new IdBlockAllocator(database),
+                new JdbcCacheVersionRepository(jdbc), event -> { });
+
+        long start = System.nanoTime();
+        for (List<Taco> chunk : chunks()) {
+            transactionTemplate.execute(status -> {
+                chunk.forEach(this::insertWithIdentity);
+                return null;
+            });
+        }
+        long identity = System.nanoTime() - start;
+
+        start = System.nanoTime();
+        for (List<Taco> chunk : chunks()) {
+            transactionTemplate.execute(status -> tacoRepo.saveAll(chunk));
+        }
+        long batched = System.nanoTime() - start;
+
+        assertEquals(Integer.valueOf(TACOS), jdbc.queryForObject("select count(*) from Taco", Integer.class));
+        assertEquals(Integer.valueOf(TACOS), jdbc.queryForObject("select count(*) from Taco_Identity", Integer.class));
+        assertTrue(String.format("Taco inserts, 4 ingredients each: identity + key holder %.0f tacos/sec, " +
+                        "block-allocated ids with batches of %d %.0f tacos/sec",
+                perSecond(identity), BATCH_SIZE, perSecond(batched)), batched < identity);
+    }
+
+    private void insertWithIdentity(Taco taco) {
+        KeyHolder keyHolder = new GeneratedKeyHolder();
+        jdbc.update(new PreparedStatementCreatorFactory("insert into Taco_Identity (name, createdAt) values (?, ?)",
+                        Types.VARCHAR, Types.TIMESTAMP)
+                        .newPreparedStatementCreator(Arrays.asList(taco.getName(), new Timestamp(System.currentTimeMillis()))),
+                keyHolder);
+        long tacoId = keyHolder.getKey().longValue();
+        for (Ingredient ingredient : taco.getIngredients()) {
+            jdbc.update("insert into Taco_Identity_Ingredients (taco, ingredient) values (?, ?)", tacoId, ingredient.getId());
+        }
+    }
+
+    private double perSecond(long nanos) {
+        return TACOS / (nanos / 1_000_000_000.0);
+    }
+
+    private List<List<Taco>> chunks() {
+        List<Ingredient> ingredients = Arrays.asList(
+                new Ingredient("FLTO", "Flour Tortilla", Ingredient.Type.WRAP),
+                new Ingredient("GRBF", "Ground Beef", Ingredient.Type.PROTEIN),
+                new Ingredient("CHED", "Cheddar", Ingredient.Type.CHEESE),
+                new Ingredient("SLSA", "Salsa", Ingredient.Type.SAUCE));
+        List<List<Taco>> chunks = new ArrayList<>();
+        for (int i = 0; i < TACOS; i += BATCH_SIZE) {
+            List<Taco> chunk = new ArrayList<>(BATCH_SIZE);
+            for (int t = i; t < i + BATCH_SIZE; t++) {
+                Taco taco = new Taco();
+                taco.setName("Taco " + t);
+                taco.setIngredients(ingredients);
+                chunk.add(taco);
+            }
+            chunks.add(chunk);
+        }
+        return chunks;
+    }
+}
@@ -0,0 +1,138 @@
+package com.moyajor.springinaction.benchmark;
+
+import com.moyajor.springinaction.SpringInActionApplication;
+import com.moyajor.springinaction.data.mongodb.OrderRepository;
+import com.moyajor.springinaction.model.mongodb.Ingredient;
+import com.moyajor.springinaction.model.mongodb.Order;
+import com.moyajor.springinaction.model.mongodb.OrderSummary;
+import com.moyajor.springinaction.model.mongodb.Taco;
+import com.moyajor.springinaction.model.mongodb.User;
+import org.junit.AfterClass;
+import org.junit.BeforeClass;
+import org.junit.Test;
+import org.springframework.boot.builder.SpringApplicationBuilder;
+import org.springframework.context.ConfigurableApplicationContext;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.Sort;
+import reactor.core.publisher.Flux;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Date;
+import java.util.List;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+/**
+ * Runs against the embedded Mongo started by the mongo profile: compares
+ * per-document saves with unordered bulk inserts, and the same filtered
+ * history page of one customer with full documents and with the summary
+ * projection. Timing assertions only hold on a quiet machine, so this runs
+ * with {@code mvn test -Pbenchmarks} and not in the unit suite.
+ */
+public class MongoOrderBenchmarkTest {
+
+    private static final int ORDERS = 5_000;
+    private static final int BATCH_SIZE = 500;
+    private static final Duration TIMEOUT = Duration.ofMinutes(2);
+
+    private static ConfigurableApplicationContext context;
+    private static OrderRepository orderRepo;
+
+    @BeforeClass
+    public static void start() {
+        context = new SpringApplicationBuilder(SpringInActionApplication.class)
+                .properties("spring.profiles.active=mongo", "server.port=0")
+                .run();
+        orderRepo = context.getBean(OrderRepository.class);
+    }
+
+    @AfterClass
+    public static void stop() {
+        context.close();
+    }
+
+    @Test
+    public void compareSavesWithUnorderedBulkInsert() {
+        orderRepo.deleteAll().block(TIMEOUT);
+        User customer = new User("bench", "secret", "Bench User", "Street", "City", "CO", "80000", "555-0100");
+
+        long start = System.nanoTime();
+        Flux.fromIterable(orders(customer)).concatMap(orderRepo::save).blockLast(TIMEOUT);
+        long single = System.nanoTime() - start;
+
+        start = System.nanoTime();
+        Flux.fromIterable(orders(customer))
+                .buffer(BATCH_SIZE)
+                .concatMap(orderRepo::insertAllUnordered)
+                .blockLast(TIMEOUT);
+        long bulk = System.nanoTime() - start;
+
+        assertEquals(2L * ORDERS, (long) orderRepo.count().block(TIMEOUT));
+        assertTrue(String.format("save %.0f orders/sec, unordered insertMany(%d) %.0f orders/sec",
+                perSecond(single), BATCH_SIZE, perSecond(bulk)), bulk < single);
+    }
+
+    @Test
+    public void compareFullDocumentsWithSummaryProjection() {
+        orderRepo.deleteAll().block(TIMEOUT);
+        User customer = new User("bench", "secret", "Bench User", "Street", "City", "CO", "80000", "555-0100");
+        User other = new User("other", "secret", "Other User", "Street", "City", "CO", "80000", "555-0101");
+        Flux.fromIterable(orders(customer)).concatWith(Flux.fromIterable(orders(other)))
+                .buffer(BATCH_SIZE)
+                .concatMap(orderRepo::insertAllUnordered)
+                .blockLast(TIMEOUT);
+
+        PageRequest page = PageRequest.of(0, 20, Sort.by(Sort.Direction.DESC, "placedAt"));
+        long start = System.nanoTime();
+        List<Order> documents = null;
+        for (int i = 0; i < 200; i++) {
+            documents = orderRepo.findByCustomer("bench", page).collectList().block(TIMEOUT);
+        }
+        long full = System.nanoTime() - start;
+        start = System.nanoTime();
+        List<OrderSummary> summaries = null;
+        for (int i = 0; i < 200; i++) {
+            summaries = orderRepo.findSummariesByCustomer("bench", page).map(OrderSummary::of).collectList().block(TIMEOUT);
+        }
+        long projected = System.nanoTime() - start;
+
+        assertEquals(20, documents.size());
+        assertEquals(20, summaries.size());
+        for (int i = 0; i < 20; i++) {
+            assertEquals(documents.get(i).getId(), summaries.get(i).getId());
+        }
+        assertEquals(3, summaries.get(0).getTacoCount());
+        assertTrue(String.format("full documents %d ms, summary projection %d ms (200 pages)",
+                full / 1_000_000, projected / 1_000_000), projected < full);
+    }
+
+    private double perSecond(long nanos) {
+        return ORDERS / (nanos / 1_000_000_000.0);
+    }
+
+    private List<Order> orders(User customer) {
+        List<Ingredient> ingredients = Arrays.asList(
+                new Ingredient("FLTO", "Flour Tortilla", Ingredient.Type.WRAP),
+                new Ingredient("GRBF", "Ground Beef", Ingredient.Type.PROTEIN),
+                new Ingredient("CHED", "Cheddar", Ingredient.Type.CHEESE),
+                new Ingredient("SLSA", "Salsa", Ingredient.Type.SAUCE));
+        List<Order> orders = new ArrayList<>(ORDERS);
+        long now = System.currentTimeMillis();
+        for (int i = 0; i < ORDERS; i++) {
+            Order order = new Order();
+            order.setPlacedAt(new Date(now - i * 1000L));
+            order.setUser(customer);
+            for (int t = 0; t < 3; t++) {
+                Taco taco = new Taco();
+                taco.setName("Taco " + i + "-" + t);
+                taco.setIngredients(ingredients);
+                order.addDesign(taco);
+            }
+            orders.add(order);
+        }
+        return orders;
+    }
+}
@@ -0,0 +1,117 @@
+package com.moyajor.springinaction.benchmark;
+
+import com.moyajor.springinaction.controller.DesignTacoController;
+import com.moyajor.springinaction.model.db.Ingredient;
+import com.moyajor.springinaction.model.db.Taco;
+import com.moyajor.springinaction.web.api.resource.IngredientResource;
+import com.moyajor.springinaction.web.api.resource.TacoResource;
+import com.moyajor.springinaction.web.api.resource.TacoResourceAssembler;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+import org.springframework.hateoas.mvc.BasicLinkBuilder;
+import org.springframework.mock.web.MockHttpServletRequest;
+import org.springframework.web.context.request.RequestContextHolder;
+import org.springframework.web.context.request.ServletRequestAttributes;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Date;
+import java.util.List;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+import static org.springframework.hateoas.mvc.ControllerLinkBuilder.linkTo;
+
+/**
+ * Assembles the same 12-taco page with the cached link templates and with
+ * {@code linkTo} for every resource, and compares resources/sec. Timing
+ * assertions only hold on a quiet machine, so this runs with
+ * {@code mvn test -Pbenchmarks} and not in the unit suite.
+ */
+public class ResourceAssemblyBenchmarkTest {
+
+    private static final String INGREDIENTS_PATH = "/api/ingredients";
+    private static final int WARMUP_PAGES = 2_000;
+    private static final int MEASURED_PAGES = 10_000;
+
+    private List<Taco> page;
+
+    @Before
+    public void setUp() {
+        RequestContextHolder.setRequestAttributes(new ServletRequestAttributes(new MockHttpServletRequest()));
+        page = new ArrayList<>();
+        for (long i = 1; i <= 12; i++) {
+            Taco taco = new Taco();
+            taco.setId(i);
+            taco.setName("Taco " + i);
+            taco.setCreatedAt(new Date());
+            taco.setIngredients(Arrays.asList(
+                    new Ingredient("FLTO", "Flour Tortilla", Ingredient.Type.WRAP),
+                    new Ingredient("GRBF", "Ground Beef", Ingredient.Type.PROTEIN),
+                    new Ingredient("CHED", "Cheddar", Ingredient.Type.CHEESE),
+                    new Ingredient("SLSA", "Salsa", Ingredient.Type.SAUCE)));
+            page.add(taco);
+        }
+    }
+
+    @After
+    public void tearDown() {
+        RequestContextHolder.resetRequestAttributes();
+    }
+
+    @Test
+    public void compareCachedAndLinkToAssembly() {
+        TacoResourceAssembler assembler = new TacoResourceAssembler(INGREDIENTS_PATH);
+        List<TacoResource> cachedPage = assembler.toResources(page);
+        List<TacoResource> linkToPage = linkToResources(page);
+        assertEquals(12, cachedPage.size());
+        for (int i = 0; i < cachedPage.size(); i++) {
+            assertEquals(linkToPage.get(i).getId(), cachedPage.get(i).getId());
+            assertEquals(linkToPage.get(i).getIngredients().get(0).getId(),
+                    cachedPage.get(i).getIngredients().get(0).getId());
+        }
+
+        for (int i = 0; i < WARMUP_PAGES; i++) {
+            assembler.toResources(page);
+            linkToResources(page);
+        }
+
+        long start = System.nanoTime();
+        for (int i = 0; i < MEASURED_PAGES; i++) {
+            assembler.toResources(page);
+        }
+        long cached = System.nanoTime() - start;
+
+        start = System.nanoTime();
+        for (int i = 0; i < MEASURED_PAGES; i++) {
+            linkToResources(page);
+        }
+        long linkTo = System.nanoTime() - start;
+
+        assertTrue(String.format("Resource assembly, 12-taco page with 4 ingredients each: " +
+                        "cached %.0f resources/sec, linkTo %.0f resources/sec",
+                resourcesPerSecond(cached), resourcesPerSecond(linkTo)), cached < linkTo);
+    }
+
+    private double resourcesPerSecond(long nanos) {
+        return MEASURED_PAGES * 12 * 5 / (nanos / 1_000_000_000.0);
+    }
+
+    private List<TacoResource> linkToResources(List<Taco> tacos) {
+        List<TacoResource> resources = new ArrayList<>();
+        for (Taco taco : tacos) {
+            List<IngredientResource> ingredients = new ArrayList<>();
+            for (Ingredient ingredient : taco.getIngredients()) {
+                IngredientResource resource = new IngredientResource(ingredient);
+                resource.add(BasicLinkBuilder.linkToCurrentMapping()
+                        .slash(INGREDIENTS_PATH.substring(1)).slash(ingredient.getId()).withSelfRel());
+                ingredients.add(resource);
+            }
+            TacoResource resource = new TacoResource(taco, ingredients);
+            resource.add(linkTo(DesignTacoController.class).slash(taco.getId()).withSelfRel());
+            resources.add(resource);
+        }
+        return resources;
+    }
+}
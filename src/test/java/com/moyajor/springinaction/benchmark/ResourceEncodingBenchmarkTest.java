@@ -0,0 +1,93 @@
+package com.moyajor.springinaction.benchmark;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.ObjectWriter;
+import com.moyajor.springinaction.model.db.Ingredient;
+import com.moyajor.springinaction.model.db.Taco;
+import com.moyajor.springinaction.web.api.BinaryFormatsConfig;
+import com.moyajor.springinaction.web.api.resource.IngredientResource;
+import com.moyajor.springinaction.web.api.resource.TacoResource;
+import org.junit.Test;
+import org.springframework.hateoas.Link;
+import org.springframework.hateoas.Resources;
+import org.springframework.hateoas.core.EvoInflectorRelProvider;
+import org.springframework.http.converter.json.Jackson2ObjectMapperBuilder;
+
+import java.util.ArrayList;
+import java.util.Date;
+import java.util.List;
+
+import static org.junit.Assert.assertTrue;
+
+/**
+ * Encodes the recent tacos page as HAL JSON, Smile and CBOR and compares
+ * payload size and documents/sec. The rates are reported in the assertion
+ * message; this runs with {@code mvn test -Pbenchmarks} and not in the unit
+ * suite.
+ */
+public class ResourceEncodingBenchmarkTest {
+
+    private static final int WARMUP = 5_000;
+    private static final int MEASURED = 20_000;
+
+    @Test
+    public void compareJsonSmileAndCbor() throws Exception {
+        Resources<TacoResource> recent = recentTacos();
+        EvoInflectorRelProvider relProvider = new EvoInflectorRelProvider();
+
+        StringBuilder report = new StringBuilder();
+        long json = measure("HAL JSON", mapper(Jackson2ObjectMapperBuilder.json(), relProvider), recent, report);
+        long smile = measure("Smile", mapper(Jackson2ObjectMapperBuilder.smile(), relProvider), recent, report);
+        long cbor = measure("CBOR", mapper(Jackson2ObjectMapperBuilder.cbor(), relProvider), recent, report);
+
+        assertTrue(report.toString(), smile < json && cbor < json);
+    }
+
+    private ObjectMapper mapper(Jackson2ObjectMapperBuilder builder, EvoInflectorRelProvider relProvider) {
+        return BinaryFormatsConfig.halObjectMapper(builder, relProvider, null, null);
+    }
+
+    private long measure(String format, ObjectMapper mapper, Resources<TacoResource> recent,
+                         StringBuilder report) throws Exception {
+        ObjectWriter writer = mapper.writerFor(mapper.getTypeFactory()
+                .constructParametricType(Resources.class, TacoResource.class));
+        byte[] payload = writer.writeValueAsBytes(recent);
+        for (int i = 0; i < WARMUP; i++) {
+            writer.writeValueAsBytes(recent);
+        }
+        long start = System.nanoTime();
+        for (int i = 0; i < MEASURED; i++) {
+            writer.writeValueAsBytes(recent);
+        }
+        double seconds = (System.nanoTime() - start) / 1_000_000_000.0;
+        report.append(String.format("%s payload %d bytes, %.0f documents/sec; ", format, payload.length, MEASURED / seconds));
+        return payload.length;
+    }
+
+    private Resources<TacoResource> recentTacos() {
+        List<TacoResource> tacos = new ArrayList<>();
+        for (long i = 1; i <= 12; i++) {
+            Taco taco = new Taco();
+            taco.setId(i);
+            taco.setName("Taco number " + i);
+            taco.setCreatedAt(new Date());
+            List<IngredientResource> ingredients = new ArrayList<>();
+            ingredients.add(ingredient("FLTO", "Flour Tortilla", Ingredient.Type.WRAP));
+            ingredients.add(ingredient("CARN", "Carnitas", Ingredient.Type.PROTEIN));
+            ingredients.add(ingredient("JACK", "Monterrey Jack", Ingredient.Type.CHEESE));
+            ingredients.add(ingredient("SRCR", "Sour Cream", Ingredient.Type.SAUCE));
+            TacoResource resource = new TacoResource(taco, ingredients);
+            resource.add(new Link("http://localhost:8080/design/" + i));
+            tacos.add(resource);
+        }
+        Resources<TacoResource> recent = new Resources<>(tacos);
+        recent.add(new Link("http://localhost:8080/api/tacos/recent", "recents"));
+        return recent;
+    }
+
+    private IngredientResource ingredient(String id, String name, Ingredient.Type type) {
+        IngredientResource resource = new IngredientResource(new Ingredient(id, name, type));
+        resource.add(new Link("http://localhost:8080/api/ingredients/" + id));
+        return resource;
+    }
+}
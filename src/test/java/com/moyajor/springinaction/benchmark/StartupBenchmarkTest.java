@@ -0,0 +1,47 @@
+package com.moyajor.springinaction.benchmark;
+
+import com.moyajor.springinaction.SpringInActionApplication;
+import org.junit.Test;
+import org.springframework.boot.builder.SpringApplicationBuilder;
+import org.springframework.context.ConfigurableApplicationContext;
+
+import java.lang.management.ManagementFactory;
+import java.lang.management.MemoryMXBean;
+
+import static org.junit.Assert.assertArrayEquals;
+import static org.junit.Assert.assertTrue;
+
+/**
+ * Boots the application once per persistence profile and records
+ * time-to-ready and heap after boot. Profiles are taken from the
+ * {@code benchmark.profiles} system property, e.g.
+ * {@code -Dbenchmark.profiles=jdbc,jpa,mongo}. Each boot has to finish
+ * within {@code benchmark.startup-budget-ms}; the figures are reported in
+ * the assertion message.
+ */
+public class StartupBenchmarkTest {
+
+    @Test
+    public void recordStartupPerProfile() {
+        String[] profiles = System.getProperty("benchmark.profiles", "jdbc,jpa").split(",");
+        long budgetMillis = Long.getLong("benchmark.startup-budget-ms", 60_000L);
+        MemoryMXBean memory = ManagementFactory.getMemoryMXBean();
+        for (String profile : profiles) {
+            long start = System.nanoTime();
+            ConfigurableApplicationContext context = new SpringApplicationBuilder(SpringInActionApplication.class)
+                    .properties("spring.profiles.active=" + profile.trim(), "server.port=0")
+                    .run();
+            try {
+                long readyMillis = (System.nanoTime() - start) / 1_000_000;
+                System.gc();
+                long heapMb = memory.getHeapMemoryUsage().getUsed() / (1024 * 1024);
+                assertTrue(String.format("Profile %s ready in %d ms, heap after boot %d MB, %d beans",
+                        profile, readyMillis, heapMb, context.getBeanDefinitionCount()),
+                        context.isActive() && readyMillis < budgetMillis);
+                assertArrayEquals(new String[]{profile.trim()}, context.getEnvironment().getActiveProfiles());
+            } finally {
+                context.close();
+            }
+        }
+    }
+}
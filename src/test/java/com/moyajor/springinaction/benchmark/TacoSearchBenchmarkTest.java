@@ -0,0 +1,59 @@
+package com.moyajor.springinaction.benchmark;
+
+import com.moyajor.springinaction.search.TacoNameIndex;
+import org.junit.Test;
+
+import java.util.Arrays;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+/**
+ * Indexes 200,000 taco names and times typeahead lookups for prefixes of one
+ * to six characters. The 99th percentile has to stay under 100 microseconds.
+ * Timing assertions only hold on a quiet machine, so this runs with
+ * {@code mvn test -Pbenchmarks} and not in the unit suite.
+ */
+public class TacoSearchBenchmarkTest {
+
+    private static final String[] WORDS = {"carnitas", "carne", "chicken", "chorizo", "veggie", "fiesta",
+            "supreme", "classic", "crunch", "deluxe", "spicy", "smoky", "verde", "rojo", "baja", "street"};
+    private static final int TACOS = 200_000;
+    private static final int LOOKUPS = 100_000;
+
+    @Test
+    public void shouldAnswerPrefixLookupsWithinBudget() {
+        Random random = new Random(42);
+        TacoNameIndex index = new TacoNameIndex(10);
+        String[] names = new String[TACOS];
+        for (int i = 0; i < TACOS; i++) {
+            names[i] = WORDS[random.nextInt(WORDS.length)] + " " + WORDS[random.nextInt(WORDS.length)] + " " + i;
+            index.add(i, names[i], i);
+        }
+        assertEquals(TACOS, index.size());
+
+        for (int i = 0; i < LOOKUPS; i++) {
+            index.search(prefix(names, random), 10);
+        }
+        long[] samples = new long[LOOKUPS];
+        for (int i = 0; i < LOOKUPS; i++) {
+            String prefix = prefix(names, random);
+            long start = System.nanoTime();
+            index.search(prefix, 10);
+            samples[i] = System.nanoTime() - start;
+        }
+        Arrays.sort(samples);
+        long median = TimeUnit.NANOSECONDS.toMicros(samples[LOOKUPS / 2]);
+        long p99 = TimeUnit.NANOSECONDS.toMicros(samples[LOOKUPS * 99 / 100]);
+
+        assertTrue(String.format("Prefix lookups over %d names: median %d us, p99 %d us", TACOS, median, p99),
+                p99 < 100);
+    }
+
+    private String prefix(String[] names, Random random) {
+        String name = names[random.nextInt(names.length)];
+        return name.substring(0, 1 + random.nextInt(6));
+    }
+}
@@ -0,0 +1,133 @@
+package com.moyajor.springinaction.cache;
+
+import com.moyajor.springinaction.data.IdBlockAllocator;
+import com.moyajor.springinaction.data.IngredientRepository;
+import com.moyajor.springinaction.data.TacoRepository;
+import com.moyajor.springinaction.data.jdbc.JdbcCacheVersionRepository;
+import com.moyajor.springinaction.data.jdbc.JdbcIngredientRepository;
+import com.moyajor.springinaction.data.jdbc.JdbcTacoRepository;
+import com.moyajor.springinaction.model.db.Ingredient;
+import com.moyajor.springinaction.model.db.Taco;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+import org.springframework.cache.Cache;
+import org.springframework.cache.CacheManager;
+import org.springframework.cache.concurrent.ConcurrentMapCacheManager;
+import org.springframework.context.annotation.AnnotationConfigApplicationContext;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.datasource.embedded.EmbeddedDatabase;
+import org.springframework.jdbc.datasource.embedded.EmbeddedDatabaseBuilder;
+import org.springframework.jdbc.datasource.embedded.EmbeddedDatabaseType;
+
+import javax.sql.DataSource;
+import java.util.Collections;
+import java.util.List;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNotNull;
+import static org.junit.Assert.assertNull;
+
+public class CacheInvalidationPollerTest {
+
+    private EmbeddedDatabase database;
+
+    private AnnotationConfigApplicationContext nodeA;
+    private AnnotationConfigApplicationContext nodeB;
+
+    @Before
+    public void startNodes() {
+        database = new EmbeddedDatabaseBuilder()
+                .setType(EmbeddedDatabaseType.H2)
+                .generateUniqueName(true)
+                .addScript("classpath:schema.sql")
+                .addScript("classpath:data.sql")
+                .build();
+        nodeA = startNode();
+        nodeB = startNode();
+    }
+
+    @After
+    public void stopNodes() {
+        nodeA.close();
+        nodeB.close();
+        database.shutdown();
+    }
+
+    @Test
+    public void shouldEvictRemoteCacheAfterPolling() {
+        IngredientRepository ingredientsA = nodeA.getBean(IngredientRepository.class);
+        IngredientRepository ingredientsB = nodeB.getBean(IngredientRepository.class);
+        assertEquals(10, size(ingredientsA.findAll()));
+        assertEquals(10, size(ingredientsB.findAll()));
+
+        ingredientsA.save(new Ingredient("PICO", "Pico de Gallo", Ingredient.Type.SAUCE));
+
+        assertEquals(11, size(ingredientsA.findAll()));
+        assertEquals(10, size(ingredientsB.findAll()));
+
+        nodeB.getBean(CacheInvalidationPoller.class).poll();
+
+        assertEquals(11, size(ingredientsB.findAll()));
+    }
+
+    @Test
+    public void shouldEvictRemoteRecentTacosAfterPolling() {
+        Cache recentB = nodeB.getBean(CacheManager.class).getCache(CacheConfig.RECENT_TACOS);
+        recentB.put(12, Collections.emptyList());
+
+        Taco taco = new Taco();
+        taco.setName("Poller Taco");
+        taco.setIngredients(Collections.singletonList(new Ingredient("FLTO", "Flour Tortilla", Ingredient.Type.WRAP)));
+        nodeA.getBean(TacoRepository.class).save(taco);
+
+        assertNotNull(recentB.get(12));
+        nodeB.getBean(CacheInvalidationPoller.class).poll();
+        assertNull(recentB.get(12));
+    }
+
+    @Test
+    public void shouldEvictUsersAfterRemoteWritesAndOnExpiry() {
+        Cache usersB = nodeB.getBean(CacheManager.class).getCache(CacheConfig.USERS);
+        usersB.put("revoked", "cached details");
+
+        nodeA.getBean(JdbcCacheVersionRepository.class).bump(CacheConfig.USERS);
+        nodeB.getBean(CacheInvalidationPoller.class).poll();
+        assertNull(usersB.get("revoked"));
+
+        usersB.put("granted-with-sql", "cached details");
+        nodeB.getBean(CacheInvalidationPoller.class).expireUsers();
+        assertNull(usersB.get("granted-with-sql"));
+    }
+
+    private AnnotationConfigApplicationContext startNode() {
+        AnnotationConfigApplicationContext context = new AnnotationConfigApplicationContext();
+        context.getEnvironment().setActiveProfiles("jdbc");
+        context.registerBean(DataSource.class, () -> database);
+        context.register(NodeConfig.class, CacheConfig.class, JdbcCacheVersionRepository.class,
+                JdbcIngredientRepository.class, IdBlockAllocator.class, JdbcTacoRepository.class,
+                CacheInvalidationPoller.class);
+        context.refresh();
+        return context;
+    }
+
+    private int size(Iterable<Ingredient> ingredients) {
+        return ((List<Ingredient>) ingredients).size();
+    }
+
+    @Configuration
+    static class NodeConfig {
+
+        @Bean
+        public JdbcTemplate jdbcTemplate(DataSource dataSource) {
+            return new JdbcTemplate(dataSource);
+        }
+
+        @Bean
+        public CacheManager cacheManager() {
+            return new ConcurrentMapCacheManager();
+        }
+    }
+}
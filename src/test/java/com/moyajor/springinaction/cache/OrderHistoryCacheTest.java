@@ -0,0 +1,116 @@
+package com.moyajor.springinaction.cache;
+
+import com.moyajor.springinaction.data.OrderRepository;
+import com.moyajor.springinaction.data.OrderSavedEvent;
+import com.moyajor.springinaction.model.db.Order;
+import com.moyajor.springinaction.model.db.Taco;
+import com.moyajor.springinaction.model.db.User;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.Before;
+import org.junit.Test;
+import org.mockito.Mockito;
+import org.springframework.data.domain.Pageable;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Date;
+import java.util.List;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+public class OrderHistoryCacheTest {
+
+    private OrderRepository orderRepo;
+    private OrderHistoryCache cache;
+
+    @Before
+    public void setUp() {
+        orderRepo = Mockito.mock(OrderRepository.class);
+        when(orderRepo.findByUserOrderByPlacedAtDesc(any(User.class), any(Pageable.class)))
+                .thenAnswer(invocation -> history(invocation.getArgument(0), 3));
+        cache = new OrderHistoryCache(orderRepo, new SimpleMeterRegistry());
+    }
+
+    @Test
+    public void shouldServeRepeatedViewsFromCache() {
+        User user = user(1L);
+
+        cache.firstPage(user, 20);
+        List<OrderHistoryEntry> page = cache.firstPage(user, 20);
+
+        assertEquals(3, page.size());
+        verify(orderRepo, times(1)).findByUserOrderByPlacedAtDesc(any(User.class), any(Pageable.class));
+        assertEquals(0.5, cache.hitRatio(), 0.001);
+    }
+
+    @Test
+    public void shouldWriteSavedOrdersThroughToCachedPage() {
+        User user = user(1L);
+        cache.firstPage(user, 3);
+
+        Order placed = order(user, 99L, "Newest Taco");
+        cache.onOrderSaved(new OrderSavedEvent(this, placed));
+        List<OrderHistoryEntry> page = cache.firstPage(user, 3);
+
+        assertEquals(3, page.size());
+        assertEquals(99L, page.get(0).getId());
+        assertEquals(Collections.singletonList("Newest Taco"), page.get(0).getTacoNames());
+        verify(orderRepo, times(1)).findByUserOrderByPlacedAtDesc(any(User.class), any(Pageable.class));
+    }
+
+    @Test
+    public void shouldEvictLeastRecentlyViewedUsersOverByteBudget() {
+        long onePage = pageBytes();
+        cache.setMaxBytes(onePage * 2);
+
+        cache.firstPage(user(1L), 20);
+        cache.firstPage(user(2L), 20);
+        cache.firstPage(user(1L), 20);
+        cache.firstPage(user(3L), 20);
+
+        assertEquals(2, cache.size());
+        assertTrue(cache.estimatedBytes() <= onePage * 2);
+        cache.firstPage(user(1L), 20);
+        cache.firstPage(user(2L), 20);
+        verify(orderRepo, times(2)).findByUserOrderByPlacedAtDesc(Mockito.eq(user(2L)), any(Pageable.class));
+        verify(orderRepo, times(1)).findByUserOrderByPlacedAtDesc(Mockito.eq(user(1L)), any(Pageable.class));
+    }
+
+    private long pageBytes() {
+        OrderHistoryCache probe = new OrderHistoryCache(orderRepo, new SimpleMeterRegistry());
+        probe.firstPage(user(42L), 20);
+        Mockito.clearInvocations(orderRepo);
+        return probe.estimatedBytes();
+    }
+
+    private List<Order> history(User user, int count) {
+        List<Order> orders = new ArrayList<>();
+        for (long i = count; i > 0; i--) {
+            orders.add(order(user, i, "Taco " + i));
+        }
+        return orders;
+    }
+
+    private Order order(User user, long id, String tacoName) {
+        Order order = new Order();
+        order.setId(id);
+        order.setName("Customer " + user.getId());
+        order.setPlacedAt(new Date(id * 1000));
+        order.setUser(user);
+        Taco taco = new Taco();
+        taco.setName(tacoName);
+        order.addDesign(taco);
+        return order;
+    }
+
+    private User user(long id) {
+        User user = new User("user" + id, "secret", "User " + id, "Street", "City", "CO", "80000", "555-0100");
+        user.setId(id);
+        return user;
+    }
+}
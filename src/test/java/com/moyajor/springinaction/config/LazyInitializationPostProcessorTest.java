@@ -0,0 +1,60 @@
+package com.moyajor.springinaction.config;
+
+import org.junit.Before;
+import org.junit.Test;
+import org.springframework.beans.factory.support.DefaultListableBeanFactory;
+import org.springframework.beans.factory.support.GenericBeanDefinition;
+import org.springframework.mock.env.MockEnvironment;
+import org.springframework.scheduling.annotation.Scheduled;
+
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+public class LazyInitializationPostProcessorTest {
+
+    private DefaultListableBeanFactory beanFactory;
+
+    @Before
+    public void setUp() {
+        beanFactory = new DefaultListableBeanFactory();
+        register("plainService", PlainService.class);
+        register("scheduledJob", ScheduledJob.class);
+        register("listedService", PlainService.class);
+        register("frameworkBean", String.class);
+
+        LazyInitializationPostProcessor postProcessor = new LazyInitializationPostProcessor();
+        postProcessor.setEnvironment(new MockEnvironment().withProperty("taco.startup.eager-beans", "listedService"));
+        postProcessor.postProcessBeanFactory(beanFactory);
+    }
+
+    @Test
+    public void shouldMakeApplicationBeansLazy() {
+        assertTrue(beanFactory.getBeanDefinition("plainService").isLazyInit());
+    }
+
+    @Test
+    public void shouldKeepScheduledBeansEagerSoTheirJobsRun() {
+        assertFalse(beanFactory.getBeanDefinition("scheduledJob").isLazyInit());
+    }
+
+    @Test
+    public void shouldKeepListedAndFrameworkBeansEager() {
+        assertFalse(beanFactory.getBeanDefinition("listedService").isLazyInit());
+        assertFalse(beanFactory.getBeanDefinition("frameworkBean").isLazyInit());
+    }
+
+    private void register(String name, Class<?> type) {
+        GenericBeanDefinition definition = new GenericBeanDefinition();
+        definition.setBeanClass(type);
+        beanFactory.registerBeanDefinition(name, definition);
+    }
+
+    static class PlainService {
+    }
+
+    static class ScheduledJob {
+        @Scheduled(fixedDelay = 1000)
+        public void run() {
+        }
+    }
+}
@@ -0,0 +1,76 @@
+package com.moyajor.springinaction.data;
+
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.datasource.embedded.EmbeddedDatabase;
+import org.springframework.jdbc.datasource.embedded.EmbeddedDatabaseBuilder;
+import org.springframework.jdbc.datasource.embedded.EmbeddedDatabaseType;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+public class IdBlockAllocatorTest {
+
+    private EmbeddedDatabase database;
+    private IdBlockAllocator allocator;
+
+    @Before
+    public void setUp() {
+        database = new EmbeddedDatabaseBuilder()
+                .setType(EmbeddedDatabaseType.H2)
+                .generateUniqueName(true)
+                .addScript("classpath:schema.sql")
+                .build();
+        allocator = new IdBlockAllocator(database);
+    }
+
+    @After
+    public void tearDown() {
+        database.shutdown();
+    }
+
+    @Test
+    public void shouldReserveOneBlockPerFiftyIds() {
+        long[] ids = allocator.nextIds(IdBlockAllocator.TACO_SEQUENCE, IdBlockAllocator.BLOCK_SIZE + 1);
+
+        assertEquals(1L, ids[0]);
+        assertEquals(IdBlockAllocator.BLOCK_SIZE + 1L, ids[IdBlockAllocator.BLOCK_SIZE]);
+        // two blocks taken; the sequence now points at the start of the third
+        assertEquals(Long.valueOf(2L * IdBlockAllocator.BLOCK_SIZE + 1), new JdbcTemplate(database).queryForObject(
+                "select next value for " + IdBlockAllocator.TACO_SEQUENCE, Long.class));
+    }
+
+    @Test
+    public void shouldNeverHandOutTheSameIdTwice() throws Exception {
+        int threads = 8;
+        int idsPerThread = 1_000;
+        Set<Long> seen = ConcurrentHashMap.newKeySet();
+        ExecutorService executor = Executors.newFixedThreadPool(threads);
+        try {
+            List<Future<?>> workers = new ArrayList<>();
+            for (int t = 0; t < threads; t++) {
+                workers.add(executor.submit(() -> {
+                    for (int i = 0; i < idsPerThread; i++) {
+                        assertTrue(seen.add(allocator.nextId(IdBlockAllocator.ORDER_SEQUENCE)));
+                    }
+                }));
+            }
+            for (Future<?> worker : workers) {
+                worker.get();
+            }
+        } finally {
+            executor.shutdown();
+        }
+        assertEquals(threads * idsPerThread, seen.size());
+    }
+}
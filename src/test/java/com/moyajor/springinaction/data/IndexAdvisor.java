@@ -0,0 +1,59 @@
+package com.moyajor.springinaction.data;
+
+import java.util.LinkedHashSet;
+import java.util.Locale;
+import java.util.Set;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+/**
+ * Reads H2 EXPLAIN output, reports the tables that are scanned and suggests
+ * an index from the columns the statement filters, joins or sorts on.
+ */
+class IndexAdvisor {
+
+    private static final Pattern TABLE_SCAN = Pattern.compile("/\\* PUBLIC\\.(\\w+)\\.tableScan");
+
+    Set<String> scannedTables(String plan) {
+        Set<String> tables = new LinkedHashSet<>();
+        Matcher matcher = TABLE_SCAN.matcher(plan);
+        while (matcher.find()) {
+            tables.add(matcher.group(1));
+        }
+        return tables;
+    }
+
+    String suggestIndex(String sql, String table) {
+        String statement = sql.toLowerCase(Locale.ROOT);
+        String tableName = table.toLowerCase(Locale.ROOT);
+        Matcher aliasMatcher = Pattern.compile("\\b" + tableName + "\\s+(?!where|order|inner|left|on\\b)(\\w+)").matcher(statement);
+        String alias = aliasMatcher.find() ? aliasMatcher.group(1) : null;
+
+        Set<String> columns = new LinkedHashSet<>();
+        int predicates = predicateStart(statement);
+        if (predicates >= 0) {
+            String qualifier = alias != null ? alias + "\\." : "";
+            Matcher column = Pattern.compile("(?<![\\w.])" + qualifier + "(\\w+)\\s*(=|<|>|\\bin\\b|\\bdesc\\b|\\basc\\b|$)")
+                    .matcher(statement.substring(predicates));
+            while (column.find()) {
+                columns.add(column.group(1));
+            }
+        }
+        if (columns.isEmpty()) {
+            return "-- no filter or sort columns found for " + table;
+        }
+        return "create index " + table + "_" + String.join("_", columns) + " on " + table
+                + "(" + String.join(", ", columns) + ");";
+    }
+
+    private int predicateStart(String statement) {
+        int start = -1;
+        for (String keyword : new String[]{" on ", " where ", " order by "}) {
+            int at = statement.indexOf(keyword);
+            if (at >= 0 && (start < 0 || at < start)) {
+                start = at;
+            }
+        }
+        return start;
+    }
+}
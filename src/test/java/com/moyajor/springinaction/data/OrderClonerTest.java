@@ -0,0 +1,70 @@
+package com.moyajor.springinaction.data;
+
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+import org.springframework.jdbc.core.ConnectionCallback;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.datasource.embedded.EmbeddedDatabase;
+import org.springframework.jdbc.datasource.embedded.EmbeddedDatabaseBuilder;
+import org.springframework.jdbc.datasource.embedded.EmbeddedDatabaseType;
+
+import java.sql.Timestamp;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+public class OrderClonerTest {
+
+    private static final long COPY_ID = 51L;
+
+    private EmbeddedDatabase database;
+    private JdbcTemplate jdbc;
+    private long orderId;
+
+    @Before
+    public void setUp() {
+        database = new EmbeddedDatabaseBuilder()
+                .setType(EmbeddedDatabaseType.H2)
+                .generateUniqueName(true)
+                .addScript("classpath:schema.sql")
+                .addScript("classpath:data.sql")
+                .build();
+        jdbc = new JdbcTemplate(database);
+        jdbc.update("insert into Taco (id, name, createdAt) values (1, 'Carnitas Classic', current_timestamp)");
+        jdbc.update("insert into Taco (id, name, createdAt) values (2, 'Veggie Supreme', current_timestamp)");
+        orderId = 1L;
+        jdbc.update("insert into Taco_Order (id, deliveryName, deliveryStreet, deliveryCity, deliveryState, deliveryZip, " +
+                "ccNumber, ccExpiration, ccCVV, placedAt, userId) " +
+                "values (?, 'Jane', '1 Main St', 'Springfield', 'IL', '62701', '4111111111111111', '12/30', '123', " +
+                "current_timestamp, 7)", orderId);
+        jdbc.update("insert into Taco_Order_Tacos (tacoOrder, taco) values (?, 1), (?, 1), (?, 2)",
+                orderId, orderId, orderId);
+    }
+
+    @After
+    public void tearDown() {
+        database.shutdown();
+    }
+
+    @Test
+    public void shouldCopyOrderAndEveryTacoLink() {
+        assertTrue(cloneAs(7L));
+
+        assertEquals("Jane", jdbc.queryForObject("select deliveryName from Taco_Order where id = ?", String.class, COPY_ID));
+        assertEquals(jdbc.queryForList("select taco from Taco_Order_Tacos where tacoOrder = ? order by taco", Long.class, orderId),
+                jdbc.queryForList("select taco from Taco_Order_Tacos where tacoOrder = ? order by taco", Long.class, COPY_ID));
+    }
+
+    @Test
+    public void shouldNotCopyAnotherUsersOrder() {
+        assertFalse(cloneAs(8L));
+        assertEquals(Integer.valueOf(1), jdbc.queryForObject("select count(*) from Taco_Order", Integer.class));
+    }
+
+    private boolean cloneAs(long userId) {
+        return jdbc.execute((ConnectionCallback<Boolean>) connection ->
+                OrderCloner.cloneOrder(connection, COPY_ID, orderId, userId, new Timestamp(System.currentTimeMillis())));
+    }
+}
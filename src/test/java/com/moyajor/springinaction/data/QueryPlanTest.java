@@ -0,0 +1,330 @@
+package com.moyajor.springinaction.data;
+
+import com.moyajor.springinaction.archive.TacoIdCodec;
+import com.moyajor.springinaction.data.jdbc.JdbcCacheVersionRepository;
+import com.moyajor.springinaction.data.jdbc.JdbcIdempotencyKeyRepository;
+import com.moyajor.springinaction.data.jdbc.JdbcIngredientRepository;
+import com.moyajor.springinaction.data.jdbc.JdbcMigrationCheckpointRepository;
+import com.moyajor.springinaction.data.jdbc.JdbcMigrationSource;
+import com.moyajor.springinaction.data.jdbc.JdbcOrderArchiveRepository;
+import com.moyajor.springinaction.data.jdbc.JdbcOrderRepository;
+import com.moyajor.springinaction.data.jdbc.JdbcSalesRollupRepository;
+import com.moyajor.springinaction.data.jdbc.JdbcTacoRepository;
+import com.moyajor.springinaction.data.jpa.IngredientRepository;
+import com.moyajor.springinaction.data.jpa.OrderRepository;
+import com.moyajor.springinaction.data.jpa.TacoRepository;
+import com.moyajor.springinaction.migration.MigrationRange;
+import com.moyajor.springinaction.model.db.Ingredient;
+import com.moyajor.springinaction.model.db.Order;
+import com.moyajor.springinaction.model.db.Taco;
+import com.moyajor.springinaction.model.db.User;
+import com.moyajor.springinaction.rollup.Granularity;
+import org.junit.Before;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.config.BeanPostProcessor;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.boot.test.context.TestConfiguration;
+import org.springframework.cache.CacheManager;
+import org.springframework.context.annotation.Bean;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.Sort;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.core.namedparam.NamedParameterJdbcTemplate;
+import org.springframework.test.context.junit4.SpringRunner;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import javax.persistence.EntityManager;
+import javax.sql.DataSource;
+import java.sql.Timestamp;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.Date;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+import java.util.regex.Pattern;
+
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+/**
+ * Seeds H2 with a realistic volume, calls every method of the JDBC and JPA
+ * repositories, records the statements they actually issue and runs EXPLAIN
+ * for each of them: none may scan a table unless it reads the whole table by
+ * design. Every call runs in a transaction that is rolled back, so writes
+ * leave the seeded data as it was.
+ */
+@RunWith(SpringRunner.class)
+@SpringBootTest(properties = {"spring.profiles.active=jpa", "taco.warmup.enabled=false",
+        "spring.datasource.generate-unique-name=true"})
+public class QueryPlanTest {
+
+    private static final int TACOS = 20_000;
+    private static final int ORDERS = 10_000;
+    private static final int ARCHIVED = 10_000;
+    private static final int USERS = 200;
+    private static final String[] INGREDIENTS = {"FLTO", "COTO", "GRBF", "CARN", "TMTO", "LETC", "CHED", "JACK", "SLSA", "SRCR"};
+    // sequence calls and DDL have no plan to check
+    private static final Pattern EXPLAINABLE = Pattern.compile("^\\s*(select|insert|update|delete|merge)\\b");
+
+    private static final StatementRecorder recorder = new StatementRecorder();
+    private static boolean seeded;
+
+    @Autowired
+    private DataSource dataSource;
+    @Autowired
+    private TransactionTemplate transactionTemplate;
+    @Autowired
+    private EntityManager entityManager;
+    @Autowired
+    private CacheManager cacheManager;
+    @Autowired
+    private IdBlockAllocator idAllocator;
+    @Autowired
+    private JdbcCacheVersionRepository cacheVersions;
+    @Autowired
+    private JdbcIngredientRepository jdbcIngredients;
+    @Autowired
+    private JdbcIdempotencyKeyRepository idempotencyKeys;
+    @Autowired
+    private JdbcOrderRepository jdbcOrders;
+    @Autowired
+    private JdbcOrderArchiveRepository archive;
+    @Autowired
+    private JdbcSalesRollupRepository rollups;
+    @Autowired
+    private JdbcTacoRepository jdbcTacos;
+    @Autowired
+    private IngredientRepository ingredientRepo;
+    @Autowired
+    private TacoRepository tacoRepo;
+    @Autowired
+    private OrderRepository orderRepo;
+    @Autowired
+    private UserRepository userRepo;
+
+    private final IndexAdvisor advisor = new IndexAdvisor();
+
+    @Before
+    public void seed() {
+        if (seeded) {
+            return;
+        }
+        JdbcTemplate jdbc = new JdbcTemplate(dataSource);
+        long now = System.currentTimeMillis();
+        List<Object[]> users = new ArrayList<>();
+        for (long id = 1; id <= USERS; id++) {
+            users.add(new Object[]{id, "customer" + id});
+        }
+        jdbc.batchUpdate("insert into User (id, username, password, fullname, street, city, state, zip, phoneNumber) "
+                + "values (?, ?, 'secret', 'Name', 'Street', 'City', 'CO', '80000', '555-0100')", users);
+
+        List<Object[]> tacos = new ArrayList<>();
+        List<Object[]> tacoIngredients = new ArrayList<>();
+        for (long id = 1; id <= TACOS; id++) {
+            tacos.add(new Object[]{id, "Taco " + id, new Timestamp(now - id * 1000)});
+            for (int i = 0; i < 4; i++) {
+                tacoIngredients.add(new Object[]{id, INGREDIENTS[(int) ((id + i * 3) % INGREDIENTS.length)]});
+            }
+        }
+        jdbc.batchUpdate("insert into Taco (id, name, createdAt) values (?, ?, ?)", tacos);
+        jdbc.batchUpdate("insert into Taco_Ingredients (taco, ingredient) values (?, ?)", tacoIngredients);
+
+        List<Object[]> orders = new ArrayList<>();
+        List<Object[]> orderTacos = new ArrayList<>();
+        List<Object[]> keys = new ArrayList<>();
+        for (long id = 1; id <= ORDERS; id++) {
+            orders.add(new Object[]{id, new Timestamp(now - id * 5000), id % USERS + 1});
+            for (long t = 0; t < 3; t++) {
+                orderTacos.add(new Object[]{id, (id * 3 + t) % TACOS + 1});
+            }
+            keys.add(new Object[]{id % USERS + 1, "key-" + id, id, new Timestamp(now - id * 5000)});
+        }
+        jdbc.batchUpdate("insert into Taco_Order (id, deliveryName, deliveryStreet, deliveryCity, deliveryState, "
+                + "deliveryZip, ccNumber, ccExpiration, ccCVV, placedAt, userId) "
+                + "values (?, 'Name', 'Street', 'City', 'CO', '80000', '4111111111111111', '10/25', '123', ?, ?)", orders);
+        jdbc.batchUpdate("insert into Taco_Order_Tacos (tacoOrder, taco) values (?, ?)", orderTacos);
+        jdbc.batchUpdate("insert into Order_Idempotency_Key (userId, idempotencyKey, tacoOrder, createdAt) "
+                + "values (?, ?, ?, ?)", keys);
+
+        List<Object[]> archived = new ArrayList<>();
+        for (long id = ORDERS + 1; id <= ORDERS + ARCHIVED; id++) {
+            archived.add(new Object[]{id, id % USERS + 1, new Timestamp(now - TimeUnit.DAYS.toMillis(100) - id * 5000),
+                    TacoIdCodec.encode(Arrays.asList(id % TACOS + 1, (id + 1) % TACOS + 1))});
+        }
+        jdbc.batchUpdate("insert into Taco_Order_Archive (id, userId, deliveryName, deliveryStreet, deliveryCity, "
+                + "deliveryState, deliveryZip, placedAt, tacos) "
+                + "values (?, ?, 'Name', 'Street', 'City', 'CO', '80000', ?, ?)", archived);
+        // the migration tables only exist once a migration has run; DDL commits, so not inside a call
+        new JdbcMigrationCheckpointRepository(jdbc).createTable();
+        jdbc.execute("analyze");
+        seeded = true;
+    }
+
+    @Test
+    public void repositoryStatementsShouldNotScanTables() {
+        User user = new User("customer1", "secret", "Name", "Street", "City", "CO", "80000", "555-0100");
+        user.setId(1L);
+        // order 200 belongs to customer1
+        long orderId = 200L;
+        Date cutoff = new Date(System.currentTimeMillis() - TimeUnit.DAYS.toMillis(1));
+        long hour = TimeUnit.MILLISECONDS.toHours(System.currentTimeMillis());
+        JdbcMigrationSource migrationSource = new JdbcMigrationSource(new NamedParameterJdbcTemplate(dataSource));
+        JdbcMigrationCheckpointRepository checkpoints = new JdbcMigrationCheckpointRepository(new JdbcTemplate(dataSource));
+
+        Map<String, Runnable> calls = new LinkedHashMap<>();
+        // whole-table reads by design: the handful of ingredients, one version
+        // row per cache region, and the warmup cleanup matching inside roles
+        Map<String, String> intendedScans = new HashMap<>();
+
+        calls.put("IdBlockAllocator.nextIds", () -> idAllocator.nextIds(IdBlockAllocator.TACO_SEQUENCE, IdBlockAllocator.BLOCK_SIZE + 1));
+
+        calls.put("JdbcCacheVersionRepository.bump", () -> cacheVersions.bump("plans"));
+        calls.put("JdbcCacheVersionRepository.findAll", cacheVersions::findAll);
+        intendedScans.put("JdbcCacheVersionRepository.findAll", "CACHE_VERSION");
+
+        calls.put("JdbcIngredientRepository.findAll", jdbcIngredients::findAll);
+        intendedScans.put("JdbcIngredientRepository.findAll", "INGREDIENT");
+        calls.put("JdbcIngredientRepository.findOne", () -> jdbcIngredients.findOne("FLTO"));
+        calls.put("JdbcIngredientRepository.save",
+                () -> jdbcIngredients.save(new Ingredient("PLAN", "Plan Salsa", Ingredient.Type.SAUCE)));
+
+        calls.put("JdbcIdempotencyKeyRepository.claim", () -> idempotencyKeys.claim(1L, "plan-key"));
+        calls.put("JdbcIdempotencyKeyRepository.complete", () -> idempotencyKeys.complete(1L, "key-200", orderId));
+        calls.put("JdbcIdempotencyKeyRepository.findOrderId", () -> idempotencyKeys.findOrderId(1L, "key-200"));
+        calls.put("JdbcIdempotencyKeyRepository.deleteOlderThan", () -> idempotencyKeys.deleteOlderThan(cutoff));
+
+        calls.put("JdbcTacoRepository.save", () -> jdbcTacos.save(taco("Plan Taco")));
+        calls.put("JdbcTacoRepository.saveAll", () -> jdbcTacos.saveAll(Arrays.asList(taco("Plan One"), taco("Plan Two"))));
+
+        calls.put("JdbcOrderRepository.save", () -> jdbcOrders.save(order(user, entityManager.find(Taco.class, 1L))));
+        calls.put("JdbcOrderRepository.reorder", () -> jdbcOrders.reorder(orderId, user));
+        calls.put("JdbcOrderRepository.findByUserOrderByPlacedAtDesc",
+                () -> jdbcOrders.findByUserOrderByPlacedAtDesc(user, PageRequest.of(0, 20)));
+        calls.put("JdbcOrderRepository.findByUserOrderByPlacedAtDesc (archived page)",
+                () -> jdbcOrders.findByUserOrderByPlacedAtDesc(user, PageRequest.of(5, 20)));
+
+        calls.put("JdbcOrderArchiveRepository.findIdsPlacedBefore", () -> archive.findIdsPlacedBefore(cutoff, 500));
+        calls.put("JdbcOrderArchiveRepository.archive", () -> archive.archive(Arrays.asList(orderId, orderId + 1)));
+        calls.put("JdbcOrderArchiveRepository.findByUser", () -> archive.findByUser(1L, 0, 20));
+
+        calls.put("JdbcSalesRollupRepository.rollUpPending", () -> rollups.rollUpPending(500));
+        calls.put("JdbcSalesRollupRepository.sales", () -> rollups.sales(Granularity.DAY, hour - 24 * 7, hour));
+        calls.put("JdbcSalesRollupRepository.ingredientUsage",
+                () -> rollups.ingredientUsage(Granularity.HOUR, hour - 24, hour));
+
+        calls.put("JdbcMigrationSource.minOrderId", migrationSource::minOrderId);
+        calls.put("JdbcMigrationSource.maxOrderId", migrationSource::maxOrderId);
+        calls.put("JdbcMigrationSource.readOrders", () -> migrationSource.readOrders(0, ORDERS + ARCHIVED, 500));
+        calls.put("JdbcMigrationSource.readOrders (archived range)",
+                () -> migrationSource.readOrders(ORDERS, ORDERS + ARCHIVED, 500));
+        calls.put("JdbcMigrationCheckpointRepository.plan", () -> checkpoints.plan("plan",
+                Collections.singletonList(new MigrationRange(0, ORDERS, 0, 0, false))));
+        calls.put("JdbcMigrationCheckpointRepository.findAll", () -> checkpoints.findAll("plan"));
+        calls.put("JdbcMigrationCheckpointRepository.advance", () -> checkpoints.advance("plan", 0, 500, 500));
+        calls.put("JdbcMigrationCheckpointRepository.complete", () -> checkpoints.complete("plan", 0));
+
+        calls.put("jpa.IngredientRepository.findAll", ingredientRepo::findAll);
+        intendedScans.put("jpa.IngredientRepository.findAll", "INGREDIENT");
+        calls.put("jpa.IngredientRepository.findById", () -> ingredientRepo.findById("FLTO"));
+
+        calls.put("jpa.TacoRepository.findById", () -> tacoRepo.findById(42L).map(taco -> taco.getIngredients().size()));
+        calls.put("jpa.TacoRepository.findRecentIds", () -> tacoRepo.findRecentIds(PageRequest.of(0, 12)));
+        calls.put("jpa.TacoRepository.findDistinctByIdIn",
+                () -> tacoRepo.findDistinctByIdIn(Arrays.asList(1L, 2L, 3L), Sort.by("createdAt").descending()));
+        calls.put("jpa.TacoRepository.findRecent", () -> tacoRepo.findRecent(12));
+        calls.put("jpa.TacoRepository.save", () -> {
+            tacoRepo.save(taco("Plan Entity Taco"));
+            entityManager.flush();
+        });
+
+        calls.put("jpa.OrderRepository.findById", () -> orderRepo.findById(42L).map(order -> order.getTacos().size()));
+        calls.put("jpa.OrderRepository.reorder", () -> orderRepo.reorder(orderId, user.getId()));
+        calls.put("jpa.OrderRepository.save", () -> {
+            orderRepo.save(order(entityManager.getReference(User.class, 1L), entityManager.getReference(Taco.class, 1L)));
+            entityManager.flush();
+        });
+
+        calls.put("UserRepository.findByUsername", () -> userRepo.findByUsername("customer1"));
+        calls.put("UserRepository.findExistingUsernames",
+                () -> userRepo.findExistingUsernames(Arrays.asList("customer1", "customer2", "nobody")));
+        calls.put("UserRepository.findByRolesContaining", () -> userRepo.findByRolesContaining(User.WARMUP));
+        intendedScans.put("UserRepository.findByRolesContaining", "USER");
+        calls.put("UserRepository.findById", () -> userRepo.findById(1L));
+        calls.put("UserRepository.save", () -> {
+            userRepo.save(new User("planner", "secret", "Plan Ner", "1 Main St", "Denver", "CO", "80202", "555-0100"));
+            entityManager.flush();
+        });
+
+        List<String> failures = new ArrayList<>();
+        for (Map.Entry<String, Runnable> call : calls.entrySet()) {
+            cacheManager.getCacheNames().forEach(name -> cacheManager.getCache(name).clear());
+            recorder.start();
+            transactionTemplate.execute(status -> {
+                status.setRollbackOnly();
+                call.getValue().run();
+                return null;
+            });
+            Map<String, Object[]> statements = recorder.stop();
+            assertFalse(call.getKey() + " issued no statements", statements.isEmpty());
+            for (Map.Entry<String, Object[]> statement : statements.entrySet()) {
+                String sql = statement.getKey();
+                if (!EXPLAINABLE.matcher(sql.toLowerCase(Locale.ROOT)).find()) {
+                    continue;
+                }
+                String plan = new JdbcTemplate(dataSource).queryForObject("explain " + sql, String.class,
+                        statement.getValue());
+                for (String table : advisor.scannedTables(plan)) {
+                    if (!table.equals(intendedScans.get(call.getKey()))) {
+                        failures.add(call.getKey() + " scans " + table + " in [" + sql + "], suggested: "
+                                + advisor.suggestIndex(sql, table));
+                    }
+                }
+            }
+        }
+        assertTrue("Repository statements doing table scans:\n" + String.join("\n", failures), failures.isEmpty());
+    }
+
+    private Taco taco(String name) {
+        Taco taco = new Taco();
+        taco.setName(name);
+        taco.setIngredients(Arrays.asList(new Ingredient("FLTO", "Flour Tortilla", Ingredient.Type.WRAP),
+                new Ingredient("GRBF", "Ground Beef", Ingredient.Type.PROTEIN)));
+        return taco;
+    }
+
+    private Order order(User user, Taco taco) {
+        Order order = new Order();
+        order.setName("Plan Ner");
+        order.setStreet("1 Main St");
+        order.setCity("Denver");
+        order.setState("CO");
+        order.setZip("80202");
+        order.setCcNumber("4111111111111111");
+        order.setCcExpiration("10/25");
+        order.setCcCVV("123");
+        order.setUser(user);
+        order.addDesign(taco);
+        return order;
+    }
+
+    @TestConfiguration
+    static class RecordingConfig {
+
+        @Bean
+        public static BeanPostProcessor recordingDataSource() {
+            return new BeanPostProcessor() {
+                @Override
+                public Object postProcessAfterInitialization(Object bean, String beanName) {
+                    return bean instanceof DataSource ? recorder.wrap((DataSource) bean) : bean;
+                }
+            };
+        }
+    }
+}
@@ -0,0 +1,98 @@
+package com.moyajor.springinaction.data;
+
+import javax.sql.DataSource;
+import java.lang.reflect.InvocationHandler;
+import java.lang.reflect.InvocationTargetException;
+import java.lang.reflect.Method;
+import java.lang.reflect.Proxy;
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.Statement;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.TreeMap;
+
+/**
+ * Wraps a DataSource and records the statements the recording thread runs
+ * through it, each with the parameters of its first execution, so a test can
+ * EXPLAIN exactly what the repositories and Hibernate issue.
+ */
+class StatementRecorder {
+
+    private final Map<String, Object[]> statements = new LinkedHashMap<>();
+    private volatile Thread recording;
+
+    DataSource wrap(DataSource dataSource) {
+        return proxy(DataSource.class, dataSource, (method, args, result) ->
+                result instanceof Connection ? connection((Connection) result) : result);
+    }
+
+    void start() {
+        statements.clear();
+        recording = Thread.currentThread();
+    }
+
+    Map<String, Object[]> stop() {
+        recording = null;
+        return new LinkedHashMap<>(statements);
+    }
+
+    private Connection connection(Connection connection) {
+        return proxy(Connection.class, connection, (method, args, result) -> {
+            if (result instanceof PreparedStatement && method.getName().startsWith("prepare")) {
+                return prepared((PreparedStatement) result, (String) args[0]);
+            }
+            if (result instanceof Statement && method.getName().equals("createStatement")) {
+                return plain((Statement) result);
+            }
+            return result;
+        });
+    }
+
+    private PreparedStatement prepared(PreparedStatement statement, String sql) {
+        Map<Integer, Object> parameters = new TreeMap<>();
+        return proxy(PreparedStatement.class, statement, (method, args, result) -> {
+            String name = method.getName();
+            if (name.startsWith("set") && args != null && args.length >= 2 && args[0] instanceof Integer) {
+                parameters.put((Integer) args[0], name.equals("setNull") ? null : args[1]);
+            } else if (name.startsWith("execute") || name.equals("addBatch")) {
+                record(sql, parameters.values().toArray());
+            }
+            return result;
+        });
+    }
+
+    private Statement plain(Statement statement) {
+        return proxy(Statement.class, statement, (method, args, result) -> {
+            if (method.getName().startsWith("execute") && args != null && args.length > 0 && args[0] instanceof String) {
+                record((String) args[0], new Object[0]);
+            }
+            return result;
+        });
+    }
+
+    private void record(String sql, Object[] parameters) {
+        if (Thread.currentThread() == recording) {
+            statements.putIfAbsent(sql, parameters);
+        }
+    }
+
+    @SuppressWarnings("unchecked")
+    private static <T> T proxy(Class<T> type, T target, AfterCall afterCall) {
+        InvocationHandler handler = (proxy, method, args) -> {
+            Object result;
+            try {
+                result = method.invoke(target, args);
+            } catch (InvocationTargetException e) {
+                throw e.getTargetException();
+            }
+            return afterCall.apply(method, args, result);
+        };
+        return (T) Proxy.newProxyInstance(StatementRecorder.class.getClassLoader(), new Class<?>[]{type}, handler);
+    }
+
+    @FunctionalInterface
+    private interface AfterCall {
+        Object apply(Method method, Object[] args, Object result) throws Throwable;
+    }
+}
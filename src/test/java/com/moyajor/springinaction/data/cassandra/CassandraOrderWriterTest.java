@@ -0,0 +1,83 @@
+package com.moyajor.springinaction.data.cassandra;
+
+import com.datastax.driver.core.BoundStatement;
+import com.datastax.driver.core.PreparedStatement;
+import com.datastax.driver.core.Statement;
+import com.moyajor.springinaction.model.cassandra.Order;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.Before;
+import org.junit.Test;
+import org.springframework.data.cassandra.ReactiveResultSet;
+import org.springframework.data.cassandra.ReactiveSession;
+import org.springframework.data.cassandra.core.convert.CassandraConverter;
+import org.springframework.data.cassandra.core.cql.CqlIdentifier;
+import org.springframework.data.cassandra.core.mapping.CassandraMappingContext;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+
+import java.time.Duration;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.Mockito.doAnswer;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+/**
+ * Drives the writer against a stand-in session that answers every insert
+ * after a short delay, the way a local node would.
+ */
+public class CassandraOrderWriterTest {
+
+    private final AtomicInteger inFlight = new AtomicInteger();
+    private final AtomicInteger maxInFlight = new AtomicInteger();
+    private final SimpleMeterRegistry meterRegistry = new SimpleMeterRegistry();
+    private ReactiveSession session;
+    private CassandraOrderWriter writer;
+
+    @Before
+    public void setUp() {
+        PreparedStatement prepared = mock(PreparedStatement.class);
+        when(prepared.bind(any())).thenReturn(mock(BoundStatement.class));
+        session = mock(ReactiveSession.class);
+        when(session.prepare(anyString())).thenReturn(Mono.just(prepared));
+        when(session.execute(any(Statement.class))).thenAnswer(invocation -> Mono.delay(Duration.ofMillis(5))
+                .doOnSubscribe(s -> maxInFlight.accumulateAndGet(inFlight.incrementAndGet(), Math::max))
+                .doOnTerminate(inFlight::decrementAndGet)
+                .map(tick -> mock(ReactiveResultSet.class)));
+
+        CassandraConverter converter = mock(CassandraConverter.class);
+        when(converter.getMappingContext()).thenReturn(new CassandraMappingContext());
+        doAnswer(invocation -> {
+            Order order = invocation.getArgument(0);
+            @SuppressWarnings("unchecked")
+            Map<CqlIdentifier, Object> values = invocation.getArgument(1);
+            values.put(CqlIdentifier.of("id"), order.getId());
+            values.put(CqlIdentifier.of("placedat"), order.getPlacedAt());
+            values.put(CqlIdentifier.of("user"), order.getUser());
+            return null;
+        }).when(converter).write(any(), any());
+
+        writer = new CassandraOrderWriter(session, converter, meterRegistry);
+        writer.setMaxInFlight(8);
+    }
+
+    @Test
+    public void shouldPrepareOnceAndBoundConcurrentWrites() {
+        Flux<Order> orders = Flux.range(0, 100).map(i -> new Order());
+
+        Long written = writer.saveAll(orders).count().block(Duration.ofSeconds(10));
+
+        assertEquals(100L, (long) written);
+        assertTrue("in flight " + maxInFlight.get(), maxInFlight.get() <= 8);
+        verify(session, times(1)).prepare("INSERT INTO tacoorders (id, placedat) VALUES (?, ?)");
+        verify(session, times(100)).execute(any(Statement.class));
+        assertEquals(100, meterRegistry.get("taco.cassandra.order.write").timer().count());
+    }
+}
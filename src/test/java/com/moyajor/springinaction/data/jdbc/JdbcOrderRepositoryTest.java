@@ -0,0 +1,142 @@
+package com.moyajor.springinaction.data.jdbc;
+
+import com.moyajor.springinaction.data.IdBlockAllocator;
+import com.moyajor.springinaction.data.OrderSavedEvent;
+import com.moyajor.springinaction.model.db.Ingredient;
+import com.moyajor.springinaction.model.db.Order;
+import com.moyajor.springinaction.model.db.Taco;
+import com.moyajor.springinaction.model.db.User;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+import org.springframework.context.annotation.AnnotationConfigApplicationContext;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.core.namedparam.NamedParameterJdbcTemplate;
+import org.springframework.jdbc.datasource.embedded.EmbeddedDatabase;
+import org.springframework.jdbc.datasource.embedded.EmbeddedDatabaseBuilder;
+import org.springframework.jdbc.datasource.embedded.EmbeddedDatabaseType;
+
+import javax.sql.DataSource;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNotEquals;
+import static org.junit.Assert.assertNull;
+
+public class JdbcOrderRepositoryTest {
+
+    private EmbeddedDatabase database;
+    private AnnotationConfigApplicationContext context;
+    private JdbcOrderRepository orderRepo;
+    private final List<Order> published = new ArrayList<>();
+
+    @Before
+    public void startRepository() {
+        database = new EmbeddedDatabaseBuilder()
+                .setType(EmbeddedDatabaseType.H2)
+                .generateUniqueName(true)
+                .addScript("classpath:schema.sql")
+                .addScript("classpath:data.sql")
+                .build();
+        context = new AnnotationConfigApplicationContext();
+        context.getEnvironment().setActiveProfiles("jdbc");
+        context.registerBean(DataSource.class, () -> database);
+        context.addApplicationListener(event -> {
+            if (event instanceof OrderSavedEvent) {
+                published.add(((OrderSavedEvent) event).getOrder());
+            }
+        });
+        context.register(RepositoryConfig.class, IdBlockAllocator.class, JdbcOrderArchiveRepository.class,
+                JdbcOrderRepository.class);
+        context.refresh();
+        orderRepo = context.getBean(JdbcOrderRepository.class);
+
+        JdbcTemplate jdbc = context.getBean(JdbcTemplate.class);
+        jdbc.update("insert into Taco (id, name, createdAt) values (1, 'Carnitas Classic', current_timestamp)");
+        jdbc.update("insert into Taco_Ingredients (taco, ingredient) values (1, 'FLTO'), (1, 'CARN')");
+        jdbc.update("insert into Taco (id, name, createdAt) values (2, 'Veggie Supreme', current_timestamp)");
+        jdbc.update("insert into Taco_Ingredients (taco, ingredient) values (2, 'COTO')");
+    }
+
+    @After
+    public void shutdown() {
+        context.close();
+        database.shutdown();
+    }
+
+    @Test
+    public void shouldReorderWithTacosAndPublishTheCopy() {
+        Order original = orderRepo.save(order(user(7L), 1L, 1L, 2L));
+        published.clear();
+
+        Order copy = orderRepo.reorder(original.getId(), user(7L));
+
+        assertNotEquals(original.getId(), copy.getId());
+        assertEquals("Jane", copy.getName());
+        assertEquals(Arrays.asList(1L, 1L, 2L), tacoIds(copy));
+        assertEquals(2, copy.getTacos().get(0).getIngredients().size());
+        assertEquals(Ingredient.Type.WRAP, copy.getTacos().get(2).getIngredients().get(0).getType());
+        assertEquals(1, published.size());
+        assertEquals(copy.getId(), published.get(0).getId());
+    }
+
+    @Test
+    public void shouldNotReorderAnotherUsersOrder() {
+        Order original = orderRepo.save(order(user(7L), 1L));
+        published.clear();
+
+        assertNull(orderRepo.reorder(original.getId(), user(8L)));
+        assertEquals(0, published.size());
+    }
+
+    private List<Long> tacoIds(Order order) {
+        List<Long> ids = new ArrayList<>();
+        for (Taco taco : order.getTacos()) {
+            ids.add(taco.getId());
+        }
+        return ids;
+    }
+
+    private User user(long id) {
+        User user = new User("user" + id, "secret", "Jane", "1 Main St", "Springfield", "IL", "62701", "555-0100");
+        user.setId(id);
+        return user;
+    }
+
+    private Order order(User user, Long... tacoIds) {
+        Order order = new Order();
+        order.setName("Jane");
+        order.setStreet("1 Main St");
+        order.setCity("Springfield");
+        order.setState("IL");
+        order.setZip("62701");
+        order.setCcNumber("4111111111111111");
+        order.setCcExpiration("12/30");
+        order.setCcCVV("123");
+        order.setUser(user);
+        for (Long tacoId : tacoIds) {
+            Taco taco = new Taco();
+            taco.setId(tacoId);
+            order.addDesign(taco);
+        }
+        return order;
+    }
+
+    @Configuration
+    static class RepositoryConfig {
+
+        @Bean
+        public JdbcTemplate jdbcTemplate(DataSource dataSource) {
+            return new JdbcTemplate(dataSource);
+        }
+
+        @Bean
+        public NamedParameterJdbcTemplate namedParameterJdbcTemplate(DataSource dataSource) {
+            return new NamedParameterJdbcTemplate(dataSource);
+        }
+    }
+}
@@ -0,0 +1,108 @@
+package com.moyajor.springinaction.data.jpa;
+
+import com.moyajor.springinaction.data.IdBlockAllocator;
+import com.moyajor.springinaction.data.OrderSavedEvent;
+import com.moyajor.springinaction.model.db.Ingredient;
+import com.moyajor.springinaction.model.db.Order;
+import com.moyajor.springinaction.model.db.Taco;
+import com.moyajor.springinaction.model.db.User;
+import org.junit.Before;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.boot.test.autoconfigure.orm.jpa.TestEntityManager;
+import org.springframework.boot.test.context.TestConfiguration;
+import org.springframework.context.annotation.Import;
+import org.springframework.context.event.EventListener;
+import org.springframework.test.context.junit4.SpringRunner;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNull;
+
+@RunWith(SpringRunner.class)
+@DataJpaTest(properties = "spring.profiles.active=jpa")
+@Import({IdBlockAllocator.class, BlockIdGeneratorSetting.class, OrderReorderOperationsTest.SavedOrders.class})
+public class OrderReorderOperationsTest {
+
+    @Autowired
+    private OrderRepository orderRepo;
+    @Autowired
+    private IngredientRepository ingredientRepo;
+    @Autowired
+    private TestEntityManager entityManager;
+    @Autowired
+    private SavedOrders savedOrders;
+
+    @Before
+    public void forgetEarlierEvents() {
+        savedOrders.orders.clear();
+    }
+
+    @Test
+    public void shouldCopyTheOrderAndPublishItWithTacosLoaded() {
+        User user = entityManager.persist(new User("reorder", "secret", "Jane", "1 Main St", "Springfield", "IL",
+                "62701", "555-0100"));
+        Taco taco = new Taco();
+        taco.setName("Carnitas Classic");
+        taco.setIngredients(Arrays.asList(ingredientRepo.findById("FLTO").get(), ingredientRepo.findById("CARN").get()));
+        taco.setUser(user);
+        entityManager.persist(taco);
+        Order original = order(user);
+        original.addDesign(taco);
+        original.addDesign(taco);
+        entityManager.persist(original);
+
+        Long copyId = orderRepo.reorder(original.getId(), user.getId());
+        entityManager.clear();
+
+        Order copy = orderRepo.findById(copyId).get();
+        assertEquals("Jane", copy.getName());
+        assertEquals(2, copy.getTacos().size());
+        assertEquals(1, savedOrders.orders.size());
+        Order published = savedOrders.orders.get(0);
+        assertEquals(copyId, published.getId());
+        assertEquals(2, published.getTacos().size());
+        assertEquals(Ingredient.Type.WRAP, published.getTacos().get(0).getIngredients().get(0).getType());
+        assertEquals(user.getId(), published.getUser().getId());
+    }
+
+    @Test
+    public void shouldNotCopyAnotherUsersOrder() {
+        User owner = entityManager.persist(new User("owner", "secret", "Jane", "1 Main St", "Springfield", "IL",
+                "62701", "555-0100"));
+        Order original = entityManager.persist(order(owner));
+
+        assertNull(orderRepo.reorder(original.getId(), owner.getId() + 1));
+        assertEquals(0, savedOrders.orders.size());
+    }
+
+    private Order order(User user) {
+        Order order = new Order();
+        order.setName("Jane");
+        order.setStreet("1 Main St");
+        order.setCity("Springfield");
+        order.setState("IL");
+        order.setZip("62701");
+        order.setCcNumber("4111111111111111");
+        order.setCcExpiration("12/30");
+        order.setCcCVV("123");
+        order.setUser(user);
+        return order;
+    }
+
+    @TestConfiguration
+    static class SavedOrders {
+
+        final List<Order> orders = new ArrayList<>();
+
+        @EventListener
+        public void onOrderSaved(OrderSavedEvent event) {
+            orders.add(event.getOrder());
+        }
+    }
+}
@@ -0,0 +1,39 @@
+package com.moyajor.springinaction.datagen;
+
+import org.junit.Test;
+
+import java.util.List;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNotEquals;
+import static org.junit.Assert.assertTrue;
+
+public class SyntheticDataTest {
+
+    private static final long NOW = 1_500_000_000_000L;
+
+    @Test
+    public void shouldGenerateTheSameDataForTheSameSeed() {
+        SyntheticData first = new SyntheticData(7, 1_000, 30, 3.0, NOW);
+        SyntheticData second = new SyntheticData(7, 1_000, 30, 3.0, NOW);
+
+        assertEquals(first.user(123), second.user(123));
+        assertEquals(first.orders(5, 5_000, 100), second.orders(5, 5_000, 100));
+        assertNotEquals(first.orders(5, 5_000, 100), new SyntheticData(8, 1_000, 30, 3.0, NOW).orders(5, 5_000, 100));
+    }
+
+    @Test
+    public void shouldConcentrateOrdersOnFewUsers() {
+        SyntheticData data = new SyntheticData(42, 1_000, 365, 3.0, NOW);
+        List<SyntheticData.GeneratedOrder> orders = data.orders(0, 0, 10_000);
+
+        long topTenPercent = orders.stream().filter(order -> order.getCustomer().getIndex() < 100).count();
+
+        assertTrue("orders by top 10% of users: " + topTenPercent, topTenPercent > orders.size() / 3);
+        for (SyntheticData.GeneratedOrder order : orders) {
+            int tacos = order.getTacos().size();
+            assertTrue(tacos >= 1 && tacos <= SyntheticData.MAX_TACOS_PER_ORDER);
+            assertTrue(order.getPlacedAt().getTime() <= NOW);
+        }
+    }
+}
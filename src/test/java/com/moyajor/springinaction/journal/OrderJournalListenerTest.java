@@ -0,0 +1,47 @@
+package com.moyajor.springinaction.journal;
+
+import com.moyajor.springinaction.data.OrderSavedEvent;
+import com.moyajor.springinaction.model.db.Order;
+import com.moyajor.springinaction.model.db.Taco;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+
+import java.util.Date;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+public class OrderJournalListenerTest {
+
+    @Rule
+    public TemporaryFolder folder = new TemporaryFolder();
+
+    @Test
+    public void shouldCountFailedAppendInsteadOfThrowing() throws Exception {
+        MeterRegistry meterRegistry = new SimpleMeterRegistry();
+        try (OrderJournal journal = new OrderJournal(folder.getRoot().toPath(), 256, 1)) {
+            OrderJournalListener listener = new OrderJournalListener(journal, meterRegistry);
+            listener.onOrderSaved(new OrderSavedEvent(this, order(1L, 1)));
+            listener.onOrderSaved(new OrderSavedEvent(this, order(2L, 100)));
+
+            assertEquals(1.0, meterRegistry.counter("taco.journal.append.failures").count(), 0.0);
+            assertTrue(journal.committedOffset() > 0);
+        }
+    }
+
+    /** An order with {@code tacos} designs; a hundred do not fit a 256-byte segment. */
+    private Order order(long id, int tacos) {
+        Order order = new Order();
+        order.setId(id);
+        order.setPlacedAt(new Date());
+        for (long tacoId = 1; tacoId <= tacos; tacoId++) {
+            Taco taco = new Taco();
+            taco.setId(tacoId);
+            order.addDesign(taco);
+        }
+        return order;
+    }
+}
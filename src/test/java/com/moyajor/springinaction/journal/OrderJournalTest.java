@@ -0,0 +1,77 @@
+package com.moyajor.springinaction.journal;
+
+import com.moyajor.springinaction.model.db.Order;
+import com.moyajor.springinaction.model.db.Taco;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Date;
+import java.util.List;
+
+import static org.junit.Assert.assertEquals;
+
+public class OrderJournalTest {
+
+    @Rule
+    public TemporaryFolder folder = new TemporaryFolder();
+
+    @Test
+    public void shouldRollSegmentsAndResumeFromPersistedOffset() throws Exception {
+        Path directory = folder.getRoot().toPath();
+        int segmentSize = 256;
+        try (OrderJournal journal = new OrderJournal(directory, segmentSize, 4)) {
+            for (long id = 1; id <= 20; id++) {
+                journal.append(OrderEventCodec.encode(order(id, 1L, 2L)));
+            }
+
+            List<OrderEvent> events = new ArrayList<>();
+            try (JournalReader reader = journal.newReader("kitchen")) {
+                assertEquals(5, reader.poll((offset, payload) -> events.add(OrderEventCodec.decode(payload)), 5));
+            }
+            try (JournalReader reader = journal.newReader("kitchen")) {
+                assertEquals(15, reader.poll((offset, payload) -> events.add(OrderEventCodec.decode(payload)), 100));
+            }
+
+            assertEquals(20, events.size());
+            assertEquals(1L, events.get(0).getOrderId());
+            assertEquals(20L, events.get(19).getOrderId());
+            assertEquals(Arrays.asList(1L, 2L), events.get(19).getTacoIds());
+        }
+    }
+
+    @Test
+    public void shouldRecoverWritePositionAfterReopen() throws Exception {
+        Path directory = folder.getRoot().toPath();
+        try (OrderJournal journal = new OrderJournal(directory, 1024, 1)) {
+            journal.append(OrderEventCodec.encode(order(1L, 7L)));
+        }
+        try (OrderJournal journal = new OrderJournal(directory, 1024, 1)) {
+            journal.append(OrderEventCodec.encode(order(2L, 8L)));
+        }
+
+        List<OrderEvent> events = new ArrayList<>();
+        try (OrderJournal journal = new OrderJournal(directory, 1024, 1);
+             JournalReader reader = journal.newReader("analytics")) {
+            reader.poll((offset, payload) -> events.add(OrderEventCodec.decode(payload)), 10);
+        }
+
+        assertEquals(2, events.size());
+        assertEquals(2L, events.get(1).getOrderId());
+    }
+
+    private Order order(long id, Long... tacoIds) {
+        Order order = new Order();
+        order.setId(id);
+        order.setPlacedAt(new Date());
+        for (Long tacoId : tacoIds) {
+            Taco taco = new Taco();
+            taco.setId(tacoId);
+            order.addDesign(taco);
+        }
+        return order;
+    }
+}
@@ -0,0 +1,138 @@
+package com.moyajor.springinaction.kitchen;
+
+import com.moyajor.springinaction.model.db.Ingredient;
+import com.moyajor.springinaction.model.db.Order;
+import com.moyajor.springinaction.model.db.Taco;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.After;
+import org.junit.Test;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.Date;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+import static org.junit.Assert.fail;
+
+public class KitchenDispatcherTest {
+
+    private static final Ingredient TORTILLA = new Ingredient("FLTO", "Flour Tortilla", Ingredient.Type.WRAP);
+    private static final Ingredient BEEF = new Ingredient("GRBF", "Ground Beef", Ingredient.Type.PROTEIN);
+    private static final Ingredient SALSA = new Ingredient("SLSA", "Salsa", Ingredient.Type.SAUCE);
+
+    private KitchenDispatcher dispatcher;
+
+    @After
+    public void stopDispatcher() throws Exception {
+        dispatcher.stop();
+    }
+
+    @Test
+    public void shouldSendOneTicketPerStation() throws Exception {
+        Map<Station, KitchenTicket> tickets = new ConcurrentHashMap<>();
+        CountDownLatch prepared = new CountDownLatch(3);
+        dispatcher = start(ticket -> {
+            tickets.put(ticket.getStation(), ticket);
+            prepared.countDown();
+        }, 500);
+
+        dispatcher.dispatch(order(1L, taco("Carne", TORTILLA, BEEF, SALSA), taco("Veggie", TORTILLA, SALSA)));
+
+        assertTrue(prepared.await(5, TimeUnit.SECONDS));
+        assertEquals(Arrays.asList("Carne", "Veggie"), tickets.get(Station.TORTILLA).getTacos());
+        assertEquals(Collections.singletonList("Carne"), tickets.get(Station.GRILL).getTacos());
+        assertEquals(Arrays.asList("Carne", "Veggie"), tickets.get(Station.COLD_PREP).getTacos());
+    }
+
+    @Test
+    public void shouldRefuseOrdersWhileQueuesAreFull() throws Exception {
+        CountDownLatch busy = new CountDownLatch(1);
+        CountDownLatch release = new CountDownLatch(1);
+        CountDownLatch prepared = new CountDownLatch(3);
+        dispatcher = start(ticket -> {
+            busy.countDown();
+            try {
+                release.await();
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+            prepared.countDown();
+        }, 2);
+
+        dispatcher.dispatch(order(1L, taco("First", TORTILLA)));
+        assertTrue(busy.await(5, TimeUnit.SECONDS));
+        dispatcher.dispatch(order(2L, taco("Second", TORTILLA)));
+        dispatcher.checkCapacity();
+        dispatcher.dispatch(order(3L, taco("Third", TORTILLA)));
+        try {
+            dispatcher.checkCapacity();
+            fail("Two queued tickets should reach the threshold");
+        } catch (KitchenOverloadedException expected) {
+        }
+
+        release.countDown();
+        assertTrue(prepared.await(5, TimeUnit.SECONDS));
+        dispatcher.checkCapacity();
+    }
+
+    @Test
+    public void shouldPrepareSmallOrderBeforeEarlierLargeOne() throws Exception {
+        CountDownLatch busy = new CountDownLatch(1);
+        CountDownLatch release = new CountDownLatch(1);
+        List<Long> preparedOrders = Collections.synchronizedList(new ArrayList<>());
+        CountDownLatch prepared = new CountDownLatch(3);
+        dispatcher = start(ticket -> {
+            busy.countDown();
+            try {
+                release.await();
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+            preparedOrders.add(ticket.getOrderId());
+            prepared.countDown();
+        }, 500);
+
+        dispatcher.dispatch(order(1L, taco("Blocker", TORTILLA)));
+        assertTrue(busy.await(5, TimeUnit.SECONDS));
+        dispatcher.dispatch(order(2L, taco("Large", TORTILLA), taco("Large", TORTILLA), taco("Large", TORTILLA)));
+        dispatcher.dispatch(order(3L, taco("Small", TORTILLA)));
+        release.countDown();
+
+        assertTrue(prepared.await(5, TimeUnit.SECONDS));
+        assertEquals(Arrays.asList(1L, 3L, 2L), preparedOrders);
+    }
+
+    private KitchenDispatcher start(TicketHandler handler, int backpressureThreshold) {
+        KitchenDispatcher dispatcher = new KitchenDispatcher(handler, new SimpleMeterRegistry());
+        for (Station station : Station.values()) {
+            dispatcher.getWorkers().put(station, 1);
+        }
+        dispatcher.setBackpressureThreshold(backpressureThreshold);
+        dispatcher.start();
+        return dispatcher;
+    }
+
+    private Order order(long id, Taco... tacos) {
+        Order order = new Order();
+        order.setId(id);
+        order.setPlacedAt(new Date(0));
+        for (Taco taco : tacos) {
+            order.addDesign(taco);
+        }
+        return order;
+    }
+
+    private Taco taco(String name, Ingredient... ingredients) {
+        Taco taco = new Taco();
+        taco.setName(name);
+        taco.setIngredients(Arrays.asList(ingredients));
+        return taco;
+    }
+}
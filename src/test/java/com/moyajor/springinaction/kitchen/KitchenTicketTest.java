@@ -0,0 +1,27 @@
+package com.moyajor.springinaction.kitchen;
+
+import org.junit.Test;
+
+import java.util.Collections;
+
+import static org.junit.Assert.assertTrue;
+
+public class KitchenTicketTest {
+
+    @Test
+    public void shouldOrderByDeadlineThenArrival() {
+        KitchenTicket early = ticket(1L, 1_000L, 3L);
+        KitchenTicket late = ticket(2L, 2_000L, 1L);
+        KitchenTicket earlyTie = ticket(3L, 1_000L, 4L);
+
+        assertTrue(early.compareTo(late) < 0);
+        assertTrue(late.compareTo(early) > 0);
+        assertTrue(early.compareTo(earlyTie) < 0);
+        assertTrue(early.compareTo(early) == 0);
+    }
+
+    static KitchenTicket ticket(long orderId, long deadline, long sequence) {
+        return new KitchenTicket(orderId, Station.COLD_PREP, Collections.singletonList("Taco " + orderId),
+                deadline, sequence);
+    }
+}
@@ -0,0 +1,33 @@
+package com.moyajor.springinaction.kitchen;
+
+import org.junit.Test;
+
+import java.util.concurrent.TimeUnit;
+
+import static com.moyajor.springinaction.kitchen.KitchenTicketTest.ticket;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNull;
+
+public class StationQueueTest {
+
+    @Test
+    public void shouldHandOutTicketsByDeadline() throws Exception {
+        StationQueue queue = new StationQueue();
+        queue.offer(ticket(1L, 3_000L, 1L));
+        queue.offer(ticket(2L, 1_000L, 2L));
+        queue.offer(ticket(3L, 2_000L, 3L));
+        queue.offer(ticket(4L, 1_000L, 4L));
+        assertEquals(4, queue.size());
+
+        assertEquals(2L, queue.poll(1, TimeUnit.SECONDS).getOrderId());
+        assertEquals(4L, queue.poll(1, TimeUnit.SECONDS).getOrderId());
+        assertEquals(3L, queue.poll(1, TimeUnit.SECONDS).getOrderId());
+        assertEquals(1L, queue.poll(1, TimeUnit.SECONDS).getOrderId());
+        assertEquals(0, queue.size());
+    }
+
+    @Test
+    public void shouldReturnNullWhenNothingArrives() throws Exception {
+        assertNull(new StationQueue().poll(10, TimeUnit.MILLISECONDS));
+    }
+}
@@ -0,0 +1,108 @@
+package com.moyajor.springinaction.migration;
+
+import com.moyajor.springinaction.SpringInActionApplication;
+import com.moyajor.springinaction.archive.TacoIdCodec;
+import com.moyajor.springinaction.model.mongodb.Order;
+import org.junit.AfterClass;
+import org.junit.BeforeClass;
+import org.junit.Test;
+import org.springframework.boot.builder.SpringApplicationBuilder;
+import org.springframework.context.ConfigurableApplicationContext;
+import org.springframework.data.mongodb.core.ReactiveMongoOperations;
+import org.springframework.data.mongodb.core.query.Query;
+import org.springframework.jdbc.core.JdbcTemplate;
+
+import java.sql.Timestamp;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+import static org.junit.Assert.assertEquals;
+
+/**
+ * Migrates live and archived orders from an embedded H2, filled with
+ * schema.sql and data.sql, to embedded Mongo, with small ranges and batches
+ * so several workers and checkpoints are involved.
+ */
+public class OrderMigratorTest {
+
+    private static ConfigurableApplicationContext context;
+    private static JdbcTemplate jdbc;
+    private static ReactiveMongoOperations mongo;
+    private static OrderMigrator migrator;
+
+    @BeforeClass
+    public static void start() {
+        context = new SpringApplicationBuilder(SpringInActionApplication.class)
+                .properties("spring.profiles.active=migrate",
+                        "spring.datasource.initialization-mode=embedded",
+                        "spring.datasource.generate-unique-name=true",
+                        "taco.migration.exit-when-done=false",
+                        "taco.migration.range-size=40",
+                        "taco.migration.batch-size=7",
+                        "taco.migration.threads=3")
+                .run();
+        jdbc = context.getBean(JdbcTemplate.class);
+        mongo = context.getBean(ReactiveMongoOperations.class);
+        migrator = context.getBean(OrderMigrator.class);
+        jdbc.update("insert into Taco (id, name, createdAt) values (1, 'Carnitas Classic', current_timestamp)");
+        jdbc.update("insert into Taco_Ingredients (taco, ingredient) values (1, 'CARN'), (1, 'COTO'), (1, 'SLSA')");
+    }
+
+    @AfterClass
+    public static void stop() {
+        context.close();
+    }
+
+    @Test
+    public void shouldCopyOrdersOnceAndResumeWithNewOnes() throws Exception {
+        insertOrders(1, 140);
+        insertArchivedOrders(141, 10);
+
+        MigrationReport first = migrator.migrate();
+
+        assertEquals(150, first.getOrders());
+        assertEquals(150L, (long) mongo.count(new Query(), Order.class).block());
+        Order migrated = mongo.findById("42", Order.class).block();
+        assertEquals(2, migrated.getTacos().size());
+        assertEquals(3, migrated.getTacos().get(0).getIngredients().size());
+        assertEquals("Customer 42", migrated.getUser().getFullname());
+        Order archived = mongo.findById("145", Order.class).block();
+        assertEquals(2, archived.getTacos().size());
+        assertEquals(3, archived.getTacos().get(1).getIngredients().size());
+        assertEquals("Customer 145", archived.getUser().getFullname());
+
+        assertEquals(0, migrator.migrate().getOrders());
+
+        insertOrders(151, 20);
+        MigrationReport resumed = migrator.migrate();
+
+        assertEquals(20, resumed.getOrders());
+        assertEquals(170L, (long) mongo.count(new Query(), Order.class).block());
+    }
+
+    private void insertOrders(long firstId, int count) {
+        List<Object[]> orders = new ArrayList<>();
+        List<Object[]> links = new ArrayList<>();
+        for (long id = firstId; id < firstId + count; id++) {
+            orders.add(new Object[]{id, "Customer " + id, new Timestamp(System.currentTimeMillis())});
+            links.add(new Object[]{id});
+            links.add(new Object[]{id});
+        }
+        jdbc.batchUpdate("insert into Taco_Order (id, deliveryName, deliveryStreet, deliveryCity, deliveryState, " +
+                "deliveryZip, ccNumber, ccExpiration, ccCVV, placedAt) " +
+                "values (?, ?, '1 Main St', 'Denver', 'CO', '80202', '4111111111111111', '12/29', '123', ?)", orders);
+        jdbc.batchUpdate("insert into Taco_Order_Tacos (tacoOrder, taco) values (?, 1)", links);
+    }
+
+    private void insertArchivedOrders(long firstId, int count) {
+        List<Object[]> orders = new ArrayList<>();
+        for (long id = firstId; id < firstId + count; id++) {
+            orders.add(new Object[]{id, "Customer " + id, new Timestamp(System.currentTimeMillis()),
+                    TacoIdCodec.encode(Arrays.asList(1L, 1L))});
+        }
+        jdbc.batchUpdate("insert into Taco_Order_Archive (id, deliveryName, deliveryStreet, deliveryCity, " +
+                "deliveryState, deliveryZip, placedAt, tacos) values (?, ?, '1 Main St', 'Denver', 'CO', '80202', ?, ?)",
+                orders);
+    }
+}
@@ -0,0 +1,131 @@
+package com.moyajor.springinaction.orders;
+
+import com.moyajor.springinaction.data.jdbc.JdbcIdempotencyKeyRepository;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.datasource.DataSourceTransactionManager;
+import org.springframework.jdbc.datasource.embedded.EmbeddedDatabase;
+import org.springframework.jdbc.datasource.embedded.EmbeddedDatabaseBuilder;
+import org.springframework.jdbc.datasource.embedded.EmbeddedDatabaseType;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.sql.Timestamp;
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.Supplier;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNotEquals;
+
+/**
+ * Two service instances stand in for two nodes sharing one database, so
+ * duplicates are caught both by the in-memory map and by the key table.
+ */
+public class IdempotentOrderServiceTest {
+
+    private static final int THREADS = 8;
+
+    private EmbeddedDatabase database;
+    private JdbcTemplate jdbc;
+    private IdempotentOrderService node1;
+    private IdempotentOrderService node2;
+    private final AtomicLong nextOrderId = new AtomicLong(1);
+
+    @Before
+    public void setUp() {
+        database = new EmbeddedDatabaseBuilder()
+                .setType(EmbeddedDatabaseType.H2)
+                .generateUniqueName(true)
+                .addScript("classpath:schema.sql")
+                .build();
+        jdbc = new JdbcTemplate(database);
+        node1 = newNode();
+        node2 = newNode();
+    }
+
+    @After
+    public void tearDown() {
+        database.shutdown();
+    }
+
+    @Test
+    public void shouldPlaceOneOrderForConcurrentDuplicates() throws Exception {
+        ExecutorService pool = Executors.newFixedThreadPool(THREADS);
+        CountDownLatch start = new CountDownLatch(1);
+        try {
+            List<Future<Long>> results = new ArrayList<>();
+            for (int i = 0; i < THREADS; i++) {
+                IdempotentOrderService node = i % 2 == 0 ? node1 : node2;
+                results.add(pool.submit(() -> {
+                    start.await();
+                    return node.submit(7L, "key-1", slowPlacement(7L));
+                }));
+            }
+            start.countDown();
+            Set<Long> orderIds = new HashSet<>();
+            for (Future<Long> result : results) {
+                orderIds.add(result.get());
+            }
+
+            assertEquals(1, orderIds.size());
+            assertEquals(1, (int) jdbc.queryForObject("select count(*) from Taco_Order", Integer.class));
+            assertEquals(orderIds.iterator().next(),
+                    jdbc.queryForObject("select id from Taco_Order", Long.class));
+        } finally {
+            pool.shutdownNow();
+        }
+    }
+
+    @Test
+    public void shouldScopeKeysPerUser() {
+        Long first = node1.submit(7L, "shared-key", slowPlacement(7L));
+        Long second = node2.submit(8L, "shared-key", slowPlacement(8L));
+
+        assertNotEquals(first, second);
+        assertEquals(first, node2.submit(7L, "shared-key", slowPlacement(7L)));
+        assertEquals(2, (int) jdbc.queryForObject("select count(*) from Taco_Order", Integer.class));
+    }
+
+    @Test(expected = IdempotencyKeyInUseException.class)
+    public void shouldRejectKeyClaimedByUnfinishedAttempt() {
+        // a claim without an order, as left by an attempt still running elsewhere
+        jdbc.update("insert into Order_Idempotency_Key (userId, idempotencyKey, createdAt) values (7, 'key-1', ?)",
+                new Timestamp(System.currentTimeMillis()));
+        node1.setClaimWaitMillis(200);
+
+        node1.submit(7L, "key-1", slowPlacement(7L));
+    }
+
+    private IdempotentOrderService newNode() {
+        TransactionTemplate transactions = new TransactionTemplate(new DataSourceTransactionManager(database));
+        IdempotentOrderService service = new IdempotentOrderService(new JdbcIdempotencyKeyRepository(jdbc), transactions);
+        service.setClaimRetryMillis(10);
+        return service;
+    }
+
+    private Supplier<Long> slowPlacement(long userId) {
+        return () -> {
+            long id = nextOrderId.getAndIncrement();
+            jdbc.update("insert into Taco_Order (id, deliveryName, deliveryStreet, deliveryCity, deliveryState, " +
+                    "deliveryZip, ccNumber, ccExpiration, ccCVV, placedAt, userId) " +
+                    "values (?, 'Jane', '1 Main St', 'Denver', 'CO', '80202', '4111111111111111', '12/29', '123', ?, ?)",
+                    id, new Timestamp(System.currentTimeMillis()), userId);
+            try {
+                // keep the claim uncommitted while the other node retries
+                Thread.sleep(100);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+            return id;
+        };
+    }
+}
@@ -0,0 +1,42 @@
+package com.moyajor.springinaction.rollup;
+
+import org.junit.Test;
+
+import java.util.Date;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+public class SalesBucketsTest {
+
+    private static final long HOUR = TimeUnit.HOURS.toMillis(1);
+
+    @Test
+    public void shouldCountOrdersTacosAndIngredientsPerHour() {
+        SalesBuckets buckets = new SalesBuckets();
+        buckets.addOrder(new Date(10 * HOUR + 5), 2);
+        buckets.addIngredient(new Date(10 * HOUR + 5), "FLTO", 1);
+        buckets.addIngredient(new Date(10 * HOUR + 5), "GRBF", 1);
+        buckets.addOrder(new Date(10 * HOUR + 59 * 60_000), 1);
+        buckets.addIngredient(new Date(10 * HOUR + 59 * 60_000), "FLTO", 1);
+        buckets.addOrder(new Date(11 * HOUR), 1);
+
+        SalesBuckets.Hour ten = buckets.getHours().get(10L);
+        assertEquals(2, ten.getOrders());
+        assertEquals(3, ten.getTacos());
+        assertEquals(Long.valueOf(2), ten.getIngredients().get("FLTO"));
+        assertEquals(Long.valueOf(1), ten.getIngredients().get("GRBF"));
+        assertEquals(1, buckets.getHours().get(11L).getOrders());
+        assertEquals(3L, buckets.getOrders());
+        assertFalse(buckets.isEmpty());
+    }
+
+    @Test
+    public void shouldBucketTimesBeforeTheEpochIntoEarlierHours() {
+        assertEquals(-1L, SalesBuckets.epochHour(new Date(-1)));
+        assertEquals(0L, SalesBuckets.epochHour(new Date(HOUR - 1)));
+        assertTrue(new SalesBuckets().isEmpty());
+    }
+}
@@ -0,0 +1,135 @@
+package com.moyajor.springinaction.rollup;
+
+import com.moyajor.springinaction.data.jdbc.JdbcSalesRollupRepository;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.datasource.DataSourceTransactionManager;
+import org.springframework.jdbc.datasource.embedded.EmbeddedDatabase;
+import org.springframework.jdbc.datasource.embedded.EmbeddedDatabaseBuilder;
+import org.springframework.jdbc.datasource.embedded.EmbeddedDatabaseType;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.sql.Timestamp;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+/**
+ * Rolls up orders written straight into the H2 order tables, the way any
+ * save path or another node would leave them, and checks that each order is
+ * counted exactly once.
+ */
+public class SalesRollupTest {
+
+    private static final long HOUR = TimeUnit.HOURS.toMillis(1);
+    private static final long TEN = 400_000;
+    private static final long ELEVEN = TEN + 1;
+
+    private EmbeddedDatabase database;
+    private JdbcTemplate jdbc;
+    private SalesRollup rollup;
+    private long nextOrderId = 1;
+
+    @Before
+    public void startDatabase() {
+        database = new EmbeddedDatabaseBuilder()
+                .setType(EmbeddedDatabaseType.H2)
+                .generateUniqueName(true)
+                .addScript("classpath:schema.sql")
+                .addScript("classpath:data.sql")
+                .build();
+        jdbc = new JdbcTemplate(database);
+        rollup = node();
+        jdbc.update("insert into Taco (id, name, createdAt) values (1, 'Beef Classic', current_timestamp)");
+        jdbc.update("insert into Taco_Ingredients (taco, ingredient) values (1, 'FLTO'), (1, 'GRBF')");
+        jdbc.update("insert into Taco (id, name, createdAt) values (2, 'Plain Flour', current_timestamp)");
+        jdbc.update("insert into Taco_Ingredients (taco, ingredient) values (2, 'FLTO')");
+    }
+
+    @After
+    public void shutdown() {
+        database.shutdown();
+    }
+
+    @Test
+    public void shouldIncrementExistingHoursAndInsertNewOnes() {
+        placeOrder(TEN, 1, 2);
+        placeOrder(TEN, 2);
+        rollup.rollUp();
+
+        placeOrder(TEN, 1);
+        placeOrder(ELEVEN, 2);
+        rollup.rollUp();
+
+        List<SalesPeriod> sales = rollup.sales(Granularity.HOUR, TEN, ELEVEN + 1);
+        assertEquals(2, sales.size());
+        assertEquals(3, sales.get(0).getOrders());
+        assertEquals(4, sales.get(0).getTacos());
+        assertEquals(1, sales.get(1).getOrders());
+        assertEquals(ELEVEN * HOUR, sales.get(1).getStart().getTime());
+        List<IngredientUsage> usage = rollup.ingredientUsage(Granularity.HOUR, TEN, TEN + 1);
+        assertEquals("FLTO", usage.get(0).getIngredient());
+        assertEquals(4, usage.get(0).getUses());
+        assertEquals("GRBF", usage.get(1).getIngredient());
+        assertEquals(2, usage.get(1).getUses());
+    }
+
+    @Test
+    public void shouldCountEachOrderOnceAcrossRunsAndNodes() {
+        placeOrder(TEN, 1);
+        placeOrder(TEN, 2);
+        rollup.rollUp();
+        rollup.rollUp();
+        node().rollUp();
+
+        assertEquals(2, rollup.sales(Granularity.DAY, TEN, ELEVEN).get(0).getOrders());
+        assertEquals(Integer.valueOf(0),
+                jdbc.queryForObject("select count(*) from Taco_Order where rolledUp = false", Integer.class));
+    }
+
+    @Test
+    public void shouldCatchUpAllPendingOrdersInBatches() {
+        // orders left over from a node that stopped before rolling them up
+        for (int i = 0; i < 7; i++) {
+            placeOrder(TEN, 2);
+        }
+        rollup.setBatchSize(3);
+        rollup.rollUp();
+
+        assertEquals(7, rollup.sales(Granularity.HOUR, TEN, ELEVEN).get(0).getOrders());
+    }
+
+    @Test
+    public void shouldSkipOrdersAlreadyClaimed() {
+        long claimed = placeOrder(TEN, 1);
+        placeOrder(TEN, 2);
+        jdbc.update("update Taco_Order set rolledUp = true where id = ?", claimed);
+        rollup.rollUp();
+
+        List<SalesPeriod> sales = rollup.sales(Granularity.HOUR, TEN, ELEVEN);
+        assertEquals(1, sales.get(0).getOrders());
+        assertTrue(rollup.ingredientUsage(Granularity.HOUR, TEN, ELEVEN).stream()
+                .noneMatch(usage -> usage.getIngredient().equals("GRBF")));
+    }
+
+    private SalesRollup node() {
+        return new SalesRollup(new JdbcSalesRollupRepository(jdbc),
+                new TransactionTemplate(new DataSourceTransactionManager(database)));
+    }
+
+    private long placeOrder(long epochHour, long... tacoIds) {
+        long id = nextOrderId++;
+        jdbc.update("insert into Taco_Order (id, deliveryName, deliveryStreet, deliveryCity, deliveryState, " +
+                        "deliveryZip, ccNumber, ccExpiration, ccCVV, placedAt) " +
+                        "values (?, 'Jane', '1 Main St', 'Denver', 'CO', '80202', '4111111111111111', '12/29', '123', ?)",
+                id, new Timestamp(epochHour * HOUR + 60_000));
+        for (long tacoId : tacoIds) {
+            jdbc.update("insert into Taco_Order_Tacos (tacoOrder, taco) values (?, ?)", id, tacoId);
+        }
+        return id;
+    }
+}
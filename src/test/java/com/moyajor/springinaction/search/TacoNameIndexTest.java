@@ -0,0 +1,55 @@
+package com.moyajor.springinaction.search;
+
+import org.junit.Test;
+
+import java.util.List;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+public class TacoNameIndexTest {
+
+    @Test
+    public void shouldReturnMostRecentMatchesForPrefix() {
+        TacoNameIndex index = new TacoNameIndex(2);
+        index.add(1L, "Carnitas Classic", 100L);
+        index.add(2L, "Carne Asada", 300L);
+        index.add(3L, "carnitas deluxe", 200L);
+        index.add(4L, "Veggie Supreme", 400L);
+
+        List<TacoNameIndex.Match> matches = index.search("CARN", 10);
+
+        assertEquals(2, matches.size());
+        assertEquals(2L, matches.get(0).getId());
+        assertEquals(3L, matches.get(1).getId());
+    }
+
+    @Test
+    public void shouldNarrowResultsAsPrefixGrows() {
+        TacoNameIndex index = new TacoNameIndex(10);
+        index.add(1L, "Carnitas Classic", 100L);
+        index.add(2L, "Carne Asada", 300L);
+
+        assertEquals(1, index.search("carni", 10).size());
+        assertEquals(1L, index.search("carni", 10).get(0).getId());
+        assertEquals(1, index.search("carnitas", 1).size());
+    }
+
+    @Test
+    public void shouldReturnNothingForUnknownPrefix() {
+        TacoNameIndex index = new TacoNameIndex(10);
+        index.add(1L, "Carnitas Classic", 100L);
+
+        assertTrue(index.search("xyz", 10).isEmpty());
+    }
+
+    @Test
+    public void shouldIgnoreDuplicateAdds() {
+        TacoNameIndex index = new TacoNameIndex(10);
+        index.add(1L, "Carnitas Classic", 100L);
+        index.add(1L, "Carnitas Classic", 100L);
+
+        assertEquals(1, index.search("car", 10).size());
+        assertEquals(1, index.size());
+    }
+}
@@ -0,0 +1,121 @@
+package com.moyajor.springinaction.search;
+
+import com.moyajor.springinaction.data.IdBlockAllocator;
+import com.moyajor.springinaction.data.jdbc.JdbcCacheVersionRepository;
+import com.moyajor.springinaction.data.jdbc.JdbcTacoRepository;
+import com.moyajor.springinaction.model.db.Ingredient;
+import com.moyajor.springinaction.model.db.Taco;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+import org.springframework.context.annotation.AnnotationConfigApplicationContext;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.datasource.DataSourceTransactionManager;
+import org.springframework.jdbc.datasource.embedded.EmbeddedDatabase;
+import org.springframework.jdbc.datasource.embedded.EmbeddedDatabaseBuilder;
+import org.springframework.jdbc.datasource.embedded.EmbeddedDatabaseType;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.annotation.EnableTransactionManagement;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import javax.sql.DataSource;
+import java.util.Collections;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+/**
+ * Saves tacos through the JDBC repository on H2 and checks that the name
+ * index picks them up once the transaction commits, and never when it rolls
+ * back.
+ */
+public class TacoSearchServiceTest {
+
+    private EmbeddedDatabase database;
+    private AnnotationConfigApplicationContext context;
+    private TacoSearchService search;
+    private JdbcTacoRepository tacoRepo;
+    private TransactionTemplate transactionTemplate;
+
+    @Before
+    public void setUp() {
+        database = new EmbeddedDatabaseBuilder()
+                .setType(EmbeddedDatabaseType.H2)
+                .generateUniqueName(true)
+                .addScript("classpath:schema.sql")
+                .addScript("classpath:data.sql")
+                .build();
+        context = new AnnotationConfigApplicationContext();
+        context.getEnvironment().setActiveProfiles("jdbc");
+        context.registerBean(DataSource.class, () -> database);
+        context.register(SearchConfig.class, IdBlockAllocator.class, JdbcCacheVersionRepository.class,
+                JdbcTacoRepository.class, TacoSearchService.class);
+        context.refresh();
+        search = context.getBean(TacoSearchService.class);
+        tacoRepo = context.getBean(JdbcTacoRepository.class);
+        transactionTemplate = context.getBean(TransactionTemplate.class);
+    }
+
+    @After
+    public void shutdown() {
+        context.close();
+        database.shutdown();
+    }
+
+    @Test
+    public void shouldIndexTacosOnceTheirTransactionCommits() {
+        transactionTemplate.execute(status -> {
+            tacoRepo.save(taco("Carnitas Crunch"));
+            assertTrue(search.search("carnitas", 10).isEmpty());
+            return null;
+        });
+
+        assertEquals("Carnitas Crunch", search.search("carnitas", 10).get(0).getName());
+    }
+
+    @Test
+    public void shouldIndexTacosSavedInTheirOwnTransaction() {
+        tacoRepo.save(taco("Veggie Delight"));
+
+        assertEquals(1, search.search("veggie d", 10).size());
+    }
+
+    @Test
+    public void shouldNotIndexRolledBackTacos() {
+        transactionTemplate.execute(status -> {
+            status.setRollbackOnly();
+            return tacoRepo.save(taco("Phantom Taco"));
+        });
+
+        assertTrue(search.search("phantom", 10).isEmpty());
+    }
+
+    private Taco taco(String name) {
+        Taco taco = new Taco();
+        taco.setName(name);
+        taco.setIngredients(Collections.singletonList(new Ingredient("FLTO", "Flour Tortilla", Ingredient.Type.WRAP)));
+        return taco;
+    }
+
+    @Configuration
+    @EnableTransactionManagement(proxyTargetClass = true)
+    static class SearchConfig {
+
+        @Bean
+        public JdbcTemplate jdbcTemplate(DataSource dataSource) {
+            return new JdbcTemplate(dataSource);
+        }
+
+        @Bean
+        public PlatformTransactionManager transactionManager(DataSource dataSource) {
+            return new DataSourceTransactionManager(dataSource);
+        }
+
+        @Bean
+        public TransactionTemplate transactionTemplate(PlatformTransactionManager transactionManager) {
+            return new TransactionTemplate(transactionManager);
+        }
+    }
+}
@@ -0,0 +1,97 @@
+package com.moyajor.springinaction.security;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.After;
+import org.junit.Test;
+import org.springframework.security.crypto.password.PasswordEncoder;
+import org.springframework.web.server.ResponseStatusException;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+import static org.junit.Assert.fail;
+
+public class PasswordHashingServiceTest {
+
+    private final AtomicInteger inFlight = new AtomicInteger();
+    private final AtomicInteger maxInFlight = new AtomicInteger();
+    private final CountDownLatch release = new CountDownLatch(1);
+    private PasswordHashingService hashing;
+
+    @After
+    public void tearDown() {
+        release.countDown();
+        hashing.stop();
+    }
+
+    @Test
+    public void shouldHashBulkInInputOrderWithBoundedParallelism() throws Exception {
+        hashing = start(4, 100, 2, false);
+
+        List<String> passwords = new ArrayList<>();
+        for (int i = 0; i < 20; i++) {
+            passwords.add("secret" + i);
+        }
+        List<String> hashes = hashing.encodeAll(passwords).get(5, TimeUnit.SECONDS);
+
+        assertEquals(20, hashes.size());
+        assertEquals("hashed:secret0", hashes.get(0));
+        assertEquals("hashed:secret19", hashes.get(19));
+        assertTrue("in flight " + maxInFlight.get(), maxInFlight.get() <= 2);
+    }
+
+    @Test
+    public void shouldRejectWhenQueueIsFull() throws Exception {
+        hashing = start(1, 1, 1, true);
+        hashing.encode("running");
+        hashing.encode("queued");
+
+        CompletableFuture<String> rejected = hashing.encode("rejected");
+
+        try {
+            rejected.get(1, TimeUnit.SECONDS);
+            fail("Expected the hash to be rejected");
+        } catch (ExecutionException e) {
+            assertTrue(e.getCause() instanceof ResponseStatusException);
+        }
+    }
+
+    private PasswordHashingService start(int threads, int queueCapacity, int bulkParallelism, boolean block) {
+        PasswordEncoder encoder = new PasswordEncoder() {
+            @Override
+            public String encode(CharSequence rawPassword) {
+                maxInFlight.accumulateAndGet(inFlight.incrementAndGet(), Math::max);
+                try {
+                    if (block) {
+                        release.await();
+                    } else {
+                        Thread.sleep(5);
+                    }
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                } finally {
+                    inFlight.decrementAndGet();
+                }
+                return "hashed:" + rawPassword;
+            }
+
+            @Override
+            public boolean matches(CharSequence rawPassword, String encodedPassword) {
+                return encodedPassword.equals(encode(rawPassword));
+            }
+        };
+        PasswordHashingService service = new PasswordHashingService(encoder, new SimpleMeterRegistry());
+        service.setThreads(threads);
+        service.setQueueCapacity(queueCapacity);
+        service.setBulkParallelism(bulkParallelism);
+        service.start();
+        return service;
+    }
+}
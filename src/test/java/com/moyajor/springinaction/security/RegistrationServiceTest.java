@@ -0,0 +1,136 @@
+package com.moyajor.springinaction.security;
+
+import com.moyajor.springinaction.data.UserRepository;
+import com.moyajor.springinaction.model.db.RegistrationForm;
+import com.moyajor.springinaction.model.db.User;
+import com.moyajor.springinaction.security.RegistrationService.ProvisioningResult;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+import org.mockito.Mockito;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.http.HttpStatus;
+import org.springframework.web.server.ResponseStatusException;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashSet;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutionException;
+import java.util.stream.Collectors;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+import static org.junit.Assert.fail;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyCollection;
+import static org.mockito.ArgumentMatchers.anyList;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.verifyZeroInteractions;
+import static org.mockito.Mockito.when;
+
+/**
+ * Runs provisioning and registration against a mocked repository, with
+ * hashes that simply prefix the raw password.
+ */
+public class RegistrationServiceTest {
+
+    private UserRepository userRepo;
+    private PasswordHashingService hashing;
+    private RegistrationService registration;
+    private List<User> saved;
+
+    @Before
+    public void setUp() {
+        userRepo = Mockito.mock(UserRepository.class);
+        hashing = Mockito.mock(PasswordHashingService.class);
+        saved = new ArrayList<>();
+        when(hashing.encode(any())).thenAnswer(invocation ->
+                CompletableFuture.completedFuture("hash:" + invocation.<String>getArgument(0)));
+        when(hashing.encodeAll(anyList())).thenAnswer(invocation ->
+                CompletableFuture.completedFuture(invocation.<List<String>>getArgument(0).stream()
+                        .map(password -> "hash:" + password).collect(Collectors.toList())));
+        when(userRepo.findExistingUsernames(anyCollection())).thenReturn(Collections.emptySet());
+        when(userRepo.saveAll(any())).thenAnswer(invocation -> {
+            invocation.<Iterable<User>>getArgument(0).forEach(saved::add);
+            return saved;
+        });
+        registration = new RegistrationService(userRepo, hashing);
+        registration.start();
+    }
+
+    @After
+    public void stop() {
+        registration.stop();
+    }
+
+    @Test
+    public void shouldSkipDuplicateAndExistingUsernames() throws Exception {
+        when(userRepo.findExistingUsernames(anyCollection())).thenReturn(new HashSet<>(Collections.singletonList("carol")));
+
+        ProvisioningResult result = registration.provision(Arrays.asList(
+                form("alice", "a1"), form("bob", "b1"), form("alice", "a2"), form("carol", "c1"))).get();
+
+        assertEquals(Arrays.asList("alice", "bob"), result.getCreated());
+        assertEquals(Arrays.asList("alice", "carol"), result.getSkipped());
+        assertEquals(2, saved.size());
+        assertEquals("alice", saved.get(0).getUsername());
+        assertEquals("hash:a1", saved.get(0).getPassword());
+        assertEquals("hash:b1", saved.get(1).getPassword());
+    }
+
+    @Test
+    public void shouldAnswerConflictWhenAnotherRequestWinsTheUsername() throws Exception {
+        // both requests passed the existence check, the unique index rejects the second insert
+        when(userRepo.saveAll(any())).thenThrow(new DataIntegrityViolationException("User_Username"));
+
+        try {
+            registration.provision(Collections.singletonList(form("alice", "a1"))).get();
+            fail("expected a conflict");
+        } catch (ExecutionException e) {
+            assertTrue(e.getCause() instanceof ResponseStatusException);
+            assertEquals(HttpStatus.CONFLICT, ((ResponseStatusException) e.getCause()).getStatus());
+        }
+    }
+
+    @Test
+    public void shouldRefuseBatchesOverTheMaximumSize() {
+        registration.setMaxBulkSize(2);
+
+        assertEquals(HttpStatus.BAD_REQUEST, statusOf(() -> registration.provision(Arrays.asList(
+                form("alice", "a1"), form("bob", "b1"), form("carol", "c1")))));
+        verifyZeroInteractions(userRepo, hashing);
+    }
+
+    @Test
+    public void shouldRefuseMissingPasswordsBeforeHashing() {
+        assertEquals(HttpStatus.BAD_REQUEST, statusOf(() -> registration.provision(Arrays.asList(
+                form("alice", "a1"), form("bob", null)))));
+        assertEquals(HttpStatus.BAD_REQUEST, statusOf(() -> registration.provision(
+                Collections.singletonList(form("carol", "  ")))));
+        assertEquals(HttpStatus.BAD_REQUEST, statusOf(() -> registration.register(form("dave", ""))));
+        verify(hashing, never()).encode(any());
+        verify(hashing, never()).encodeAll(anyList());
+        verifyZeroInteractions(userRepo);
+    }
+
+    private HttpStatus statusOf(Runnable call) {
+        try {
+            call.run();
+        } catch (ResponseStatusException e) {
+            return e.getStatus();
+        }
+        throw new AssertionError("expected a ResponseStatusException");
+    }
+
+    private RegistrationForm form(String username, String password) {
+        RegistrationForm form = new RegistrationForm();
+        form.setUsername(username);
+        form.setPassword(password);
+        form.setFullname(username);
+        return form;
+    }
+}
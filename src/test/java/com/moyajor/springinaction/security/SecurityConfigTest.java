@@ -0,0 +1,123 @@
+package com.moyajor.springinaction.security;
+
+import com.moyajor.springinaction.data.UserRepository;
+import com.moyajor.springinaction.model.db.User;
+import org.junit.Before;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.MediaType;
+import org.springframework.mock.web.MockHttpSession;
+import org.springframework.security.web.csrf.CsrfToken;
+import org.springframework.security.crypto.password.PasswordEncoder;
+import org.springframework.test.context.junit4.SpringRunner;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.MvcResult;
+import org.springframework.test.web.servlet.request.MockHttpServletRequestBuilder;
+
+import java.nio.charset.StandardCharsets;
+import java.util.Base64;
+
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.asyncDispatch;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.post;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.jsonPath;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.request;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+/**
+ * Checks the access rules of the servlet security chain with real users and
+ * HTTP basic credentials.
+ */
+@RunWith(SpringRunner.class)
+@SpringBootTest(properties = {"spring.profiles.active=jdbc", "taco.warmup.enabled=false",
+        "spring.datasource.generate-unique-name=true", "taco.security.bcrypt-strength=4"})
+@AutoConfigureMockMvc
+public class SecurityConfigTest {
+
+    private static final String PASSWORD = "secret";
+    private static final String SALES = "/api/rollups/sales?from=2024-01-01&to=2024-01-02";
+
+    @Autowired
+    private MockMvc mvc;
+    @Autowired
+    private UserRepository userRepo;
+    @Autowired
+    private PasswordEncoder encoder;
+
+    @Before
+    public void createUsers() {
+        if (userRepo.findByUsername("customer") != null) {
+            return;
+        }
+        save("customer", User.CUSTOMER);
+        save("operations", User.OPERATIONS);
+        save("provisioning", User.PROVISIONING);
+    }
+
+    @Test
+    public void shouldKeepRollupsForOperations() throws Exception {
+        mvc.perform(anonymous(get(SALES))).andExpect(status().isUnauthorized());
+        mvc.perform(as("customer", get(SALES))).andExpect(status().isForbidden());
+        mvc.perform(as("operations", get(SALES))).andExpect(status().isOk());
+    }
+
+    @Test
+    public void shouldTurnAwayAnonymousReorders() throws Exception {
+        // a valid CSRF token, so the request gets as far as authorization
+        MvcResult login = mvc.perform(get("/login")).andReturn();
+        MockHttpSession session = (MockHttpSession) login.getRequest().getSession();
+        CsrfToken csrf = (CsrfToken) login.getRequest().getAttribute(CsrfToken.class.getName());
+
+        mvc.perform(anonymous(post("/orders/1/reorder"))
+                .session(session)
+                .param(csrf.getParameterName(), csrf.getToken()))
+                .andExpect(status().isUnauthorized());
+    }
+
+    @Test
+    public void shouldKeepBulkRegistrationForProvisioning() throws Exception {
+        String body = "[{\"username\":\"bulk1\",\"password\":\"secret\"},{\"username\":\"customer\",\"password\":\"secret\"}]";
+        mvc.perform(anonymous(bulk(body))).andExpect(status().isUnauthorized());
+        mvc.perform(as("customer", bulk(body))).andExpect(status().isForbidden());
+
+        MvcResult provisioned = mvc.perform(as("provisioning", bulk(body)))
+                .andExpect(request().asyncStarted())
+                .andReturn();
+        mvc.perform(asyncDispatch(provisioned))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.created[0]").value("bulk1"))
+                .andExpect(jsonPath("$.skipped[0]").value("customer"));
+    }
+
+    @Test
+    public void shouldRefuseBulkRegistrationWithoutPasswords() throws Exception {
+        mvc.perform(as("provisioning", bulk("[{\"username\":\"bulk2\",\"password\":\" \"}]")))
+                .andExpect(status().isBadRequest());
+    }
+
+    private MockHttpServletRequestBuilder bulk(String body) {
+        return post("/registration/bulk").contentType(MediaType.APPLICATION_JSON).content(body);
+    }
+
+    private void save(String username, String roles) {
+        User user = new User(username, encoder.encode(PASSWORD), username, "1 Main St", "Denver", "CO", "80202",
+                "555-0100");
+        user.setRoles(roles);
+        userRepo.save(user);
+    }
+
+    // API clients are answered 401 instead of being redirected to the login page
+    private MockHttpServletRequestBuilder anonymous(MockHttpServletRequestBuilder request) {
+        return request.header("X-Requested-With", "XMLHttpRequest");
+    }
+
+    private MockHttpServletRequestBuilder as(String username, MockHttpServletRequestBuilder request) {
+        String credentials = username + ":" + PASSWORD;
+        return request.header(HttpHeaders.AUTHORIZATION,
+                "Basic " + Base64.getEncoder().encodeToString(credentials.getBytes(StandardCharsets.UTF_8)));
+    }
+}
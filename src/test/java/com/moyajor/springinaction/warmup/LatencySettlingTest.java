@@ -0,0 +1,31 @@
+package com.moyajor.springinaction.warmup;
+
+import org.junit.Test;
+
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+public class LatencySettlingTest {
+
+    @Test
+    public void shouldSettleAfterConsecutiveRoundsWithinTolerance() {
+        LatencySettling settling = new LatencySettling(0.1, 2);
+
+        assertFalse(settling.record(9_000));
+        assertFalse(settling.record(3_000));
+        assertFalse(settling.record(1_050));
+        assertFalse(settling.record(1_000));
+        assertTrue(settling.record(1_080));
+    }
+
+    @Test
+    public void shouldStartOverWhenLatencyJumps() {
+        LatencySettling settling = new LatencySettling(0.1, 2);
+
+        settling.record(1_000);
+        settling.record(1_000);
+        assertFalse(settling.record(2_000));
+        assertFalse(settling.record(2_000));
+        assertTrue(settling.record(2_000));
+    }
+}
@@ -0,0 +1,90 @@
+package com.moyajor.springinaction.warmup;
+
+import com.moyajor.springinaction.data.UserRepository;
+import com.moyajor.springinaction.model.db.User;
+import com.moyajor.springinaction.warmup.WarmupReport.PathLatency;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.test.context.junit4.SpringRunner;
+
+import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNotNull;
+import static org.junit.Assert.assertTrue;
+
+/**
+ * Runs the warmup against a real port and checks that the protected pages
+ * and form posts were served to the signed-in scratch customer rather than
+ * redirected to the login page, and that nothing it created is left behind.
+ */
+@RunWith(SpringRunner.class)
+@SpringBootTest(webEnvironment = SpringBootTest.WebEnvironment.RANDOM_PORT,
+        properties = {"spring.profiles.active=jdbc", "spring.datasource.generate-unique-name=true",
+                "taco.warmup.enabled=true", "taco.warmup.write-iterations=5", "taco.warmup.requests-per-round=3",
+                "taco.warmup.stable-rounds=1", "taco.warmup.tolerance=10", "taco.warmup.max-millis=30000"})
+public class TrafficWarmupTest {
+
+    @Autowired
+    private TrafficWarmup warmup;
+    @Autowired
+    private UserRepository userRepo;
+    @Autowired
+    private JdbcTemplate jdbc;
+
+    @Test
+    public void shouldReplayProtectedPagesAndFormsInAnAuthenticatedSession() {
+        WarmupReport report = warmup.getReport();
+        assertNotNull(report);
+        assertTrue(report.getReadRounds() >= 1);
+
+        Map<String, PathLatency> paths = report.getPaths();
+        assertEquals(200, paths.get("GET /design").getStatus());
+        assertEquals(200, paths.get("GET /orders").getStatus());
+        assertEquals(200, paths.get("GET /orders/current").getStatus());
+        // failing validation renders the form again instead of redirecting onwards
+        assertEquals(200, paths.get("POST /design").getStatus());
+        assertEquals(200, paths.get("POST /orders").getStatus());
+        for (PathLatency latency : paths.values()) {
+            assertTrue(latency.getColdMicros() > 0);
+        }
+    }
+
+    @Test
+    public void shouldLeaveNoScratchRowsBehind() {
+        for (User user : userRepo.findAll()) {
+            assertFalse(user.getUsername(), user.getUsername().startsWith("warmup-"));
+        }
+        assertEquals(Integer.valueOf(0), jdbc.queryForObject("select count(*) from Taco_Order", Integer.class));
+        assertEquals(Integer.valueOf(0), jdbc.queryForObject("select count(*) from Taco", Integer.class));
+    }
+
+    @Test
+    public void shouldDeleteScratchCustomersOfCrashedRunsOnly() {
+        User crashed = scratchUser(System.currentTimeMillis() - TimeUnit.HOURS.toMillis(1));
+        User running = scratchUser(System.currentTimeMillis());
+        User lookalike = userRepo.save(new User("warmup-0-customer", "secret", "Real Customer",
+                "1 Main St", "Denver", "CO", "80202", "555-0100"));
+
+        warmup.run(null);
+
+        assertFalse(userRepo.findById(crashed.getId()).isPresent());
+        assertTrue(userRepo.findById(running.getId()).isPresent());
+        assertTrue(userRepo.findById(lookalike.getId()).isPresent());
+        userRepo.delete(running);
+        userRepo.delete(lookalike);
+    }
+
+    private User scratchUser(long createdAtMillis) {
+        User user = new User("warmup-" + createdAtMillis + "-" + UUID.randomUUID(), "secret", "Warmup",
+                "1 Main St", "Denver", "CO", "80202", "555-0100");
+        user.setRoles(User.CUSTOMER + "," + User.WARMUP);
+        return userRepo.save(user);
+    }
+}
@@ -0,0 +1,43 @@
+package com.moyajor.springinaction.warmup;
+
+import com.moyajor.springinaction.warmup.WarmupReport.PathLatency;
+import org.junit.Test;
+import org.springframework.boot.actuate.health.Health;
+import org.springframework.boot.actuate.health.Status;
+
+import java.util.Collections;
+
+import static org.junit.Assert.assertEquals;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+public class WarmupHealthIndicatorTest {
+
+    private final TrafficWarmup warmup = mock(TrafficWarmup.class);
+    private final WarmupHealthIndicator indicator = new WarmupHealthIndicator(warmup);
+
+    @Test
+    public void shouldBeOutOfServiceWhileWarmupRuns() {
+        when(warmup.getReport()).thenReturn(null);
+
+        Health health = indicator.health();
+
+        assertEquals(Status.OUT_OF_SERVICE, health.getStatus());
+        assertEquals("in progress", health.getDetails().get("warmup"));
+    }
+
+    @Test
+    public void shouldBeUpWithTheReportOnceFinished() {
+        WarmupReport report = new WarmupReport(1200, 200, 7, true,
+                Collections.singletonMap("GET /design", new PathLatency(25_000, 900, 200)));
+        when(warmup.getReport()).thenReturn(report);
+
+        Health health = indicator.health();
+
+        assertEquals(Status.UP, health.getStatus());
+        assertEquals(1200L, health.getDetails().get("durationMillis"));
+        assertEquals(7, health.getDetails().get("readRounds"));
+        assertEquals(true, health.getDetails().get("settled"));
+        assertEquals(report.getPaths(), health.getDetails().get("paths"));
+    }
+}
@@ -0,0 +1,87 @@
+package com.moyajor.springinaction.web.admission;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.Before;
+import org.junit.Test;
+import org.springframework.http.HttpHeaders;
+import org.springframework.mock.web.MockFilterChain;
+import org.springframework.mock.web.MockHttpServletRequest;
+import org.springframework.mock.web.MockHttpServletResponse;
+
+import javax.servlet.FilterChain;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNotNull;
+import static org.junit.Assert.assertNull;
+
+public class AdmissionControlFilterTest {
+
+    private SimpleMeterRegistry meterRegistry;
+    private AdmissionControlFilter filter;
+
+    @Before
+    public void setUp() {
+        meterRegistry = new SimpleMeterRegistry();
+        filter = new AdmissionControlFilter(meterRegistry);
+        filter.setPermitsPerSecond(1);
+        filter.setBurst(1);
+    }
+
+    @Test
+    public void shouldRateLimitWritesPerClientWithRetryAfter() throws Exception {
+        MockHttpServletResponse first = post("/orders/42/reorder", "10.0.0.1", new MockFilterChain());
+        MockHttpServletResponse second = post("/orders/43/reorder", "10.0.0.1", new MockFilterChain());
+        MockHttpServletResponse otherClient = post("/orders/43/reorder", "10.0.0.2", new MockFilterChain());
+
+        assertEquals(200, first.getStatus());
+        assertEquals(429, second.getStatus());
+        assertEquals("1", second.getHeader(HttpHeaders.RETRY_AFTER));
+        assertEquals(200, otherClient.getStatus());
+        assertEquals(1.0, meterRegistry.get("taco.admission.shed")
+                .tags("reason", "rate_limited", "endpoint", "/orders/*/reorder").counter().count(), 0.0);
+    }
+
+    @Test
+    public void shouldTurnAwayWritesOnceConcurrencyIsExhausted() throws Exception {
+        filter.setMaxConcurrentWrites(1);
+        filter.setConcurrencyWaitMillis(0);
+        MockHttpServletResponse[] nested = new MockHttpServletResponse[1];
+        // the outer request holds the only permit while the nested one arrives
+        FilterChain holdingChain = (request, response) ->
+                nested[0] = post("/registration/bulk", "10.0.0.2", new MockFilterChain());
+
+        MockHttpServletResponse outer = post("/api/orders/7/reorder", "10.0.0.1", holdingChain);
+
+        assertEquals(200, outer.getStatus());
+        assertEquals(503, nested[0].getStatus());
+        assertEquals("1", nested[0].getHeader(HttpHeaders.RETRY_AFTER));
+        assertEquals(1.0, meterRegistry.get("taco.admission.shed")
+                .tags("reason", "overloaded", "endpoint", "/registration/bulk").counter().count(), 0.0);
+        assertEquals(200, post("/registration/bulk", "10.0.0.3", new MockFilterChain()).getStatus());
+    }
+
+    @Test
+    public void shouldLeaveReadsAndOtherPathsAlone() throws Exception {
+        MockFilterChain chain = new MockFilterChain();
+        MockHttpServletRequest read = new MockHttpServletRequest("GET", "/orders");
+        filter.doFilter(read, new MockHttpServletResponse(), chain);
+        assertNotNull(chain.getRequest());
+
+        post("/register", "10.0.0.1", new MockFilterChain());
+        MockHttpServletResponse other = post("/register", "10.0.0.1", new MockFilterChain());
+        assertEquals(200, other.getStatus());
+        assertNull(meterRegistry.find("taco.admission.shed").counter());
+    }
+
+    private MockHttpServletResponse post(String path, String remoteAddr, FilterChain chain) {
+        MockHttpServletRequest request = new MockHttpServletRequest("POST", path);
+        request.setRemoteAddr(remoteAddr);
+        MockHttpServletResponse response = new MockHttpServletResponse();
+        try {
+            filter.doFilter(request, response, chain);
+        } catch (Exception e) {
+            throw new IllegalStateException(e);
+        }
+        return response;
+    }
+}
@@ -0,0 +1,79 @@
+package com.moyajor.springinaction.web.api;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.dataformat.cbor.CBORFactory;
+import com.fasterxml.jackson.dataformat.smile.SmileFactory;
+import com.moyajor.springinaction.data.jpa.IngredientRepository;
+import com.moyajor.springinaction.data.jpa.TacoRepository;
+import com.moyajor.springinaction.model.db.Ingredient;
+import com.moyajor.springinaction.model.db.Taco;
+import org.junit.Before;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.test.context.junit4.SpringRunner;
+import org.springframework.test.web.servlet.MockMvc;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+/**
+ * Fetches one Spring Data REST taco as HAL JSON, Smile and CBOR: the binary
+ * encodings carry the same document, with the ingredients rendered as an
+ * association link rather than inlined.
+ */
+@RunWith(SpringRunner.class)
+@SpringBootTest(properties = {"spring.profiles.active=jdbc", "taco.warmup.enabled=false",
+        "spring.datasource.generate-unique-name=true"})
+@AutoConfigureMockMvc
+public class BinaryEntityResourceTest {
+
+    @Autowired
+    private MockMvc mvc;
+    @Autowired
+    private IngredientRepository ingredientRepo;
+    @Autowired
+    private TacoRepository tacoRepo;
+
+    private Long tacoId;
+
+    @Before
+    public void seed() {
+        List<Ingredient> ingredients = new ArrayList<>();
+        ingredientRepo.findAll().forEach(ingredients::add);
+        Taco taco = new Taco();
+        taco.setName("Binary Taco");
+        taco.setIngredients(ingredients.subList(0, 3));
+        tacoId = tacoRepo.save(taco).getId();
+    }
+
+    @Test
+    public void shouldEncodeEntityResourcesWithAssociationLinks() throws Exception {
+        JsonNode json = fetch("application/hal+json", new ObjectMapper());
+        JsonNode smile = fetch("application/x-jackson-smile", new ObjectMapper(new SmileFactory()));
+        JsonNode cbor = fetch("application/cbor", new ObjectMapper(new CBORFactory()));
+
+        assertEquals("Binary Taco", json.get("name").asText());
+        assertTrue(json.at("/_links/self/href").asText().endsWith("/api/tacos/" + tacoId));
+        assertTrue(json.at("/_links/ingredients/href").asText().endsWith("/api/tacos/" + tacoId + "/ingredients"));
+        assertFalse(json.has("ingredients"));
+        assertEquals(json, smile);
+        assertEquals(json, cbor);
+    }
+
+    private JsonNode fetch(String mediaType, ObjectMapper reader) throws Exception {
+        byte[] body = mvc.perform(get("/api/tacos/" + tacoId).accept(mediaType))
+                .andExpect(status().isOk())
+                .andReturn().getResponse().getContentAsByteArray();
+        return reader.readTree(body);
+    }
+}
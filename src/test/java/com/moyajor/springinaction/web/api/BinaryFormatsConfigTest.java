@@ -0,0 +1,95 @@
+package com.moyajor.springinaction.web.api;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.ObjectWriter;
+import com.moyajor.springinaction.model.db.Ingredient;
+import com.moyajor.springinaction.model.db.Taco;
+import com.moyajor.springinaction.web.api.resource.IngredientResource;
+import com.moyajor.springinaction.web.api.resource.TacoResource;
+import org.junit.Test;
+import org.springframework.context.support.MessageSourceAccessor;
+import org.springframework.context.support.StaticMessageSource;
+import org.springframework.hateoas.Link;
+import org.springframework.hateoas.Resources;
+import org.springframework.hateoas.UriTemplate;
+import org.springframework.hateoas.core.EvoInflectorRelProvider;
+import org.springframework.hateoas.hal.DefaultCurieProvider;
+import org.springframework.http.converter.json.Jackson2ObjectMapperBuilder;
+
+import java.util.ArrayList;
+import java.util.Date;
+import java.util.List;
+import java.util.Locale;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+/**
+ * Smile and CBOR carry the same HAL document as JSON, curies and link
+ * titles included, in fewer bytes.
+ */
+public class BinaryFormatsConfigTest {
+
+    private static final DefaultCurieProvider CURIES =
+            new DefaultCurieProvider("taco", new UriTemplate("http://localhost:8080/docs/{rel}"));
+
+    @Test
+    public void shouldEncodeTheSameDocumentInFewerBytes() throws Exception {
+        Resources<TacoResource> recent = recentTacos();
+        ObjectMapper jsonMapper = mapper(Jackson2ObjectMapperBuilder.json());
+        ObjectMapper smileMapper = mapper(Jackson2ObjectMapperBuilder.smile());
+        ObjectMapper cborMapper = mapper(Jackson2ObjectMapperBuilder.cbor());
+
+        byte[] json = writer(jsonMapper).writeValueAsBytes(recent);
+        byte[] smile = writer(smileMapper).writeValueAsBytes(recent);
+        byte[] cbor = writer(cborMapper).writeValueAsBytes(recent);
+
+        JsonNode expected = jsonMapper.readTree(json);
+        assertEquals(expected, smileMapper.readTree(smile));
+        assertEquals(expected, cborMapper.readTree(cbor));
+        assertEquals("Recently designed tacos", expected.at("/_links/taco:recents/title").asText());
+        assertEquals("taco", expected.at("/_links/curies/0/name").asText());
+        assertTrue(smile.length < json.length);
+        assertTrue(cbor.length < json.length);
+    }
+
+    private ObjectMapper mapper(Jackson2ObjectMapperBuilder builder) {
+        StaticMessageSource messages = new StaticMessageSource();
+        messages.addMessage("_links.recents.title", Locale.getDefault(), "Recently designed tacos");
+        messages.addMessage("_links.taco:recents.title", Locale.getDefault(), "Recently designed tacos");
+        return BinaryFormatsConfig.halObjectMapper(builder, new EvoInflectorRelProvider(), CURIES,
+                new MessageSourceAccessor(messages, Locale.getDefault()));
+    }
+
+    private ObjectWriter writer(ObjectMapper mapper) {
+        return mapper.writerFor(mapper.getTypeFactory().constructParametricType(Resources.class, TacoResource.class));
+    }
+
+    private Resources<TacoResource> recentTacos() {
+        List<TacoResource> tacos = new ArrayList<>();
+        for (long i = 1; i <= 12; i++) {
+            Taco taco = new Taco();
+            taco.setId(i);
+            taco.setName("Taco number " + i);
+            taco.setCreatedAt(new Date());
+            List<IngredientResource> ingredients = new ArrayList<>();
+            ingredients.add(ingredient("FLTO", "Flour Tortilla", Ingredient.Type.WRAP));
+            ingredients.add(ingredient("CARN", "Carnitas", Ingredient.Type.PROTEIN));
+            ingredients.add(ingredient("JACK", "Monterrey Jack", Ingredient.Type.CHEESE));
+            ingredients.add(ingredient("SRCR", "Sour Cream", Ingredient.Type.SAUCE));
+            TacoResource resource = new TacoResource(taco, ingredients);
+            resource.add(new Link("http://localhost:8080/design/" + i));
+            tacos.add(resource);
+        }
+        Resources<TacoResource> recent = new Resources<>(tacos);
+        recent.add(new Link("http://localhost:8080/api/tacos/recent", "recents"));
+        return recent;
+    }
+
+    private IngredientResource ingredient(String id, String name, Ingredient.Type type) {
+        IngredientResource resource = new IngredientResource(new Ingredient(id, name, type));
+        resource.add(new Link("http://localhost:8080/api/ingredients/" + id));
+        return resource;
+    }
+}
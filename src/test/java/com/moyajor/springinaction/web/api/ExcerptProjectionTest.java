@@ -0,0 +1,135 @@
+package com.moyajor.springinaction.web.api;
+
+import com.moyajor.springinaction.data.UserRepository;
+import com.moyajor.springinaction.data.jpa.IngredientRepository;
+import com.moyajor.springinaction.data.jpa.OrderRepository;
+import com.moyajor.springinaction.data.jpa.TacoRepository;
+import com.moyajor.springinaction.model.db.Ingredient;
+import com.moyajor.springinaction.model.db.Order;
+import com.moyajor.springinaction.model.db.Taco;
+import com.moyajor.springinaction.model.db.User;
+import org.hibernate.SessionFactory;
+import org.hibernate.stat.Statistics;
+import org.junit.Before;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.test.context.junit4.SpringRunner;
+import org.springframework.test.web.servlet.MockMvc;
+
+import javax.persistence.EntityManagerFactory;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.jsonPath;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+/**
+ * Lists tacos and orders through Spring Data REST on the jpa profile, with
+ * every row owned by a different user, and counts the statements Hibernate
+ * prepares per page: the page and its count, however many rows and users.
+ */
+@RunWith(SpringRunner.class)
+@SpringBootTest(properties = {"spring.profiles.active=jpa", "taco.warmup.enabled=false",
+        "spring.datasource.generate-unique-name=true", "spring.jpa.properties.hibernate.generate_statistics=true"})
+@AutoConfigureMockMvc
+public class ExcerptProjectionTest {
+
+    private static final int ROWS = 60;
+
+    private static Long someOrderId;
+
+    @Autowired
+    private MockMvc mvc;
+    @Autowired
+    private UserRepository userRepo;
+    @Autowired
+    private IngredientRepository ingredientRepo;
+    @Autowired
+    private TacoRepository tacoRepo;
+    @Autowired
+    private OrderRepository orderRepo;
+    @Autowired
+    private EntityManagerFactory entityManagerFactory;
+
+    @Before
+    public void seed() {
+        if (someOrderId != null) {
+            return;
+        }
+        List<Ingredient> ingredients = new ArrayList<>();
+        ingredientRepo.findAll().forEach(ingredients::add);
+        for (int i = 0; i < ROWS; i++) {
+            User user = userRepo.save(new User("excerpt" + i, "secret", "Customer " + i,
+                    "1 Main St", "Denver", "CO", "80202", "555-0100"));
+            Taco taco = new Taco();
+            taco.setName("Excerpt Taco " + i);
+            taco.setIngredients(ingredients.subList(0, 4));
+            taco.setUser(user);
+            taco = tacoRepo.save(taco);
+            Order order = new Order();
+            order.setName("Customer " + i);
+            order.setStreet("1 Main St");
+            order.setCity("Denver");
+            order.setState("CO");
+            order.setZip("80202");
+            order.setCcNumber("4111111111111111");
+            order.setCcExpiration("12/29");
+            order.setCcCVV("123");
+            order.setUser(user);
+            order.addDesign(taco);
+            someOrderId = orderRepo.save(order).getId();
+        }
+    }
+
+    @Test
+    public void shouldListTacoPageInTwoStatements() throws Exception {
+        Statistics statistics = statistics();
+        mvc.perform(get("/api/tacos?size=50"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$._embedded.tacos.length()").value(50))
+                .andExpect(jsonPath("$._embedded.tacos[0].name").exists())
+                .andExpect(jsonPath("$._embedded.tacos[0].ingredients").doesNotExist());
+        assertTrue("statements: " + statistics.getPrepareStatementCount(), statistics.getPrepareStatementCount() <= 2);
+    }
+
+    @Test
+    public void shouldListOrderPageInTwoStatementsWithoutPaymentDetails() throws Exception {
+        Statistics statistics = statistics();
+        String page = mvc.perform(get("/api/orders?size=20"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$._embedded.orders.length()").value(20))
+                .andReturn().getResponse().getContentAsString();
+        assertTrue("statements: " + statistics.getPrepareStatementCount(), statistics.getPrepareStatementCount() <= 2);
+        assertFalse(page.contains("ccNumber"));
+
+        String item = mvc.perform(get("/api/orders/" + someOrderId))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.name").value("Customer " + (ROWS - 1)))
+                .andExpect(jsonPath("$.ccNumber").doesNotExist())
+                .andExpect(jsonPath("$.ccExpiration").doesNotExist())
+                .andExpect(jsonPath("$.ccCVV").doesNotExist())
+                .andReturn().getResponse().getContentAsString();
+        assertTrue(String.format("page of 20: %d bytes, single order: %d bytes", page.length(), item.length()),
+                page.length() / 20 < item.length());
+    }
+
+    @Test
+    public void shouldCapPageSize() throws Exception {
+        mvc.perform(get("/api/tacos"))
+                .andExpect(jsonPath("$.page.size").value(20));
+        mvc.perform(get("/api/tacos?size=10000"))
+                .andExpect(jsonPath("$.page.size").value(100));
+    }
+
+    private Statistics statistics() {
+        Statistics statistics = entityManagerFactory.unwrap(SessionFactory.class).getStatistics();
+        statistics.clear();
+        return statistics;
+    }
+}
@@ -0,0 +1,87 @@
+package com.moyajor.springinaction.web.api;
+
+import com.moyajor.springinaction.data.OrderRepository;
+import com.moyajor.springinaction.kitchen.KitchenDispatcher;
+import com.moyajor.springinaction.kitchen.KitchenOverloadedException;
+import com.moyajor.springinaction.model.db.Order;
+import com.moyajor.springinaction.model.db.User;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+import org.mockito.Mockito;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+import org.springframework.mock.web.MockHttpServletRequest;
+import org.springframework.web.context.request.RequestContextHolder;
+import org.springframework.web.context.request.ServletRequestAttributes;
+
+import java.net.URI;
+
+import static org.junit.Assert.assertEquals;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyLong;
+import static org.mockito.Mockito.doThrow;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+/**
+ * Calls the controller directly: it is a {@code @RepositoryRestController},
+ * which a standalone MockMvc does not map.
+ */
+public class ReorderControllerTest {
+
+    private OrderRepository orderRepo;
+    private KitchenDispatcher kitchen;
+    private ReorderController controller;
+    private User user;
+
+    @Before
+    public void setUp() {
+        orderRepo = Mockito.mock(OrderRepository.class);
+        kitchen = Mockito.mock(KitchenDispatcher.class);
+        controller = new ReorderController(orderRepo, kitchen);
+        user = new User("jane", "secret", "Jane", "1 Main St", "Springfield", "IL", "62701", "555-0100");
+        user.setId(7L);
+        MockHttpServletRequest request = new MockHttpServletRequest("POST", "/api/orders/1/reorder");
+        RequestContextHolder.setRequestAttributes(new ServletRequestAttributes(request));
+    }
+
+    @After
+    public void clearRequest() {
+        RequestContextHolder.resetRequestAttributes();
+    }
+
+    @Test
+    public void shouldReorderThroughTheOrderRepositoryAndPointAtTheCopy() {
+        Order copy = new Order();
+        copy.setId(51L);
+        when(orderRepo.reorder(1L, user)).thenReturn(copy);
+
+        ResponseEntity<Void> response = controller.reorder(1L, user);
+
+        assertEquals(HttpStatus.CREATED, response.getStatusCode());
+        assertEquals(URI.create("http://localhost/api/orders/51"), response.getHeaders().getLocation());
+    }
+
+    @Test
+    public void shouldAnswerNotFoundForAnotherUsersOrder() {
+        assertEquals(HttpStatus.NOT_FOUND, controller.reorder(1L, user).getStatusCode());
+    }
+
+    @Test
+    public void shouldRefuseAnonymousReorders() {
+        assertEquals(HttpStatus.UNAUTHORIZED, controller.reorder(1L, null).getStatusCode());
+        verify(orderRepo, never()).reorder(anyLong(), any(User.class));
+    }
+
+    @Test(expected = KitchenOverloadedException.class)
+    public void shouldRefuseWhileTheKitchenIsFull() {
+        doThrow(new KitchenOverloadedException(500)).when(kitchen).checkCapacity();
+        try {
+            controller.reorder(1L, user);
+        } finally {
+            verify(orderRepo, never()).reorder(anyLong(), any(User.class));
+        }
+    }
+}
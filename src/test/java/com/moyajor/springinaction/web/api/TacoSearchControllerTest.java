@@ -0,0 +1,100 @@
+package com.moyajor.springinaction.web.api;
+
+import com.moyajor.springinaction.data.UserRepository;
+import com.moyajor.springinaction.data.jpa.IngredientRepository;
+import com.moyajor.springinaction.data.jpa.TacoRepository;
+import com.moyajor.springinaction.model.db.Ingredient;
+import com.moyajor.springinaction.model.db.Taco;
+import com.moyajor.springinaction.model.db.User;
+import org.junit.Before;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.http.HttpHeaders;
+import org.springframework.mock.web.MockHttpSession;
+import org.springframework.security.crypto.password.PasswordEncoder;
+import org.springframework.security.web.csrf.CsrfToken;
+import org.springframework.test.context.junit4.SpringRunner;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.MvcResult;
+
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Base64;
+import java.util.List;
+
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.post;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.jsonPath;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+/**
+ * Tacos designed through the form and tacos saved through the Spring Data
+ * repositories both become searchable by name prefix.
+ */
+@RunWith(SpringRunner.class)
+@SpringBootTest(properties = {"spring.profiles.active=jdbc", "taco.warmup.enabled=false",
+        "spring.datasource.generate-unique-name=true", "taco.security.bcrypt-strength=4"})
+@AutoConfigureMockMvc
+public class TacoSearchControllerTest {
+
+    private static final String PASSWORD = "secret";
+
+    @Autowired
+    private MockMvc mvc;
+    @Autowired
+    private UserRepository userRepo;
+    @Autowired
+    private PasswordEncoder encoder;
+    @Autowired
+    private IngredientRepository ingredientRepo;
+    @Autowired
+    private TacoRepository tacoRepo;
+
+    @Before
+    public void createCustomer() {
+        if (userRepo.findByUsername("searcher") == null) {
+            userRepo.save(new User("searcher", encoder.encode(PASSWORD), "Searcher", "1 Main St", "Denver", "CO",
+                    "80202", "555-0100"));
+        }
+    }
+
+    @Test
+    public void shouldFindTacosDesignedThroughTheForm() throws Exception {
+        MvcResult login = mvc.perform(get("/login")).andReturn();
+        MockHttpSession session = (MockHttpSession) login.getRequest().getSession();
+        CsrfToken csrf = (CsrfToken) login.getRequest().getAttribute(CsrfToken.class.getName());
+        String credentials = "searcher:" + PASSWORD;
+
+        mvc.perform(post("/design")
+                .session(session)
+                .header(HttpHeaders.AUTHORIZATION, "Basic "
+                        + Base64.getEncoder().encodeToString(credentials.getBytes(StandardCharsets.UTF_8)))
+                .param(csrf.getParameterName(), csrf.getToken())
+                .param("name", "Fiesta Form Taco")
+                .param("ingredients", "FLTO", "GRBF"))
+                .andExpect(status().is3xxRedirection());
+
+        mvc.perform(get("/api/tacos/search").param("prefix", "fiesta f"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.length()").value(1))
+                .andExpect(jsonPath("$[0].name").value("Fiesta Form Taco"));
+    }
+
+    @Test
+    public void shouldFindTacosSavedThroughTheRepository() throws Exception {
+        List<Ingredient> ingredients = new ArrayList<>();
+        ingredientRepo.findAll().forEach(ingredients::add);
+        Taco taco = new Taco();
+        taco.setName("Repository Rocket");
+        taco.setIngredients(ingredients.subList(0, 2));
+        Long id = tacoRepo.save(taco).getId();
+
+        mvc.perform(get("/api/tacos/search").param("prefix", "REPOSITORY"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$[0].id").value(id.intValue()))
+                .andExpect(jsonPath("$[0].name").value("Repository Rocket"));
+    }
+}
@@ -0,0 +1,60 @@
+package com.moyajor.springinaction.web.api.resource;
+
+import com.moyajor.springinaction.controller.DesignTacoController;
+import com.moyajor.springinaction.model.db.Ingredient;
+import com.moyajor.springinaction.model.db.Taco;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+import org.springframework.mock.web.MockHttpServletRequest;
+import org.springframework.web.context.request.RequestContextHolder;
+import org.springframework.web.context.request.ServletRequestAttributes;
+
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.Date;
+import java.util.List;
+
+import static org.junit.Assert.assertEquals;
+import static org.springframework.hateoas.mvc.ControllerLinkBuilder.linkTo;
+
+/**
+ * The cached link templates must expand to the links {@code linkTo} builds.
+ */
+public class TacoResourceAssemblerTest {
+
+    @Before
+    public void setUp() {
+        MockHttpServletRequest request = new MockHttpServletRequest();
+        request.setServerName("tacos.example");
+        request.setServerPort(8443);
+        request.setScheme("https");
+        RequestContextHolder.setRequestAttributes(new ServletRequestAttributes(request));
+    }
+
+    @After
+    public void tearDown() {
+        RequestContextHolder.resetRequestAttributes();
+    }
+
+    @Test
+    public void shouldBuildTheSameLinksAsLinkTo() {
+        Taco taco = new Taco();
+        taco.setId(42L);
+        taco.setName("Taco 42");
+        taco.setCreatedAt(new Date());
+        taco.setIngredients(Arrays.asList(
+                new Ingredient("FLTO", "Flour Tortilla", Ingredient.Type.WRAP),
+                new Ingredient("SLSA", "Salsa", Ingredient.Type.SAUCE)));
+
+        List<TacoResource> resources = new TacoResourceAssembler("/api/ingredients")
+                .toResources(Collections.singletonList(taco));
+
+        TacoResource resource = resources.get(0);
+        assertEquals(linkTo(DesignTacoController.class).slash(42L).withSelfRel(), resource.getId());
+        assertEquals("https://tacos.example:8443/api/ingredients/FLTO",
+                resource.getIngredients().get(0).getId().getHref());
+        assertEquals("https://tacos.example:8443/api/ingredients/SLSA",
+                resource.getIngredients().get(1).getId().getHref());
+    }
+}
@@ -0,0 +1,57 @@
+package com.moyajor.springinaction.web.diagnostics;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.Test;
+import org.springframework.mock.web.MockHttpServletRequest;
+import org.springframework.mock.web.MockHttpServletResponse;
+import org.springframework.web.method.HandlerMethod;
+import org.springframework.web.servlet.HandlerMapping;
+
+import java.util.Map;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+public class RequestCostFilterTest {
+
+    private static volatile byte[] sink;
+
+    @Test
+    public void shouldAggregateAllocationsPerHandlerMethod() throws Exception {
+        SimpleMeterRegistry registry = new SimpleMeterRegistry();
+        RequestCostFilter filter = new RequestCostFilter(registry);
+        HandlerMethod handler = new HandlerMethod(new DesignHandler(), DesignHandler.class.getMethod("showDesignForm"));
+
+        for (int i = 0; i < 3; i++) {
+            MockHttpServletRequest request = new MockHttpServletRequest("GET", "/");
+            filter.doFilter(request, new MockHttpServletResponse(), (req, res) -> {
+                req.setAttribute(HandlerMapping.BEST_MATCHING_HANDLER_ATTRIBUTE, handler);
+                sink = new byte[1024 * 1024];
+            });
+        }
+
+        Map<String, RequestCostFilter.CostSnapshot> costs = filter.snapshot();
+        RequestCostFilter.CostSnapshot design = costs.get("DesignHandler#showDesignForm");
+        assertEquals(3, design.getRequests());
+        assertTrue("allocated " + design.getMeanAllocatedBytes(), design.getMeanAllocatedBytes() >= 1024 * 1024);
+        assertEquals(3, registry.get("taco.request.allocated").tag("handler", "DesignHandler#showDesignForm").summary().count());
+    }
+
+    @Test
+    public void shouldOnlyMeasureSampledRequests() throws Exception {
+        RequestCostFilter filter = new RequestCostFilter(new SimpleMeterRegistry());
+        filter.setSampleEvery(4);
+
+        for (int i = 0; i < 8; i++) {
+            filter.doFilter(new MockHttpServletRequest("GET", "/design"), new MockHttpServletResponse(), (req, res) -> { });
+        }
+
+        assertEquals(2, filter.snapshot().get("unmapped").getRequests());
+    }
+
+    public static class DesignHandler {
+        public String showDesignForm() {
+            return "design";
+        }
+    }
+}
@@ -0,0 +1,103 @@
+package com.moyajor.springinaction.web.reactive;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.moyajor.springinaction.data.mongodb.OrderRepository;
+import com.moyajor.springinaction.data.mongodb.TacoRepository;
+import com.moyajor.springinaction.model.mongodb.Order;
+import com.moyajor.springinaction.model.mongodb.Taco;
+import com.moyajor.springinaction.model.mongodb.User;
+import org.junit.Test;
+import org.mockito.ArgumentCaptor;
+import org.mockito.Mockito;
+import org.springframework.mock.web.reactive.function.server.MockServerRequest;
+import org.springframework.security.authentication.UsernamePasswordAuthenticationToken;
+import reactor.core.publisher.Mono;
+
+import java.time.Duration;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicReference;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertTrue;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+public class OrderHandlerTest {
+
+    @Test
+    public void shouldSaveTacosWithBoundedConcurrencyInOrder() {
+        AtomicInteger inFlight = new AtomicInteger();
+        AtomicInteger maxInFlight = new AtomicInteger();
+        TacoRepository tacoRepo = Mockito.mock(TacoRepository.class);
+        when(tacoRepo.save(any(Taco.class))).thenAnswer(invocation -> {
+            Taco taco = invocation.getArgument(0);
+            return Mono.delay(Duration.ofMillis(20))
+                    .doOnSubscribe(s -> maxInFlight.accumulateAndGet(inFlight.incrementAndGet(), Math::max))
+                    .doOnTerminate(inFlight::decrementAndGet)
+                    .map(tick -> {
+                        taco.setId("saved-" + taco.getName());
+                        return taco;
+                    });
+        });
+        OrderRepository orderRepo = Mockito.mock(OrderRepository.class);
+        when(orderRepo.save(any(Order.class))).thenAnswer(invocation -> Mono.just(invocation.getArgument(0)));
+
+        OrderHandler handler = new OrderHandler(tacoRepo, orderRepo);
+        handler.setTacoWriteConcurrency(3);
+        Order order = new Order();
+        for (int i = 0; i < 10; i++) {
+            Taco taco = new Taco();
+            taco.setName("Taco " + i);
+            order.addDesign(taco);
+        }
+
+        Order saved = handler.saveOrder(order).block(Duration.ofSeconds(5));
+
+        assertEquals(10, saved.getTacos().size());
+        assertEquals("saved-Taco 0", saved.getTacos().get(0).getId());
+        assertEquals("saved-Taco 9", saved.getTacos().get(9).getId());
+        assertTrue(maxInFlight.get() <= 3);
+    }
+
+    @Test
+    public void shouldIgnoreIdsAndCustomerSentByTheClient() throws Exception {
+        TacoRepository tacoRepo = Mockito.mock(TacoRepository.class);
+        when(tacoRepo.save(any(Taco.class))).thenAnswer(invocation -> Mono.just(invocation.getArgument(0)));
+        OrderRepository orderRepo = Mockito.mock(OrderRepository.class);
+        AtomicReference<String> idToSave = new AtomicReference<>("not saved");
+        when(orderRepo.save(any(Order.class))).thenAnswer(invocation -> {
+            Order order = invocation.getArgument(0);
+            idToSave.set(order.getId());
+            order.setId("new-order");
+            return Mono.just(order);
+        });
+        User customer = new User("jane", "$2a$10$hash", "Jane Doe", "1 Main St", "Denver", "CO", "80202", "555-0100");
+        Order forged = new Order();
+        forged.setId("someone-elses-order");
+        forged.setUser(new User("victim", null, "Victim", null, null, null, null, null));
+        Taco taco = new Taco();
+        taco.setId("someone-elses-taco");
+        taco.setName("Forged Taco");
+        forged.addDesign(taco);
+        MockServerRequest request = MockServerRequest.builder()
+                .principal(new UsernamePasswordAuthenticationToken(customer, null, customer.getAuthorities()))
+                .body(Mono.just(forged));
+
+        new OrderHandler(tacoRepo, orderRepo).placeOrder(request).block(Duration.ofSeconds(5));
+
+        ArgumentCaptor<Taco> savedTaco = ArgumentCaptor.forClass(Taco.class);
+        verify(tacoRepo).save(savedTaco.capture());
+        assertNull(savedTaco.getValue().getId());
+        ArgumentCaptor<Order> savedOrder = ArgumentCaptor.forClass(Order.class);
+        verify(orderRepo).save(savedOrder.capture());
+        assertNull(idToSave.get());
+        assertEquals("jane", savedOrder.getValue().getUser().getUsername());
+
+        String json = new ObjectMapper().writeValueAsString(savedOrder.getValue());
+        assertFalse(json, json.contains("password"));
+        assertFalse(json, json.contains("$2a$10$hash"));
+    }
+}